@@ -0,0 +1,146 @@
+package com.example.analytics;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+/**
+ * Словарь строк: уникальные значения хранятся подряд в одной куче UTF-8 байтов,
+ * каждой строке соответствует код — её порядковый номер при добавлении.
+ * <p>
+ * Словарь только растёт, поэтому ранее выданные {@link View} остаются корректными
+ * при дальнейших добавлениях. Добавлять строки может только один поток,
+ * читать через {@link View} — любое количество потоков.
+ */
+final class StringDictionary {
+
+    private byte[] heap = new byte[4096];
+    private int heapSize;
+
+    /** offsets[code] — начало строки в куче, offsets[code + 1] — её конец. */
+    private int[] offsets = new int[1025];
+    private int count;
+
+    /** Открытая адресация: код + 1, ноль — пустая ячейка. */
+    private int[] slots = new int[2048];
+
+    /**
+     * Возвращает код строки, добавляя её в словарь при необходимости.
+     */
+    int encode(String value) {
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        int code = find(heap, offsets, slots, count, bytes);
+        if (code >= 0) {
+            return code;
+        }
+        return append(bytes);
+    }
+
+    View view() {
+        return new View(heap, offsets, slots, count);
+    }
+
+    private int append(byte[] bytes) {
+        if ((count + 1) * 2 > slots.length) {
+            rehash(slots.length * 2);
+        }
+        if (heapSize + bytes.length > heap.length) {
+            heap = Arrays.copyOf(heap, Math.max(heap.length * 2, heapSize + bytes.length));
+        }
+        if (count + 2 > offsets.length) {
+            offsets = Arrays.copyOf(offsets, offsets.length * 2);
+        }
+
+        System.arraycopy(bytes, 0, heap, heapSize, bytes.length);
+        heapSize += bytes.length;
+        int code = count;
+        offsets[code + 1] = heapSize;
+        count++;
+
+        // Ячейка публикуется последней: читатель либо не видит код, либо видит его целиком
+        insertSlot(slots, hash(bytes, 0, bytes.length), code);
+        return code;
+    }
+
+    private void rehash(int capacity) {
+        int[] newSlots = new int[capacity];
+        for (int code = 0; code < count; code++) {
+            int start = offsets[code];
+            insertSlot(newSlots, hash(heap, start, offsets[code + 1] - start), code);
+        }
+        slots = newSlots;
+    }
+
+    private static void insertSlot(int[] table, int hash, int code) {
+        int mask = table.length - 1;
+        int i = hash & mask;
+        while (table[i] != 0) {
+            i = (i + 1) & mask;
+        }
+        table[i] = code + 1;
+    }
+
+    private static int find(byte[] heap, int[] offsets, int[] slots, int count, byte[] bytes) {
+        int mask = slots.length - 1;
+        for (int i = hash(bytes, 0, bytes.length) & mask; ; i = (i + 1) & mask) {
+            int slot = slots[i];
+            if (slot == 0) {
+                return -1;
+            }
+            int code = slot - 1;
+            if (code < count) {
+                int start = offsets[code];
+                int end = offsets[code + 1];
+                if (Arrays.equals(heap, start, end, bytes, 0, bytes.length)) {
+                    return code;
+                }
+            }
+        }
+    }
+
+    private static int hash(byte[] bytes, int from, int length) {
+        int h = 1;
+        for (int i = from; i < from + length; i++) {
+            h = 31 * h + bytes[i];
+        }
+        h *= 0x9E3779B9;
+        return h ^ (h >>> 16);
+    }
+
+    /**
+     * Неизменяемое представление словаря на момент его создания.
+     */
+    static final class View {
+
+        private final byte[] heap;
+        private final int[] offsets;
+        private final int[] slots;
+        private final int count;
+
+        private View(byte[] heap, int[] offsets, int[] slots, int count) {
+            this.heap = heap;
+            this.offsets = offsets;
+            this.slots = slots;
+            this.count = count;
+        }
+
+        String get(int code) {
+            int start = offsets[code];
+            return new String(heap, start, offsets[code + 1] - start, StandardCharsets.UTF_8);
+        }
+
+        /**
+         * Возвращает код строки или -1, если её нет в словаре.
+         */
+        int find(String value) {
+            return StringDictionary.find(heap, offsets, slots, count, value.getBytes(StandardCharsets.UTF_8));
+        }
+
+        int size() {
+            return count;
+        }
+
+        long estimatedBytes() {
+            return heap.length + 4L * offsets.length + 4L * slots.length;
+        }
+    }
+}
@@ -0,0 +1,124 @@
+package com.example.analytics;
+
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.stream.IntStream;
+
+/**
+ * Неизменяемый колоночный снимок таблицы users для аналитических проходов.
+ * <p>
+ * ID хранятся в {@code long[]}, возраст — в одном байте (0 — возраст не указан),
+ * дата регистрации — в секундах эпохи UTC как беззнаковый {@code int},
+ * имена и email — кодами словарей {@link StringDictionary}.
+ * Строки пронумерованы от 0 до {@link #size()} - 1 в порядке загрузки.
+ */
+public final class UserColumnarSnapshot {
+
+    private final int size;
+    private final long[] ids;
+    private final byte[] ages;
+    private final int[] createdAtSeconds;
+    private final int[] nameCodes;
+    private final int[] emailCodes;
+    private final StringDictionary.View names;
+    private final StringDictionary.View emails;
+
+    UserColumnarSnapshot(int size, long[] ids, byte[] ages, int[] createdAtSeconds,
+                         int[] nameCodes, int[] emailCodes,
+                         StringDictionary.View names, StringDictionary.View emails) {
+        this.size = size;
+        this.ids = ids;
+        this.ages = ages;
+        this.createdAtSeconds = createdAtSeconds;
+        this.nameCodes = nameCodes;
+        this.emailCodes = emailCodes;
+        this.names = names;
+        this.emails = emails;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public long id(int row) {
+        return ids[row];
+    }
+
+    /**
+     * Возвращает возраст или -1, если он не указан.
+     */
+    public int age(int row) {
+        return (ages[row] & 0xFF) - 1;
+    }
+
+    public long createdAtEpochSecond(int row) {
+        return Integer.toUnsignedLong(createdAtSeconds[row]);
+    }
+
+    public LocalDateTime createdAt(int row) {
+        return LocalDateTime.ofEpochSecond(createdAtEpochSecond(row), 0, ZoneOffset.UTC);
+    }
+
+    public String name(int row) {
+        return names.get(nameCodes[row]);
+    }
+
+    public String email(int row) {
+        return emails.get(emailCodes[row]);
+    }
+
+    public int nameCode(int row) {
+        return nameCodes[row];
+    }
+
+    public int emailCode(int row) {
+        return emailCodes[row];
+    }
+
+    /**
+     * Возвращает код имени для сравнения через {@link #nameCode(int)} без декодирования строк,
+     * или -1, если такого имени в снимке нет.
+     */
+    public int findNameCode(String name) {
+        return names.find(name);
+    }
+
+    /**
+     * Возвращает код email или -1, если такого email в снимке нет.
+     */
+    public int findEmailCode(String email) {
+        return emails.find(email);
+    }
+
+    /**
+     * Параллельно подсчитывает строки, удовлетворяющие условию.
+     */
+    public long count(UserRowPredicate predicate) {
+        return rows(predicate).count();
+    }
+
+    /**
+     * Параллельно отбирает ID пользователей, удовлетворяющих условию.
+     */
+    public long[] filterIds(UserRowPredicate predicate) {
+        return rows(predicate).mapToLong(row -> ids[row]).toArray();
+    }
+
+    /**
+     * Возвращает параллельный поток номеров строк, удовлетворяющих условию.
+     */
+    public IntStream rows(UserRowPredicate predicate) {
+        return IntStream.range(0, size)
+                .parallel()
+                .filter(row -> predicate.test(this, row));
+    }
+
+    /**
+     * Приблизительный объём памяти, занятый колонками и словарями.
+     */
+    public long estimatedBytes() {
+        return 8L * ids.length + ages.length + 4L * createdAtSeconds.length
+                + 4L * nameCodes.length + 4L * emailCodes.length
+                + names.estimatedBytes() + emails.estimatedBytes();
+    }
+}
@@ -0,0 +1,140 @@
+package com.example.analytics;
+
+import com.example.entity.UserEntity;
+import com.example.repository.UserDao;
+import lombok.extern.slf4j.Slf4j;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Колоночная реплика таблицы users, пополняемая инкрементально.
+ * <p>
+ * {@link #refresh()} дочитывает строки с ID больше водяного знака. Так как ID выдаются
+ * при вставке, а коммиты приходят не по порядку, водяной знак сдвигается только по строкам,
+ * созданным раньше чем {@code settleWindow} назад; более свежие строки перечитываются
+ * при следующем обновлении, а уже загруженные среди них пропускаются.
+ * Изменения и удаления существующих строк в реплику не попадают — для них нужна
+ * новая реплика.
+ * <p>
+ * Обновлять реплику может один поток за раз; снимки, полученные через {@link #snapshot()},
+ * можно читать из любых потоков.
+ */
+@Slf4j
+public class UserColumnarStore {
+
+    private static final int DEFAULT_BATCH_SIZE = 10_000;
+    private static final Duration DEFAULT_SETTLE_WINDOW = Duration.ofMinutes(1);
+    private static final int INITIAL_CAPACITY = 1024;
+
+    private final UserDao userDao;
+    private final int batchSize;
+    private final Duration settleWindow;
+
+    private final StringDictionary names = new StringDictionary();
+    private final StringDictionary emails = new StringDictionary();
+
+    private long[] ids = new long[INITIAL_CAPACITY];
+    private byte[] ages = new byte[INITIAL_CAPACITY];
+    private int[] createdAtSeconds = new int[INITIAL_CAPACITY];
+    private int[] nameCodes = new int[INITIAL_CAPACITY];
+    private int[] emailCodes = new int[INITIAL_CAPACITY];
+    private int size;
+
+    /** Все строки с ID не больше этого значения уже загружены окончательно. */
+    private long settledWatermark;
+    /** Загруженные ID больше водяного знака. */
+    private final Set<Long> unsettledIds = new HashSet<>();
+
+    private volatile UserColumnarSnapshot snapshot;
+
+    public UserColumnarStore(UserDao userDao, int batchSize, Duration settleWindow) {
+        this.userDao = userDao;
+        this.batchSize = batchSize;
+        this.settleWindow = settleWindow;
+        this.snapshot = buildSnapshot();
+    }
+
+    public UserColumnarStore(UserDao userDao) {
+        this(userDao, DEFAULT_BATCH_SIZE, DEFAULT_SETTLE_WINDOW);
+    }
+
+    /**
+     * Возвращает последний опубликованный снимок.
+     */
+    public UserColumnarSnapshot snapshot() {
+        return snapshot;
+    }
+
+    /**
+     * Дочитывает новые строки и публикует новый снимок.
+     */
+    public synchronized UserColumnarSnapshot refresh() {
+        LocalDateTime settleBefore = LocalDateTime.now().minus(settleWindow);
+        long newWatermark = settledWatermark;
+        boolean settling = true;
+        int appended = 0;
+
+        Long cursor = settledWatermark;
+        List<UserEntity> batch;
+        do {
+            batch = userDao.findAfterId(cursor, batchSize);
+            for (UserEntity user : batch) {
+                long id = user.getId();
+                if (!unsettledIds.contains(id)) {
+                    append(user);
+                    appended++;
+                }
+                if (settling && user.getCreatedAt().isBefore(settleBefore)) {
+                    newWatermark = id;
+                } else {
+                    settling = false;
+                    unsettledIds.add(id);
+                }
+            }
+            if (!batch.isEmpty()) {
+                cursor = batch.get(batch.size() - 1).getId();
+            }
+        } while (batch.size() == batchSize);
+
+        long watermark = newWatermark;
+        unsettledIds.removeIf(id -> id <= watermark);
+        settledWatermark = watermark;
+
+        snapshot = buildSnapshot();
+        log.info("Колоночная реплика обновлена: добавлено {}, всего {}, водяной знак id {}",
+                appended, size, settledWatermark);
+        return snapshot;
+    }
+
+    private void append(UserEntity user) {
+        if (size == ids.length) {
+            int capacity = ids.length * 2;
+            ids = Arrays.copyOf(ids, capacity);
+            ages = Arrays.copyOf(ages, capacity);
+            createdAtSeconds = Arrays.copyOf(createdAtSeconds, capacity);
+            nameCodes = Arrays.copyOf(nameCodes, capacity);
+            emailCodes = Arrays.copyOf(emailCodes, capacity);
+        }
+        ids[size] = user.getId();
+        ages[size] = (byte) (user.getAge() != null ? user.getAge() + 1 : 0);
+        createdAtSeconds[size] = (int) user.getCreatedAt().toEpochSecond(ZoneOffset.UTC);
+        nameCodes[size] = names.encode(user.getName());
+        emailCodes[size] = emails.encode(user.getEmail());
+        size++;
+    }
+
+    /**
+     * Снимок ссылается на текущие массивы: дальнейшие добавления пишут только за его границу,
+     * а при расширении массивы копируются, поэтому опубликованные снимки не меняются.
+     */
+    private UserColumnarSnapshot buildSnapshot() {
+        return new UserColumnarSnapshot(size, ids, ages, createdAtSeconds, nameCodes, emailCodes,
+                names.view(), emails.view());
+    }
+}
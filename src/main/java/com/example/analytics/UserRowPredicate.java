@@ -0,0 +1,35 @@
+package com.example.analytics;
+
+/**
+ * Условие отбора строки колоночного снимка.
+ * Должно быть потокобезопасным: проверки выполняются параллельно.
+ */
+@FunctionalInterface
+public interface UserRowPredicate {
+
+    boolean test(UserColumnarSnapshot snapshot, int row);
+
+    default UserRowPredicate and(UserRowPredicate other) {
+        return (snapshot, row) -> test(snapshot, row) && other.test(snapshot, row);
+    }
+
+    /**
+     * Возраст в диапазоне [minAge, maxAge]; пользователи без возраста не проходят.
+     */
+    static UserRowPredicate ageBetween(int minAge, int maxAge) {
+        return (snapshot, row) -> {
+            int age = snapshot.age(row);
+            return age >= minAge && age <= maxAge;
+        };
+    }
+
+    /**
+     * Дата регистрации в диапазоне [fromEpochSecond, toEpochSecond).
+     */
+    static UserRowPredicate createdBetween(long fromEpochSecond, long toEpochSecond) {
+        return (snapshot, row) -> {
+            long createdAt = snapshot.createdAtEpochSecond(row);
+            return createdAt >= fromEpochSecond && createdAt < toEpochSecond;
+        };
+    }
+}
@@ -0,0 +1,146 @@
+package com.example.cache;
+
+import com.example.dto.ChangeWatermark;
+import com.example.dto.UserChange;
+import com.example.entity.UserEntity;
+import com.example.repository.NearCacheUserDao;
+import com.example.repository.UserDao;
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * Сохраняет содержимое {@link NearCacheUserDao} в {@link UserCacheSnapshot} при остановке
+ * и загружает его при запуске, чтобы после деплоя кэш не начинал с нуля.
+ * <p>
+ * При загрузке снимок сверяется с БД по ленте изменений: читаются изменения, сделанные после
+ * момента снимка за вычетом допустимого устаревания кэша, и затронутые ими пользователи не загружаются.
+ * Если изменений больше {@code maxChanges}, снимок слишком стар и отбрасывается целиком.
+ * Дополнительно самая свежая запись снимка сверяется по {@link UserDao#findUpdatedAt(Long)}:
+ * несовпадение, не объяснённое лентой, означает другую БД или ошибку чтения, и снимок тоже отбрасывается.
+ * <p>
+ * Вместе с {@link UserChangeListener} снимок загружается через {@link #load(UserChangeListener, long)}:
+ * слушатель очищает кэш при подписке, поэтому загрузка ждёт её. Изменения после подписки вытесняет
+ * слушатель, изменения до неё отсеивает лента.
+ */
+@Slf4j
+public class NearCacheWarmer {
+
+    private final NearCacheUserDao cache;
+    private final UserDao source;
+    private final Path snapshotFile;
+    private final int maxChanges;
+
+    /**
+     * @param source DAO, из которого читаются лента изменений и версии (без кэша), с нулевым окном
+     *               устоявшихся записей: иначе изменения последних секунд не попали бы в сверку снимка
+     * @throws IllegalArgumentException если у {@code source} ненулевое окно устоявшихся записей
+     */
+    public NearCacheWarmer(NearCacheUserDao cache, UserDao source, Path snapshotFile, int maxChanges) {
+        if (!source.getChangeFeedSettleWindow().isZero()) {
+            throw new IllegalArgumentException("Лента изменений для прогрева кэша не должна придерживать изменения, окно: "
+                    + source.getChangeFeedSettleWindow());
+        }
+        this.cache = cache;
+        this.source = source;
+        this.snapshotFile = snapshotFile;
+        this.maxChanges = maxChanges;
+    }
+
+    public NearCacheWarmer(NearCacheUserDao cache, UserDao source, Path snapshotFile) {
+        this(cache, source, snapshotFile, 10_000);
+    }
+
+    /**
+     * Записывает снимок текущего содержимого кэша.
+     *
+     * @return число сохранённых пользователей
+     */
+    public int save() throws IOException {
+        LocalDateTime takenAt = LocalDateTime.now().truncatedTo(ChronoUnit.MICROS);
+        List<UserEntity> users = cache.cachedUsers();
+        UserCacheSnapshot.write(snapshotFile, takenAt, users);
+        log.info("Снимок кэша пользователей записан: {} записей в {}", users.size(), snapshotFile);
+        return users.size();
+    }
+
+    /**
+     * Загружает снимок, если он есть и согласуется с БД. Ошибки чтения логируются,
+     * кэш в этом случае просто остаётся пустым.
+     *
+     * @return число загруженных пользователей
+     */
+    public int load() {
+        if (!Files.exists(snapshotFile)) {
+            return 0;
+        }
+        UserCacheSnapshot snapshot;
+        try {
+            snapshot = UserCacheSnapshot.read(snapshotFile);
+        } catch (IOException e) {
+            log.warn("Снимок кэша пользователей {} не прочитан", snapshotFile, e);
+            return 0;
+        }
+
+        LocalDateTime since = snapshot.getTakenAt().minus(cache.getMaxStalenessMillis(), ChronoUnit.MILLIS);
+        List<UserChange> changes = source.findChangedSince(new ChangeWatermark(since, 0L), maxChanges + 1);
+        if (changes.size() > maxChanges) {
+            log.info("Снимок кэша от {} отброшен: после него больше {} изменений", snapshot.getTakenAt(), maxChanges);
+            return 0;
+        }
+        Set<Long> changed = changes.stream().map(UserChange::getUserId).collect(Collectors.toSet());
+        List<UserEntity> valid = snapshot.getUsers().stream()
+                .filter(user -> !changed.contains(user.getId()))
+                .toList();
+
+        if (!matchesDatabase(valid)) {
+            log.warn("Снимок кэша от {} не согласуется с БД и отброшен", snapshot.getTakenAt());
+            return 0;
+        }
+        int restored = cache.restore(valid);
+        log.info("Кэш пользователей прогрет из снимка от {}: {} записей, {} изменились после снимка",
+                snapshot.getTakenAt(), restored, snapshot.getUsers().size() - valid.size());
+        return restored;
+    }
+
+    /**
+     * Загружает снимок после того, как {@code listener} подписался на уведомления об изменениях.
+     * Если подписка не состоялась за {@code subscribeTimeoutMillis}, снимок не загружается:
+     * подписка позже всё равно очистила бы кэш.
+     *
+     * @return число загруженных пользователей
+     */
+    public int load(UserChangeListener listener, long subscribeTimeoutMillis) {
+        try {
+            if (!listener.awaitSubscribed(subscribeTimeoutMillis)) {
+                log.warn("Слушатель изменений не подписался за {} мс, снимок кэша не загружается", subscribeTimeoutMillis);
+                return 0;
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return 0;
+        }
+        return load();
+    }
+
+    private boolean matchesDatabase(List<UserEntity> users) {
+        Optional<UserEntity> newest = users.stream()
+                .filter(user -> user.getUpdatedAt() != null)
+                .max(Comparator.comparing(UserEntity::getUpdatedAt));
+        if (newest.isEmpty()) {
+            return true;
+        }
+        return source.findUpdatedAt(newest.get().getId())
+                .map(updatedAt -> updatedAt.equals(newest.get().getUpdatedAt()))
+                .orElse(false);
+    }
+}
@@ -0,0 +1,135 @@
+package com.example.cache;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.LongSupplier;
+import java.util.function.Supplier;
+
+/**
+ * Кэш результатов запросов одного региона (таблицы) с вытеснением по размеру (LRU) и времени жизни.
+ * <p>
+ * Актуальность контролируется версией региона: каждая запись помнит версию, при которой
+ * начался её запрос, а любая запись в таблицу обрамляется вызовами
+ * {@link #beginInvalidation()} / {@link #endInvalidation()}. Пока запись в БД не завершена,
+ * кэш не отдаёт и не сохраняет результаты, а после её завершения все старые записи
+ * становятся недействительными. Поэтому чтение, начатое после коммита, никогда не вернёт
+ * данные, закэшированные до него.
+ */
+@Slf4j
+public class QueryResultCache {
+
+    private final int maxSize;
+    private final long ttlNanos;
+    private final LongSupplier clock;
+
+    private final Map<QueryKey, CacheEntry> entries;
+    private final AtomicLong regionVersion = new AtomicLong();
+    private final AtomicInteger writesInFlight = new AtomicInteger();
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+
+    public QueryResultCache(int maxSize, long ttlMillis) {
+        this(maxSize, ttlMillis, System::nanoTime);
+    }
+
+    QueryResultCache(int maxSize, long ttlMillis, LongSupplier clock) {
+        if (maxSize <= 0 || ttlMillis <= 0) {
+            throw new IllegalArgumentException("Размер и TTL кэша должны быть положительными");
+        }
+        this.maxSize = maxSize;
+        this.ttlNanos = ttlMillis * 1_000_000L;
+        this.clock = clock;
+        this.entries = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<QueryKey, CacheEntry> eldest) {
+                return size() > QueryResultCache.this.maxSize;
+            }
+        };
+    }
+
+    /**
+     * Возвращает закэшированный результат запроса или выполняет {@code loader}.
+     *
+     * @param queryName имя запроса
+     * @param loader    выполняет запрос к БД
+     * @param params    параметры запроса (вместе с именем образуют ключ)
+     */
+    @SuppressWarnings("unchecked")
+    public <T> T get(String queryName, Supplier<T> loader, Object... params) {
+        QueryKey key = new QueryKey(queryName, Arrays.asList(params));
+        long version = regionVersion.get();
+
+        if (writesInFlight.get() == 0) {
+            synchronized (entries) {
+                CacheEntry entry = entries.get(key);
+                if (entry != null && entry.version == version && !isExpired(entry)) {
+                    hits.increment();
+                    return (T) entry.value;
+                }
+            }
+        }
+
+        misses.increment();
+        T value = loader.get();
+
+        synchronized (entries) {
+            // Результат сохраняется, только если за время запроса таблица не менялась
+            if (writesInFlight.get() == 0 && regionVersion.get() == version) {
+                entries.put(key, new CacheEntry(value, version, clock.getAsLong()));
+            }
+        }
+        return value;
+    }
+
+    /**
+     * Вызывается перед записью в таблицу: кэш перестаёт отдавать и сохранять результаты.
+     */
+    public void beginInvalidation() {
+        writesInFlight.incrementAndGet();
+        regionVersion.incrementAndGet();
+    }
+
+    /**
+     * Вызывается после завершения записи (коммита или отката): все прежние результаты устаревают.
+     */
+    public void endInvalidation() {
+        synchronized (entries) {
+            regionVersion.incrementAndGet();
+            entries.clear();
+        }
+        writesInFlight.decrementAndGet();
+        log.debug("Кэш запросов инвалидирован, версия региона {}", regionVersion.get());
+    }
+
+    public long getHitCount() {
+        return hits.sum();
+    }
+
+    public long getMissCount() {
+        return misses.sum();
+    }
+
+    public int size() {
+        synchronized (entries) {
+            return entries.size();
+        }
+    }
+
+    private boolean isExpired(CacheEntry entry) {
+        return clock.getAsLong() - entry.createdAtNanos > ttlNanos;
+    }
+
+    private record QueryKey(String queryName, List<Object> params) {
+    }
+
+    private record CacheEntry(Object value, long version, long createdAtNanos) {
+    }
+}
@@ -0,0 +1,191 @@
+package com.example.cache;
+
+import com.example.entity.UserEntity;
+
+import java.io.IOException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.zip.CRC32;
+
+/**
+ * Снимок закэшированных пользователей в файле, отображаемом в память.
+ * <p>
+ * Формат: заголовок (магическое число, версия формата, время снимка в микросекундах UTC, число записей),
+ * затем записи фиксированного порядка полей — ID, createdAt (секунды), updatedAt (микросекунды), возраст,
+ * name, email, email_normalized как UTF-8 с длиной — и CRC32 всего предшествующего содержимого.
+ * Индекс email → ID восстанавливается по email_normalized при загрузке.
+ * Файл пишется во временный и атомарно переименовывается, поэтому обрыв записи не портит прежний снимок.
+ */
+public final class UserCacheSnapshot {
+
+    private static final int MAGIC = 0x55534E50;
+    private static final short FORMAT_VERSION = 1;
+    private static final int HEADER_BYTES = Integer.BYTES + Short.BYTES + Long.BYTES + Integer.BYTES;
+
+    private static final long NULL_TIME = Long.MIN_VALUE;
+    private static final int NULL_AGE = Integer.MIN_VALUE;
+    private static final int NULL_STRING = -1;
+    private static final int MIN_RECORD_BYTES = 3 * Long.BYTES + Integer.BYTES + 3 * Integer.BYTES;
+
+    private final LocalDateTime takenAt;
+    private final List<UserEntity> users;
+
+    public UserCacheSnapshot(LocalDateTime takenAt, List<UserEntity> users) {
+        this.takenAt = takenAt;
+        this.users = users;
+    }
+
+    /**
+     * Время снимка: кэш был согласован с БД на этот момент с точностью до допустимого устаревания.
+     */
+    public LocalDateTime getTakenAt() {
+        return takenAt;
+    }
+
+    public List<UserEntity> getUsers() {
+        return users;
+    }
+
+    /**
+     * Записывает снимок в {@code file}, заменяя прежний.
+     */
+    public static void write(Path file, LocalDateTime takenAt, Collection<UserEntity> users) throws IOException {
+        List<byte[][]> strings = new ArrayList<>(users.size());
+        long size = HEADER_BYTES + Long.BYTES;
+        for (UserEntity user : users) {
+            byte[][] encoded = {utf8(user.getName()), utf8(user.getEmail()), utf8(user.getEmailNormalized())};
+            strings.add(encoded);
+            size += 3L * Long.BYTES + Integer.BYTES;
+            for (byte[] s : encoded) {
+                size += Integer.BYTES + (s != null ? s.length : 0);
+            }
+        }
+        if (size > Integer.MAX_VALUE) {
+            throw new IOException("Снимок кэша слишком велик: " + size + " байт");
+        }
+
+        Path tmp = file.resolveSibling(file.getFileName() + ".tmp");
+        try (FileChannel channel = FileChannel.open(tmp, StandardOpenOption.CREATE, StandardOpenOption.READ,
+                StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, size);
+            buffer.putInt(MAGIC);
+            buffer.putShort(FORMAT_VERSION);
+            buffer.putLong(toMicros(takenAt));
+            buffer.putInt(users.size());
+            int i = 0;
+            for (UserEntity user : users) {
+                buffer.putLong(user.getId());
+                buffer.putLong(user.getCreatedAt() != null
+                        ? user.getCreatedAt().toEpochSecond(ZoneOffset.UTC) : NULL_TIME);
+                buffer.putLong(user.getUpdatedAt() != null ? toMicros(user.getUpdatedAt()) : NULL_TIME);
+                buffer.putInt(user.getAge() != null ? user.getAge() : NULL_AGE);
+                for (byte[] s : strings.get(i++)) {
+                    putString(buffer, s);
+                }
+            }
+            buffer.putLong(checksum(buffer, buffer.position()));
+            buffer.force();
+        }
+        Files.move(tmp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    /**
+     * Читает снимок из {@code file}.
+     *
+     * @throws IOException если файл повреждён, обрезан или записан другой версией формата
+     */
+    public static UserCacheSnapshot read(Path file) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            long size = channel.size();
+            if (size < HEADER_BYTES + Long.BYTES || size > Integer.MAX_VALUE) {
+                throw new IOException("Некорректный размер снимка кэша: " + size);
+            }
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, size);
+            int bodyBytes = (int) size - Long.BYTES;
+            if (buffer.getLong(bodyBytes) != checksum(buffer, bodyBytes)) {
+                throw new IOException("Контрольная сумма снимка кэша не совпадает");
+            }
+            if (buffer.getInt() != MAGIC) {
+                throw new IOException("Файл не является снимком кэша пользователей");
+            }
+            short version = buffer.getShort();
+            if (version != FORMAT_VERSION) {
+                throw new IOException("Неподдерживаемая версия снимка кэша: " + version);
+            }
+            LocalDateTime takenAt = fromMicros(buffer.getLong());
+            int count = buffer.getInt();
+            if (count < 0 || count > (bodyBytes - HEADER_BYTES) / MIN_RECORD_BYTES) {
+                throw new IOException("Некорректное число записей в снимке кэша: " + count);
+            }
+            List<UserEntity> users = new ArrayList<>(count);
+            for (int i = 0; i < count; i++) {
+                long id = buffer.getLong();
+                long createdAt = buffer.getLong();
+                long updatedAt = buffer.getLong();
+                int age = buffer.getInt();
+                UserEntity user = new UserEntity(id, getString(buffer), getString(buffer),
+                        age != NULL_AGE ? age : null,
+                        createdAt != NULL_TIME ? LocalDateTime.ofEpochSecond(createdAt, 0, ZoneOffset.UTC) : null);
+                user.setEmailNormalized(getString(buffer));
+                user.setUpdatedAt(updatedAt != NULL_TIME ? fromMicros(updatedAt) : null);
+                users.add(user);
+            }
+            return new UserCacheSnapshot(takenAt, users);
+        } catch (BufferUnderflowException | IllegalArgumentException e) {
+            throw new IOException("Снимок кэша повреждён", e);
+        }
+    }
+
+    private static long checksum(ByteBuffer buffer, int length) {
+        CRC32 crc = new CRC32();
+        crc.update(buffer.slice(0, length));
+        return crc.getValue();
+    }
+
+    private static byte[] utf8(String value) {
+        return value != null ? value.getBytes(StandardCharsets.UTF_8) : null;
+    }
+
+    private static void putString(ByteBuffer buffer, byte[] value) {
+        if (value == null) {
+            buffer.putInt(NULL_STRING);
+            return;
+        }
+        buffer.putInt(value.length);
+        buffer.put(value);
+    }
+
+    private static String getString(ByteBuffer buffer) {
+        int length = buffer.getInt();
+        if (length == NULL_STRING) {
+            return null;
+        }
+        if (length < 0 || length > buffer.remaining()) {
+            throw new IllegalArgumentException("Некорректная длина строки: " + length);
+        }
+        byte[] bytes = new byte[length];
+        buffer.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    private static long toMicros(LocalDateTime time) {
+        return time.toEpochSecond(ZoneOffset.UTC) * 1_000_000L + time.getNano() / 1_000;
+    }
+
+    private static LocalDateTime fromMicros(long micros) {
+        return LocalDateTime.ofEpochSecond(Math.floorDiv(micros, 1_000_000L),
+                (int) Math.floorMod(micros, 1_000_000L) * 1_000, ZoneOffset.UTC);
+    }
+}
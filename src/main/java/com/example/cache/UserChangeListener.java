@@ -0,0 +1,147 @@
+package com.example.cache;
+
+import com.example.repository.NearCacheUserDao;
+import lombok.extern.slf4j.Slf4j;
+import org.hibernate.Session;
+import org.hibernate.SessionFactory;
+import org.postgresql.PGConnection;
+import org.postgresql.PGNotification;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Слушает канал PostgreSQL {@value #CHANNEL} (см. db/users_change_notify.sql) и вытесняет
+ * изменённых пользователей из {@link NearCacheUserDao}.
+ * <p>
+ * Поток держит отдельное соединение и ждёт уведомлений до {@code pollMillis}; всё, что пришло
+ * за одно ожидание, вытесняется одним пакетом. Пока соединения нет, уведомления теряются,
+ * поэтому после каждого (пере)подключения кэш очищается целиком. Снимок кэша
+ * ({@link NearCacheWarmer#load(UserChangeListener, long)}) загружается только после первой подписки,
+ * иначе эта очистка его стёрла бы.
+ */
+@Slf4j
+public class UserChangeListener implements AutoCloseable {
+
+    public static final String CHANNEL = "user_changes";
+
+    private static final long RECONNECT_DELAY_MILLIS = 1_000;
+
+    private final SessionFactory sessionFactory;
+    private final NearCacheUserDao cache;
+    private final int pollMillis;
+
+    private final LongAdder notifications = new LongAdder();
+    private final LongAdder reconnects = new LongAdder();
+    private final CountDownLatch subscribed = new CountDownLatch(1);
+    private volatile boolean closed;
+
+    private final Thread listener;
+
+    public UserChangeListener(SessionFactory sessionFactory, NearCacheUserDao cache, int pollMillis) {
+        this.sessionFactory = sessionFactory;
+        this.cache = cache;
+        this.pollMillis = pollMillis;
+
+        this.listener = new Thread(this::listenLoop, "user-change-listener");
+        this.listener.setDaemon(true);
+        this.listener.start();
+    }
+
+    public UserChangeListener(SessionFactory sessionFactory, NearCacheUserDao cache) {
+        this(sessionFactory, cache, 500);
+    }
+
+    /**
+     * Возвращает число полученных уведомлений с момента запуска.
+     */
+    public long getNotificationCount() {
+        return notifications.sum();
+    }
+
+    /**
+     * Возвращает число переподключений после ошибок соединения.
+     */
+    public long getReconnectCount() {
+        return reconnects.sum();
+    }
+
+    /**
+     * Ждёт первой подписки на канал до {@code timeoutMillis}.
+     *
+     * @return true, если слушатель подписан и кэш после этого больше не очищается без переподключения
+     */
+    public boolean awaitSubscribed(long timeoutMillis) throws InterruptedException {
+        return subscribed.await(timeoutMillis, TimeUnit.MILLISECONDS);
+    }
+
+    @Override
+    public void close() {
+        closed = true;
+        listener.interrupt();
+        try {
+            listener.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        log.info("Слушатель изменений пользователей остановлен, получено уведомлений: {}", getNotificationCount());
+    }
+
+    private void listenLoop() {
+        while (!closed) {
+            try (Session session = sessionFactory.openSession()) {
+                session.doWork(this::listen);
+            } catch (Exception e) {
+                if (closed) {
+                    return;
+                }
+                reconnects.increment();
+                log.warn("Соединение слушателя изменений потеряно, повтор через {} мс", RECONNECT_DELAY_MILLIS, e);
+                try {
+                    TimeUnit.MILLISECONDS.sleep(RECONNECT_DELAY_MILLIS);
+                } catch (InterruptedException ie) {
+                    return;
+                }
+            }
+        }
+    }
+
+    private void listen(Connection connection) throws SQLException {
+        boolean autoCommit = connection.getAutoCommit();
+        // Уведомления доставляются только вне транзакции
+        connection.setAutoCommit(true);
+        try (Statement statement = connection.createStatement()) {
+            statement.execute("LISTEN " + CHANNEL);
+            cache.invalidateAll();
+            subscribed.countDown();
+            log.info("Слушатель изменений пользователей подписан на канал {}", CHANNEL);
+
+            PGConnection pgConnection = connection.unwrap(PGConnection.class);
+            while (!closed) {
+                PGNotification[] received = pgConnection.getNotifications(pollMillis);
+                if (received == null || received.length == 0) {
+                    continue;
+                }
+                Set<Long> ids = new HashSet<>();
+                for (PGNotification notification : received) {
+                    try {
+                        ids.add(Long.parseLong(notification.getParameter()));
+                    } catch (NumberFormatException e) {
+                        log.warn("Некорректное уведомление об изменении: '{}'", notification.getParameter());
+                    }
+                }
+                notifications.add(received.length);
+                cache.evictAll(ids);
+            }
+            statement.execute("UNLISTEN " + CHANNEL);
+        } finally {
+            connection.setAutoCommit(autoCommit);
+        }
+    }
+}
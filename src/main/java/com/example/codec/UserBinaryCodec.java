@@ -0,0 +1,363 @@
+package com.example.codec;
+
+import com.example.dto.UserResponse;
+import com.example.entity.UserEntity;
+
+import java.nio.BufferOverflowException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.time.DateTimeException;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+
+/**
+ * Компактное двоичное представление {@link UserResponse} и {@link UserEntity} для кэшей, снимков и передачи
+ * между процессами.
+ * <p>
+ * Формат записи: версия схемы, вид записи, битовая маска заполненных полей, затем только заполненные поля
+ * в фиксированном порядке. Маска — varint, так что новые поля не упираются в восемь бит
+ * (в версии 1 маска занимала ровно один байт). ID и возраст — varint, createdAt — секунды эпохи UTC (поле усечено до секунд
+ * в {@code UserEntity#onCreate}), updatedAt и deletedAt — микросекунды эпохи, строки — длина varint и UTF-8.
+ * Записи не выровнены и могут идти в буфере подряд.
+ * <p>
+ * Декодирование читает поля прямо из {@link ByteBuffer} с текущей позиции и сдвигает её за запись;
+ * строки создаются напрямую из массива буфера без промежуточных копий (для direct-буферов — через
+ * переиспользуемый буфер потока). Новые версии схемы только дописывают поля в конец маски,
+ * поэтому декодер читает записи всех версий не новее {@link #SCHEMA_VERSION}.
+ */
+public final class UserBinaryCodec {
+
+    public static final byte SCHEMA_VERSION = 2;
+
+    /** Последняя версия, в которой маска полей записывалась одним байтом. */
+    private static final byte BYTE_MASK_VERSION = 1;
+
+    private static final byte KIND_RESPONSE = 1;
+    private static final byte KIND_ENTITY = 2;
+    /** Версия и вид записи; маска полей переменной длины идёт следом. */
+    private static final int FIXED_HEADER_BYTES = 2;
+
+    private static final int HAS_ID = 1;
+    private static final int HAS_NAME = 1 << 1;
+    private static final int HAS_EMAIL = 1 << 2;
+    private static final int HAS_AGE = 1 << 3;
+    private static final int HAS_CREATED_AT = 1 << 4;
+    private static final int HAS_EMAIL_NORMALIZED = 1 << 5;
+    private static final int HAS_UPDATED_AT = 1 << 6;
+    private static final int HAS_DELETED_AT = 1 << 7;
+
+    private static final ThreadLocal<byte[]> SCRATCH = ThreadLocal.withInitial(() -> new byte[256]);
+
+    private UserBinaryCodec() {
+    }
+
+    public static byte[] encode(UserResponse user) {
+        Record record = Record.of(user);
+        ByteBuffer buffer = ByteBuffer.allocate(record.size());
+        record.writeTo(buffer);
+        return buffer.array();
+    }
+
+    /**
+     * Записывает пользователя с текущей позиции буфера.
+     *
+     * @throws BufferOverflowException если запись не помещается; позиция буфера при этом не меняется
+     */
+    public static void encode(UserResponse user, ByteBuffer out) {
+        Record.of(user).writeTo(out);
+    }
+
+    public static byte[] encode(UserEntity user) {
+        Record record = Record.of(user);
+        ByteBuffer buffer = ByteBuffer.allocate(record.size());
+        record.writeTo(buffer);
+        return buffer.array();
+    }
+
+    /**
+     * Записывает пользователя с текущей позиции буфера.
+     *
+     * @throws BufferOverflowException если запись не помещается; позиция буфера при этом не меняется
+     */
+    public static void encode(UserEntity user, ByteBuffer out) {
+        Record.of(user).writeTo(out);
+    }
+
+    /**
+     * Читает {@link UserResponse} с текущей позиции буфера и сдвигает позицию за запись.
+     *
+     * @throws IllegalArgumentException если запись повреждена, обрезана, другого вида или более новой версии;
+     *                                  позиция буфера при этом не меняется
+     */
+    public static UserResponse decodeResponse(ByteBuffer in) {
+        int start = in.position();
+        try {
+            int presence = readHeader(in, KIND_RESPONSE);
+            UserResponse user = new UserResponse();
+            if ((presence & HAS_ID) != 0) {
+                user.setId(getVarLong(in));
+            }
+            if ((presence & HAS_NAME) != 0) {
+                user.setName(getString(in));
+            }
+            if ((presence & HAS_EMAIL) != 0) {
+                user.setEmail(getString(in));
+            }
+            if ((presence & HAS_AGE) != 0) {
+                user.setAge(Math.toIntExact(unzigzag(getVarLong(in))));
+            }
+            if ((presence & HAS_CREATED_AT) != 0) {
+                user.setCreatedAt(LocalDateTime.ofEpochSecond(unzigzag(getVarLong(in)), 0, ZoneOffset.UTC));
+            }
+            return user;
+        } catch (BufferUnderflowException | ArithmeticException | DateTimeException e) {
+            in.position(start);
+            throw new IllegalArgumentException("Запись пользователя повреждена или обрезана", e);
+        } catch (IllegalArgumentException e) {
+            in.position(start);
+            throw e;
+        }
+    }
+
+    /**
+     * Читает {@link UserEntity} с текущей позиции буфера и сдвигает позицию за запись.
+     * Возвращённая сущность отсоединена от сессии.
+     *
+     * @throws IllegalArgumentException если запись повреждена, обрезана, другого вида или более новой версии;
+     *                                  позиция буфера при этом не меняется
+     */
+    public static UserEntity decodeEntity(ByteBuffer in) {
+        int start = in.position();
+        try {
+            int presence = readHeader(in, KIND_ENTITY);
+            Long id = (presence & HAS_ID) != 0 ? getVarLong(in) : null;
+            String name = (presence & HAS_NAME) != 0 ? getString(in) : null;
+            String email = (presence & HAS_EMAIL) != 0 ? getString(in) : null;
+            Integer age = (presence & HAS_AGE) != 0 ? Math.toIntExact(unzigzag(getVarLong(in))) : null;
+            LocalDateTime createdAt = (presence & HAS_CREATED_AT) != 0
+                    ? LocalDateTime.ofEpochSecond(unzigzag(getVarLong(in)), 0, ZoneOffset.UTC) : null;
+            UserEntity user = new UserEntity(id, name, email, age, createdAt);
+            if ((presence & HAS_EMAIL_NORMALIZED) != 0) {
+                user.setEmailNormalized(getString(in));
+            }
+            if ((presence & HAS_UPDATED_AT) != 0) {
+                user.setUpdatedAt(fromMicros(unzigzag(getVarLong(in))));
+            }
+            if ((presence & HAS_DELETED_AT) != 0) {
+                user.setDeletedAt(fromMicros(unzigzag(getVarLong(in))));
+            }
+            return user;
+        } catch (BufferUnderflowException | ArithmeticException | DateTimeException e) {
+            in.position(start);
+            throw new IllegalArgumentException("Запись пользователя повреждена или обрезана", e);
+        } catch (IllegalArgumentException e) {
+            in.position(start);
+            throw e;
+        }
+    }
+
+    private static int readHeader(ByteBuffer in, byte expectedKind) {
+        byte version = in.get();
+        if (version < 1 || version > SCHEMA_VERSION) {
+            throw new IllegalArgumentException("Неподдерживаемая версия записи пользователя: " + version);
+        }
+        byte kind = in.get();
+        if (kind != expectedKind) {
+            throw new IllegalArgumentException("Неожиданный вид записи пользователя: " + kind);
+        }
+        return version == BYTE_MASK_VERSION ? in.get() & 0xFF : Math.toIntExact(getVarLong(in));
+    }
+
+    private static String getString(ByteBuffer in) {
+        long length = getVarLong(in);
+        if (length < 0 || length > in.remaining()) {
+            throw new IllegalArgumentException("Некорректная длина строки: " + length);
+        }
+        int len = (int) length;
+        int position = in.position();
+        String value;
+        if (in.hasArray()) {
+            value = new String(in.array(), in.arrayOffset() + position, len, StandardCharsets.UTF_8);
+        } else {
+            byte[] scratch = SCRATCH.get();
+            if (scratch.length < len) {
+                scratch = new byte[Math.max(len, scratch.length * 2)];
+                SCRATCH.set(scratch);
+            }
+            in.get(position, scratch, 0, len);
+            value = new String(scratch, 0, len, StandardCharsets.UTF_8);
+        }
+        in.position(position + len);
+        return value;
+    }
+
+    private static void putString(ByteBuffer out, byte[] value) {
+        putVarLong(out, value.length);
+        out.put(value);
+    }
+
+    private static void putVarLong(ByteBuffer out, long value) {
+        while ((value & ~0x7FL) != 0) {
+            out.put((byte) ((value & 0x7F) | 0x80));
+            value >>>= 7;
+        }
+        out.put((byte) value);
+    }
+
+    private static long getVarLong(ByteBuffer in) {
+        long result = 0;
+        for (int shift = 0; shift < Long.SIZE; shift += 7) {
+            byte b = in.get();
+            result |= (long) (b & 0x7F) << shift;
+            if (b >= 0) {
+                return result;
+            }
+        }
+        throw new IllegalArgumentException("Слишком длинный varint");
+    }
+
+    private static int varLongSize(long value) {
+        int size = 1;
+        while ((value & ~0x7FL) != 0) {
+            size++;
+            value >>>= 7;
+        }
+        return size;
+    }
+
+    private static long zigzag(long value) {
+        return (value << 1) ^ (value >> 63);
+    }
+
+    private static long unzigzag(long value) {
+        return (value >>> 1) ^ -(value & 1);
+    }
+
+    private static long toMicros(LocalDateTime time) {
+        return time.toEpochSecond(ZoneOffset.UTC) * 1_000_000L + time.getNano() / 1_000;
+    }
+
+    private static LocalDateTime fromMicros(long micros) {
+        return LocalDateTime.ofEpochSecond(Math.floorDiv(micros, 1_000_000L),
+                (int) Math.floorMod(micros, 1_000_000L) * 1_000, ZoneOffset.UTC);
+    }
+
+    /**
+     * Поля пользователя, подготовленные к записи: строки уже в UTF-8, размер записи известен заранее.
+     */
+    private static final class Record {
+
+        private final byte kind;
+        private int presence;
+        private long id;
+        private byte[] name;
+        private byte[] email;
+        private long age;
+        private long createdAt;
+        private byte[] emailNormalized;
+        private long updatedAt;
+        private long deletedAt;
+        /** Размер заполненных полей без заголовка. */
+        private int fieldsSize;
+
+        private Record(byte kind) {
+            this.kind = kind;
+        }
+
+        static Record of(UserResponse user) {
+            Record record = new Record(KIND_RESPONSE);
+            record.common(user.getId(), user.getName(), user.getEmail(), user.getAge(), user.getCreatedAt());
+            return record;
+        }
+
+        static Record of(UserEntity user) {
+            Record record = new Record(KIND_ENTITY);
+            record.common(user.getId(), user.getName(), user.getEmail(), user.getAge(), user.getCreatedAt());
+            if (user.getEmailNormalized() != null) {
+                record.emailNormalized = user.getEmailNormalized().getBytes(StandardCharsets.UTF_8);
+                record.presence |= HAS_EMAIL_NORMALIZED;
+                record.fieldsSize += varLongSize(record.emailNormalized.length) + record.emailNormalized.length;
+            }
+            if (user.getUpdatedAt() != null) {
+                record.updatedAt = zigzag(toMicros(user.getUpdatedAt()));
+                record.presence |= HAS_UPDATED_AT;
+                record.fieldsSize += varLongSize(record.updatedAt);
+            }
+            if (user.getDeletedAt() != null) {
+                record.deletedAt = zigzag(toMicros(user.getDeletedAt()));
+                record.presence |= HAS_DELETED_AT;
+                record.fieldsSize += varLongSize(record.deletedAt);
+            }
+            return record;
+        }
+
+        private void common(Long id, String name, String email, Integer age, LocalDateTime createdAt) {
+            if (id != null) {
+                this.id = id;
+                presence |= HAS_ID;
+                fieldsSize += varLongSize(this.id);
+            }
+            if (name != null) {
+                this.name = name.getBytes(StandardCharsets.UTF_8);
+                presence |= HAS_NAME;
+                fieldsSize += varLongSize(this.name.length) + this.name.length;
+            }
+            if (email != null) {
+                this.email = email.getBytes(StandardCharsets.UTF_8);
+                presence |= HAS_EMAIL;
+                fieldsSize += varLongSize(this.email.length) + this.email.length;
+            }
+            if (age != null) {
+                this.age = zigzag(age);
+                presence |= HAS_AGE;
+                fieldsSize += varLongSize(this.age);
+            }
+            if (createdAt != null) {
+                if (createdAt.getNano() != 0) {
+                    throw new IllegalArgumentException("createdAt должен быть усечён до секунд: " + createdAt);
+                }
+                this.createdAt = zigzag(createdAt.toEpochSecond(ZoneOffset.UTC));
+                presence |= HAS_CREATED_AT;
+                fieldsSize += varLongSize(this.createdAt);
+            }
+        }
+
+        int size() {
+            return FIXED_HEADER_BYTES + varLongSize(presence) + fieldsSize;
+        }
+
+        void writeTo(ByteBuffer out) {
+            if (out.remaining() < size()) {
+                throw new BufferOverflowException();
+            }
+            out.put(SCHEMA_VERSION);
+            out.put(kind);
+            putVarLong(out, presence);
+            if ((presence & HAS_ID) != 0) {
+                putVarLong(out, id);
+            }
+            if ((presence & HAS_NAME) != 0) {
+                putString(out, name);
+            }
+            if ((presence & HAS_EMAIL) != 0) {
+                putString(out, email);
+            }
+            if ((presence & HAS_AGE) != 0) {
+                putVarLong(out, age);
+            }
+            if ((presence & HAS_CREATED_AT) != 0) {
+                putVarLong(out, createdAt);
+            }
+            if ((presence & HAS_EMAIL_NORMALIZED) != 0) {
+                putString(out, emailNormalized);
+            }
+            if ((presence & HAS_UPDATED_AT) != 0) {
+                putVarLong(out, updatedAt);
+            }
+            if ((presence & HAS_DELETED_AT) != 0) {
+                putVarLong(out, deletedAt);
+            }
+        }
+    }
+}
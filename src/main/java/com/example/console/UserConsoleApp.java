@@ -1,5 +1,6 @@
 package com.example.console;
 
+import com.example.repository.JfrUserDao;
 import com.example.repository.UserDaoHibernateImpl;
 import com.example.service.UserService;
 import com.example.service.UserServiceImpl;
@@ -12,7 +13,7 @@ public class UserConsoleApp {
 
     private final Scanner scanner = new Scanner(System.in);
     private final UserInputHandler inputHandler = new UserInputHandler(scanner);
-    private final UserService userService = new UserServiceImpl(new UserDaoHibernateImpl());
+    private final UserService userService = new UserServiceImpl(new JfrUserDao(new UserDaoHibernateImpl()));
 
     public void run() {
         log.info("Старт программы.");
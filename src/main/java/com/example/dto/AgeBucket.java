@@ -0,0 +1,21 @@
+package com.example.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+import lombok.ToString;
+
+/**
+ * Интервал гистограммы возрастов: [fromAge, toAge] включительно.
+ */
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@ToString
+public class AgeBucket {
+    private int fromAge;
+    private int toAge;
+    private long count;
+}
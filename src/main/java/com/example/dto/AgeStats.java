@@ -0,0 +1,22 @@
+package com.example.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+import lombok.ToString;
+
+/**
+ * Статистика по возрасту пользователей. Пользователи без возраста не учитываются.
+ */
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@ToString
+public class AgeStats {
+    private long count;
+    private Integer minAge;
+    private Integer maxAge;
+    private Double averageAge;
+}
@@ -0,0 +1,31 @@
+package com.example.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+import lombok.ToString;
+
+import java.util.List;
+
+/**
+ * Результат пакетной проверки: нарушения упорядочены по номеру строки и полю,
+ * строки без нарушений в отчёт не попадают.
+ */
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@ToString
+public class BulkValidationReport {
+    private int totalRows;
+    private List<RowViolation> violations;
+
+    public boolean isValid() {
+        return violations.isEmpty();
+    }
+
+    public long getInvalidRowCount() {
+        return violations.stream().mapToInt(RowViolation::getRow).distinct().count();
+    }
+}
@@ -0,0 +1,27 @@
+package com.example.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.EqualsAndHashCode;
+import lombok.Getter;
+import lombok.ToString;
+
+import java.time.LocalDateTime;
+
+/**
+ * Позиция в ленте изменений: время изменения и ID пользователя.
+ * ID различает изменения с одинаковым временем.
+ */
+@Getter
+@AllArgsConstructor
+@EqualsAndHashCode
+@ToString
+public class ChangeWatermark {
+
+    /**
+     * Позиция до первого изменения.
+     */
+    public static final ChangeWatermark INITIAL = new ChangeWatermark(LocalDateTime.of(1970, 1, 1, 0, 0), 0L);
+
+    private final LocalDateTime changedAt;
+    private final long userId;
+}
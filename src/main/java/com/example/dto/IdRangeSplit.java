@@ -0,0 +1,14 @@
+package com.example.dto;
+
+/**
+ * Способ разбиения пространства ID на диапазоны для параллельного чтения таблицы.
+ */
+public enum IdRangeSplit {
+    /** Диапазоны равной ширины между минимальным и максимальным ID. */
+    EQUAL_WIDTH,
+    /**
+     * Границы — квантили выборки ID, чтобы в диапазонах было примерно поровну строк,
+     * даже если ID распределены неравномерно (пропуски после удалений и переносов).
+     */
+    QUANTILES
+}
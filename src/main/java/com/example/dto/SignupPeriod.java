@@ -0,0 +1,22 @@
+package com.example.dto;
+
+/**
+ * Период группировки регистраций.
+ */
+public enum SignupPeriod {
+    DAY("day"),
+    WEEK("week");
+
+    private final String sqlUnit;
+
+    SignupPeriod(String sqlUnit) {
+        this.sqlUnit = sqlUnit;
+    }
+
+    /**
+     * Единица для функции PostgreSQL {@code date_trunc}.
+     */
+    public String getSqlUnit() {
+        return sqlUnit;
+    }
+}
@@ -0,0 +1,36 @@
+package com.example.dto;
+
+import com.example.entity.UserEntity;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.ToString;
+
+import java.time.LocalDateTime;
+
+/**
+ * Изменение пользователя в ленте изменений.
+ */
+@Getter
+@AllArgsConstructor
+@ToString
+public class UserChange {
+
+    public enum Type {
+        /** Пользователь создан или изменён; {@link #getUser()} содержит текущее состояние. */
+        UPSERT,
+        /** Пользователь удалён; {@link #getUser()} равен null. */
+        DELETE
+    }
+
+    private final Type type;
+    private final long userId;
+    private final LocalDateTime changedAt;
+    private final UserEntity user;
+
+    /**
+     * Позиция, с которой следует запрашивать следующую порцию изменений.
+     */
+    public ChangeWatermark getWatermark() {
+        return new ChangeWatermark(changedAt, userId);
+    }
+}
@@ -0,0 +1,19 @@
+package com.example.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.ToString;
+
+/**
+ * Результат поиска пользователя по фрагменту имени или email.
+ * Чем больше {@code score}, тем ближе совпадение; точное вхождение подстроки ранжируется выше нечёткого.
+ */
+@Getter
+@AllArgsConstructor
+@ToString
+public class UserSearchHit {
+    private final long userId;
+    private final String name;
+    private final String email;
+    private final double score;
+}
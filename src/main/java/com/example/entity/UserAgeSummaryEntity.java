@@ -0,0 +1,54 @@
+package com.example.entity;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.NamedNativeQuery;
+import jakarta.persistence.NamedQuery;
+import jakarta.persistence.Table;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+import lombok.ToString;
+
+/**
+ * Сводка: количество пользователей каждого возраста.
+ * Пользователи без возраста учитываются под {@link #UNKNOWN_AGE}.
+ */
+@Getter
+@Setter
+@NoArgsConstructor
+@ToString
+@Entity
+@Table(name = "user_age_summary")
+@NamedQuery(name = UserAgeSummaryEntity.COUNT_USERS, query = "SELECT COALESCE(SUM(s.userCount), 0) FROM UserAgeSummaryEntity s")
+@NamedQuery(name = UserAgeSummaryEntity.AGE_STATS,
+        query = "SELECT COALESCE(SUM(s.userCount), 0), MIN(s.age), MAX(s.age), SUM(s.age * s.userCount) "
+                + "FROM UserAgeSummaryEntity s WHERE s.age <> :unknown AND s.userCount > 0")
+@NamedQuery(name = UserAgeSummaryEntity.AGE_DISTRIBUTION,
+        query = "SELECT s.age, s.userCount FROM UserAgeSummaryEntity s WHERE s.age <> :unknown AND s.userCount > 0 "
+                + "ORDER BY s.age")
+@NamedNativeQuery(name = UserAgeSummaryEntity.INCREMENT,
+        query = "INSERT INTO user_age_summary (age, user_count) VALUES (:age, :delta) "
+                + "ON CONFLICT (age) DO UPDATE SET user_count = user_age_summary.user_count + EXCLUDED.user_count")
+@NamedNativeQuery(name = UserAgeSummaryEntity.CLEAR, query = "DELETE FROM user_age_summary")
+@NamedNativeQuery(name = UserAgeSummaryEntity.REBUILD,
+        query = "INSERT INTO user_age_summary (age, user_count) "
+                + "SELECT COALESCE(age, :unknown), COUNT(*) FROM users WHERE deleted_at IS NULL GROUP BY 1")
+public class UserAgeSummaryEntity {
+
+    public static final int UNKNOWN_AGE = -1;
+
+    public static final String COUNT_USERS = "UserAgeSummary.countUsers";
+    public static final String AGE_STATS = "UserAgeSummary.ageStats";
+    public static final String AGE_DISTRIBUTION = "UserAgeSummary.ageDistribution";
+    public static final String INCREMENT = "UserAgeSummary.increment";
+    public static final String CLEAR = "UserAgeSummary.clear";
+    public static final String REBUILD = "UserAgeSummary.rebuild";
+
+    @Id
+    private Integer age;
+
+    @Column(name = "user_count", nullable = false)
+    private Long userCount;
+}
@@ -1,18 +1,22 @@
 package com.example.entity;
 
 import jakarta.persistence.PrePersist;
-import lombok.AllArgsConstructor;
+import jakarta.persistence.PreUpdate;
 import lombok.EqualsAndHashCode;
 import lombok.Getter;
 import lombok.NoArgsConstructor;
 import lombok.Setter;
 import lombok.ToString;
+import org.hibernate.annotations.SQLRestriction;
 
 import jakarta.persistence.Column;
 import jakarta.persistence.Entity;
 import jakarta.persistence.GeneratedValue;
 import jakarta.persistence.GenerationType;
 import jakarta.persistence.Id;
+import jakarta.persistence.Index;
+import jakarta.persistence.NamedNativeQuery;
+import jakarta.persistence.NamedQuery;
 import jakarta.persistence.Table;
 
 import javax.validation.constraints.Email;
@@ -29,15 +33,71 @@ import java.time.temporal.ChronoUnit;
 @Getter
 @Setter
 @NoArgsConstructor
-@AllArgsConstructor
 @ToString
-@EqualsAndHashCode
+@EqualsAndHashCode(onlyExplicitlyIncluded = true)
 @Entity
-@Table(name = "users")
+@Table(name = "users", indexes = @Index(name = "idx_users_updated_at", columnList = "updated_at, id"))
+@SQLRestriction("deleted_at IS NULL")
+@NamedQuery(name = UserEntity.FIND_BY_ID_AND_CREATED_AT,
+        query = "FROM UserEntity u WHERE u.id = :id AND u.createdAt = :createdAt")
+@NamedQuery(name = UserEntity.FIND_UPDATED_AT, query = "SELECT u.updatedAt FROM UserEntity u WHERE u.id = :id")
+@NamedQuery(name = UserEntity.FIND_ALL, query = "FROM UserEntity u")
+@NamedQuery(name = UserEntity.FIND_AFTER_ID, query = "FROM UserEntity u WHERE u.id > :afterId ORDER BY u.id")
+@NamedQuery(name = UserEntity.FIND_IN_ID_RANGE,
+        query = "FROM UserEntity u WHERE u.id > :afterId AND u.id < :hi ORDER BY u.id")
+@NamedQuery(name = UserEntity.ID_BOUNDS, query = "SELECT MIN(u.id), MAX(u.id) FROM UserEntity u")
+@NamedQuery(name = UserEntity.FIND_BY_EMAIL, query = "FROM UserEntity u WHERE u.email = :email")
+@NamedQuery(name = UserEntity.FIND_BY_EMAIL_NORMALIZED, query = "FROM UserEntity u WHERE u.emailNormalized = :email")
+@NamedQuery(name = UserEntity.FIND_EXISTING_EMAILS,
+        query = "SELECT u.emailNormalized FROM UserEntity u WHERE u.emailNormalized IN :emails")
+@NamedQuery(name = UserEntity.SOFT_DELETE,
+        query = "UPDATE UserEntity u SET u.deletedAt = :now, u.updatedAt = :now WHERE u.id = :id AND u.deletedAt IS NULL")
+@NamedQuery(name = UserEntity.COUNT, query = "SELECT COUNT(u) FROM UserEntity u")
+@NamedQuery(name = UserEntity.AGE_STATS, query = "SELECT COUNT(u.age), MIN(u.age), MAX(u.age), SUM(u.age) FROM UserEntity u")
+@NamedQuery(name = UserEntity.AGE_DISTRIBUTION,
+        query = "SELECT u.age, COUNT(u) FROM UserEntity u WHERE u.age IS NOT NULL GROUP BY u.age ORDER BY u.age")
+@NamedQuery(name = UserEntity.CHANGED_SINCE,
+        query = "FROM UserEntity u WHERE (u.updatedAt > :ts OR (u.updatedAt = :ts AND u.id > :id)) "
+                + "AND u.updatedAt <= :settledBefore ORDER BY u.updatedAt, u.id")
+@NamedNativeQuery(name = UserEntity.SAMPLE_IDS,
+        query = "SELECT id FROM users TABLESAMPLE SYSTEM (:percent) WHERE deleted_at IS NULL ORDER BY id")
+@NamedNativeQuery(name = UserEntity.SIGNUP_COUNTS,
+        query = "SELECT CAST(date_trunc(:unit, created_at) AS date), COUNT(*) FROM users "
+                + "WHERE created_at >= :from AND created_at < :to AND deleted_at IS NULL GROUP BY 1 ORDER BY 1")
+@NamedNativeQuery(name = UserEntity.PURGE_DELETED,
+        query = "DELETE FROM users WHERE id IN (SELECT id FROM users WHERE deleted_at IS NOT NULL ORDER BY id LIMIT :limit)")
 public class UserEntity {
 
+    /*
+     * Каталог именованных запросов к users. HQL-запросы разбираются и проверяются при создании
+     * SessionFactory (hibernate.query.startup_check), поэтому ошибка в запросе не даёт приложению стартовать,
+     * а вызов не тратит время на разбор. Нативные запросы регистрируются без проверки.
+     */
+    public static final String FIND_BY_ID_AND_CREATED_AT = "User.findByIdAndCreatedAt";
+    public static final String FIND_UPDATED_AT = "User.findUpdatedAt";
+    public static final String FIND_ALL = "User.findAll";
+    public static final String FIND_AFTER_ID = "User.findAfterId";
+    public static final String FIND_IN_ID_RANGE = "User.findInIdRange";
+    public static final String ID_BOUNDS = "User.idBounds";
+    public static final String SAMPLE_IDS = "User.sampleIds";
+    public static final String FIND_BY_EMAIL = "User.findByEmail";
+    public static final String FIND_BY_EMAIL_NORMALIZED = "User.findByEmailNormalized";
+    public static final String FIND_EXISTING_EMAILS = "User.findExistingEmails";
+    public static final String SOFT_DELETE = "User.softDelete";
+    public static final String COUNT = "User.count";
+    public static final String AGE_STATS = "User.ageStats";
+    public static final String AGE_DISTRIBUTION = "User.ageDistribution";
+    public static final String SIGNUP_COUNTS = "User.signupCounts";
+    public static final String CHANGED_SINCE = "User.changedSince";
+    public static final String PURGE_DELETED = "User.purgeDeleted";
+
+    /**
+     * Равенство только по ID: сравнение всех полей дорого в persistence context
+     * и ломается при изменении сущности, лежащей в множестве.
+     */
     @Id
     @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @EqualsAndHashCode.Include
     private Long id;
 
     @Column(nullable = false)
@@ -45,21 +105,74 @@ public class UserEntity {
     @Size(min = 2, max = 50, message = "Имя должно быть от 2 до 50 символов")
     private String name;
 
-    @Column(nullable = false, unique = true)
+    /**
+     * Уникальность email и email_normalized среди неудалённых строк обеспечивают частичные
+     * индексы из db/users_soft_delete.sql: удалённый, но ещё не очищенный пользователь
+     * не должен занимать свой email.
+     */
+    @Column(nullable = false)
     @Email(message = "Некорректный email")
     @NotBlank(message = "Email обязателен")
     private String email;
 
+    /**
+     * Email после {@link com.example.util.EmailNormalizer}; заполняется DAO при записи.
+     * По нему проверяется уникальность и выполняется поиск без учёта регистра.
+     */
+    @Column(name = "email_normalized", nullable = false)
+    private String emailNormalized;
+
     @NotNull(message = "Возраст обязателен")
     @Min(value = 1, message = "Возраст должен быть больше 0")
     @Max(value = 150, message = "Возраст должен быть меньше или равен 150")
     private Integer age;
 
-    @Column(name = "created_at", nullable = false, columnDefinition = "TIMESTAMP(0)")
+    /**
+     * Ключ секционирования users: не обновляется, чтобы строка не переезжала между секциями.
+     */
+    @Column(name = "created_at", nullable = false, updatable = false, columnDefinition = "TIMESTAMP(0)")
     private LocalDateTime createdAt;
 
+    /**
+     * Время последнего изменения; служит водяным знаком для ленты изменений.
+     */
+    @Column(name = "updated_at", nullable = false, columnDefinition = "TIMESTAMP(6)")
+    private LocalDateTime updatedAt;
+
+    /**
+     * Время мягкого удаления. Удалённые строки скрыты от всех запросов через {@link SQLRestriction}
+     * и физически удаляются фоновой очисткой.
+     */
+    @Column(name = "deleted_at", columnDefinition = "TIMESTAMP(6)")
+    private LocalDateTime deletedAt;
+
+    public UserEntity(Long id, String name, String email, Integer age, LocalDateTime createdAt) {
+        this.id = id;
+        this.name = name;
+        this.email = email;
+        this.age = age;
+        this.createdAt = createdAt;
+    }
+
     @PrePersist
     protected void onCreate() {
         createdAt = LocalDateTime.now().truncatedTo(ChronoUnit.SECONDS);
+        updatedAt = LocalDateTime.now().truncatedTo(ChronoUnit.MICROS);
+    }
+
+    @PreUpdate
+    protected void onUpdate() {
+        updatedAt = LocalDateTime.now().truncatedTo(ChronoUnit.MICROS);
+    }
+
+    /**
+     * Создаёт отсоединённую копию пользователя (для кэшей, которые не должны отдавать общие экземпляры).
+     */
+    public UserEntity copy() {
+        UserEntity copy = new UserEntity(id, name, email, age, createdAt);
+        copy.setEmailNormalized(emailNormalized);
+        copy.setUpdatedAt(updatedAt);
+        copy.setDeletedAt(deletedAt);
+        return copy;
     }
 }
\ No newline at end of file
@@ -0,0 +1,47 @@
+package com.example.entity;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.NamedNativeQuery;
+import jakarta.persistence.Table;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+import lombok.ToString;
+
+import java.time.LocalDate;
+
+/**
+ * Сводка: количество пользователей, зарегистрированных в каждый день.
+ */
+@Getter
+@Setter
+@NoArgsConstructor
+@ToString
+@Entity
+@Table(name = "user_signup_summary")
+@NamedNativeQuery(name = UserSignupSummaryEntity.SIGNUP_COUNTS,
+        query = "SELECT CAST(date_trunc(:unit, signup_date) AS date), SUM(user_count) FROM user_signup_summary "
+                + "WHERE signup_date >= :from AND signup_date < :to GROUP BY 1 HAVING SUM(user_count) > 0 ORDER BY 1")
+@NamedNativeQuery(name = UserSignupSummaryEntity.INCREMENT,
+        query = "INSERT INTO user_signup_summary (signup_date, user_count) VALUES (:day, :delta) "
+                + "ON CONFLICT (signup_date) DO UPDATE SET user_count = user_signup_summary.user_count + EXCLUDED.user_count")
+@NamedNativeQuery(name = UserSignupSummaryEntity.CLEAR, query = "DELETE FROM user_signup_summary")
+@NamedNativeQuery(name = UserSignupSummaryEntity.REBUILD,
+        query = "INSERT INTO user_signup_summary (signup_date, user_count) "
+                + "SELECT CAST(created_at AS date), COUNT(*) FROM users WHERE deleted_at IS NULL GROUP BY 1")
+public class UserSignupSummaryEntity {
+
+    public static final String SIGNUP_COUNTS = "UserSignupSummary.signupCounts";
+    public static final String INCREMENT = "UserSignupSummary.increment";
+    public static final String CLEAR = "UserSignupSummary.clear";
+    public static final String REBUILD = "UserSignupSummary.rebuild";
+
+    @Id
+    @Column(name = "signup_date")
+    private LocalDate signupDate;
+
+    @Column(name = "user_count", nullable = false)
+    private Long userCount;
+}
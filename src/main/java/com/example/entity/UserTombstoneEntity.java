@@ -0,0 +1,42 @@
+package com.example.entity;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.Index;
+import jakarta.persistence.NamedQuery;
+import jakarta.persistence.Table;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+import lombok.ToString;
+
+import java.time.LocalDateTime;
+
+/**
+ * Отметка об удалении пользователя для ленты изменений.
+ */
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@ToString
+@Entity
+@Table(name = "user_tombstones", indexes = @Index(name = "idx_user_tombstones_deleted_at", columnList = "deleted_at, user_id"))
+@NamedQuery(name = UserTombstoneEntity.CHANGED_SINCE,
+        query = "FROM UserTombstoneEntity t WHERE (t.deletedAt > :ts OR (t.deletedAt = :ts AND t.userId > :id)) "
+                + "AND t.deletedAt <= :settledBefore ORDER BY t.deletedAt, t.userId")
+@NamedQuery(name = UserTombstoneEntity.DELETE_BEFORE, query = "DELETE FROM UserTombstoneEntity t WHERE t.deletedAt < :before")
+public class UserTombstoneEntity {
+
+    public static final String CHANGED_SINCE = "UserTombstone.changedSince";
+    public static final String DELETE_BEFORE = "UserTombstone.deleteBefore";
+
+    @Id
+    @Column(name = "user_id")
+    private Long userId;
+
+    @Column(name = "deleted_at", nullable = false, columnDefinition = "TIMESTAMP(6)")
+    private LocalDateTime deletedAt;
+}
@@ -0,0 +1,10 @@
+package com.example.exception;
+
+public class ServiceOverloadedException extends RuntimeException {
+    /**
+     * Создаёт новое исключение, указывающее, что запрос отклонён из-за перегрузки.
+     */
+    public ServiceOverloadedException(String message) {
+        super(message);
+    }
+}
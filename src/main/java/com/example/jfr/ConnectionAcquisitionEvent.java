@@ -0,0 +1,19 @@
+package com.example.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+import jdk.jfr.Threshold;
+
+/**
+ * Получение JDBC-соединения сессией, включая ожидание свободного соединения в пуле.
+ */
+@Name("com.example.ConnectionAcquisition")
+@Label("Получение соединения")
+@Category({"Users", "Hibernate"})
+@StackTrace(false)
+@Threshold("1 ms")
+public class ConnectionAcquisitionEvent extends Event {
+}
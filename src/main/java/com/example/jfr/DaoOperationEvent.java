@@ -0,0 +1,38 @@
+package com.example.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+import jdk.jfr.Threshold;
+
+/**
+ * Вызов метода {@link com.example.repository.UserDao}.
+ */
+@Name("com.example.DaoOperation")
+@Label("Операция DAO")
+@Description("Вызов метода UserDao: имя операции, ID сущности и число строк результата")
+@Category({"Users", "DAO"})
+@StackTrace(false)
+@Threshold("1 ms")
+public class DaoOperationEvent extends Event {
+
+    @Label("Операция")
+    private String operation;
+
+    @Label("ID сущности")
+    @Description("0, если операция не относится к одной сущности")
+    private long entityId;
+
+    @Label("Строк")
+    @Description("Число прочитанных или записанных строк, -1 — неизвестно")
+    private long rowCount = -1;
+
+    public void set(String operation, long entityId, long rowCount) {
+        this.operation = operation;
+        this.entityId = entityId;
+        this.rowCount = rowCount;
+    }
+}
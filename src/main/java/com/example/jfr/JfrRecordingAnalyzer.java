@@ -0,0 +1,82 @@
+package com.example.jfr;
+
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+import org.HdrHistogram.Histogram;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Сводка по событиям пользователей в записи JFR: для каждого типа события и операции —
+ * количество, перцентили длительности, число строк и неуспешных транзакций.
+ * <p>
+ * Запуск: {@code java com.example.jfr.JfrRecordingAnalyzer recording.jfr}.
+ * Запись снимается с настройками {@code jfr/users.jfc}, например
+ * {@code -XX:StartFlightRecording=settings=src/main/resources/jfr/users.jfc,filename=recording.jfr}.
+ */
+public class JfrRecordingAnalyzer {
+
+    private static final String PREFIX = "com.example.";
+
+    private final Map<String, Summary> summaries = new TreeMap<>();
+
+    public static void main(String[] args) throws IOException {
+        if (args.length != 1) {
+            System.err.println("Использование: JfrRecordingAnalyzer <файл.jfr>");
+            System.exit(1);
+        }
+        JfrRecordingAnalyzer analyzer = new JfrRecordingAnalyzer();
+        analyzer.read(Path.of(args[0]));
+        analyzer.print();
+    }
+
+    public void read(Path recording) throws IOException {
+        try (RecordingFile file = new RecordingFile(recording)) {
+            while (file.hasMoreEvents()) {
+                RecordedEvent event = file.readEvent();
+                String type = event.getEventType().getName();
+                if (type.startsWith(PREFIX)) {
+                    add(type.substring(PREFIX.length()), event);
+                }
+            }
+        }
+    }
+
+    private void add(String type, RecordedEvent event) {
+        String operation = event.hasField("operation") ? event.getString("operation") : "";
+        Summary summary = summaries.computeIfAbsent(type + " " + operation, k -> new Summary());
+        summary.durations.recordValue(Math.max(0, event.getDuration().toNanos()));
+        if (event.hasField("rowCount") && event.getLong("rowCount") > 0) {
+            summary.rows += event.getLong("rowCount");
+        }
+        boolean failed = event.hasField("committed") && !event.getBoolean("committed")
+                || event.hasField("rolledBack") && event.getBoolean("rolledBack");
+        if (failed) {
+            summary.failures++;
+        }
+    }
+
+    public void print() {
+        System.out.printf("%-50s %8s %9s %9s %9s %9s %10s %7s%n",
+                "событие / операция", "кол-во", "p50 мс", "p99 мс", "max мс", "всего мс", "строк", "ошибки");
+        summaries.forEach((key, summary) -> {
+            Histogram h = summary.durations;
+            System.out.printf("%-50s %8d %9.3f %9.3f %9.3f %9.1f %10d %7d%n",
+                    key, h.getTotalCount(),
+                    h.getValueAtPercentile(50) / 1e6,
+                    h.getValueAtPercentile(99) / 1e6,
+                    h.getMaxValue() / 1e6,
+                    h.getMean() * h.getTotalCount() / 1e6,
+                    summary.rows, summary.failures);
+        });
+    }
+
+    private static final class Summary {
+        private final Histogram durations = new Histogram(3);
+        private long rows;
+        private long failures;
+    }
+}
@@ -0,0 +1,60 @@
+package com.example.jfr;
+
+import org.hibernate.SessionEventListener;
+
+/**
+ * Пишет {@link SessionEvent} и {@link ConnectionAcquisitionEvent} для каждой сессии Hibernate.
+ * Hibernate создаёт экземпляр на каждую сессию, если класс указан в свойстве
+ * {@code hibernate.session.events.auto}. Пока запись JFR выключена, события не создаются.
+ */
+public class JfrSessionEventListener implements SessionEventListener {
+
+    private final transient SessionEvent session = new SessionEvent();
+    private transient ConnectionAcquisitionEvent acquisition;
+    private long statementCount;
+    private boolean rolledBack;
+
+    public JfrSessionEventListener() {
+        session.begin();
+    }
+
+    @Override
+    public void jdbcConnectionAcquisitionStart() {
+        if (session.isEnabled()) {
+            acquisition = new ConnectionAcquisitionEvent();
+            acquisition.begin();
+        }
+    }
+
+    @Override
+    public void jdbcConnectionAcquisitionEnd() {
+        if (acquisition != null) {
+            acquisition.commit();
+            acquisition = null;
+        }
+    }
+
+    @Override
+    public void jdbcExecuteStatementStart() {
+        statementCount++;
+    }
+
+    @Override
+    public void jdbcExecuteBatchStart() {
+        statementCount++;
+    }
+
+    @Override
+    public void transactionCompletion(boolean successful) {
+        rolledBack |= !successful;
+    }
+
+    @Override
+    public void end() {
+        session.end();
+        if (session.shouldCommit()) {
+            session.set(statementCount, rolledBack);
+            session.commit();
+        }
+    }
+}
@@ -0,0 +1,32 @@
+package com.example.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+import jdk.jfr.Threshold;
+
+/**
+ * Время жизни сессии Hibernate от открытия до закрытия.
+ */
+@Name("com.example.HibernateSession")
+@Label("Сессия Hibernate")
+@Category({"Users", "Hibernate"})
+@StackTrace(false)
+@Threshold("1 ms")
+public class SessionEvent extends Event {
+
+    @Label("Выполнено запросов")
+    private long statementCount;
+
+    @Label("Откат")
+    @Description("Транзакция сессии завершилась откатом")
+    private boolean rolledBack;
+
+    public void set(long statementCount, boolean rolledBack) {
+        this.statementCount = statementCount;
+        this.rolledBack = rolledBack;
+    }
+}
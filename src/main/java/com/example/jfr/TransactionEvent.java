@@ -0,0 +1,32 @@
+package com.example.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+import jdk.jfr.Threshold;
+
+/**
+ * Транзакция DAO от {@code beginTransaction} до фиксации или отката.
+ */
+@Name("com.example.Transaction")
+@Label("Транзакция DAO")
+@Category({"Users", "DAO"})
+@StackTrace(false)
+@Threshold("1 ms")
+public class TransactionEvent extends Event {
+
+    @Label("Операция")
+    private String operation;
+
+    @Label("Зафиксирована")
+    @Description("false — транзакция откачена из-за ошибки")
+    private boolean committed;
+
+    public void set(String operation, boolean committed) {
+        this.operation = operation;
+        this.committed = committed;
+    }
+}
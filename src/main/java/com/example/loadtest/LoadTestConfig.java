@@ -0,0 +1,55 @@
+package com.example.loadtest;
+
+import lombok.Getter;
+import lombok.ToString;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Параметры нагрузочного теста. Задаются аргументами вида {@code ключ=значение}:
+ * <ul>
+ *     <li>{@code threads} — число рабочих потоков (по умолчанию 16);</li>
+ *     <li>{@code readRatio} — доля чтений от 0 до 1 (0.9);</li>
+ *     <li>{@code durationSeconds} — длительность замера (60);</li>
+ *     <li>{@code warmupSeconds} — прогрев, результаты которого отбрасываются (10);</li>
+ *     <li>{@code seedUsers} — сколько синтетических пользователей загрузить перед тестом (0);</li>
+ *     <li>{@code poolSize} — размер пула соединений (равен threads).</li>
+ * </ul>
+ */
+@Getter
+@ToString
+public class LoadTestConfig {
+
+    private final int threads;
+    private final double readRatio;
+    private final int durationSeconds;
+    private final int warmupSeconds;
+    private final long seedUsers;
+    private final int poolSize;
+
+    private LoadTestConfig(Map<String, String> values) {
+        this.threads = Integer.parseInt(values.getOrDefault("threads", "16"));
+        this.readRatio = Double.parseDouble(values.getOrDefault("readRatio", "0.9"));
+        this.durationSeconds = Integer.parseInt(values.getOrDefault("durationSeconds", "60"));
+        this.warmupSeconds = Integer.parseInt(values.getOrDefault("warmupSeconds", "10"));
+        this.seedUsers = Long.parseLong(values.getOrDefault("seedUsers", "0"));
+        this.poolSize = Integer.parseInt(values.getOrDefault("poolSize", String.valueOf(threads)));
+
+        if (threads <= 0 || durationSeconds <= 0 || readRatio < 0 || readRatio > 1) {
+            throw new IllegalArgumentException("Некорректные параметры нагрузки: " + values);
+        }
+    }
+
+    public static LoadTestConfig parse(String[] args) {
+        Map<String, String> values = new HashMap<>();
+        for (String arg : args) {
+            int eq = arg.indexOf('=');
+            if (eq <= 0) {
+                throw new IllegalArgumentException("Ожидался аргумент вида ключ=значение: " + arg);
+            }
+            values.put(arg.substring(0, eq), arg.substring(eq + 1));
+        }
+        return new LoadTestConfig(values);
+    }
+}
@@ -0,0 +1,238 @@
+package com.example.loadtest;
+
+import com.example.dto.UserCreateRequest;
+import com.example.dto.UserUpdateRequest;
+import com.example.entity.UserEntity;
+import com.example.repository.UserDao;
+import com.example.repository.UserDaoHibernateImpl;
+import com.example.service.UserService;
+import com.example.service.UserServiceImpl;
+import com.example.util.HibernateSessionFactoryProvider;
+import com.example.util.TimedConnectionProvider;
+import lombok.extern.slf4j.Slf4j;
+import org.HdrHistogram.Histogram;
+import org.HdrHistogram.Recorder;
+import org.hibernate.Session;
+import org.hibernate.SessionFactory;
+import org.hibernate.Transaction;
+
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.UUID;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Нагрузочный тест {@link UserServiceImpl} поверх {@link UserDaoHibernateImpl} и PostgreSQL.
+ * <p>
+ * Рабочие потоки выполняют смесь чтений (по ID и по email) и записей (создание и обновление)
+ * в заданной пропорции. Раз в секунду печатается пропускная способность по операциям,
+ * в конце — перцентили задержек по каждой операции и время ожидания соединения из пула.
+ * Подключение к БД берётся из hibernate.properties, параметры нагрузки — из аргументов
+ * (см. {@link LoadTestConfig}).
+ */
+@Slf4j
+public class UserLoadDriver {
+
+    enum Operation { GET_BY_ID, EMAIL_EXISTS, CREATE, UPDATE }
+
+    private static final int SAMPLE_SIZE = 10_000;
+
+    private final LoadTestConfig config;
+    private final UserService userService;
+    private final UserDao userDao;
+
+    private final Map<Operation, Recorder> recorders = new EnumMap<>(Operation.class);
+    private final Map<Operation, Histogram> totals = new EnumMap<>(Operation.class);
+    private final Map<Operation, LongAdder> errors = new EnumMap<>(Operation.class);
+    private final Histogram connectionWait = new Histogram(3);
+
+    private List<UserEntity> sample = List.of();
+    private volatile boolean recording;
+    private volatile boolean running = true;
+
+    public UserLoadDriver(LoadTestConfig config, UserDao userDao) {
+        this.config = config;
+        this.userDao = userDao;
+        this.userService = new UserServiceImpl(userDao);
+        for (Operation operation : Operation.values()) {
+            recorders.put(operation, new Recorder(3));
+            totals.put(operation, new Histogram(3));
+            errors.put(operation, new LongAdder());
+        }
+    }
+
+    public static void main(String[] args) throws Exception {
+        LoadTestConfig config = LoadTestConfig.parse(args);
+        log.info("Параметры нагрузки: {}", config);
+
+        Properties overrides = new Properties();
+        overrides.setProperty("hibernate.connection.provider_class", TimedConnectionProvider.class.getName());
+        overrides.setProperty("hibernate.connection.pool_size", String.valueOf(config.getPoolSize()));
+        overrides.setProperty("hibernate.show_sql", "false");
+
+        try (SessionFactory sessionFactory = HibernateSessionFactoryProvider.buildSessionFactory(overrides)) {
+            if (config.getSeedUsers() > 0) {
+                new UserDataSeeder(sessionFactory).seed(config.getSeedUsers(), 42);
+                analyze(sessionFactory);
+            }
+            new UserLoadDriver(config, new UserDaoHibernateImpl(sessionFactory)).run();
+        }
+    }
+
+    public void run() throws InterruptedException {
+        sample = loadSample();
+        if (sample.isEmpty()) {
+            throw new IllegalStateException("Таблица users пуста: задайте seedUsers");
+        }
+
+        ExecutorService workers = Executors.newFixedThreadPool(config.getThreads());
+        for (int i = 0; i < config.getThreads(); i++) {
+            workers.submit(this::workLoop);
+        }
+
+        runPhase("прогрев", config.getWarmupSeconds());
+        resetIntervals();
+        recording = true;
+        runPhase("замер", config.getDurationSeconds());
+        recording = false;
+
+        running = false;
+        workers.shutdown();
+        workers.awaitTermination(30, TimeUnit.SECONDS);
+        printSummary();
+    }
+
+    private void workLoop() {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        while (running) {
+            Operation operation = pickOperation(random);
+            long start = System.nanoTime();
+            try {
+                execute(operation, random);
+            } catch (Exception e) {
+                errors.get(operation).increment();
+            }
+            recorders.get(operation).recordValue(System.nanoTime() - start);
+        }
+    }
+
+    private Operation pickOperation(ThreadLocalRandom random) {
+        boolean read = random.nextDouble() < config.getReadRatio();
+        if (read) {
+            return random.nextBoolean() ? Operation.GET_BY_ID : Operation.EMAIL_EXISTS;
+        }
+        return random.nextBoolean() ? Operation.CREATE : Operation.UPDATE;
+    }
+
+    private void execute(Operation operation, ThreadLocalRandom random) {
+        UserEntity target = sample.get(random.nextInt(sample.size()));
+        switch (operation) {
+            case GET_BY_ID -> userService.getUserById(target.getId());
+            case EMAIL_EXISTS -> userService.isEmailExists(target.getEmail());
+            case CREATE -> {
+                UserCreateRequest request = new UserCreateRequest();
+                request.setName("Load");
+                request.setEmail("load-" + UUID.randomUUID() + "@example.com");
+                request.setAge(1 + random.nextInt(100));
+                userService.createUser(request);
+            }
+            case UPDATE -> {
+                UserUpdateRequest request = new UserUpdateRequest();
+                request.setId(target.getId());
+                request.setName(target.getName());
+                request.setEmail(target.getEmail());
+                request.setAge(1 + random.nextInt(100));
+                userService.updateUser(request);
+            }
+        }
+    }
+
+    /**
+     * Выполняет фазу заданной длительности, раз в секунду печатая пропускную способность.
+     */
+    private void runPhase(String phase, int seconds) throws InterruptedException {
+        for (int second = 1; second <= seconds; second++) {
+            TimeUnit.SECONDS.sleep(1);
+            StringBuilder line = new StringBuilder(String.format("[%s %3d c] оп/с:", phase, second));
+            for (Operation operation : Operation.values()) {
+                Histogram interval = recorders.get(operation).getIntervalHistogram();
+                if (recording) {
+                    totals.get(operation).add(interval);
+                }
+                line.append(String.format(" %s=%d (p99 %.2f мс)", operation, interval.getTotalCount(),
+                        interval.getValueAtPercentile(99) / 1e6));
+            }
+            Histogram wait = TimedConnectionProvider.takeAcquisitionHistogram();
+            if (recording) {
+                connectionWait.add(wait);
+            }
+            line.append(String.format(" | ожидание соединения p99 %.3f мс", wait.getValueAtPercentile(99) / 1e6));
+            System.out.println(line);
+        }
+    }
+
+    private void resetIntervals() {
+        recorders.values().forEach(Recorder::reset);
+        TimedConnectionProvider.takeAcquisitionHistogram();
+    }
+
+    private void printSummary() {
+        System.out.printf("%n=== Итоги: %d потоков, доля чтений %.2f, %d c ===%n",
+                config.getThreads(), config.getReadRatio(), config.getDurationSeconds());
+        System.out.printf("%-13s %10s %9s %9s %9s %9s %9s %7s%n",
+                "операция", "оп/с", "p50 мс", "p90 мс", "p99 мс", "p99.9 мс", "max мс", "ошибки");
+        for (Operation operation : Operation.values()) {
+            printRow(operation.name(), totals.get(operation), errors.get(operation).sum());
+        }
+        printRow("CONNECTION", connectionWait, 0);
+    }
+
+    private void printRow(String name, Histogram histogram, long errorCount) {
+        System.out.printf("%-13s %10.1f %9.3f %9.3f %9.3f %9.3f %9.3f %7d%n",
+                name,
+                histogram.getTotalCount() / (double) config.getDurationSeconds(),
+                histogram.getValueAtPercentile(50) / 1e6,
+                histogram.getValueAtPercentile(90) / 1e6,
+                histogram.getValueAtPercentile(99) / 1e6,
+                histogram.getValueAtPercentile(99.9) / 1e6,
+                histogram.getMaxValue() / 1e6,
+                errorCount);
+    }
+
+    /**
+     * Загружает выборку существующих пользователей, по которой выбираются цели чтений и обновлений.
+     */
+    private List<UserEntity> loadSample() {
+        List<UserEntity> result = new ArrayList<>();
+        Long cursor = 0L;
+        while (result.size() < SAMPLE_SIZE) {
+            List<UserEntity> batch = userDao.findAfterId(cursor, 1_000);
+            if (batch.isEmpty()) {
+                break;
+            }
+            result.addAll(batch);
+            cursor = batch.get(batch.size() - 1).getId() + ThreadLocalRandom.current().nextLong(1, 1_000);
+        }
+        return result;
+    }
+
+    private static void analyze(SessionFactory sessionFactory) {
+        try (Session session = sessionFactory.openSession()) {
+            Transaction transaction = session.beginTransaction();
+            session.doWork(connection -> {
+                try (Statement statement = connection.createStatement()) {
+                    statement.execute("ANALYZE users");
+                }
+            });
+            transaction.commit();
+        }
+    }
+}
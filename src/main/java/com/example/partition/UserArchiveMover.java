@@ -0,0 +1,180 @@
+package com.example.partition;
+
+import lombok.extern.slf4j.Slf4j;
+import org.hibernate.Session;
+import org.hibernate.SessionFactory;
+import org.hibernate.Transaction;
+import org.postgresql.PGConnection;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.time.YearMonth;
+import java.util.List;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Выносит холодные помесячные секции users в архив: в таблицу users_archive
+ * или в сжатый CSV-файл {@code users_pYYYYMM.csv.gz}.
+ * <p>
+ * Секция сначала отсоединяется короткой транзакцией — с этого момента её строки не видны
+ * ни одному запросу DAO, а блокировка users держится только на время отсоединения.
+ * Затем строки копируются в архив, сверяется их количество и секция удаляется.
+ * Если копирование не удалось, секция присоединяется обратно.
+ * <p>
+ * Вынесенные пользователи не попадают в ленту изменений как удаления, а их email остаётся
+ * занятым в user_email_registry. При включённых сводных таблицах после выноса нужен
+ * {@code UserDaoHibernateImpl#rebuildSummary()}.
+ */
+@Slf4j
+public class UserArchiveMover {
+
+    private static final String COLUMNS = "id, name, email, email_normalized, age, created_at, updated_at, deleted_at";
+
+    private final SessionFactory sessionFactory;
+    private final UserPartitionManager partitionManager;
+
+    public UserArchiveMover(SessionFactory sessionFactory, UserPartitionManager partitionManager) {
+        this.sessionFactory = sessionFactory;
+        this.partitionManager = partitionManager;
+    }
+
+    /**
+     * Выносит все секции месяцев раньше {@code cutoff}: в файлы каталога {@code directory}
+     * или, если он null, в таблицу users_archive.
+     *
+     * @return месяцы успешно вынесенных секций
+     */
+    public List<YearMonth> archiveOlderThan(YearMonth cutoff, Path directory) {
+        return partitionManager.listPartitions().stream()
+                .filter(month -> month.isBefore(cutoff))
+                .filter(month -> (directory != null ? archiveToFile(month, directory) : archiveToTable(month)) >= 0)
+                .toList();
+    }
+
+    /**
+     * Переносит строки секции в таблицу users_archive.
+     *
+     * @return число перенесённых строк или -1 при ошибке
+     */
+    public long archiveToTable(YearMonth month) {
+        String partition = UserPartitionManager.partitionName(month);
+        return archive(month, session -> session.createNativeMutationQuery(
+                        "INSERT INTO users_archive (" + COLUMNS + ") SELECT " + COLUMNS + " FROM " + partition)
+                .executeUpdate(), ArchivePublish.NONE, "users_archive");
+    }
+
+    /**
+     * Выгружает строки секции в {@code directory/users_pYYYYMM.csv.gz} (CSV с заголовком).
+     * Файл пишется во временный и переименовывается только после сверки числа строк, до удаления секции;
+     * если секция не вынесена, оба файла удаляются.
+     *
+     * @return число выгруженных строк или -1 при ошибке
+     */
+    public long archiveToFile(YearMonth month, Path directory) {
+        String partition = UserPartitionManager.partitionName(month);
+        Path target = directory.resolve(partition + ".csv.gz");
+        Path temp = directory.resolve(partition + ".csv.gz.tmp");
+        long rows = archive(month, session -> session.doReturningWork(connection -> {
+            try (OutputStream out = new GZIPOutputStream(Files.newOutputStream(temp), 1 << 16)) {
+                long copied = connection.unwrap(PGConnection.class).getCopyAPI().copyOut(
+                        "COPY " + partition + " (" + COLUMNS + ") TO STDOUT WITH (FORMAT csv, HEADER)", out);
+                out.close();
+                return copied;
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }), () -> Files.move(temp, target, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING),
+                target.toString());
+        if (rows < 0) {
+            // Секция присоединена обратно: архивный файл с её строками не должен остаться
+            deleteQuietly(temp);
+            deleteQuietly(target);
+        }
+        return rows;
+    }
+
+    private static void deleteQuietly(Path file) {
+        try {
+            Files.deleteIfExists(file);
+        } catch (IOException e) {
+            log.warn("Не удалось удалить файл {}", file, e);
+        }
+    }
+
+    /**
+     * @param publish выполняется после сверки числа строк и до удаления секции, в той же транзакции
+     */
+    private long archive(YearMonth month, ArchiveCopy copy, ArchivePublish publish, String destination) {
+        String partition = UserPartitionManager.partitionName(month);
+        if (!execute(session -> session
+                .createNativeMutationQuery("ALTER TABLE users DETACH PARTITION " + partition)
+                .executeUpdate())) {
+            return -1;
+        }
+
+        long[] copied = {-1};
+        boolean archived = execute(session -> {
+            long expected = session.createNativeQuery("SELECT count(*) FROM " + partition, Long.class)
+                    .getSingleResult();
+            copied[0] = copy.copy(session);
+            if (copied[0] != expected) {
+                throw new IllegalStateException("Скопировано " + copied[0] + " строк из " + expected);
+            }
+            publish.publish();
+            session.createNativeMutationQuery("DROP TABLE " + partition).executeUpdate();
+        });
+
+        if (!archived) {
+            execute(session -> session
+                    .createNativeMutationQuery("ALTER TABLE users ATTACH PARTITION " + partition + " "
+                            + UserPartitionManager.partitionBounds(month))
+                    .executeUpdate());
+            log.error("Секция {} не вынесена и присоединена обратно", partition);
+            return -1;
+        }
+        log.info("Секция {} вынесена в {}: {} строк", partition, destination, copied[0]);
+        return copied[0];
+    }
+
+    private boolean execute(SessionConsumer work) {
+        Transaction transaction = null;
+        try (Session session = sessionFactory.openSession()) {
+            transaction = session.beginTransaction();
+            work.accept(session);
+            transaction.commit();
+            return true;
+        } catch (Exception e) {
+            if (transaction != null && transaction.isActive()) {
+                try {
+                    transaction.rollback();
+                } catch (Exception ex) {
+                    log.error("Ошибка при откате транзакции", ex);
+                }
+            }
+            log.error("Ошибка при выносе секции", e);
+            return false;
+        }
+    }
+
+    @FunctionalInterface
+    private interface SessionConsumer {
+        void accept(Session session) throws Exception;
+    }
+
+    @FunctionalInterface
+    private interface ArchiveCopy {
+        long copy(Session session);
+    }
+
+    @FunctionalInterface
+    private interface ArchivePublish {
+        ArchivePublish NONE = () -> {
+        };
+
+        void publish() throws IOException;
+    }
+}
@@ -0,0 +1,147 @@
+package com.example.partition;
+
+import lombok.extern.slf4j.Slf4j;
+import org.hibernate.Session;
+import org.hibernate.SessionFactory;
+import org.hibernate.Transaction;
+
+import java.time.Duration;
+import java.time.YearMonth;
+import java.time.format.DateTimeFormatter;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Ведёт помесячные секции таблицы users (см. db/users_partitioned.sql).
+ * <p>
+ * {@link #ensureFuturePartitions()} создаёт секции текущего месяца и {@code monthsAhead}
+ * следующих, если их ещё нет; {@link #start(Duration)} повторяет это по расписанию,
+ * чтобы вставки никогда не попадали в секцию по умолчанию.
+ */
+@Slf4j
+public class UserPartitionManager implements AutoCloseable {
+
+    public static final String PARTITION_PREFIX = "users_p";
+
+    private static final DateTimeFormatter SUFFIX = DateTimeFormatter.ofPattern("yyyyMM");
+
+    private final SessionFactory sessionFactory;
+    private final int monthsAhead;
+
+    private ScheduledExecutorService scheduler;
+
+    public UserPartitionManager(SessionFactory sessionFactory, int monthsAhead) {
+        this.sessionFactory = sessionFactory;
+        this.monthsAhead = monthsAhead;
+    }
+
+    public UserPartitionManager(SessionFactory sessionFactory) {
+        this(sessionFactory, 3);
+    }
+
+    public static String partitionName(YearMonth month) {
+        return PARTITION_PREFIX + month.format(SUFFIX);
+    }
+
+    /**
+     * Возвращает месяц секции по её имени или пустой результат для других таблиц.
+     */
+    public static Optional<YearMonth> monthOf(String partitionName) {
+        if (partitionName == null || !partitionName.matches(PARTITION_PREFIX + "\\d{6}")) {
+            return Optional.empty();
+        }
+        return Optional.of(YearMonth.parse(partitionName.substring(PARTITION_PREFIX.length()), SUFFIX));
+    }
+
+    /**
+     * Создаёт недостающие секции с текущего месяца на {@code monthsAhead} вперёд.
+     *
+     * @return число созданных секций
+     */
+    public int ensureFuturePartitions() {
+        List<YearMonth> existing = listPartitions();
+        YearMonth current = YearMonth.now();
+        int created = 0;
+        for (int i = 0; i <= monthsAhead; i++) {
+            YearMonth month = current.plusMonths(i);
+            if (!existing.contains(month) && createPartition(month)) {
+                created++;
+            }
+        }
+        return created;
+    }
+
+    /**
+     * Возвращает месяцы присоединённых секций по возрастанию.
+     */
+    public List<YearMonth> listPartitions() {
+        try (Session session = sessionFactory.openSession()) {
+            return session.createNativeQuery(
+                            "SELECT c.relname FROM pg_inherits i "
+                                    + "JOIN pg_class c ON c.oid = i.inhrelid "
+                                    + "WHERE i.inhparent = 'users'::regclass", String.class)
+                    .getResultList()
+                    .stream()
+                    .map(UserPartitionManager::monthOf)
+                    .flatMap(Optional::stream)
+                    .sorted()
+                    .toList();
+        } catch (Exception e) {
+            log.error("Ошибка при чтении списка секций users", e);
+            return List.of();
+        }
+    }
+
+    /**
+     * Запускает ежедневное (или с заданным интервалом) создание будущих секций.
+     */
+    public synchronized void start(Duration interval) {
+        if (scheduler != null) {
+            return;
+        }
+        scheduler = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread thread = new Thread(r, "user-partition-manager");
+            thread.setDaemon(true);
+            return thread;
+        });
+        scheduler.scheduleWithFixedDelay(this::ensureFuturePartitions, 0, interval.toMillis(), TimeUnit.MILLISECONDS);
+    }
+
+    @Override
+    public synchronized void close() {
+        if (scheduler != null) {
+            scheduler.shutdownNow();
+            scheduler = null;
+        }
+    }
+
+    /**
+     * Границы секции месяца в синтаксисе PostgreSQL: [первое число месяца, первое число следующего).
+     */
+    static String partitionBounds(YearMonth month) {
+        return "FOR VALUES FROM ('" + month.atDay(1) + "') TO ('" + month.plusMonths(1).atDay(1) + "')";
+    }
+
+    private boolean createPartition(YearMonth month) {
+        // Имя и границы формируются из YearMonth, а не из пользовательского ввода
+        String ddl = "CREATE TABLE IF NOT EXISTS " + partitionName(month) + " PARTITION OF users "
+                + partitionBounds(month);
+        Transaction transaction = null;
+        try (Session session = sessionFactory.openSession()) {
+            transaction = session.beginTransaction();
+            session.createNativeMutationQuery(ddl).executeUpdate();
+            transaction.commit();
+            log.info("Создана секция {}", partitionName(month));
+            return true;
+        } catch (Exception e) {
+            if (transaction != null && transaction.isActive()) {
+                transaction.rollback();
+            }
+            log.error("Ошибка при создании секции {}", partitionName(month), e);
+            return false;
+        }
+    }
+}
@@ -0,0 +1,52 @@
+package com.example.reconcile;
+
+import lombok.Getter;
+import lombok.ToString;
+
+/**
+ * Итог сверки таблиц users: сколько работы потребовалось и сколько расхождений найдено и исправлено.
+ */
+@Getter
+@ToString
+public class ReconciliationReport {
+
+    /** Сколько раз сравнивались хэши диапазонов (по запросу к каждой базе). */
+    private long rangeComparisons;
+    /** Сколько строк прочитано из обеих баз для построчного сравнения. */
+    private long rowsFetched;
+    private long missingInTarget;
+    private long missingInSource;
+    private long different;
+    /** Сколько расхождений исправлено в целевой базе. */
+    private long repaired;
+    /** Сколько расхождений осталось неисправленными из-за ошибок записи. */
+    private long repairFailed;
+
+    void rangeCompared() {
+        rangeComparisons++;
+    }
+
+    void rowsFetched(long rows) {
+        rowsFetched += rows;
+    }
+
+    void diffFound(UserRowDiff.Type type) {
+        switch (type) {
+            case MISSING_IN_TARGET -> missingInTarget++;
+            case MISSING_IN_SOURCE -> missingInSource++;
+            case DIFFERENT -> different++;
+        }
+    }
+
+    void repaired(long rows, boolean success) {
+        if (success) {
+            repaired += rows;
+        } else {
+            repairFailed += rows;
+        }
+    }
+
+    public long getDiffCount() {
+        return missingInTarget + missingInSource + different;
+    }
+}
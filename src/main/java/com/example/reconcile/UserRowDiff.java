@@ -0,0 +1,32 @@
+package com.example.reconcile;
+
+import com.example.entity.UserEntity;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.ToString;
+
+/**
+ * Расхождение одной строки users между исходной и целевой базой.
+ * Строки читаются напрямую из таблицы, включая мягко удалённые, и не связаны с сессией.
+ */
+@Getter
+@AllArgsConstructor
+@ToString
+public class UserRowDiff {
+
+    public enum Type {
+        /** Строка есть только в исходной базе. */
+        MISSING_IN_TARGET,
+        /** Строка есть только в целевой базе. */
+        MISSING_IN_SOURCE,
+        /** Строка есть в обеих базах, но поля различаются. */
+        DIFFERENT
+    }
+
+    private final Type type;
+    private final long id;
+    /** Строка исходной базы; null для {@link Type#MISSING_IN_SOURCE}. */
+    private final UserEntity source;
+    /** Строка целевой базы; null для {@link Type#MISSING_IN_TARGET}. */
+    private final UserEntity target;
+}
@@ -0,0 +1,297 @@
+package com.example.reconcile;
+
+import com.example.entity.UserEntity;
+import lombok.extern.slf4j.Slf4j;
+import org.hibernate.Session;
+import org.hibernate.SessionFactory;
+import org.hibernate.Transaction;
+
+import java.math.BigInteger;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.function.Consumer;
+
+/**
+ * Сверка таблиц users в двух базах (например, после миграции, восстановления или переключения реплики)
+ * по хэшам диапазонов ID, как в дереве Меркла.
+ * <p>
+ * Диапазон делится на {@code fanout} равных поддиапазонов; для каждого база считает число строк и сумму
+ * 60-битных хэшей строк одним запросом с GROUP BY, так что по сети идут только хэши. Совпавшие поддиапазоны
+ * отбрасываются, несовпавшие делятся дальше, пока в них не останется не больше {@code leafRows} строк —
+ * тогда строки читаются с обеих сторон и сравниваются по одной. Объём чтения растёт с числом расхождений,
+ * а не с размером таблицы.
+ * <p>
+ * Сравниваются все столбцы, включая мягко удалённые строки. Сверку стоит запускать при остановленной записи:
+ * строки, изменённые во время обхода, попадут в расхождения. Ошибки чтения пробрасываются —
+ * неполный результат сверки хуже, чем отсутствие результата.
+ */
+@Slf4j
+public class UserTableReconciler {
+
+    private static final int DEFAULT_FANOUT = 16;
+    private static final int DEFAULT_LEAF_ROWS = 1_000;
+
+    private static final String COLUMNS = "id, name, email, email_normalized, age, created_at, updated_at, deleted_at";
+
+    /** Время переводится в микросекунды, чтобы хэш не зависел от DateStyle сервера. */
+    private static final String ROW_HASH = "('x' || substr(md5(ROW(id, name, email, email_normalized, age, "
+            + "(extract(epoch FROM created_at) * 1000000)::bigint, "
+            + "(extract(epoch FROM updated_at) * 1000000)::bigint, "
+            + "(extract(epoch FROM deleted_at) * 1000000)::bigint)::text), 1, 15))::bit(60)::bigint";
+
+    private final SessionFactory source;
+    private final SessionFactory target;
+    private final int fanout;
+    private final int leafRows;
+
+    public UserTableReconciler(SessionFactory source, SessionFactory target, int fanout, int leafRows) {
+        if (fanout < 2 || leafRows < 1) {
+            throw new IllegalArgumentException("fanout должен быть не меньше 2, leafRows — не меньше 1");
+        }
+        this.source = source;
+        this.target = target;
+        this.fanout = fanout;
+        this.leafRows = leafRows;
+    }
+
+    public UserTableReconciler(SessionFactory source, SessionFactory target) {
+        this(source, target, DEFAULT_FANOUT, DEFAULT_LEAF_ROWS);
+    }
+
+    /**
+     * Сверяет таблицы и передаёт в {@code sink} каждое расхождение по мере обнаружения, в порядке ID.
+     */
+    public ReconciliationReport reconcile(Consumer<UserRowDiff> sink) {
+        ReconciliationReport report = new ReconciliationReport();
+        run(sink, report);
+        return report;
+    }
+
+    /**
+     * Сверяет таблицы и приводит целевую к исходной пакетами по {@code batchSize} расхождений,
+     * каждый пакет — отдельной транзакцией. Пакет с ошибкой (например, нарушение уникальности email
+     * из-за ещё не исправленной строки) логируется и учитывается в {@link ReconciliationReport#getRepairFailed()};
+     * повторный запуск исправит его.
+     * <p>
+     * Записи идут напрямую в таблицу: надгробия для ленты изменений не создаются, сводные таблицы
+     * и последовательность users_id_seq не пересчитываются.
+     */
+    public ReconciliationReport reconcileAndRepair(Consumer<UserRowDiff> sink, int batchSize) {
+        ReconciliationReport report = new ReconciliationReport();
+        List<UserRowDiff> pending = new ArrayList<>(batchSize);
+        run(diff -> {
+            sink.accept(diff);
+            pending.add(diff);
+            if (pending.size() >= batchSize) {
+                repair(pending, report);
+                pending.clear();
+            }
+        }, report);
+        if (!pending.isEmpty()) {
+            repair(pending, report);
+        }
+        return report;
+    }
+
+    private void run(Consumer<UserRowDiff> sink, ReconciliationReport report) {
+        long[] sourceSpan = idSpan(source);
+        long[] targetSpan = idSpan(target);
+        if (sourceSpan == null && targetSpan == null) {
+            return;
+        }
+        long lo = sourceSpan == null ? targetSpan[0] : targetSpan == null ? sourceSpan[0]
+                : Math.min(sourceSpan[0], targetSpan[0]);
+        long hi = sourceSpan == null ? targetSpan[1] : targetSpan == null ? sourceSpan[1]
+                : Math.max(sourceSpan[1], targetSpan[1]);
+        compareRange(lo, hi + 1, sink, report);
+        log.info("Сверка users завершена: {}", report);
+    }
+
+    /**
+     * Сравнивает поддиапазоны [lo, hi) и спускается в несовпавшие.
+     */
+    private void compareRange(long lo, long hi, Consumer<UserRowDiff> sink, ReconciliationReport report) {
+        long step = Math.max(1, (hi - lo + fanout - 1) / fanout);
+        Map<Long, RangeHash> sourceHashes = rangeHashes(source, lo, hi, step);
+        Map<Long, RangeHash> targetHashes = rangeHashes(target, lo, hi, step);
+        report.rangeCompared();
+
+        long buckets = (hi - lo + step - 1) / step;
+        for (long bucket = 0; bucket < buckets; bucket++) {
+            RangeHash sourceHash = sourceHashes.getOrDefault(bucket, RangeHash.EMPTY);
+            RangeHash targetHash = targetHashes.getOrDefault(bucket, RangeHash.EMPTY);
+            if (sourceHash.equals(targetHash)) {
+                continue;
+            }
+            long childLo = lo + bucket * step;
+            long childHi = Math.min(hi, childLo + step);
+            if (step == 1 || Math.max(sourceHash.rows(), targetHash.rows()) <= leafRows) {
+                compareRows(childLo, childHi, sink, report);
+            } else {
+                compareRange(childLo, childHi, sink, report);
+            }
+        }
+    }
+
+    /**
+     * Построчно сравнивает диапазон [lo, hi) слиянием двух упорядоченных по ID выборок.
+     */
+    private void compareRows(long lo, long hi, Consumer<UserRowDiff> sink, ReconciliationReport report) {
+        List<UserEntity> sourceRows = fetchRows(source, lo, hi);
+        List<UserEntity> targetRows = fetchRows(target, lo, hi);
+        report.rowsFetched(sourceRows.size() + targetRows.size());
+
+        int i = 0;
+        int j = 0;
+        while (i < sourceRows.size() || j < targetRows.size()) {
+            UserEntity s = i < sourceRows.size() ? sourceRows.get(i) : null;
+            UserEntity t = j < targetRows.size() ? targetRows.get(j) : null;
+            UserRowDiff diff;
+            if (t == null || (s != null && s.getId() < t.getId())) {
+                diff = new UserRowDiff(UserRowDiff.Type.MISSING_IN_TARGET, s.getId(), s, null);
+                i++;
+            } else if (s == null || t.getId() < s.getId()) {
+                diff = new UserRowDiff(UserRowDiff.Type.MISSING_IN_SOURCE, t.getId(), null, t);
+                j++;
+            } else {
+                i++;
+                j++;
+                if (sameRow(s, t)) {
+                    continue;
+                }
+                diff = new UserRowDiff(UserRowDiff.Type.DIFFERENT, s.getId(), s, t);
+            }
+            report.diffFound(diff.getType());
+            sink.accept(diff);
+        }
+    }
+
+    private void repair(List<UserRowDiff> diffs, ReconciliationReport report) {
+        Transaction transaction = null;
+        try (Session session = target.openSession()) {
+            transaction = session.beginTransaction();
+            session.doWork(connection -> {
+                try (PreparedStatement delete = connection.prepareStatement("DELETE FROM users WHERE id = ?");
+                     PreparedStatement insert = connection.prepareStatement(
+                             "INSERT INTO users (" + COLUMNS + ") VALUES (?, ?, ?, ?, ?, ?, ?, ?)")) {
+                    for (UserRowDiff diff : diffs) {
+                        delete.setLong(1, diff.getId());
+                        delete.addBatch();
+                        if (diff.getSource() != null) {
+                            bindRow(insert, diff.getSource());
+                            insert.addBatch();
+                        }
+                    }
+                    delete.executeBatch();
+                    insert.executeBatch();
+                }
+            });
+            transaction.commit();
+            report.repaired(diffs.size(), true);
+        } catch (Exception e) {
+            if (transaction != null && transaction.isActive()) {
+                try {
+                    transaction.rollback();
+                } catch (Exception ex) {
+                    log.error("Ошибка при откате транзакции", ex);
+                }
+            }
+            log.error("Не удалось исправить {} расхождений начиная с ID {}", diffs.size(), diffs.get(0).getId(), e);
+            report.repaired(diffs.size(), false);
+        }
+    }
+
+    private static void bindRow(PreparedStatement statement, UserEntity user) throws SQLException {
+        statement.setLong(1, user.getId());
+        statement.setString(2, user.getName());
+        statement.setString(3, user.getEmail());
+        statement.setString(4, user.getEmailNormalized());
+        if (user.getAge() != null) {
+            statement.setInt(5, user.getAge());
+        } else {
+            statement.setNull(5, Types.INTEGER);
+        }
+        statement.setTimestamp(6, toTimestamp(user.getCreatedAt()));
+        statement.setTimestamp(7, toTimestamp(user.getUpdatedAt()));
+        statement.setTimestamp(8, toTimestamp(user.getDeletedAt()));
+    }
+
+    private static long[] idSpan(SessionFactory sessionFactory) {
+        try (Session session = sessionFactory.openSession()) {
+            Object[] row = session.createNativeQuery("SELECT min(id), max(id) FROM users", Object[].class)
+                    .getSingleResult();
+            return row[0] == null ? null : new long[]{((Number) row[0]).longValue(), ((Number) row[1]).longValue()};
+        }
+    }
+
+    private static Map<Long, RangeHash> rangeHashes(SessionFactory sessionFactory, long lo, long hi, long step) {
+        try (Session session = sessionFactory.openSession()) {
+            List<Object[]> rows = session.createNativeQuery(
+                            "SELECT (id - :lo) / :step, count(*), sum(" + ROW_HASH + ") FROM users "
+                                    + "WHERE id >= :lo AND id < :hi GROUP BY 1", Object[].class)
+                    .setParameter("lo", lo)
+                    .setParameter("hi", hi)
+                    .setParameter("step", step)
+                    .getResultList();
+            Map<Long, RangeHash> hashes = new HashMap<>(rows.size() * 2);
+            for (Object[] row : rows) {
+                hashes.put(((Number) row[0]).longValue(),
+                        new RangeHash(((Number) row[1]).longValue(), new BigInteger(row[2].toString())));
+            }
+            return hashes;
+        }
+    }
+
+    private static List<UserEntity> fetchRows(SessionFactory sessionFactory, long lo, long hi) {
+        try (Session session = sessionFactory.openSession()) {
+            List<Object[]> rows = session.createNativeQuery(
+                            "SELECT " + COLUMNS + " FROM users WHERE id >= :lo AND id < :hi ORDER BY id", Object[].class)
+                    .setParameter("lo", lo)
+                    .setParameter("hi", hi)
+                    .getResultList();
+            List<UserEntity> users = new ArrayList<>(rows.size());
+            for (Object[] row : rows) {
+                UserEntity user = new UserEntity(((Number) row[0]).longValue(), (String) row[1], (String) row[2],
+                        row[4] != null ? ((Number) row[4]).intValue() : null, toLocalDateTime(row[5]));
+                user.setEmailNormalized((String) row[3]);
+                user.setUpdatedAt(toLocalDateTime(row[6]));
+                user.setDeletedAt(toLocalDateTime(row[7]));
+                users.add(user);
+            }
+            return users;
+        }
+    }
+
+    private static boolean sameRow(UserEntity s, UserEntity t) {
+        return Objects.equals(s.getName(), t.getName())
+                && Objects.equals(s.getEmail(), t.getEmail())
+                && Objects.equals(s.getEmailNormalized(), t.getEmailNormalized())
+                && Objects.equals(s.getAge(), t.getAge())
+                && Objects.equals(s.getCreatedAt(), t.getCreatedAt())
+                && Objects.equals(s.getUpdatedAt(), t.getUpdatedAt())
+                && Objects.equals(s.getDeletedAt(), t.getDeletedAt());
+    }
+
+    private static LocalDateTime toLocalDateTime(Object value) {
+        return value instanceof Timestamp timestamp ? timestamp.toLocalDateTime() : (LocalDateTime) value;
+    }
+
+    private static Timestamp toTimestamp(LocalDateTime value) {
+        return value != null ? Timestamp.valueOf(value) : null;
+    }
+
+    /**
+     * Число строк и сумма хэшей строк диапазона. Сумма не зависит от порядка строк.
+     */
+    private record RangeHash(long rows, BigInteger hashSum) {
+        static final RangeHash EMPTY = new RangeHash(0, BigInteger.ZERO);
+    }
+}
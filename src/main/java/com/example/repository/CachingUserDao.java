@@ -0,0 +1,134 @@
+package com.example.repository;
+
+import com.example.cache.QueryResultCache;
+import com.example.dto.AgeBucket;
+import com.example.dto.AgeStats;
+import com.example.dto.SignupCount;
+import com.example.dto.SignupPeriod;
+import com.example.entity.UserEntity;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Декоратор DAO, кэширующий результаты списочных и поисковых запросов.
+ * <p>
+ * Запросы по ID не кэшируются: {@code findById} используется перед изменением сущности.
+ * Лента изменений {@code findChangedSince} тоже идёт напрямую в делегат: её читают, чтобы узнать
+ * о чужих записях, и закэшированная страница скрывала бы их до истечения TTL.
+ * Любой вызов {@code save}, {@code update}, {@code writeBatch} или {@code deleteById} инвалидирует
+ * регион целиком, поэтому после завершения записи чтения снова идут в БД. Кэш локален для процесса:
+ * записи, сделанные в обход этого декоратора, видны только после истечения TTL.
+ * Наружу отдаются копии сущностей, чтобы вызывающий код не мог изменить закэшированные данные.
+ */
+public class CachingUserDao extends DelegatingUserDao {
+
+    private static final int DEFAULT_MAX_SIZE = 1_000;
+    private static final long DEFAULT_TTL_MILLIS = 30_000;
+
+    private final QueryResultCache cache;
+
+    public CachingUserDao(UserDao delegate, QueryResultCache cache) {
+        super(delegate);
+        this.cache = cache;
+    }
+
+    public CachingUserDao(UserDao delegate) {
+        this(delegate, new QueryResultCache(DEFAULT_MAX_SIZE, DEFAULT_TTL_MILLIS));
+    }
+
+    @Override
+    public void save(UserEntity user) {
+        invalidating(() -> delegate.save(user));
+    }
+
+    @Override
+    public void update(UserEntity user) {
+        invalidating(() -> delegate.update(user));
+    }
+
+    @Override
+    public boolean writeBatch(List<UserEntity> toSave, List<UserEntity> toUpdate) {
+        cache.beginInvalidation();
+        try {
+            return delegate.writeBatch(toSave, toUpdate);
+        } finally {
+            cache.endInvalidation();
+        }
+    }
+
+    @Override
+    public void deleteById(Long id) {
+        invalidating(() -> delegate.deleteById(id));
+    }
+
+    @Override
+    public List<UserEntity> findAll() {
+        return copyAll(cache.get("findAll", delegate::findAll));
+    }
+
+    @Override
+    public List<UserEntity> findAfterId(Long afterId, int limit) {
+        return copyAll(cache.get("findAfterId", () -> delegate.findAfterId(afterId, limit), afterId, limit));
+    }
+
+    @Override
+    public Optional<UserEntity> findByEmail(String email) {
+        Optional<UserEntity> result = cache.get("findByEmail", () -> delegate.findByEmail(email), email);
+        return result.map(UserEntity::copy);
+    }
+
+    @Override
+    public Optional<UserEntity> findByEmailIgnoreCase(String email) {
+        Optional<UserEntity> result = cache.get("findByEmailIgnoreCase",
+                () -> delegate.findByEmailIgnoreCase(email), email);
+        return result.map(UserEntity::copy);
+    }
+
+    @Override
+    public long countUsers() {
+        return cache.get("countUsers", delegate::countUsers);
+    }
+
+    @Override
+    public AgeStats getAgeStats() {
+        AgeStats stats = cache.get("getAgeStats", delegate::getAgeStats);
+        return new AgeStats(stats.getCount(), stats.getMinAge(), stats.getMaxAge(), stats.getAverageAge());
+    }
+
+    @Override
+    public List<AgeBucket> getAgeDistribution(int bucketSize) {
+        List<AgeBucket> buckets = cache.get("getAgeDistribution",
+                () -> delegate.getAgeDistribution(bucketSize), bucketSize);
+        return buckets.stream()
+                .map(b -> new AgeBucket(b.getFromAge(), b.getToAge(), b.getCount()))
+                .toList();
+    }
+
+    @Override
+    public List<SignupCount> getSignupCounts(SignupPeriod period, LocalDate from, LocalDate to) {
+        List<SignupCount> counts = cache.get("getSignupCounts",
+                () -> delegate.getSignupCounts(period, from, to), period, from, to);
+        return counts.stream()
+                .map(c -> new SignupCount(c.getPeriodStart(), c.getCount()))
+                .toList();
+    }
+
+    public QueryResultCache getCache() {
+        return cache;
+    }
+
+    private void invalidating(Runnable write) {
+        cache.beginInvalidation();
+        try {
+            write.run();
+        } finally {
+            cache.endInvalidation();
+        }
+    }
+
+    private static List<UserEntity> copyAll(List<UserEntity> users) {
+        return users.stream().map(UserEntity::copy).toList();
+    }
+}
@@ -0,0 +1,128 @@
+package com.example.repository;
+
+import com.example.dto.AgeBucket;
+import com.example.dto.AgeStats;
+import com.example.dto.ChangeWatermark;
+import com.example.dto.IdRangeSplit;
+import com.example.dto.SignupCount;
+import com.example.dto.SignupPeriod;
+import com.example.dto.UserChange;
+import com.example.entity.UserEntity;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.function.Consumer;
+
+/**
+ * Базовый декоратор DAO: передаёт все вызовы делегату.
+ * Наследники переопределяют только те методы, поведение которых меняют.
+ */
+public abstract class DelegatingUserDao implements UserDao {
+
+    protected final UserDao delegate;
+
+    protected DelegatingUserDao(UserDao delegate) {
+        this.delegate = delegate;
+    }
+
+    @Override
+    public void save(UserEntity user) {
+        delegate.save(user);
+    }
+
+    @Override
+    public Optional<UserEntity> findById(Long id) {
+        return delegate.findById(id);
+    }
+
+    @Override
+    public Optional<UserEntity> findById(Long id, LocalDateTime createdAt) {
+        return delegate.findById(id, createdAt);
+    }
+
+    @Override
+    public Optional<LocalDateTime> findUpdatedAt(Long id) {
+        return delegate.findUpdatedAt(id);
+    }
+
+    @Override
+    public List<UserEntity> findAll() {
+        return delegate.findAll();
+    }
+
+    @Override
+    public List<UserEntity> findAfterId(Long afterId, int limit) {
+        return delegate.findAfterId(afterId, limit);
+    }
+
+    @Override
+    public long scanPartitioned(int parallelism, IdRangeSplit split, int batchSize,
+                                Consumer<List<UserEntity>> consumer) {
+        return delegate.scanPartitioned(parallelism, split, batchSize, consumer);
+    }
+
+    @Override
+    public void update(UserEntity user) {
+        delegate.update(user);
+    }
+
+    @Override
+    public boolean writeBatch(List<UserEntity> toSave, List<UserEntity> toUpdate) {
+        return delegate.writeBatch(toSave, toUpdate);
+    }
+
+    @Override
+    public void deleteById(Long id) {
+        delegate.deleteById(id);
+    }
+
+    @Override
+    public Optional<UserEntity> findByEmail(String email) {
+        return delegate.findByEmail(email);
+    }
+
+    @Override
+    public Optional<UserEntity> findByEmailIgnoreCase(String email) {
+        return delegate.findByEmailIgnoreCase(email);
+    }
+
+    @Override
+    public Set<String> findExistingEmails(Collection<String> emails) {
+        return delegate.findExistingEmails(emails);
+    }
+
+    @Override
+    public long countUsers() {
+        return delegate.countUsers();
+    }
+
+    @Override
+    public AgeStats getAgeStats() {
+        return delegate.getAgeStats();
+    }
+
+    @Override
+    public List<AgeBucket> getAgeDistribution(int bucketSize) {
+        return delegate.getAgeDistribution(bucketSize);
+    }
+
+    @Override
+    public List<SignupCount> getSignupCounts(SignupPeriod period, LocalDate from, LocalDate to) {
+        return delegate.getSignupCounts(period, from, to);
+    }
+
+    @Override
+    public List<UserChange> findChangedSince(ChangeWatermark watermark, int limit) {
+        return delegate.findChangedSince(watermark, limit);
+    }
+
+    @Override
+    public Duration getChangeFeedSettleWindow() {
+        return delegate.getChangeFeedSettleWindow();
+    }
+}
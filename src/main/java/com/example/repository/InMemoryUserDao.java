@@ -0,0 +1,364 @@
+package com.example.repository;
+
+import com.example.dto.AgeBucket;
+import com.example.dto.AgeStats;
+import com.example.dto.ChangeWatermark;
+import com.example.dto.SignupCount;
+import com.example.dto.SignupPeriod;
+import com.example.dto.UserChange;
+import com.example.entity.UserEntity;
+import com.example.util.EmailNormalizer;
+import lombok.extern.slf4j.Slf4j;
+
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.time.temporal.TemporalAdjusters;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ConcurrentNavigableMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Реализация {@link UserDao} в памяти процесса для тестов, демо и нагрузочного моделирования без PostgreSQL.
+ * <p>
+ * Пользователи лежат в упорядоченной по ID конкурентной карте, ID выдаёт атомарный счётчик.
+ * Уникальность нормализованного email обеспечивает конкурентный индекс email → ID: запись занимает
+ * email через {@code putIfAbsent} до изменения строк, а при отказе освобождает уже занятые.
+ * Чтения по ключу идут без блокировок, записи друг друга не блокируют (см. {@link #writerLock}).
+ * Как и {@link UserDaoHibernateImpl}, ошибки записи логируются и не пробрасываются.
+ * Хранятся и отдаются копии сущностей. Удаление физическое, с отметкой для ленты изменений.
+ */
+@Slf4j
+public class InMemoryUserDao implements UserDao {
+
+    private final ConcurrentNavigableMap<Long, UserEntity> byId = new ConcurrentSkipListMap<>();
+    private final ConcurrentMap<String, Long> idByEmail = new ConcurrentHashMap<>();
+    private final ConcurrentNavigableMap<Long, LocalDateTime> tombstones = new ConcurrentSkipListMap<>();
+    private final AtomicLong idSequence = new AtomicLong();
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    /**
+     * Разделяемая блокировка записей: параллельные записи не мешают друг другу, строки они меняют
+     * атомарными операциями карт.
+     */
+    private final Lock writerLock = lock.readLock();
+    /**
+     * Исключительная блокировка чтений по многим строкам: {@code findAll}, агрегаты и лента изменений
+     * дожидаются начатых записей и не видят половины {@code writeBatch} или изменения, отметка
+     * времени которого уже выдана, а сама строка ещё не записана.
+     */
+    private final Lock snapshotLock = lock.writeLock();
+
+    private final EmailNormalizer emailNormalizer;
+
+    public InMemoryUserDao(EmailNormalizer emailNormalizer) {
+        this.emailNormalizer = emailNormalizer;
+    }
+
+    public InMemoryUserDao() {
+        this(EmailNormalizer.DEFAULT);
+    }
+
+    @Override
+    public void save(UserEntity user) {
+        if (writeBatch(List.of(user), List.of())) {
+            log.info("Пользователь сохранён: {}", user);
+        }
+    }
+
+    @Override
+    public Optional<UserEntity> findById(Long id) {
+        return Optional.ofNullable(byId.get(id)).map(UserEntity::copy);
+    }
+
+    @Override
+    public Optional<LocalDateTime> findUpdatedAt(Long id) {
+        return Optional.ofNullable(byId.get(id)).map(UserEntity::getUpdatedAt);
+    }
+
+    @Override
+    public List<UserEntity> findAll() {
+        snapshotLock.lock();
+        try {
+            return copyAll(byId.values());
+        } finally {
+            snapshotLock.unlock();
+        }
+    }
+
+    @Override
+    public List<UserEntity> findAfterId(Long afterId, int limit) {
+        List<UserEntity> page = new ArrayList<>(Math.min(limit, 1_024));
+        for (UserEntity user : byId.tailMap(afterId != null ? afterId : 0L, false).values()) {
+            if (page.size() >= limit) {
+                break;
+            }
+            page.add(user.copy());
+        }
+        return page;
+    }
+
+    @Override
+    public void update(UserEntity user) {
+        if (writeBatch(List.of(), List.of(user))) {
+            log.info("Пользователь обновлён: {}", user);
+        }
+    }
+
+    /**
+     * Все проверки, включая занятие email, выполняются до первого изменения строк, поэтому пакет
+     * применяется целиком или не применяется. Исключение — строка, удалённая параллельно после
+     * проверки: её обновление пропускается, а не воскрешает пользователя.
+     */
+    @Override
+    public boolean writeBatch(List<UserEntity> toSave, List<UserEntity> toUpdate) {
+        writerLock.lock();
+        try {
+            Map<String, Long> claimed = new HashMap<>();
+            for (UserEntity user : toUpdate) {
+                UserEntity current = user.getId() != null ? byId.get(user.getId()) : null;
+                if (current == null) {
+                    log.error("Ошибка в транзакции: пользователь с id {} не найден", user.getId());
+                    release(claimed);
+                    return false;
+                }
+                String email = emailNormalizer.normalize(user.getEmail());
+                if (!email.equals(current.getEmailNormalized()) && !claim(claimed, email, user.getId())) {
+                    release(claimed);
+                    return false;
+                }
+            }
+            List<Long> ids = new ArrayList<>(toSave.size());
+            for (UserEntity user : toSave) {
+                long id = idSequence.incrementAndGet();
+                if (!claim(claimed, emailNormalizer.normalize(user.getEmail()), id)) {
+                    release(claimed);
+                    return false;
+                }
+                ids.add(id);
+            }
+
+            LocalDateTime now = LocalDateTime.now();
+            for (UserEntity user : toUpdate) {
+                UserEntity stored = user.copy();
+                stored.setEmailNormalized(emailNormalizer.normalize(user.getEmail()));
+                stored.setUpdatedAt(now.truncatedTo(ChronoUnit.MICROS));
+                stored.setDeletedAt(null);
+                UserEntity[] previous = new UserEntity[1];
+                byId.computeIfPresent(stored.getId(), (id, current) -> {
+                    previous[0] = current;
+                    stored.setCreatedAt(current.getCreatedAt());
+                    return stored;
+                });
+                if (previous[0] == null) {
+                    log.warn("Пользователь с id {} удалён во время обновления", stored.getId());
+                    idByEmail.remove(stored.getEmailNormalized(), stored.getId());
+                } else if (!previous[0].getEmailNormalized().equals(stored.getEmailNormalized())) {
+                    idByEmail.remove(previous[0].getEmailNormalized(), stored.getId());
+                }
+            }
+            for (int i = 0; i < toSave.size(); i++) {
+                UserEntity user = toSave.get(i);
+                user.setId(ids.get(i));
+                user.setEmailNormalized(emailNormalizer.normalize(user.getEmail()));
+                user.setCreatedAt(now.truncatedTo(ChronoUnit.SECONDS));
+                user.setUpdatedAt(now.truncatedTo(ChronoUnit.MICROS));
+                byId.put(user.getId(), user.copy());
+            }
+            return true;
+        } finally {
+            writerLock.unlock();
+        }
+    }
+
+    @Override
+    public void deleteById(Long id) {
+        writerLock.lock();
+        try {
+            UserEntity removed = byId.remove(id);
+            if (removed == null) {
+                log.warn("Пользователь с id {} не найден", id);
+                return;
+            }
+            idByEmail.remove(removed.getEmailNormalized(), id);
+            tombstones.put(id, LocalDateTime.now().truncatedTo(ChronoUnit.MICROS));
+            log.info("Пользователь с id {} удалён", id);
+        } finally {
+            writerLock.unlock();
+        }
+    }
+
+    @Override
+    public Optional<UserEntity> findByEmail(String email) {
+        if (email == null) {
+            return Optional.empty();
+        }
+        return findByEmailIgnoreCase(email)
+                .filter(user -> email.equals(user.getEmail()));
+    }
+
+    @Override
+    public Optional<UserEntity> findByEmailIgnoreCase(String email) {
+        if (email == null) {
+            return Optional.empty();
+        }
+        Long id = idByEmail.get(emailNormalizer.normalize(email));
+        return id != null ? findById(id) : Optional.empty();
+    }
+
+    @Override
+    public Set<String> findExistingEmails(Collection<String> emails) {
+        Set<String> existing = new HashSet<>();
+        for (String email : emails) {
+            Long id = email != null ? idByEmail.get(emailNormalizer.normalize(email)) : null;
+            // Email, занятый ещё не завершённой записью, пока не существует
+            if (id != null && byId.containsKey(id)) {
+                existing.add(email);
+            }
+        }
+        return existing;
+    }
+
+    @Override
+    public long countUsers() {
+        return byId.size();
+    }
+
+    @Override
+    public AgeStats getAgeStats() {
+        snapshotLock.lock();
+        try {
+            var stats = byId.values().stream()
+                    .filter(u -> u.getAge() != null)
+                    .mapToInt(UserEntity::getAge)
+                    .summaryStatistics();
+            if (stats.getCount() == 0) {
+                return new AgeStats(0, null, null, null);
+            }
+            return new AgeStats(stats.getCount(), stats.getMin(), stats.getMax(), stats.getAverage());
+        } finally {
+            snapshotLock.unlock();
+        }
+    }
+
+    @Override
+    public List<AgeBucket> getAgeDistribution(int bucketSize) {
+        Map<Integer, Long> countsByAge = new TreeMap<>();
+        snapshotLock.lock();
+        try {
+            for (UserEntity user : byId.values()) {
+                if (user.getAge() != null) {
+                    countsByAge.merge(user.getAge(), 1L, Long::sum);
+                }
+            }
+        } finally {
+            snapshotLock.unlock();
+        }
+        List<Object[]> rows = new ArrayList<>(countsByAge.size());
+        countsByAge.forEach((age, count) -> rows.add(new Object[]{age, count}));
+        return UserDaoHibernateImpl.toBuckets(rows, bucketSize);
+    }
+
+    @Override
+    public List<SignupCount> getSignupCounts(SignupPeriod period, LocalDate from, LocalDate to) {
+        Map<LocalDate, Long> counts = new TreeMap<>();
+        LocalDateTime start = from.atStartOfDay();
+        LocalDateTime end = to.atStartOfDay();
+        snapshotLock.lock();
+        try {
+            for (UserEntity user : byId.values()) {
+                LocalDateTime createdAt = user.getCreatedAt();
+                if (createdAt != null && !createdAt.isBefore(start) && createdAt.isBefore(end)) {
+                    counts.merge(truncate(createdAt.toLocalDate(), period), 1L, Long::sum);
+                }
+            }
+        } finally {
+            snapshotLock.unlock();
+        }
+        List<SignupCount> result = new ArrayList<>(counts.size());
+        counts.forEach((day, count) -> result.add(new SignupCount(day, count)));
+        return result;
+    }
+
+    @Override
+    public List<UserChange> findChangedSince(ChangeWatermark watermark, int limit) {
+        Comparator<UserChange> order = Comparator.comparing(UserChange::getChangedAt)
+                .thenComparing(UserChange::getUserId);
+        List<UserChange> changes = new ArrayList<>();
+        snapshotLock.lock();
+        try {
+            for (UserEntity user : byId.values()) {
+                if (isAfter(user.getUpdatedAt(), user.getId(), watermark)) {
+                    changes.add(new UserChange(UserChange.Type.UPSERT, user.getId(), user.getUpdatedAt(), user.copy()));
+                }
+            }
+            tombstones.forEach((userId, deletedAt) -> {
+                if (isAfter(deletedAt, userId, watermark)) {
+                    changes.add(new UserChange(UserChange.Type.DELETE, userId, deletedAt, null));
+                }
+            });
+        } finally {
+            snapshotLock.unlock();
+        }
+        changes.sort(order);
+        return changes.size() > limit ? new ArrayList<>(changes.subList(0, limit)) : changes;
+    }
+
+    /**
+     * Атомарно занимает нормализованный email за пользователем {@code id}. Email, уже занятый
+     * другим пользователем — сохранённым, записываемым параллельно или этим же пакетом, — не занимается.
+     */
+    private boolean claim(Map<String, Long> claimed, String email, Long id) {
+        Long owner = idByEmail.putIfAbsent(email, id);
+        if (owner == null) {
+            claimed.put(email, id);
+            return true;
+        }
+        if (owner.equals(id) && !claimed.containsKey(email)) {
+            // Email уже за этим пользователем: его занял параллельный вызов обновления
+            return true;
+        }
+        log.error("Ошибка в транзакции: email {} уже используется", email);
+        return false;
+    }
+
+    /**
+     * Освобождает email, занятые несостоявшимся пакетом.
+     */
+    private void release(Map<String, Long> claimed) {
+        claimed.forEach(idByEmail::remove);
+    }
+
+    private static boolean isAfter(LocalDateTime changedAt, long userId, ChangeWatermark watermark) {
+        int cmp = changedAt.compareTo(watermark.getChangedAt());
+        return cmp > 0 || (cmp == 0 && userId > watermark.getUserId());
+    }
+
+    private static LocalDate truncate(LocalDate day, SignupPeriod period) {
+        return period == SignupPeriod.WEEK ? day.with(TemporalAdjusters.previousOrSame(DayOfWeek.MONDAY)) : day;
+    }
+
+    private static List<UserEntity> copyAll(Collection<UserEntity> users) {
+        List<UserEntity> copies = new ArrayList<>(users.size());
+        for (UserEntity user : users) {
+            copies.add(user.copy());
+        }
+        return copies;
+    }
+}
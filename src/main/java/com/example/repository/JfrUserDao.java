@@ -0,0 +1,165 @@
+package com.example.repository;
+
+import com.example.dto.AgeBucket;
+import com.example.dto.AgeStats;
+import com.example.dto.ChangeWatermark;
+import com.example.dto.IdRangeSplit;
+import com.example.dto.SignupCount;
+import com.example.dto.SignupPeriod;
+import com.example.dto.UserChange;
+import com.example.entity.UserEntity;
+import com.example.jfr.DaoOperationEvent;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+import java.util.function.ToLongFunction;
+
+/**
+ * Декоратор DAO, записывающий {@link DaoOperationEvent} для каждого вызова.
+ * <p>
+ * Событие несёт имя метода, ID сущности (если он известен) и число строк результата.
+ * {@code save}, {@code update} и {@code deleteById} не сообщают, зафиксирована ли запись, поэтому
+ * для них число строк записывается как неизвестное (-1); {@code writeBatch} учитывает строки только
+ * зафиксированной транзакции.
+ * Пока запись JFR выключена или вызов короче порога события, затраты сводятся
+ * к проверке {@code isEnabled}/{@code shouldCommit}.
+ */
+public class JfrUserDao extends DelegatingUserDao {
+
+    /** Число строк для записей, исход которых делегат не сообщает. */
+    private static final long UNKNOWN_ROWS = -1;
+
+    public JfrUserDao(UserDao delegate) {
+        super(delegate);
+    }
+
+    @Override
+    public void save(UserEntity user) {
+        record("save", () -> {
+            delegate.save(user);
+            return user;
+        }, JfrUserDao::idOf, u -> UNKNOWN_ROWS);
+    }
+
+    @Override
+    public Optional<UserEntity> findById(Long id) {
+        return record("findById", () -> delegate.findById(id), r -> id, r -> r.isPresent() ? 1 : 0);
+    }
+
+    @Override
+    public Optional<UserEntity> findById(Long id, LocalDateTime createdAt) {
+        return record("findByIdWithHint", () -> delegate.findById(id, createdAt), r -> id, r -> r.isPresent() ? 1 : 0);
+    }
+
+    @Override
+    public Optional<LocalDateTime> findUpdatedAt(Long id) {
+        return record("findUpdatedAt", () -> delegate.findUpdatedAt(id), r -> id, r -> r.isPresent() ? 1 : 0);
+    }
+
+    @Override
+    public List<UserEntity> findAll() {
+        return record("findAll", delegate::findAll, r -> 0, List::size);
+    }
+
+    @Override
+    public List<UserEntity> findAfterId(Long afterId, int limit) {
+        return record("findAfterId", () -> delegate.findAfterId(afterId, limit), r -> 0, List::size);
+    }
+
+    @Override
+    public long scanPartitioned(int parallelism, IdRangeSplit split, int batchSize,
+                                Consumer<List<UserEntity>> consumer) {
+        return record("scanPartitioned", () -> delegate.scanPartitioned(parallelism, split, batchSize, consumer),
+                r -> 0, r -> r);
+    }
+
+    @Override
+    public void update(UserEntity user) {
+        record("update", () -> {
+            delegate.update(user);
+            return user;
+        }, JfrUserDao::idOf, u -> UNKNOWN_ROWS);
+    }
+
+    @Override
+    public boolean writeBatch(List<UserEntity> toSave, List<UserEntity> toUpdate) {
+        return record("writeBatch", () -> delegate.writeBatch(toSave, toUpdate),
+                r -> 0, r -> r ? toSave.size() + toUpdate.size() : 0);
+    }
+
+    @Override
+    public void deleteById(Long id) {
+        record("deleteById", () -> {
+            delegate.deleteById(id);
+            return id;
+        }, r -> id, r -> UNKNOWN_ROWS);
+    }
+
+    @Override
+    public Optional<UserEntity> findByEmail(String email) {
+        return record("findByEmail", () -> delegate.findByEmail(email),
+                r -> r.map(JfrUserDao::idOf).orElse(0L), r -> r.isPresent() ? 1 : 0);
+    }
+
+    @Override
+    public Optional<UserEntity> findByEmailIgnoreCase(String email) {
+        return record("findByEmailIgnoreCase", () -> delegate.findByEmailIgnoreCase(email),
+                r -> r.map(JfrUserDao::idOf).orElse(0L), r -> r.isPresent() ? 1 : 0);
+    }
+
+    @Override
+    public Set<String> findExistingEmails(Collection<String> emails) {
+        return record("findExistingEmails", () -> delegate.findExistingEmails(emails), r -> 0, Set::size);
+    }
+
+    @Override
+    public long countUsers() {
+        return record("countUsers", delegate::countUsers, r -> 0, r -> 1);
+    }
+
+    @Override
+    public AgeStats getAgeStats() {
+        return record("getAgeStats", delegate::getAgeStats, r -> 0, r -> 1);
+    }
+
+    @Override
+    public List<AgeBucket> getAgeDistribution(int bucketSize) {
+        return record("getAgeDistribution", () -> delegate.getAgeDistribution(bucketSize), r -> 0, List::size);
+    }
+
+    @Override
+    public List<SignupCount> getSignupCounts(SignupPeriod period, LocalDate from, LocalDate to) {
+        return record("getSignupCounts", () -> delegate.getSignupCounts(period, from, to), r -> 0, List::size);
+    }
+
+    @Override
+    public List<UserChange> findChangedSince(ChangeWatermark watermark, int limit) {
+        return record("findChangedSince", () -> delegate.findChangedSince(watermark, limit), r -> 0, List::size);
+    }
+
+    private static <T> T record(String operation, Supplier<T> call,
+                                ToLongFunction<T> entityId, ToLongFunction<T> rowCount) {
+        DaoOperationEvent event = new DaoOperationEvent();
+        if (!event.isEnabled()) {
+            return call.get();
+        }
+        event.begin();
+        T result = call.get();
+        event.end();
+        if (event.shouldCommit()) {
+            event.set(operation, entityId.applyAsLong(result), rowCount.applyAsLong(result));
+            event.commit();
+        }
+        return result;
+    }
+
+    private static long idOf(UserEntity user) {
+        return user.getId() != null ? user.getId() : 0;
+    }
+}
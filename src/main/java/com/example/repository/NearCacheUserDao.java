@@ -0,0 +1,267 @@
+package com.example.repository;
+
+import com.example.entity.UserEntity;
+import com.example.util.EmailNormalizer;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Локальный кэш пользователей узла для {@code findById} и {@code findByEmailIgnoreCase}.
+ * <p>
+ * Записи через этот декоратор сразу вытесняют изменённые ID; изменения с других узлов приходят
+ * через {@link com.example.cache.UserChangeListener}, который вызывает {@link #evictAll(Collection)}.
+ * Если уведомление потеряно, устаревание ограничено {@code maxStalenessMillis}: запись старше этого
+ * срока перед выдачей сверяется с БД по {@link UserDao#findUpdatedAt(Long)} и перечитывается,
+ * если версия изменилась. Наружу отдаются копии сущностей.
+ */
+public class NearCacheUserDao extends DelegatingUserDao {
+
+    private static final int DEFAULT_MAX_SIZE = 10_000;
+    private static final long DEFAULT_MAX_STALENESS_MILLIS = 5_000;
+
+    private final ConcurrentMap<Long, Entry> byId = new ConcurrentHashMap<>();
+    private final ConcurrentMap<String, Long> idByEmail = new ConcurrentHashMap<>();
+
+    private final int maxSize;
+    private final long maxStalenessNanos;
+    private final EmailNormalizer emailNormalizer;
+
+    /**
+     * Увеличивается при каждом вытеснении; чтение, во время которого оно случилось,
+     * не кладёт результат в кэш, так как мог быть прочитан уже устаревший снимок.
+     */
+    private final AtomicLong evictionEpoch = new AtomicLong();
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder revalidations = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+
+    public NearCacheUserDao(UserDao delegate, int maxSize, long maxStalenessMillis, EmailNormalizer emailNormalizer) {
+        super(delegate);
+        this.maxSize = maxSize;
+        this.maxStalenessNanos = TimeUnit.MILLISECONDS.toNanos(maxStalenessMillis);
+        this.emailNormalizer = emailNormalizer;
+    }
+
+    public NearCacheUserDao(UserDao delegate) {
+        this(delegate, DEFAULT_MAX_SIZE, DEFAULT_MAX_STALENESS_MILLIS, EmailNormalizer.DEFAULT);
+    }
+
+    @Override
+    public Optional<UserEntity> findById(Long id) {
+        Entry entry = byId.get(id);
+        if (entry != null && isCurrent(entry)) {
+            hits.increment();
+            return Optional.of(entry.user.copy());
+        }
+        misses.increment();
+        long epoch = evictionEpoch.get();
+        Optional<UserEntity> loaded = delegate.findById(id);
+        loaded.ifPresent(user -> cache(user, epoch));
+        return loaded;
+    }
+
+    @Override
+    public Optional<UserEntity> findByEmailIgnoreCase(String email) {
+        Long id = idByEmail.get(emailNormalizer.normalize(email));
+        Entry entry = id != null ? byId.get(id) : null;
+        if (entry != null
+                && Objects.equals(entry.user.getEmailNormalized(), emailNormalizer.normalize(email))
+                && isCurrent(entry)) {
+            hits.increment();
+            return Optional.of(entry.user.copy());
+        }
+        misses.increment();
+        long epoch = evictionEpoch.get();
+        Optional<UserEntity> loaded = delegate.findByEmailIgnoreCase(email);
+        loaded.ifPresent(user -> cache(user, epoch));
+        return loaded;
+    }
+
+    @Override
+    public void update(UserEntity user) {
+        try {
+            delegate.update(user);
+        } finally {
+            evict(user.getId());
+        }
+    }
+
+    @Override
+    public boolean writeBatch(List<UserEntity> toSave, List<UserEntity> toUpdate) {
+        try {
+            return delegate.writeBatch(toSave, toUpdate);
+        } finally {
+            toUpdate.forEach(user -> evict(user.getId()));
+        }
+    }
+
+    @Override
+    public void deleteById(Long id) {
+        try {
+            delegate.deleteById(id);
+        } finally {
+            evict(id);
+        }
+    }
+
+    /**
+     * Вытесняет пользователей с указанными ID.
+     */
+    public void evictAll(Collection<Long> ids) {
+        ids.forEach(this::evict);
+    }
+
+    /**
+     * Очищает кэш целиком, например после разрыва соединения слушателя уведомлений.
+     */
+    public void invalidateAll() {
+        evictionEpoch.incrementAndGet();
+        evictions.add(byId.size());
+        byId.clear();
+        idByEmail.clear();
+    }
+
+    /**
+     * Возвращает копии всех закэшированных пользователей, например для снимка перед остановкой.
+     */
+    public List<UserEntity> cachedUsers() {
+        List<UserEntity> users = new ArrayList<>(byId.size());
+        byId.values().forEach(entry -> users.add(entry.user.copy()));
+        return users;
+    }
+
+    /**
+     * Загружает пользователей, уже сверенных с БД (например из снимка), как свежие записи.
+     * Уже закэшированные ID не перезаписываются; вставка прекращается при заполнении кэша.
+     *
+     * @return число добавленных записей
+     */
+    public int restore(Collection<UserEntity> users) {
+        long epoch = evictionEpoch.get();
+        int restored = 0;
+        for (UserEntity user : users) {
+            if (byId.size() >= maxSize) {
+                break;
+            }
+            if (user.getId() != null && byId.putIfAbsent(user.getId(), new Entry(user.copy())) == null) {
+                if (user.getEmailNormalized() != null) {
+                    idByEmail.putIfAbsent(user.getEmailNormalized(), user.getId());
+                }
+                restored++;
+            }
+        }
+        // Вытеснения, пришедшие во время загрузки, могли относиться к загруженным пользователям
+        if (evictionEpoch.get() != epoch) {
+            invalidateAll();
+            return 0;
+        }
+        return restored;
+    }
+
+    public long getMaxStalenessMillis() {
+        return TimeUnit.NANOSECONDS.toMillis(maxStalenessNanos);
+    }
+
+    public int size() {
+        return byId.size();
+    }
+
+    public long getHitCount() {
+        return hits.sum();
+    }
+
+    public long getMissCount() {
+        return misses.sum();
+    }
+
+    /**
+     * Число проверок версии по истечении {@code maxStalenessMillis}.
+     */
+    public long getRevalidationCount() {
+        return revalidations.sum();
+    }
+
+    public long getEvictionCount() {
+        return evictions.sum();
+    }
+
+    private void evict(Long id) {
+        if (id == null) {
+            return;
+        }
+        evictionEpoch.incrementAndGet();
+        remove(id);
+    }
+
+    private void remove(Long id) {
+        Entry removed = byId.remove(id);
+        if (removed != null) {
+            evictions.increment();
+            String email = removed.user.getEmailNormalized();
+            if (email != null) {
+                idByEmail.remove(email, id);
+            }
+        }
+    }
+
+    /**
+     * Проверяет, можно ли отдать запись: свежую — сразу, устаревшую — после сверки версии.
+     */
+    private boolean isCurrent(Entry entry) {
+        if (System.nanoTime() - entry.verifiedAt < maxStalenessNanos) {
+            return true;
+        }
+        revalidations.increment();
+        Optional<LocalDateTime> updatedAt = delegate.findUpdatedAt(entry.user.getId());
+        if (updatedAt.isPresent() && updatedAt.get().equals(entry.user.getUpdatedAt())) {
+            entry.verifiedAt = System.nanoTime();
+            return true;
+        }
+        evict(entry.user.getId());
+        return false;
+    }
+
+    private void cache(UserEntity user, long epoch) {
+        if (user.getId() == null || evictionEpoch.get() != epoch) {
+            return;
+        }
+        if (byId.size() >= maxSize && !byId.containsKey(user.getId())) {
+            // Без учёта частоты обращений: вытесняем произвольную запись
+            Iterator<Long> ids = byId.keySet().iterator();
+            if (ids.hasNext()) {
+                remove(ids.next());
+            }
+        }
+        byId.put(user.getId(), new Entry(user.copy()));
+        if (user.getEmailNormalized() != null) {
+            idByEmail.put(user.getEmailNormalized(), user.getId());
+        }
+        // Вытеснение между проверкой и вставкой могло относиться к этому же пользователю
+        if (evictionEpoch.get() != epoch) {
+            evict(user.getId());
+        }
+    }
+
+    private static final class Entry {
+
+        private final UserEntity user;
+        private volatile long verifiedAt = System.nanoTime();
+
+        private Entry(UserEntity user) {
+            this.user = user;
+        }
+    }
+}
@@ -0,0 +1,140 @@
+package com.example.repository;
+
+import com.example.entity.UserEntity;
+import lombok.extern.slf4j.Slf4j;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Consumer;
+
+/**
+ * Параллельное чтение диапазонов ID с передачей порций в один поток-потребитель.
+ * <p>
+ * Каждый диапазон читается отдельной задачей в собственном {@link ForkJoinPool}; готовые порции складываются
+ * в ограниченную очередь, а вызывающий поток отдаёт их потребителю. Когда потребитель не успевает, очередь
+ * заполняется и читатели ждут — так объём прочитанных, но не обработанных строк ограничен
+ * {@code queueCapacity} порциями. Первая ошибка чтения или потребителя останавливает все диапазоны.
+ */
+@Slf4j
+final class PartitionedScan {
+
+    /** Маркер конца: кладётся последним завершившимся читателем. */
+    private static final List<UserEntity> END = new ArrayList<>(0);
+    private static final long OFFER_TIMEOUT_MILLIS = 100;
+
+    /**
+     * Читает диапазон [lo, hi) и передаёт порции в {@code sink}.
+     */
+    @FunctionalInterface
+    interface RangeReader {
+        void read(long lo, long hi, BatchSink sink) throws Exception;
+    }
+
+    @FunctionalInterface
+    interface BatchSink {
+        /**
+         * Ставит порцию в очередь, дожидаясь места.
+         *
+         * @return false, если чтение отменено и диапазон нужно бросить
+         */
+        boolean accept(List<UserEntity> batch) throws InterruptedException;
+    }
+
+    private PartitionedScan() {
+    }
+
+    /**
+     * @return число переданных потребителю строк или -1 при ошибке чтения
+     */
+    static long run(List<long[]> ranges, int parallelism, int queueCapacity,
+                    RangeReader reader, Consumer<List<UserEntity>> consumer) {
+        if (ranges.isEmpty()) {
+            return 0;
+        }
+        BlockingQueue<List<UserEntity>> queue = new ArrayBlockingQueue<>(queueCapacity);
+        AtomicInteger remaining = new AtomicInteger(ranges.size());
+        AtomicReference<Throwable> failure = new AtomicReference<>();
+        Cancellation cancellation = new Cancellation();
+        ForkJoinPool pool = new ForkJoinPool(parallelism);
+
+        BatchSink sink = batch -> offer(queue, batch, cancellation);
+        for (long[] range : ranges) {
+            pool.execute(() -> {
+                try {
+                    reader.read(range[0], range[1], sink);
+                } catch (Throwable e) {
+                    failure.compareAndSet(null, e);
+                    cancellation.cancelled = true;
+                } finally {
+                    if (remaining.decrementAndGet() == 0) {
+                        try {
+                            offer(queue, END, cancellation);
+                        } catch (InterruptedException e) {
+                            Thread.currentThread().interrupt();
+                        }
+                    }
+                }
+            });
+        }
+
+        long rows = 0;
+        try {
+            while (failure.get() == null) {
+                List<UserEntity> batch = queue.poll(OFFER_TIMEOUT_MILLIS, TimeUnit.MILLISECONDS);
+                if (batch == END) {
+                    break;
+                }
+                if (batch != null) {
+                    consumer.accept(batch);
+                    rows += batch.size();
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            failure.compareAndSet(null, e);
+        } finally {
+            cancellation.cancelled = true;
+            queue.clear();
+            pool.shutdown();
+            awaitTermination(pool);
+        }
+
+        if (failure.get() != null) {
+            log.error("Ошибка при параллельном чтении пользователей, передано {} строк", rows, failure.get());
+            return -1;
+        }
+        return rows;
+    }
+
+    private static boolean offer(BlockingQueue<List<UserEntity>> queue, List<UserEntity> batch,
+                                 Cancellation cancellation) throws InterruptedException {
+        while (!cancellation.cancelled) {
+            if (queue.offer(batch, OFFER_TIMEOUT_MILLIS, TimeUnit.MILLISECONDS)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static void awaitTermination(ForkJoinPool pool) {
+        try {
+            if (!pool.awaitTermination(30, TimeUnit.SECONDS)) {
+                log.warn("Читатели диапазонов не завершились за 30 секунд");
+                pool.shutdownNow();
+            }
+        } catch (InterruptedException e) {
+            pool.shutdownNow();
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static final class Cancellation {
+        private volatile boolean cancelled;
+    }
+}
@@ -0,0 +1,62 @@
+package com.example.repository;
+
+import com.example.entity.UserEntity;
+import io.smallrye.mutiny.Uni;
+
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Неблокирующий DAO для работы с пользователями.
+ * Методы не занимают поток на время запроса: результат приходит в {@link Uni}
+ * на потоке цикла событий Vert.x.
+ */
+public interface ReactiveUserDao {
+
+     /**
+      * Сохраняет нового пользователя в базе данных.
+      */
+     Uni<Void> save(UserEntity user);
+
+     /**
+      * Находит пользователя по ID.
+      */
+     Uni<Optional<UserEntity>> findById(Long id);
+
+     /**
+      * Возвращает список всех пользователей.
+      */
+     Uni<List<UserEntity>> findAll();
+
+     /**
+      * Возвращает до {@code limit} пользователей с ID больше {@code afterId}, упорядоченных по ID.
+      */
+     Uni<List<UserEntity>> findAfterId(Long afterId, int limit);
+
+     /**
+      * Обновляет существующего пользователя.
+      */
+     Uni<Void> update(UserEntity user);
+
+     /**
+      * Мягко удаляет пользователя по ID.
+      *
+      * @return true, если пользователь был найден и удалён
+      */
+     Uni<Boolean> deleteById(Long id);
+
+     /**
+      * Находит пользователя по email.
+      */
+     Uni<Optional<UserEntity>> findByEmail(String email);
+
+     /**
+      * Находит пользователя по нормализованному email (без учёта регистра и пробелов по краям).
+      */
+     Uni<Optional<UserEntity>> findByEmailIgnoreCase(String email);
+
+     /**
+      * Возвращает количество пользователей, не загружая строки.
+      */
+     Uni<Long> countUsers();
+}
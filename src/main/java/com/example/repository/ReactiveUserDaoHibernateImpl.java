@@ -0,0 +1,156 @@
+package com.example.repository;
+
+import com.example.entity.UserEntity;
+import com.example.entity.UserTombstoneEntity;
+import com.example.util.EmailNormalizer;
+import com.example.util.ReactiveSessionFactoryProvider;
+import io.smallrye.mutiny.Uni;
+import lombok.extern.slf4j.Slf4j;
+import org.hibernate.reactive.mutiny.Mutiny;
+
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Реализация {@link ReactiveUserDao} на Hibernate Reactive.
+ * Ошибки чтения, как и в {@link UserDaoHibernateImpl}, логируются и заменяются пустым результатом;
+ * ошибки записи логируются и передаются вызывающему в {@link Uni}.
+ * Запросы — именованные из {@link UserEntity}: они разбираются один раз при создании фабрики сессий.
+ * Сводные таблицы не поддерживаются: DAO не следует использовать вместе с
+ * {@code UserDaoHibernateImpl}, у которого включены сводки.
+ */
+@Slf4j
+public class ReactiveUserDaoHibernateImpl implements ReactiveUserDao {
+
+    private final Mutiny.SessionFactory sessionFactory;
+
+    private final EmailNormalizer emailNormalizer;
+
+    public ReactiveUserDaoHibernateImpl(Mutiny.SessionFactory sessionFactory, EmailNormalizer emailNormalizer) {
+        this.sessionFactory = sessionFactory;
+        this.emailNormalizer = emailNormalizer;
+    }
+
+    public ReactiveUserDaoHibernateImpl(Mutiny.SessionFactory sessionFactory) {
+        this(sessionFactory, EmailNormalizer.DEFAULT);
+    }
+
+    public ReactiveUserDaoHibernateImpl() {
+        this(ReactiveSessionFactoryProvider.getSessionFactory());
+    }
+
+    @Override
+    public Uni<Void> save(UserEntity user) {
+        user.setEmailNormalized(emailNormalizer.normalize(user.getEmail()));
+        return sessionFactory.withTransaction((session, tx) -> session.persist(user))
+                .invoke(() -> log.info("Пользователь сохранён: {}", user))
+                .onFailure().invoke(e -> log.error("Ошибка при сохранении пользователя {}", user, e));
+    }
+
+    @Override
+    public Uni<Optional<UserEntity>> findById(Long id) {
+        return sessionFactory.withSession(session -> session.find(UserEntity.class, id))
+                .map(Optional::ofNullable)
+                .onFailure().recoverWithItem(e -> {
+                    log.error("Ошибка при получении пользователя по id {}", id, e);
+                    return Optional.empty();
+                });
+    }
+
+    @Override
+    public Uni<List<UserEntity>> findAll() {
+        return sessionFactory.withSession(session -> session
+                        .createNamedQuery(UserEntity.FIND_ALL, UserEntity.class)
+                        .getResultList())
+                .onFailure().recoverWithItem(e -> {
+                    log.error("Ошибка при получении всех пользователей", e);
+                    return List.of();
+                });
+    }
+
+    @Override
+    public Uni<List<UserEntity>> findAfterId(Long afterId, int limit) {
+        return sessionFactory.withSession(session -> session
+                        .createNamedQuery(UserEntity.FIND_AFTER_ID, UserEntity.class)
+                        .setParameter("afterId", afterId != null ? afterId : 0L)
+                        .setMaxResults(limit)
+                        .getResultList())
+                .onFailure().recoverWithItem(e -> {
+                    log.error("Ошибка при получении пользователей после id {}", afterId, e);
+                    return List.of();
+                });
+    }
+
+    @Override
+    public Uni<Void> update(UserEntity user) {
+        user.setEmailNormalized(emailNormalizer.normalize(user.getEmail()));
+        return sessionFactory.withTransaction((session, tx) -> session.merge(user))
+                .invoke(merged -> log.info("Пользователь обновлён: {}", merged))
+                .onFailure().invoke(e -> log.error("Ошибка при обновлении пользователя {}", user, e))
+                .replaceWithVoid();
+    }
+
+    /**
+     * Мягкое удаление: как и в {@link UserDaoHibernateImpl#deleteById(Long)}, выставляет deleted_at
+     * и в той же транзакции пишет отметку об удалении для ленты изменений.
+     */
+    @Override
+    public Uni<Boolean> deleteById(Long id) {
+        LocalDateTime now = LocalDateTime.now().truncatedTo(ChronoUnit.MICROS);
+        return sessionFactory.withTransaction((session, tx) -> session
+                        .createNamedQuery(UserEntity.SOFT_DELETE)
+                        .setParameter("now", now)
+                        .setParameter("id", id)
+                        .executeUpdate()
+                        .chain(updated -> updated > 0
+                                ? session.persist(new UserTombstoneEntity(id, now)).replaceWith(true)
+                                : Uni.createFrom().item(false)))
+                .invoke(deleted -> {
+                    if (deleted) {
+                        log.info("Пользователь с id {} удалён", id);
+                    } else {
+                        log.warn("Пользователь с id {} не найден", id);
+                    }
+                })
+                .onFailure().invoke(e -> log.error("Ошибка при удалении пользователя с id {}", id, e));
+    }
+
+    @Override
+    public Uni<Optional<UserEntity>> findByEmail(String email) {
+        return sessionFactory.withSession(session -> session
+                        .createNamedQuery(UserEntity.FIND_BY_EMAIL, UserEntity.class)
+                        .setParameter("email", email)
+                        .getSingleResultOrNull())
+                .map(Optional::ofNullable)
+                .onFailure().recoverWithItem(e -> {
+                    log.error("Ошибка при поиске пользователя по email {}", email, e);
+                    return Optional.empty();
+                });
+    }
+
+    @Override
+    public Uni<Optional<UserEntity>> findByEmailIgnoreCase(String email) {
+        return sessionFactory.withSession(session -> session
+                        .createNamedQuery(UserEntity.FIND_BY_EMAIL_NORMALIZED, UserEntity.class)
+                        .setParameter("email", emailNormalizer.normalize(email))
+                        .getSingleResultOrNull())
+                .map(Optional::ofNullable)
+                .onFailure().recoverWithItem(e -> {
+                    log.error("Ошибка при поиске пользователя по email без учёта регистра {}", email, e);
+                    return Optional.empty();
+                });
+    }
+
+    @Override
+    public Uni<Long> countUsers() {
+        return sessionFactory.withSession(session -> session
+                        .createNamedQuery(UserEntity.COUNT, Long.class)
+                        .getSingleResult())
+                .onFailure().recoverWithItem(e -> {
+                    log.error("Ошибка при подсчёте пользователей", e);
+                    return 0L;
+                });
+    }
+}
@@ -0,0 +1,107 @@
+package com.example.repository;
+
+import com.example.entity.UserEntity;
+
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+/**
+ * Декоратор DAO, объединяющий одновременные поиски по одному и тому же ключу.
+ * <p>
+ * Первый поток, запросивший {@code findById}, {@code findByEmail} или {@code findByEmailIgnoreCase}
+ * для ключа, выполняет запрос к делегату; потоки, пришедшие с тем же ключом до его завершения,
+ * ждут и получают тот же результат (или то же исключение). После завершения результат не хранится:
+ * следующий вызов снова идёт в БД. Каждому вызывающему, включая выполнившего запрос, отдаётся
+ * своя копия сущности: общий результат остаётся неизменным, пока ожидающие снимают с него копии.
+ */
+public class SingleFlightUserDao extends DelegatingUserDao {
+
+    private final ConcurrentMap<Key, CompletableFuture<Optional<UserEntity>>> inFlight = new ConcurrentHashMap<>();
+
+    private final LongAdder executed = new LongAdder();
+    private final LongAdder collapsed = new LongAdder();
+
+    public SingleFlightUserDao(UserDao delegate) {
+        super(delegate);
+    }
+
+    @Override
+    public Optional<UserEntity> findById(Long id) {
+        return coalesce(new Key("findById", id), () -> delegate.findById(id));
+    }
+
+    @Override
+    public Optional<UserEntity> findByEmail(String email) {
+        return coalesce(new Key("findByEmail", email), () -> delegate.findByEmail(email));
+    }
+
+    @Override
+    public Optional<UserEntity> findByEmailIgnoreCase(String email) {
+        return coalesce(new Key("findByEmailIgnoreCase", email), () -> delegate.findByEmailIgnoreCase(email));
+    }
+
+    /**
+     * Число запросов, действительно переданных делегату.
+     */
+    public long getExecutedCount() {
+        return executed.sum();
+    }
+
+    /**
+     * Число вызовов, присоединившихся к уже выполняющемуся запросу вместо собственного.
+     */
+    public long getCollapsedCount() {
+        return collapsed.sum();
+    }
+
+    /**
+     * Число ключей, по которым сейчас выполняется запрос.
+     */
+    public int getInFlightCount() {
+        return inFlight.size();
+    }
+
+    private Optional<UserEntity> coalesce(Key key, Supplier<Optional<UserEntity>> lookup) {
+        CompletableFuture<Optional<UserEntity>> own = new CompletableFuture<>();
+        CompletableFuture<Optional<UserEntity>> existing = inFlight.putIfAbsent(key, own);
+        if (existing != null) {
+            collapsed.increment();
+            return await(existing).map(UserEntity::copy);
+        }
+
+        executed.increment();
+        try {
+            Optional<UserEntity> result = lookup.get();
+            // Ключ снимается до публикации результата, чтобы опоздавшие не получили его как кэш
+            inFlight.remove(key, own);
+            own.complete(result);
+            return result.map(UserEntity::copy);
+        } catch (RuntimeException | Error e) {
+            inFlight.remove(key, own);
+            own.completeExceptionally(e);
+            throw e;
+        }
+    }
+
+    private static Optional<UserEntity> await(CompletableFuture<Optional<UserEntity>> future) {
+        try {
+            return future.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            if (e.getCause() instanceof Error cause) {
+                throw cause;
+            }
+            throw e;
+        }
+    }
+
+    private record Key(String operation, Object argument) {
+    }
+}
@@ -1,8 +1,23 @@
 package com.example.repository;
 
+import com.example.dto.AgeBucket;
+import com.example.dto.AgeStats;
+import com.example.dto.ChangeWatermark;
+import com.example.dto.IdRangeSplit;
+import com.example.dto.SignupCount;
+import com.example.dto.SignupPeriod;
+import com.example.dto.UserChange;
 import com.example.entity.UserEntity;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.Optional;
 import java.util.List;
+import java.util.Set;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
 
 /**
  * DAO для работы с пользователями.
@@ -19,16 +34,74 @@ public interface UserDao {
       */
      Optional<UserEntity> findById(Long id);
 
+     /**
+      * Находит пользователя по ID с подсказкой — точной датой регистрации {@code createdAt}.
+      * В секционированной таблице подсказка позволяет читать одну секцию вместо всех.
+      * Без подсказки (null) равносилен {@link #findById(Long)}.
+      */
+     default Optional<UserEntity> findById(Long id, LocalDateTime createdAt) {
+          return findById(id);
+     }
+
+     /**
+      * Возвращает время последнего изменения пользователя, не загружая строку целиком.
+      * Используется кэшами для дешёвой проверки версии закэшированной сущности.
+      */
+     default Optional<LocalDateTime> findUpdatedAt(Long id) {
+          return findById(id).map(UserEntity::getUpdatedAt);
+     }
+
      /**
       * Возвращает список всех пользователей.
       */
      List<UserEntity> findAll();
 
+     /**
+      * Возвращает до {@code limit} пользователей с ID больше {@code afterId}, упорядоченных по ID.
+      * Используется для постраничного чтения таблицы без OFFSET.
+      */
+     List<UserEntity> findAfterId(Long afterId, int limit);
+
+     /**
+      * Читает всех пользователей, разбив пространство ID на диапазоны, которые читаются параллельно
+      * не более чем {@code parallelism} потоками, каждый в своей сессии.
+      * Порции до {@code batchSize} пользователей передаются в {@code consumer} в вызывающем потоке:
+      * порядок внутри диапазона — по ID, между диапазонами не определён. Пока потребитель обрабатывает порцию,
+      * читатели заполняют ограниченную очередь и ждут, поэтому память не растёт с размером таблицы.
+      * Исключение потребителя останавливает чтение и пробрасывается.
+      * <p>
+      * Реализация по умолчанию читает таблицу последовательно через {@link #findAfterId(Long, int)}.
+      *
+      * @return число переданных пользователей или -1 при ошибке чтения (часть порций могла быть уже передана)
+      */
+     default long scanPartitioned(int parallelism, IdRangeSplit split, int batchSize,
+                                  Consumer<List<UserEntity>> consumer) {
+          long rows = 0;
+          Long afterId = 0L;
+          List<UserEntity> page;
+          do {
+               page = findAfterId(afterId, batchSize);
+               if (!page.isEmpty()) {
+                    consumer.accept(page);
+                    rows += page.size();
+                    afterId = page.get(page.size() - 1).getId();
+               }
+          } while (page.size() == batchSize);
+          return rows;
+     }
+
      /**
       * Обновляет существующего пользователя.
       */
      void update(UserEntity user);
 
+     /**
+      * Сохраняет новых и обновляет существующих пользователей в одной транзакции.
+      *
+      * @return true, если транзакция зафиксирована; при false не записан ни один пользователь
+      */
+     boolean writeBatch(List<UserEntity> toSave, List<UserEntity> toUpdate);
+
      /**
       * Удаляет пользователя по ID.
       */
@@ -38,4 +111,68 @@ public interface UserDao {
       * Находит пользователя по email.
       */
      Optional<UserEntity> findByEmail(String email);
-}
\ No newline at end of file
+
+     /**
+      * Находит пользователя по нормализованному email (без учёта регистра и пробелов по краям)
+      * поиском по уникальному индексу.
+      */
+     Optional<UserEntity> findByEmailIgnoreCase(String email);
+
+     /**
+      * Возвращает те из переданных email, которые уже заняты; сравнение — по нормализованному email.
+      * Проверяет весь набор пакетными запросами {@code IN} вместо запроса на каждый email.
+      * Ошибку чтения не скрывает, а пробрасывает: пустой результат означал бы, что все email свободны.
+      */
+     Set<String> findExistingEmails(Collection<String> emails);
+
+     /**
+      * Возвращает количество пользователей, не загружая строки.
+      */
+     long countUsers();
+
+     /**
+      * Возвращает минимальный, максимальный и средний возраст пользователей.
+      */
+     AgeStats getAgeStats();
+
+     /**
+      * Возвращает гистограмму возрастов с интервалами шириной {@code bucketSize} лет.
+      * Пустые интервалы не включаются.
+      */
+     List<AgeBucket> getAgeDistribution(int bucketSize);
+
+     /**
+      * Возвращает количество регистраций по дням или неделям в диапазоне [from, to).
+      */
+     List<SignupCount> getSignupCounts(SignupPeriod period, LocalDate from, LocalDate to);
+
+     /**
+      * Возвращает до {@code limit} изменений (создания, обновления и удаления), сделанных после
+      * позиции {@code watermark}, в порядке времени изменения и ID.
+      * Следующую порцию нужно запрашивать с {@link UserChange#getWatermark()} последнего изменения.
+      * Реализация может не отдавать самые свежие изменения, пока не истечёт её окно устоявшихся записей
+      * ({@link #getChangeFeedSettleWindow()}): иначе изменение из ещё не зафиксированной транзакции
+      * оказалось бы позади позиции потребителя.
+      */
+     List<UserChange> findChangedSince(ChangeWatermark watermark, int limit);
+
+     /**
+      * Окно устоявшихся записей ленты изменений: {@link #findChangedSince} не отдаёт изменения моложе него.
+      */
+     default Duration getChangeFeedSettleWindow() {
+          return Duration.ZERO;
+     }
+
+     /**
+      * Лениво читает ленту изменений порциями по {@code batchSize}, начиная с позиции {@code watermark}.
+      */
+     default Stream<UserChange> streamChangesSince(ChangeWatermark watermark, int batchSize) {
+          return Stream.iterate(
+                          findChangedSince(watermark, batchSize),
+                          batch -> !batch.isEmpty(),
+                          batch -> batch.size() < batchSize
+                                  ? List.of()
+                                  : findChangedSince(batch.get(batch.size() - 1).getWatermark(), batchSize))
+                  .flatMap(List::stream);
+     }
+}
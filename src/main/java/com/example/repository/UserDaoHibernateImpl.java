@@ -1,22 +1,90 @@
 package com.example.repository;
 
+import com.example.dto.AgeBucket;
+import com.example.dto.AgeStats;
+import com.example.dto.ChangeWatermark;
+import com.example.dto.IdRangeSplit;
+import com.example.dto.SignupCount;
+import com.example.dto.SignupPeriod;
+import com.example.dto.UserChange;
+import com.example.entity.UserAgeSummaryEntity;
 import com.example.entity.UserEntity;
+import com.example.entity.UserSignupSummaryEntity;
+import com.example.entity.UserTombstoneEntity;
+import com.example.jfr.TransactionEvent;
+import com.example.util.EmailNormalizer;
 import com.example.util.HibernateSessionFactoryProvider;
 import lombok.extern.slf4j.Slf4j;
 import org.hibernate.Session;
 import org.hibernate.SessionFactory;
 import org.hibernate.Transaction;
 
+import java.sql.Date;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.function.Consumer;
+import java.util.stream.Collectors;
 
 @Slf4j
 public class UserDaoHibernateImpl implements UserDao {
 
+    /** Размер списка в одном запросе {@code IN}: ограничивает число параметров и размер плана. */
+    private static final int EMAIL_LOOKUP_CHUNK = 1_000;
+
+    private static final int RANGES_PER_SCAN_THREAD = 4;
+    /** Сколько прочитанных порций на поток может ждать потребителя, прежде чем чтение приостановится. */
+    private static final int SCAN_BATCHES_PER_THREAD = 2;
+    private static final double ID_SAMPLE_PERCENT = 1.0;
+    private static final Duration DEFAULT_CHANGE_FEED_SETTLE_WINDOW = Duration.ofSeconds(5);
+
     private final SessionFactory sessionFactory;
 
-    public UserDaoHibernateImpl(SessionFactory sessionFactory) {
+    /**
+     * Если включено, сводные таблицы user_age_summary и user_signup_summary обновляются
+     * в той же транзакции, что и запись пользователя, а агрегаты читаются из них.
+     * Изменения счётчиков копятся за транзакцию и применяются в её конце в порядке ключей (см. {@link SummaryDelta}).
+     */
+    private final boolean summaryEnabled;
+
+    private final EmailNormalizer emailNormalizer;
+
+    /**
+     * Лента изменений отдаёт только изменения старше этого окна. updated_at ставится часами приложения
+     * до фиксации транзакции, поэтому строка может стать видимой позже, чем потребитель прочитал
+     * ленту дальше её отметки, и была бы пропущена навсегда. Окно должно превышать самую долгую
+     * пишущую транзакцию плюс расхождение часов между узлами.
+     */
+    private final Duration changeFeedSettleWindow;
+
+    public UserDaoHibernateImpl(SessionFactory sessionFactory, boolean summaryEnabled, EmailNormalizer emailNormalizer,
+                                Duration changeFeedSettleWindow) {
         this.sessionFactory = sessionFactory;
+        this.summaryEnabled = summaryEnabled;
+        this.emailNormalizer = emailNormalizer;
+        this.changeFeedSettleWindow = changeFeedSettleWindow;
+    }
+
+    public UserDaoHibernateImpl(SessionFactory sessionFactory, boolean summaryEnabled, EmailNormalizer emailNormalizer) {
+        this(sessionFactory, summaryEnabled, emailNormalizer, DEFAULT_CHANGE_FEED_SETTLE_WINDOW);
+    }
+
+    public UserDaoHibernateImpl(SessionFactory sessionFactory, boolean summaryEnabled) {
+        this(sessionFactory, summaryEnabled, EmailNormalizer.DEFAULT);
+    }
+
+    public UserDaoHibernateImpl(SessionFactory sessionFactory) {
+        this(sessionFactory, false);
     }
 
     public UserDaoHibernateImpl() {
@@ -25,7 +93,11 @@ public class UserDaoHibernateImpl implements UserDao {
 
     @Override
     public void save(UserEntity user) {
-        executeInTransaction(session -> session.save(user));
+        executeInTransaction("save", session -> {
+            SummaryDelta summary = new SummaryDelta();
+            saveInSession(session, user, summary);
+            summary.apply(session);
+        });
         log.info("Пользователь сохранён: {}", user);
     }
 
@@ -39,21 +111,152 @@ public class UserDaoHibernateImpl implements UserDao {
         }
     }
 
+    @Override
+    public Optional<UserEntity> findById(Long id, LocalDateTime createdAt) {
+        if (createdAt == null) {
+            return findById(id);
+        }
+        try (Session session = sessionFactory.openSession()) {
+            return session.createNamedQuery(UserEntity.FIND_BY_ID_AND_CREATED_AT, UserEntity.class)
+                    .setParameter("id", id)
+                    .setParameter("createdAt", createdAt.truncatedTo(ChronoUnit.SECONDS))
+                    .uniqueResultOptional();
+        } catch (Exception e) {
+            log.error("Ошибка при получении пользователя по id {} и дате регистрации {}", id, createdAt, e);
+            return Optional.empty();
+        }
+    }
+
+    @Override
+    public Optional<LocalDateTime> findUpdatedAt(Long id) {
+        try (Session session = sessionFactory.openSession()) {
+            return session.createNamedQuery(UserEntity.FIND_UPDATED_AT, LocalDateTime.class)
+                    .setParameter("id", id)
+                    .uniqueResultOptional();
+        } catch (Exception e) {
+            log.error("Ошибка при получении времени изменения пользователя с id {}", id, e);
+            return Optional.empty();
+        }
+    }
+
     @Override
     public List<UserEntity> findAll() {
         try (Session session = sessionFactory.openSession()) {
-            return session.createQuery("FROM UserEntity", UserEntity.class).getResultList();
+            return session.createNamedQuery(UserEntity.FIND_ALL, UserEntity.class).getResultList();
         } catch (Exception e) {
             log.error("Ошибка при получении всех пользователей", e);
             return List.of();
         }
     }
 
+    @Override
+    public List<UserEntity> findAfterId(Long afterId, int limit) {
+        try (Session session = sessionFactory.openSession()) {
+            return session.createNamedQuery(UserEntity.FIND_AFTER_ID, UserEntity.class)
+                    .setParameter("afterId", afterId != null ? afterId : 0L)
+                    .setMaxResults(limit)
+                    .getResultList();
+        } catch (Exception e) {
+            log.error("Ошибка при получении пользователей после id {}", afterId, e);
+            return List.of();
+        }
+    }
+
+    /**
+     * Диапазонов в несколько раз больше, чем потоков: поток, закончивший короткий диапазон,
+     * берёт следующий, и неравномерность диапазонов сглаживается.
+     */
+    @Override
+    public long scanPartitioned(int parallelism, IdRangeSplit split, int batchSize,
+                                Consumer<List<UserEntity>> consumer) {
+        List<long[]> ranges;
+        try {
+            ranges = splitIdRanges(parallelism * RANGES_PER_SCAN_THREAD, split);
+        } catch (Exception e) {
+            log.error("Ошибка при разбиении пользователей на диапазоны ID", e);
+            return -1;
+        }
+        return PartitionedScan.run(ranges, parallelism, parallelism * SCAN_BATCHES_PER_THREAD,
+                (lo, hi, sink) -> scanRange(lo, hi, batchSize, sink), consumer);
+    }
+
+    /**
+     * Делит [min(id), max(id)] на не более чем {@code count} полуоткрытых диапазонов.
+     * Для {@link IdRangeSplit#QUANTILES} границы берутся из выборки ID по {@value #ID_SAMPLE_PERCENT}%
+     * страниц таблицы; если выборка слишком мала, диапазоны делятся поровну.
+     */
+    private List<long[]> splitIdRanges(int count, IdRangeSplit split) {
+        try (Session session = sessionFactory.openSession()) {
+            Object[] bounds = session.createNamedQuery(UserEntity.ID_BOUNDS, Object[].class)
+                    .getSingleResult();
+            if (bounds[0] == null) {
+                return List.of();
+            }
+            long min = (Long) bounds[0];
+            long max = (Long) bounds[1];
+
+            List<Long> boundaries = new ArrayList<>(count);
+            if (split == IdRangeSplit.QUANTILES) {
+                List<Long> sample = session.createNamedQuery(UserEntity.SAMPLE_IDS, Long.class)
+                        .setParameter("percent", ID_SAMPLE_PERCENT)
+                        .getResultList();
+                if (sample.size() >= count * 2) {
+                    for (int i = 1; i < count; i++) {
+                        long boundary = sample.get((int) ((long) i * sample.size() / count));
+                        if (boundary > min && boundary <= max
+                                && (boundaries.isEmpty() || boundary > boundaries.get(boundaries.size() - 1))) {
+                            boundaries.add(boundary);
+                        }
+                    }
+                }
+            }
+            if (boundaries.isEmpty()) {
+                long step = Math.max(1, (max - min + count) / count);
+                for (long boundary = min + step; boundary <= max; boundary += step) {
+                    boundaries.add(boundary);
+                }
+            }
+
+            List<long[]> ranges = new ArrayList<>(boundaries.size() + 1);
+            long lo = min;
+            for (long boundary : boundaries) {
+                ranges.add(new long[]{lo, boundary});
+                lo = boundary;
+            }
+            ranges.add(new long[]{lo, max + 1});
+            return ranges;
+        }
+    }
+
+    /**
+     * Читает диапазон [lo, hi) постранично по ID в одной сессии. Сессия очищается после каждой порции,
+     * поэтому переданные сущности отсоединены и не накапливаются в persistence context.
+     */
+    private void scanRange(long lo, long hi, int batchSize, PartitionedScan.BatchSink sink)
+            throws InterruptedException {
+        try (Session session = sessionFactory.openSession()) {
+            session.setDefaultReadOnly(true);
+            long afterId = lo - 1;
+            List<UserEntity> page;
+            do {
+                page = session.createNamedQuery(UserEntity.FIND_IN_ID_RANGE, UserEntity.class)
+                        .setParameter("afterId", afterId)
+                        .setParameter("hi", hi)
+                        .setMaxResults(batchSize)
+                        .getResultList();
+                session.clear();
+                if (page.isEmpty() || !sink.accept(page)) {
+                    return;
+                }
+                afterId = page.get(page.size() - 1).getId();
+            } while (page.size() == batchSize);
+        }
+    }
+
     @Override
     public Optional<UserEntity> findByEmail(String email) {
         try (Session session = sessionFactory.openSession()) {
-            return session.createQuery(
-                            "FROM UserEntity u WHERE u.email = :email", UserEntity.class)
+            return session.createNamedQuery(UserEntity.FIND_BY_EMAIL, UserEntity.class)
                     .setParameter("email", email)
                     .uniqueResultOptional();
         } catch (Exception e) {
@@ -62,18 +265,88 @@ public class UserDaoHibernateImpl implements UserDao {
         }
     }
 
+    @Override
+    public Optional<UserEntity> findByEmailIgnoreCase(String email) {
+        try (Session session = sessionFactory.openSession()) {
+            return session.createNamedQuery(UserEntity.FIND_BY_EMAIL_NORMALIZED, UserEntity.class)
+                    .setParameter("email", emailNormalizer.normalize(email))
+                    .uniqueResultOptional();
+        } catch (Exception e) {
+            log.error("Ошибка при поиске пользователя по email без учёта регистра {}", email, e);
+            return Optional.empty();
+        }
+    }
+
+    @Override
+    public Set<String> findExistingEmails(Collection<String> emails) {
+        Map<String, List<String>> byNormalized = emails.stream()
+                .collect(Collectors.groupingBy(emailNormalizer::normalize));
+        List<String> normalized = new ArrayList<>(byNormalized.keySet());
+        Set<String> existing = new HashSet<>();
+        try (Session session = sessionFactory.openSession()) {
+            for (int from = 0; from < normalized.size(); from += EMAIL_LOOKUP_CHUNK) {
+                List<String> chunk = normalized.subList(from, Math.min(from + EMAIL_LOOKUP_CHUNK, normalized.size()));
+                session.createNamedQuery(UserEntity.FIND_EXISTING_EMAILS, String.class)
+                        .setParameter("emails", chunk)
+                        .getResultList()
+                        .forEach(found -> existing.addAll(byNormalized.get(found)));
+            }
+            return existing;
+        } catch (RuntimeException e) {
+            // Пустой результат означал бы, что все email свободны, поэтому ошибка пробрасывается
+            log.error("Ошибка при пакетной проверке {} email", normalized.size(), e);
+            throw e;
+        }
+    }
+
     @Override
     public void update(UserEntity user) {
-        executeInTransaction(session -> session.merge(user));
+        executeInTransaction("update", session -> {
+            SummaryDelta summary = new SummaryDelta();
+            updateInSession(session, user, summary);
+            summary.apply(session);
+        });
         log.info("Пользователь обновлён: {}", user);
     }
 
+    @Override
+    public boolean writeBatch(List<UserEntity> toSave, List<UserEntity> toUpdate) {
+        boolean committed = executeInTransaction("writeBatch", session -> {
+            SummaryDelta summary = new SummaryDelta();
+            for (UserEntity user : toSave) {
+                saveInSession(session, user, summary);
+            }
+            for (UserEntity user : toUpdate) {
+                updateInSession(session, user, summary);
+            }
+            summary.apply(session);
+        });
+        if (committed) {
+            log.info("Пакет записан: {} новых, {} обновлённых пользователей", toSave.size(), toUpdate.size());
+        }
+        return committed;
+    }
+
+    /**
+     * Мягкое удаление: одна команда UPDATE выставляет deleted_at, строки физически удаляет
+     * {@link #purgeDeleted(int)}. Сводные таблицы уменьшаются и отметка об удалении пишется сразу.
+     */
     @Override
     public void deleteById(Long id) {
-        executeInTransaction(session -> {
-            UserEntity user = session.get(UserEntity.class, id);
-            if (user != null) {
-                session.delete(user);
+        executeInTransaction("deleteById", session -> {
+            UserEntity user = summaryEnabled ? session.get(UserEntity.class, id) : null;
+            LocalDateTime now = LocalDateTime.now().truncatedTo(ChronoUnit.MICROS);
+            int updated = session.createNamedMutationQuery(UserEntity.SOFT_DELETE)
+                    .setParameter("now", now)
+                    .setParameter("id", id)
+                    .executeUpdate();
+            if (updated > 0) {
+                if (user != null) {
+                    SummaryDelta summary = new SummaryDelta();
+                    summary.add(user, -1);
+                    summary.apply(session);
+                }
+                session.persist(new UserTombstoneEntity(id, now));
                 log.info("Пользователь с id {} удалён", id);
             } else {
                 log.warn("Пользователь с id {} не найден", id);
@@ -81,12 +354,218 @@ public class UserDaoHibernateImpl implements UserDao {
         });
     }
 
-    private void executeInTransaction(SessionConsumer consumer) {
+    @Override
+    public long countUsers() {
+        String name = summaryEnabled ? UserAgeSummaryEntity.COUNT_USERS : UserEntity.COUNT;
+        try (Session session = sessionFactory.openSession()) {
+            return session.createNamedQuery(name, Long.class).getSingleResult();
+        } catch (Exception e) {
+            log.error("Ошибка при подсчёте пользователей", e);
+            return 0;
+        }
+    }
+
+    @Override
+    public AgeStats getAgeStats() {
+        String name = summaryEnabled ? UserAgeSummaryEntity.AGE_STATS : UserEntity.AGE_STATS;
+        try (Session session = sessionFactory.openSession()) {
+            var query = session.createNamedQuery(name, Object[].class);
+            if (summaryEnabled) {
+                query.setParameter("unknown", UserAgeSummaryEntity.UNKNOWN_AGE);
+            }
+            Object[] row = query.getSingleResult();
+            long count = ((Number) row[0]).longValue();
+            if (count == 0) {
+                return new AgeStats(0, null, null, null);
+            }
+            double sum = ((Number) row[3]).doubleValue();
+            return new AgeStats(count, (Integer) row[1], (Integer) row[2], sum / count);
+        } catch (Exception e) {
+            log.error("Ошибка при вычислении статистики возраста", e);
+            return new AgeStats(0, null, null, null);
+        }
+    }
+
+    @Override
+    public List<AgeBucket> getAgeDistribution(int bucketSize) {
+        String name = summaryEnabled ? UserAgeSummaryEntity.AGE_DISTRIBUTION : UserEntity.AGE_DISTRIBUTION;
+        try (Session session = sessionFactory.openSession()) {
+            var query = session.createNamedQuery(name, Object[].class);
+            if (summaryEnabled) {
+                query.setParameter("unknown", UserAgeSummaryEntity.UNKNOWN_AGE);
+            }
+            return toBuckets(query.getResultList(), bucketSize);
+        } catch (Exception e) {
+            log.error("Ошибка при построении распределения возрастов", e);
+            return List.of();
+        }
+    }
+
+    @Override
+    public List<SignupCount> getSignupCounts(SignupPeriod period, LocalDate from, LocalDate to) {
+        // Единица передаётся параметром, чтобы у всех периодов был один текст запроса и один подготовленный план
+        String name = summaryEnabled ? UserSignupSummaryEntity.SIGNUP_COUNTS : UserEntity.SIGNUP_COUNTS;
+        try (Session session = sessionFactory.openSession()) {
+            List<Object[]> rows = session.createNamedQuery(name, Object[].class)
+                    .setParameter("unit", period.getSqlUnit())
+                    .setParameter("from", summaryEnabled ? from : from.atStartOfDay())
+                    .setParameter("to", summaryEnabled ? to : to.atStartOfDay())
+                    .getResultList();
+            List<SignupCount> result = new ArrayList<>(rows.size());
+            for (Object[] row : rows) {
+                result.add(new SignupCount(toLocalDate(row[0]), ((Number) row[1]).longValue()));
+            }
+            return result;
+        } catch (Exception e) {
+            log.error("Ошибка при подсчёте регистраций с {} по {}", from, to, e);
+            return List.of();
+        }
+    }
+
+    @Override
+    public List<UserChange> findChangedSince(ChangeWatermark watermark, int limit) {
+        LocalDateTime settledBefore = LocalDateTime.now().minus(changeFeedSettleWindow);
+        try (Session session = sessionFactory.openSession()) {
+            List<UserChange> changes = new ArrayList<>();
+            session.createNamedQuery(UserEntity.CHANGED_SINCE, UserEntity.class)
+                    .setParameter("ts", watermark.getChangedAt())
+                    .setParameter("id", watermark.getUserId())
+                    .setParameter("settledBefore", settledBefore)
+                    .setMaxResults(limit)
+                    .getResultList()
+                    .forEach(u -> changes.add(
+                            new UserChange(UserChange.Type.UPSERT, u.getId(), u.getUpdatedAt(), u)));
+            session.createNamedQuery(UserTombstoneEntity.CHANGED_SINCE, UserTombstoneEntity.class)
+                    .setParameter("ts", watermark.getChangedAt())
+                    .setParameter("id", watermark.getUserId())
+                    .setParameter("settledBefore", settledBefore)
+                    .setMaxResults(limit)
+                    .getResultList()
+                    .forEach(t -> changes.add(
+                            new UserChange(UserChange.Type.DELETE, t.getUserId(), t.getDeletedAt(), null)));
+
+            // Обе выборки упорядочены и ограничены limit, поэтому первые limit элементов слияния точны
+            changes.sort(Comparator.comparing(UserChange::getChangedAt).thenComparing(UserChange::getUserId));
+            return changes.size() > limit ? new ArrayList<>(changes.subList(0, limit)) : changes;
+        } catch (Exception e) {
+            log.error("Ошибка при чтении ленты изменений после {}", watermark, e);
+            return List.of();
+        }
+    }
+
+    @Override
+    public Duration getChangeFeedSettleWindow() {
+        return changeFeedSettleWindow;
+    }
+
+    /**
+     * DAO над той же фабрикой сессий с другим окном устоявшихся записей ленты изменений,
+     * например нулевым для прогрева кэша в {@code NearCacheWarmer}.
+     */
+    public UserDaoHibernateImpl withChangeFeedSettleWindow(Duration window) {
+        return new UserDaoHibernateImpl(sessionFactory, summaryEnabled, emailNormalizer, window);
+    }
+
+    /**
+     * Удаляет отметки об удалении старше {@code before}.
+     * Потребители ленты, отставшие дальше этой границы, должны выполнить полную синхронизацию.
+     */
+    public void deleteTombstonesBefore(LocalDateTime before) {
+        executeInTransaction("deleteTombstonesBefore", session -> session
+                .createNamedMutationQuery(UserTombstoneEntity.DELETE_BEFORE)
+                .setParameter("before", before)
+                .executeUpdate());
+    }
+
+    /**
+     * Физически удаляет до {@code limit} мягко удалённых пользователей с наименьшими ID
+     * одной короткой транзакцией.
+     *
+     * @return число удалённых строк; 0, если удалять нечего или произошла ошибка
+     */
+    public int purgeDeleted(int limit) {
+        int[] purged = {0};
+        executeInTransaction("purgeDeleted", session -> purged[0] = session.createNamedMutationQuery(UserEntity.PURGE_DELETED)
+                .setParameter("limit", limit)
+                .executeUpdate());
+        return purged[0];
+    }
+
+    /**
+     * Пересчитывает сводные таблицы по текущему содержимому users.
+     * Нужен при первом включении сводок на непустой таблице.
+     */
+    public void rebuildSummary() {
+        executeInTransaction("rebuildSummary", session -> {
+            session.createNamedMutationQuery(UserAgeSummaryEntity.CLEAR).executeUpdate();
+            session.createNamedMutationQuery(UserSignupSummaryEntity.CLEAR).executeUpdate();
+            session.createNamedMutationQuery(UserAgeSummaryEntity.REBUILD)
+                    .setParameter("unknown", UserAgeSummaryEntity.UNKNOWN_AGE)
+                    .executeUpdate();
+            session.createNamedMutationQuery(UserSignupSummaryEntity.REBUILD).executeUpdate();
+        });
+        log.info("Сводные таблицы пользователей пересчитаны");
+    }
+
+    private void saveInSession(Session session, UserEntity user, SummaryDelta summary) {
+        user.setEmailNormalized(emailNormalizer.normalize(user.getEmail()));
+        session.save(user);
+        if (summaryEnabled) {
+            summary.add(user, 1);
+        }
+    }
+
+    private void updateInSession(Session session, UserEntity user, SummaryDelta summary) {
+        user.setEmailNormalized(emailNormalizer.normalize(user.getEmail()));
+        if (summaryEnabled) {
+            UserEntity current = session.get(UserEntity.class, user.getId());
+            if (current != null) {
+                summary.add(current, -1);
+            }
+            summary.add(session.merge(user), 1);
+        } else {
+            session.merge(user);
+        }
+    }
+
+    /**
+     * Группирует пары (возраст, количество), отсортированные по возрасту, в интервалы ширины bucketSize.
+     */
+    static List<AgeBucket> toBuckets(List<Object[]> countsByAge, int bucketSize) {
+        List<AgeBucket> buckets = new ArrayList<>();
+        AgeBucket current = null;
+        for (Object[] row : countsByAge) {
+            int age = ((Number) row[0]).intValue();
+            long count = ((Number) row[1]).longValue();
+            int from = Math.floorDiv(age, bucketSize) * bucketSize;
+            if (current == null || current.getFromAge() != from) {
+                current = new AgeBucket(from, from + bucketSize - 1, 0);
+                buckets.add(current);
+            }
+            current.setCount(current.getCount() + count);
+        }
+        return buckets;
+    }
+
+    private static LocalDate toLocalDate(Object value) {
+        return value instanceof Date date ? date.toLocalDate() : (LocalDate) value;
+    }
+
+    /**
+     * Выполняет действие в транзакции. Ошибки логируются и не пробрасываются.
+     *
+     * @return true, если транзакция зафиксирована
+     */
+    private boolean executeInTransaction(String operation, SessionConsumer consumer) {
+        TransactionEvent event = new TransactionEvent();
+        event.begin();
         Transaction transaction = null;
         try (Session session = sessionFactory.openSession()) {
             transaction = session.beginTransaction();
             consumer.accept(session);
             transaction.commit();
+            commitEvent(event, operation, true);
+            return true;
         } catch (Exception e) {
             if (transaction != null && transaction.isActive()) {
                 try {
@@ -95,7 +574,58 @@ public class UserDaoHibernateImpl implements UserDao {
                     log.error("Ошибка при откате транзакции", ex);
                 }
             }
+            commitEvent(event, operation, false);
             log.error("Ошибка в транзакции", e);
+            return false;
+        }
+    }
+
+    private static void commitEvent(TransactionEvent event, String operation, boolean committed) {
+        event.end();
+        if (event.shouldCommit()) {
+            event.set(operation, committed);
+            event.commit();
+        }
+    }
+
+    /**
+     * Изменения счётчиков сводных таблиц за одну транзакцию.
+     * <p>
+     * Применяются одним проходом в конце транзакции: сначала возрасты, затем дни регистрации,
+     * каждые по возрастанию ключа. Единый порядок блокировок исключает взаимоблокировку
+     * параллельных пакетов, а строка счётчика (например, сегодняшнего дня, которую трогает
+     * каждая регистрация) остаётся заблокированной только до фиксации, а не всю транзакцию.
+     * Нулевые итоги пропускаются, поэтому обновление без смены возраста счётчики не трогает.
+     */
+    private static final class SummaryDelta {
+        private final Map<Integer, Long> byAge = new TreeMap<>();
+        private final Map<LocalDate, Long> byDay = new TreeMap<>();
+
+        void add(UserEntity user, int delta) {
+            int age = user.getAge() != null ? user.getAge() : UserAgeSummaryEntity.UNKNOWN_AGE;
+            byAge.merge(age, (long) delta, Long::sum);
+            if (user.getCreatedAt() != null) {
+                byDay.merge(user.getCreatedAt().toLocalDate(), (long) delta, Long::sum);
+            }
+        }
+
+        void apply(Session session) {
+            byAge.forEach((age, delta) -> {
+                if (delta != 0) {
+                    session.createNamedMutationQuery(UserAgeSummaryEntity.INCREMENT)
+                            .setParameter("age", age)
+                            .setParameter("delta", delta)
+                            .executeUpdate();
+                }
+            });
+            byDay.forEach((day, delta) -> {
+                if (delta != 0) {
+                    session.createNamedMutationQuery(UserSignupSummaryEntity.INCREMENT)
+                            .setParameter("day", day)
+                            .setParameter("delta", delta)
+                            .executeUpdate();
+                }
+            });
         }
     }
 
@@ -0,0 +1,65 @@
+package com.example.search;
+
+import java.util.Arrays;
+import java.util.function.IntConsumer;
+
+/**
+ * Возрастающий список номеров документов, сжатый разностями в varint:
+ * соседние номера обычно близки, поэтому на номер чаще всего уходит один байт.
+ * Не потокобезопасен; синхронизацию обеспечивает владелец.
+ */
+final class IntPostingList {
+
+    private byte[] data = new byte[8];
+    private int length;
+    private int size;
+    private int last = -1;
+
+    /**
+     * Добавляет номер; номера должны добавляться строго по возрастанию.
+     */
+    void add(int doc) {
+        if (doc <= last) {
+            throw new IllegalArgumentException("Номер документа " + doc + " не больше предыдущего " + last);
+        }
+        int delta = doc - last;
+        last = doc;
+        size++;
+        if (length + 5 > data.length) {
+            data = Arrays.copyOf(data, Math.max(data.length * 2, length + 5));
+        }
+        while ((delta & ~0x7F) != 0) {
+            data[length++] = (byte) ((delta & 0x7F) | 0x80);
+            delta >>>= 7;
+        }
+        data[length++] = (byte) delta;
+    }
+
+    void forEach(IntConsumer consumer) {
+        int doc = -1;
+        int pos = 0;
+        while (pos < length) {
+            int delta = 0;
+            int shift = 0;
+            byte b;
+            do {
+                b = data[pos++];
+                delta |= (b & 0x7F) << shift;
+                shift += 7;
+            } while (b < 0);
+            doc += delta;
+            consumer.accept(doc);
+        }
+    }
+
+    int size() {
+        return size;
+    }
+
+    /**
+     * Объём сжатых данных в байтах.
+     */
+    int byteSize() {
+        return length;
+    }
+}
@@ -0,0 +1,67 @@
+package com.example.search;
+
+import com.example.dto.UserSearchHit;
+import lombok.extern.slf4j.Slf4j;
+import org.hibernate.Session;
+import org.hibernate.SessionFactory;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Поиск пользователей средствами PostgreSQL: расширение pg_trgm и GIN-индексы
+ * из {@code db/users_trigram.sql}. Нужен для сравнения с {@link UserTrigramIndex}
+ * и как запасной вариант, когда индекс в памяти не построен.
+ * <p>
+ * Оценка повторяет правила индекса в памяти: схожесть триграмм плюс единица за точное вхождение.
+ * Схожесть считается функцией {@code similarity()} и поэтому отличается от доли совпавших триграмм запроса.
+ */
+@Slf4j
+public class PgTrigramUserSearch implements UserSearch {
+
+    private static final String SQL = "SELECT id, name, email, "
+            + "GREATEST(similarity(lower(name), :q), similarity(lower(email), :q)) "
+            + "+ CASE WHEN lower(name) LIKE :pattern OR lower(email) LIKE :pattern THEN 1 ELSE 0 END AS score "
+            + "FROM users "
+            + "WHERE deleted_at IS NULL AND (lower(name) % :q OR lower(email) % :q "
+            + "OR lower(name) LIKE :pattern OR lower(email) LIKE :pattern) "
+            + "ORDER BY score DESC, id LIMIT :limit";
+
+    private final SessionFactory sessionFactory;
+
+    public PgTrigramUserSearch(SessionFactory sessionFactory) {
+        this.sessionFactory = sessionFactory;
+    }
+
+    @Override
+    public List<UserSearchHit> search(String query, int limit) {
+        if (query == null || limit <= 0) {
+            return List.of();
+        }
+        String normalized = query.trim().toLowerCase(Locale.ROOT);
+        if (normalized.isEmpty()) {
+            return List.of();
+        }
+        try (Session session = sessionFactory.openSession()) {
+            List<Object[]> rows = session.createNativeQuery(SQL, Object[].class)
+                    .setParameter("q", normalized)
+                    .setParameter("pattern", "%" + escapeLike(normalized) + "%")
+                    .setParameter("limit", limit)
+                    .getResultList();
+            List<UserSearchHit> hits = new ArrayList<>(rows.size());
+            for (Object[] row : rows) {
+                hits.add(new UserSearchHit(((Number) row[0]).longValue(), (String) row[1], (String) row[2],
+                        ((Number) row[3]).doubleValue()));
+            }
+            return hits;
+        } catch (Exception e) {
+            log.error("Ошибка при поиске пользователей по запросу '{}'", query, e);
+            return List.of();
+        }
+    }
+
+    private static String escapeLike(String value) {
+        return value.replace("\\", "\\\\").replace("%", "\\%").replace("_", "\\_");
+    }
+}
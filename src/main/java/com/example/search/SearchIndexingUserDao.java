@@ -0,0 +1,59 @@
+package com.example.search;
+
+import com.example.entity.UserEntity;
+import com.example.repository.DelegatingUserDao;
+import com.example.repository.UserDao;
+
+import java.util.List;
+
+/**
+ * Декоратор DAO, поддерживающий {@link UserTrigramIndex} в актуальном состоянии.
+ * <p>
+ * Индекс обновляется только после зафиксированной записи. {@link UserDao#save(UserEntity)}
+ * и {@link UserDao#update(UserEntity)} не сообщают об ошибке, поэтому одиночные записи выполняются
+ * через {@link UserDao#writeBatch(List, List)}, который возвращает результат фиксации,
+ * а удаление проверяется повторным чтением по ID.
+ * Записи, сделанные в обход декоратора, попадают в индекс при следующем
+ * {@link UserTrigramIndex#rebuild(UserDao, int)}.
+ */
+public class SearchIndexingUserDao extends DelegatingUserDao {
+
+    private final UserTrigramIndex index;
+
+    public SearchIndexingUserDao(UserDao delegate, UserTrigramIndex index) {
+        super(delegate);
+        this.index = index;
+    }
+
+    @Override
+    public void save(UserEntity user) {
+        writeBatch(List.of(user), List.of());
+    }
+
+    @Override
+    public void update(UserEntity user) {
+        writeBatch(List.of(), List.of(user));
+    }
+
+    @Override
+    public boolean writeBatch(List<UserEntity> toSave, List<UserEntity> toUpdate) {
+        boolean committed = delegate.writeBatch(toSave, toUpdate);
+        if (committed) {
+            toSave.forEach(index::index);
+            toUpdate.forEach(index::index);
+        }
+        return committed;
+    }
+
+    /**
+     * {@link UserDao#deleteById(Long)} тоже не сообщает об ошибке, поэтому пользователь убирается
+     * из индекса, только если после удаления он больше не находится по ID.
+     */
+    @Override
+    public void deleteById(Long id) {
+        delegate.deleteById(id);
+        if (delegate.findById(id).isEmpty()) {
+            index.remove(id);
+        }
+    }
+}
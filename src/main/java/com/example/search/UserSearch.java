@@ -0,0 +1,16 @@
+package com.example.search;
+
+import com.example.dto.UserSearchHit;
+
+import java.util.List;
+
+/**
+ * Поиск пользователей по фрагменту имени или email, без учёта регистра.
+ */
+public interface UserSearch {
+
+    /**
+     * Возвращает до {@code limit} лучших совпадений по убыванию релевантности.
+     */
+    List<UserSearchHit> search(String query, int limit);
+}
@@ -0,0 +1,385 @@
+package com.example.search;
+
+import com.example.dto.UserSearchHit;
+import com.example.entity.UserEntity;
+import com.example.repository.UserDao;
+import lombok.extern.slf4j.Slf4j;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Индекс триграмм по имени и email пользователей в памяти процесса.
+ * <p>
+ * Каждой версии пользователя выдаётся новый номер документа, а для каждой триграммы хранится
+ * сжатый возрастающий список номеров ({@link IntPostingList}). Изменение пользователя помечает
+ * прежний документ удалённым и добавляет новый; когда удалённых становится больше живых,
+ * индекс перестраивается из живых документов.
+ * <p>
+ * Поиск считает для каждого документа число совпавших триграмм запроса. Документ попадает в выдачу,
+ * если совпало не меньше {@code minSimilarity} триграмм запроса; точное вхождение запроса в имя или email
+ * добавляет к оценке единицу. Читаются только самые короткие списки, которых для этого достаточно,
+ * остальные триграммы проверяются по тексту найденных документов. Запросы короче трёх символов выполняются перебором живых документов.
+ * Поиск выполняется под блокировкой чтения, изменения — под блокировкой записи.
+ * Изменения, пришедшие во время {@link #rebuild(UserDao, int)}, запоминаются и повторяются
+ * на новом индексе перед его подменой, чтобы не потеряться.
+ */
+@Slf4j
+public class UserTrigramIndex implements UserSearch {
+
+    private static final double DEFAULT_MIN_SIMILARITY = 0.5;
+    /** Оценка точного вхождения короткого запроса: как у полного совпадения триграмм плюс бонус за подстроку. */
+    private static final double SHORT_QUERY_SCORE = 2.0;
+    private static final int MIN_DEAD_DOCS_TO_COMPACT = 1_024;
+
+    private final double minSimilarity;
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    private Map<Long, IntPostingList> postings = new HashMap<>();
+    private List<Doc> docs = new ArrayList<>();
+    private Map<Long, Integer> docByUserId = new HashMap<>();
+    private int deadDocs;
+    /** Изменения во время перестроения; null, если перестроение не идёт. */
+    private List<PendingWrite> pendingWrites;
+
+    /** Счётчики совпадений по документам; переиспользуются между запросами одного потока. */
+    private final ThreadLocal<int[]> scratch = ThreadLocal.withInitial(() -> new int[0]);
+
+    public UserTrigramIndex(double minSimilarity) {
+        this.minSimilarity = minSimilarity;
+    }
+
+    public UserTrigramIndex() {
+        this(DEFAULT_MIN_SIMILARITY);
+    }
+
+    /**
+     * Перестраивает индекс потоковым чтением таблицы порциями по {@code pageSize} в порядке ID.
+     * Поиск во время построения обслуживается прежним индексом.
+     *
+     * @return число проиндексированных пользователей
+     */
+    public synchronized int rebuild(UserDao userDao, int pageSize) {
+        lock.writeLock().lock();
+        try {
+            pendingWrites = new ArrayList<>();
+        } finally {
+            lock.writeLock().unlock();
+        }
+        try {
+            return rebuildFrom(userDao, pageSize);
+        } finally {
+            lock.writeLock().lock();
+            try {
+                pendingWrites = null;
+            } finally {
+                lock.writeLock().unlock();
+            }
+        }
+    }
+
+    private int rebuildFrom(UserDao userDao, int pageSize) {
+        Map<Long, IntPostingList> newPostings = new HashMap<>();
+        List<Doc> newDocs = new ArrayList<>();
+        Map<Long, Integer> newDocByUserId = new HashMap<>();
+        Long afterId = 0L;
+        List<UserEntity> page;
+        do {
+            page = userDao.findAfterId(afterId, pageSize);
+            for (UserEntity user : page) {
+                addDoc(newPostings, newDocs, newDocByUserId, Doc.of(user));
+                afterId = user.getId();
+            }
+        } while (page.size() == pageSize);
+
+        lock.writeLock().lock();
+        try {
+            postings = newPostings;
+            docs = newDocs;
+            docByUserId = newDocByUserId;
+            deadDocs = 0;
+            for (PendingWrite write : pendingWrites) {
+                markDead(write.userId());
+                if (write.doc() != null) {
+                    addDoc(postings, docs, docByUserId, write.doc());
+                }
+            }
+            log.info("Индекс поиска пользователей построен: {} документов, {} триграмм, повторено изменений: {}",
+                    docByUserId.size(), postings.size(), pendingWrites.size());
+            compactIfNeeded();
+            return docByUserId.size();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Добавляет пользователя или заменяет его прежнюю версию.
+     */
+    public void index(UserEntity user) {
+        if (user.getId() == null) {
+            return;
+        }
+        Doc doc = Doc.of(user);
+        lock.writeLock().lock();
+        try {
+            markDead(user.getId());
+            addDoc(postings, docs, docByUserId, doc);
+            if (pendingWrites != null) {
+                pendingWrites.add(new PendingWrite(user.getId(), doc));
+            }
+            compactIfNeeded();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void remove(Long userId) {
+        lock.writeLock().lock();
+        try {
+            markDead(userId);
+            if (pendingWrites != null) {
+                pendingWrites.add(new PendingWrite(userId, null));
+            }
+            compactIfNeeded();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public List<UserSearchHit> search(String query, int limit) {
+        if (query == null || limit <= 0) {
+            return List.of();
+        }
+        String normalized = query.trim().toLowerCase(Locale.ROOT);
+        if (normalized.isEmpty()) {
+            return List.of();
+        }
+        Set<Long> grams = trigrams(normalized);
+
+        PriorityQueue<UserSearchHit> top = new PriorityQueue<>(Comparator.comparingDouble(UserSearchHit::getScore));
+        lock.readLock().lock();
+        try {
+            if (grams.isEmpty()) {
+                for (Doc doc : docs) {
+                    if (doc != null && doc.contains(normalized)) {
+                        offer(top, doc, SHORT_QUERY_SCORE, limit);
+                    }
+                }
+            } else {
+                searchByTrigrams(normalized, grams, top, limit);
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+
+        List<UserSearchHit> hits = new ArrayList<>(top);
+        hits.sort(Comparator.comparingDouble(UserSearchHit::getScore).reversed()
+                .thenComparingLong(UserSearchHit::getUserId));
+        return hits;
+    }
+
+    /**
+     * Число проиндексированных пользователей.
+     */
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return docByUserId.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Объём сжатых списков документов в байтах.
+     */
+    public long postingBytes() {
+        lock.readLock().lock();
+        try {
+            return postings.values().stream().mapToLong(IntPostingList::byteSize).sum();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Документ с {@code minMatches} совпадениями из {@code n} триграмм запроса обязан встретиться хотя бы
+     * в одном из {@code n - minMatches + 1} самых коротких списков. Поэтому обходятся только они,
+     * а самые частые триграммы (вроде «exa» или «com» из доменов email) проверяются по тексту
+     * найденных кандидатов, и их длинные списки не читаются вовсе.
+     */
+    private void searchByTrigrams(String normalized, Set<Long> grams, PriorityQueue<UserSearchHit> top, int limit) {
+        int[] counts = scratch.get();
+        if (counts.length < docs.size()) {
+            counts = new int[Math.max(docs.size(), counts.length * 2)];
+            scratch.set(counts);
+        }
+        int[] matchCounts = counts;
+        int minMatches = Math.max(1, (int) Math.ceil(grams.size() * minSimilarity));
+        List<Long> bySize = new ArrayList<>(grams);
+        bySize.sort(Comparator.comparingInt(this::postingSize));
+        int scanned = bySize.size() - minMatches + 1;
+
+        IntList touched = new IntList();
+        for (Long gram : bySize.subList(0, scanned)) {
+            IntPostingList list = postings.get(gram);
+            if (list != null) {
+                list.forEach(doc -> {
+                    if (matchCounts[doc]++ == 0) {
+                        touched.add(doc);
+                    }
+                });
+            }
+        }
+
+        List<String> unscanned = bySize.subList(scanned, bySize.size()).stream()
+                .map(UserTrigramIndex::gramText)
+                .toList();
+        for (int i = 0; i < touched.size; i++) {
+            int docId = touched.values[i];
+            int matches = matchCounts[docId];
+            matchCounts[docId] = 0;
+            Doc doc = docs.get(docId);
+            if (doc == null) {
+                continue;
+            }
+            for (int g = 0; g < unscanned.size() && matches + unscanned.size() - g >= minMatches; g++) {
+                if (doc.contains(unscanned.get(g))) {
+                    matches++;
+                }
+            }
+            if (matches < minMatches) {
+                continue;
+            }
+            double score = (double) matches / grams.size() + (doc.contains(normalized) ? 1.0 : 0.0);
+            offer(top, doc, score, limit);
+        }
+    }
+
+    private int postingSize(Long gram) {
+        IntPostingList list = postings.get(gram);
+        return list != null ? list.size() : 0;
+    }
+
+    private static void offer(PriorityQueue<UserSearchHit> top, Doc doc, double score, int limit) {
+        if (top.size() < limit) {
+            top.add(doc.hit(score));
+        } else if (top.peek().getScore() < score) {
+            top.poll();
+            top.add(doc.hit(score));
+        }
+    }
+
+    private void markDead(Long userId) {
+        Integer previous = docByUserId.remove(userId);
+        if (previous != null) {
+            docs.set(previous, null);
+            deadDocs++;
+        }
+    }
+
+    private void compactIfNeeded() {
+        if (deadDocs <= MIN_DEAD_DOCS_TO_COMPACT || deadDocs <= docByUserId.size()) {
+            return;
+        }
+        Map<Long, IntPostingList> newPostings = new HashMap<>();
+        List<Doc> newDocs = new ArrayList<>(docByUserId.size());
+        Map<Long, Integer> newDocByUserId = new HashMap<>();
+        for (Doc doc : docs) {
+            if (doc != null) {
+                addDoc(newPostings, newDocs, newDocByUserId, doc);
+            }
+        }
+        postings = newPostings;
+        docs = newDocs;
+        docByUserId = newDocByUserId;
+        deadDocs = 0;
+    }
+
+    private static void addDoc(Map<Long, IntPostingList> postings, List<Doc> docs,
+                               Map<Long, Integer> docByUserId, Doc doc) {
+        int docId = docs.size();
+        docs.add(doc);
+        docByUserId.put(doc.userId, docId);
+        Set<Long> grams = trigrams(doc.nameLower);
+        grams.addAll(trigrams(doc.emailLower));
+        for (Long gram : grams) {
+            postings.computeIfAbsent(gram, g -> new IntPostingList()).add(docId);
+        }
+    }
+
+    /**
+     * Триграммы строки, упакованные в long по 16 бит на символ.
+     */
+    static Set<Long> trigrams(String text) {
+        Set<Long> grams = new HashSet<>();
+        for (int i = 0; i + 3 <= text.length(); i++) {
+            grams.add(((long) text.charAt(i) << 32) | ((long) text.charAt(i + 1) << 16) | text.charAt(i + 2));
+        }
+        return grams;
+    }
+
+    private static String gramText(long gram) {
+        return new String(new char[]{(char) (gram >>> 32), (char) (gram >>> 16), (char) gram});
+    }
+
+    private static final class Doc {
+
+        private final long userId;
+        private final String name;
+        private final String email;
+        private final String nameLower;
+        private final String emailLower;
+
+        private Doc(long userId, String name, String email) {
+            this.userId = userId;
+            this.name = name;
+            this.email = email;
+            this.nameLower = name != null ? name.toLowerCase(Locale.ROOT) : "";
+            this.emailLower = email != null ? email.toLowerCase(Locale.ROOT) : "";
+        }
+
+        static Doc of(UserEntity user) {
+            return new Doc(user.getId(), user.getName(), user.getEmail());
+        }
+
+        boolean contains(String normalized) {
+            return nameLower.contains(normalized) || emailLower.contains(normalized);
+        }
+
+        UserSearchHit hit(double score) {
+            return new UserSearchHit(userId, name, email, score);
+        }
+    }
+
+    /**
+     * Изменение во время перестроения; {@code doc == null} означает удаление.
+     */
+    private record PendingWrite(long userId, Doc doc) {
+    }
+
+    private static final class IntList {
+
+        private int[] values = new int[64];
+        private int size;
+
+        void add(int value) {
+            if (size == values.length) {
+                values = Arrays.copyOf(values, size * 2);
+            }
+            values[size++] = value;
+        }
+    }
+}
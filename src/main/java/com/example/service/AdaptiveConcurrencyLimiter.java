@@ -0,0 +1,209 @@
+package com.example.service;
+
+import com.example.exception.ServiceOverloadedException;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Supplier;
+
+/**
+ * Ограничитель числа одновременных вызовов с лимитом, подстраивающимся под задержку (градиентный алгоритм).
+ * <p>
+ * Лимит сравнивает короткое скользящее среднее задержки с долгим: пока они близки, лимит растёт
+ * на √limit за выборку, а когда короткое растёт (БД начинает отвечать медленнее), лимит уменьшается
+ * пропорционально их отношению (но не ниже половины текущего). Изменения сглаживаются, а рост
+ * возможен только если текущий лимит действительно используется хотя бы наполовину.
+ * <p>
+ * Вызов сверх лимита ждёт в очереди до {@code maxWaitMillis} (0 — сразу отказ),
+ * затем получает {@link ServiceOverloadedException}.
+ */
+public class AdaptiveConcurrencyLimiter {
+
+    private static final double SHORT_WINDOW_ALPHA = 0.1;
+    private static final double LONG_WINDOW_ALPHA = 1.0 / 500;
+    private static final double SMOOTHING = 0.2;
+    /** Допустимый рост задержки относительно базовой, не считающийся перегрузкой. */
+    private static final double TOLERANCE = 1.5;
+
+    private final String name;
+    private final int minLimit;
+    private final int maxLimit;
+    private final long maxWaitNanos;
+
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition permitReleased = lock.newCondition();
+
+    private double limit;
+    private int inFlight;
+    private int queued;
+    private double shortRttNanos;
+    private double longRttNanos;
+
+    private final LongAdder admitted = new LongAdder();
+    private final LongAdder queuedTotal = new LongAdder();
+    private final LongAdder rejected = new LongAdder();
+
+    public AdaptiveConcurrencyLimiter(String name, int initialLimit, int minLimit, int maxLimit, long maxWaitMillis) {
+        if (minLimit <= 0 || minLimit > initialLimit || initialLimit > maxLimit) {
+            throw new IllegalArgumentException("Должно выполняться 0 < minLimit <= initialLimit <= maxLimit");
+        }
+        this.name = name;
+        this.limit = initialLimit;
+        this.minLimit = minLimit;
+        this.maxLimit = maxLimit;
+        this.maxWaitNanos = TimeUnit.MILLISECONDS.toNanos(maxWaitMillis);
+    }
+
+    /**
+     * Выполняет {@code call}, заняв разрешение, и учитывает время выполнения при пересчёте лимита.
+     *
+     * @throws ServiceOverloadedException если разрешение не получено за {@code maxWaitMillis}
+     */
+    public <T> T execute(Supplier<T> call) {
+        acquire();
+        long start = System.nanoTime();
+        try {
+            return call.get();
+        } finally {
+            release(System.nanoTime() - start);
+        }
+    }
+
+    public void run(Runnable call) {
+        execute(() -> {
+            call.run();
+            return null;
+        });
+    }
+
+    private void acquire() {
+        lock.lock();
+        try {
+            if (inFlight < (int) limit) {
+                inFlight++;
+                admitted.increment();
+                return;
+            }
+            long remaining = maxWaitNanos;
+            queued++;
+            queuedTotal.increment();
+            try {
+                while (inFlight >= (int) limit) {
+                    if (remaining <= 0) {
+                        rejected.increment();
+                        throw new ServiceOverloadedException(
+                                "Превышен лимит одновременных операций '" + name + "': " + (int) limit);
+                    }
+                    remaining = permitReleased.awaitNanos(remaining);
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                rejected.increment();
+                throw new ServiceOverloadedException("Ожидание разрешения '" + name + "' прервано");
+            } finally {
+                queued--;
+            }
+            inFlight++;
+            admitted.increment();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void release(long rttNanos) {
+        lock.lock();
+        try {
+            int used = inFlight;
+            inFlight--;
+            int before = (int) limit;
+            updateLimit(rttNanos, used);
+            if ((int) limit > before) {
+                permitReleased.signalAll();
+            } else {
+                permitReleased.signal();
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void updateLimit(long rttNanos, int used) {
+        rttNanos = Math.max(1, rttNanos);
+        if (longRttNanos == 0) {
+            shortRttNanos = rttNanos;
+            longRttNanos = rttNanos;
+            return;
+        }
+        shortRttNanos += SHORT_WINDOW_ALPHA * (rttNanos - shortRttNanos);
+        longRttNanos += LONG_WINDOW_ALPHA * (rttNanos - longRttNanos);
+        // После долгой перегрузки базовая задержка подтягивается вниз, чтобы лимит мог восстановиться
+        if (longRttNanos / shortRttNanos > 2) {
+            longRttNanos *= 0.95;
+        }
+
+        double gradient = Math.max(0.5, Math.min(1.0, TOLERANCE * longRttNanos / shortRttNanos));
+        double target = limit * gradient;
+        if (gradient >= 1.0 && used * 2 >= limit) {
+            target += Math.sqrt(limit);
+        }
+        double next = limit * (1 - SMOOTHING) + target * SMOOTHING;
+        limit = Math.max(minLimit, Math.min(maxLimit, next));
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public int getLimit() {
+        lock.lock();
+        try {
+            return (int) limit;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public int getInFlight() {
+        lock.lock();
+        try {
+            return inFlight;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Число вызовов, ожидающих разрешения в данный момент.
+     */
+    public int getQueueLength() {
+        lock.lock();
+        try {
+            return queued;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public long getAdmittedCount() {
+        return admitted.sum();
+    }
+
+    /**
+     * Число вызовов, которым пришлось ждать в очереди (включая получивших отказ).
+     */
+    public long getQueuedCount() {
+        return queuedTotal.sum();
+    }
+
+    public long getRejectedCount() {
+        return rejected.sum();
+    }
+
+    @Override
+    public String toString() {
+        return String.format("%s: limit=%d, inFlight=%d, queued=%d, admitted=%d, rejected=%d",
+                name, getLimit(), getInFlight(), getQueueLength(), getAdmittedCount(), getRejectedCount());
+    }
+}
@@ -0,0 +1,99 @@
+package com.example.service;
+
+import com.example.dto.AgeBucket;
+import com.example.dto.AgeStats;
+import com.example.dto.SignupCount;
+import com.example.dto.SignupPeriod;
+import com.example.dto.UserCreateRequest;
+import com.example.dto.UserResponse;
+import com.example.dto.UserUpdateRequest;
+import com.example.exception.ServiceOverloadedException;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Декоратор сервиса пользователей с контролем допуска: чтения и записи проходят через
+ * отдельные {@link AdaptiveConcurrencyLimiter}, поэтому шторм записей (например массовый импорт)
+ * исчерпывает только свой лимит, а чтения продолжают выполняться.
+ * При перегрузке вызов получает {@link ServiceOverloadedException}, не дожидаясь соединения с БД.
+ */
+public class AdmissionControlledUserService implements UserService {
+
+    private final UserService delegate;
+    private final AdaptiveConcurrencyLimiter readLimiter;
+    private final AdaptiveConcurrencyLimiter writeLimiter;
+
+    public AdmissionControlledUserService(UserService delegate,
+                                          AdaptiveConcurrencyLimiter readLimiter,
+                                          AdaptiveConcurrencyLimiter writeLimiter) {
+        this.delegate = delegate;
+        this.readLimiter = readLimiter;
+        this.writeLimiter = writeLimiter;
+    }
+
+    public AdmissionControlledUserService(UserService delegate) {
+        this(delegate,
+                new AdaptiveConcurrencyLimiter("reads", 20, 4, 200, 50),
+                new AdaptiveConcurrencyLimiter("writes", 8, 2, 50, 200));
+    }
+
+    @Override
+    public void createUser(UserCreateRequest request) {
+        writeLimiter.run(() -> delegate.createUser(request));
+    }
+
+    @Override
+    public void updateUser(UserUpdateRequest request) {
+        writeLimiter.run(() -> delegate.updateUser(request));
+    }
+
+    @Override
+    public Optional<UserResponse> getUserById(Long id) {
+        return readLimiter.execute(() -> delegate.getUserById(id));
+    }
+
+    @Override
+    public List<UserResponse> getAllUsers() {
+        return readLimiter.execute(delegate::getAllUsers);
+    }
+
+    @Override
+    public void deleteUser(Long id) {
+        writeLimiter.run(() -> delegate.deleteUser(id));
+    }
+
+    @Override
+    public boolean isEmailExists(String email) {
+        return readLimiter.execute(() -> delegate.isEmailExists(email));
+    }
+
+    @Override
+    public long countUsers() {
+        return readLimiter.execute(delegate::countUsers);
+    }
+
+    @Override
+    public AgeStats getAgeStats() {
+        return readLimiter.execute(delegate::getAgeStats);
+    }
+
+    @Override
+    public List<AgeBucket> getAgeDistribution(int bucketSize) {
+        return readLimiter.execute(() -> delegate.getAgeDistribution(bucketSize));
+    }
+
+    @Override
+    public List<SignupCount> getSignupCounts(SignupPeriod period, LocalDate from, LocalDate to) {
+        return readLimiter.execute(() -> delegate.getSignupCounts(period, from, to));
+    }
+
+    public AdaptiveConcurrencyLimiter getReadLimiter() {
+        return readLimiter;
+    }
+
+    public AdaptiveConcurrencyLimiter getWriteLimiter() {
+        return writeLimiter;
+    }
+}
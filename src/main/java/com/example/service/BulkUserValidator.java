@@ -0,0 +1,197 @@
+package com.example.service;
+
+import com.example.dto.BulkValidationReport;
+import com.example.dto.RowViolation;
+import com.example.dto.UserCreateRequest;
+import com.example.exception.InvalidDataException;
+import com.example.repository.UserDao;
+import com.example.util.EmailNormalizer;
+import com.example.util.UserChecks;
+import lombok.extern.slf4j.Slf4j;
+import org.hibernate.validator.messageinterpolation.ParameterMessageInterpolator;
+
+import javax.validation.ConstraintViolation;
+import javax.validation.Validation;
+import javax.validation.Validator;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+import java.util.stream.IntStream;
+
+/**
+ * Пакетная проверка запросов на создание пользователей.
+ * <p>
+ * Пакет делится на части по {@code splitThreshold} строк и проверяется в {@link ForkJoinPool}:
+ * ограничения полей — через Bean Validation и {@link UserChecks}, повторы email внутри пакета —
+ * через общую конкурентную карту «нормализованный email → первая строка» (см. {@link EmailNormalizer}).
+ * Занятость email в базе проверяется
+ * одним вызовом {@link UserDao#findExistingEmails} для всех корректных email пакета.
+ * Если проверка не удалась, занятость неизвестна и каждой строке с корректным email засчитывается нарушение.
+ * <p>
+ * В отличие от {@link UserServiceImpl#createUser}, проверка не останавливается на первой ошибке:
+ * отчёт содержит все нарушения всех строк.
+ */
+@Slf4j
+public class BulkUserValidator {
+
+    private static final int DEFAULT_SPLIT_THRESHOLD = 256;
+
+    /** Сообщения ограничений заданы литералами, поэтому EL для интерполяции не нужен. */
+    private static final Validator DEFAULT_VALIDATOR = Validation.byDefaultProvider()
+            .configure()
+            .messageInterpolator(new ParameterMessageInterpolator())
+            .buildValidatorFactory()
+            .getValidator();
+
+    private static final Comparator<RowViolation> ORDER =
+            Comparator.comparingInt(RowViolation::getRow).thenComparing(RowViolation::getField);
+
+    private final UserDao userDao;
+    private final Validator validator;
+    private final ForkJoinPool pool;
+    private final int splitThreshold;
+    private final EmailNormalizer emailNormalizer;
+
+    public BulkUserValidator(UserDao userDao, Validator validator, ForkJoinPool pool, int splitThreshold,
+                             EmailNormalizer emailNormalizer) {
+        if (splitThreshold <= 0) {
+            throw new IllegalArgumentException("Размер части должен быть положительным");
+        }
+        this.userDao = userDao;
+        this.validator = validator;
+        this.pool = pool;
+        this.splitThreshold = splitThreshold;
+        this.emailNormalizer = emailNormalizer;
+    }
+
+    public BulkUserValidator(UserDao userDao) {
+        this(userDao, DEFAULT_VALIDATOR, ForkJoinPool.commonPool(), DEFAULT_SPLIT_THRESHOLD, EmailNormalizer.DEFAULT);
+    }
+
+    public BulkValidationReport validate(List<UserCreateRequest> requests) {
+        if (requests == null) {
+            throw new InvalidDataException("Список запросов не может быть null");
+        }
+
+        ConcurrentMap<String, Integer> firstRows = new ConcurrentHashMap<>();
+        List<RowViolation> violations = new ArrayList<>(
+                pool.invoke(new FieldCheckTask(requests, 0, requests.size(), firstRows)));
+
+        Set<String> existing = firstRows.isEmpty() ? Set.of() : findExistingEmails(firstRows.keySet());
+        violations.addAll(pool.submit(() -> IntStream.range(0, requests.size())
+                .parallel()
+                .mapToObj(row -> checkEmailUniqueness(requests.get(row), row, firstRows, existing))
+                .flatMap(List::stream)
+                .toList()).join());
+        violations.sort(ORDER);
+
+        BulkValidationReport report = new BulkValidationReport(requests.size(), violations);
+        log.info("Пакетная проверка: строк {}, с нарушениями {}", requests.size(), report.getInvalidRowCount());
+        return report;
+    }
+
+    /**
+     * @return занятые email или null, если проверить их не удалось
+     */
+    private Set<String> findExistingEmails(Set<String> emails) {
+        try {
+            return userDao.findExistingEmails(emails);
+        } catch (RuntimeException e) {
+            log.error("Занятость {} email не проверена, строки с ними отклоняются", emails.size(), e);
+            return null;
+        }
+    }
+
+    private List<RowViolation> checkFields(UserCreateRequest request, int row, ConcurrentMap<String, Integer> firstRows) {
+        if (request == null) {
+            return List.of(new RowViolation(row, "request", "Запрос не может быть null"));
+        }
+        List<RowViolation> violations = new ArrayList<>();
+        boolean emailViolated = false;
+        for (ConstraintViolation<UserCreateRequest> violation : validator.validate(request)) {
+            String field = violation.getPropertyPath().toString();
+            emailViolated |= field.equals("email");
+            violations.add(new RowViolation(row, field, violation.getMessage()));
+        }
+        if (!emailViolated) {
+            if (UserChecks.isValidEmail(request.getEmail())) {
+                firstRows.merge(emailNormalizer.normalize(request.getEmail()), row, Math::min);
+            } else {
+                violations.add(new RowViolation(row, "email", "Некорректный email: " + request.getEmail()));
+            }
+        }
+        return violations;
+    }
+
+    /**
+     * Повтор внутри пакета засчитывается всем строкам, кроме первой с этим email;
+     * занятость в базе — всем строкам с этим email. {@code existing == null} — занятость неизвестна.
+     */
+    private List<RowViolation> checkEmailUniqueness(UserCreateRequest request, int row,
+                                                    ConcurrentMap<String, Integer> firstRows,
+                                                    Set<String> existing) {
+        if (request == null || request.getEmail() == null) {
+            return List.of();
+        }
+        String normalized = emailNormalizer.normalize(request.getEmail());
+        Integer firstRow = firstRows.get(normalized);
+        if (firstRow == null) {
+            return List.of();
+        }
+        List<RowViolation> violations = new ArrayList<>(2);
+        if (firstRow != row) {
+            violations.add(new RowViolation(row, "email", "Email повторяет строку " + firstRow));
+        }
+        if (existing == null) {
+            violations.add(new RowViolation(row, "email",
+                    "Не удалось проверить, свободен ли email " + request.getEmail()));
+        } else if (existing.contains(normalized)) {
+            violations.add(new RowViolation(row, "email",
+                    "Пользователь с email " + request.getEmail() + " уже существует"));
+        }
+        return violations;
+    }
+
+    /**
+     * Проверяет строки [from, to), деля диапазон пополам, пока он больше {@code splitThreshold}.
+     * Результаты частей соединяются по порядку, поэтому нарушения идут по возрастанию строк.
+     */
+    private final class FieldCheckTask extends RecursiveTask<List<RowViolation>> {
+
+        private final List<UserCreateRequest> requests;
+        private final int from;
+        private final int to;
+        private final ConcurrentMap<String, Integer> firstRows;
+
+        private FieldCheckTask(List<UserCreateRequest> requests, int from, int to,
+                               ConcurrentMap<String, Integer> firstRows) {
+            this.requests = requests;
+            this.from = from;
+            this.to = to;
+            this.firstRows = firstRows;
+        }
+
+        @Override
+        protected List<RowViolation> compute() {
+            if (to - from <= splitThreshold) {
+                List<RowViolation> violations = new ArrayList<>();
+                for (int row = from; row < to; row++) {
+                    violations.addAll(checkFields(requests.get(row), row, firstRows));
+                }
+                return violations;
+            }
+            int middle = (from + to) >>> 1;
+            FieldCheckTask left = new FieldCheckTask(requests, from, middle, firstRows);
+            left.fork();
+            List<RowViolation> right = new FieldCheckTask(requests, middle, to, firstRows).compute();
+            List<RowViolation> violations = left.join();
+            violations.addAll(right);
+            return violations;
+        }
+    }
+}
@@ -0,0 +1,30 @@
+package com.example.service;
+
+import com.example.dto.UserCreateRequest;
+import com.example.dto.UserResponse;
+import com.example.dto.UserUpdateRequest;
+import io.smallrye.mutiny.Uni;
+
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Неблокирующий аналог {@link UserService}: ошибки проверок и бизнес-правил
+ * приходят как неудачно завершённый {@link Uni}, а не выбрасываются из метода.
+ */
+public interface ReactiveUserService {
+
+    Uni<Void> createUser(UserCreateRequest request);
+
+    Uni<Void> updateUser(UserUpdateRequest request);
+
+    Uni<Optional<UserResponse>> getUserById(Long id);
+
+    Uni<List<UserResponse>> getAllUsers();
+
+    Uni<Void> deleteUser(Long id);
+
+    Uni<Boolean> isEmailExists(String email);
+
+    Uni<Long> countUsers();
+}
@@ -0,0 +1,130 @@
+package com.example.service;
+
+import com.example.dto.UserCreateRequest;
+import com.example.dto.UserResponse;
+import com.example.dto.UserUpdateRequest;
+import com.example.entity.UserEntity;
+import com.example.exception.DuplicateResourceException;
+import com.example.exception.NotFoundException;
+import com.example.repository.ReactiveUserDao;
+import com.example.util.UserChecks;
+import io.smallrye.mutiny.Uni;
+import lombok.extern.slf4j.Slf4j;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.stream.Collectors;
+
+@Slf4j
+public class ReactiveUserServiceImpl implements ReactiveUserService {
+
+    private final ReactiveUserDao userDao;
+
+    public ReactiveUserServiceImpl(ReactiveUserDao userDao) {
+        this.userDao = userDao;
+    }
+
+    @Override
+    public Uni<Void> createUser(UserCreateRequest request) {
+        return Uni.createFrom().deferred(() -> {
+            UserChecks.validateUserNotNull(request);
+            UserChecks.validateEmail(request.getEmail());
+            UserChecks.validateAge(request.getAge());
+
+            return userDao.findByEmailIgnoreCase(request.getEmail())
+                    .chain(found -> {
+                        if (found.isPresent()) {
+                            return Uni.createFrom().<Void>failure(new DuplicateResourceException(
+                                    "Пользователь с email " + request.getEmail() + " уже существует"));
+                        }
+                        UserEntity user = new UserEntity();
+                        user.setName(request.getName());
+                        user.setEmail(request.getEmail());
+                        user.setAge(request.getAge());
+                        return userDao.save(user)
+                                .invoke(() -> log.info("Пользователь успешно создан: {}", user));
+                    });
+        });
+    }
+
+    @Override
+    public Uni<Void> updateUser(UserUpdateRequest request) {
+        return Uni.createFrom().deferred(() -> {
+            UserChecks.validateUserNotNull(request);
+            UserChecks.validateId(request.getId());
+            UserChecks.validateEmail(request.getEmail());
+            UserChecks.validateAge(request.getAge());
+
+            // Запросы выполняются последовательно: одновременные withSession в одном контексте Vert.x
+            // получили бы общую сессию, а она не допускает параллельных операций
+            return userDao.findById(request.getId())
+                    .map(found -> found.orElseThrow(() ->
+                            new NotFoundException("Пользователь с ID " + request.getId() + " не найден")))
+                    .chain(existing -> userDao.findByEmailIgnoreCase(request.getEmail())
+                            .chain(sameEmail -> {
+                                if (sameEmail.isPresent() && !sameEmail.get().getId().equals(request.getId())) {
+                                    return Uni.createFrom().<Void>failure(new DuplicateResourceException(
+                                            "Email " + request.getEmail() + " уже используется другим пользователем"));
+                                }
+
+                                existing.setName(request.getName());
+                                existing.setEmail(request.getEmail());
+                                existing.setAge(request.getAge());
+                                return userDao.update(existing);
+                            }));
+        });
+    }
+
+    @Override
+    public Uni<Optional<UserResponse>> getUserById(Long id) {
+        return Uni.createFrom().deferred(() -> {
+            UserChecks.validateId(id);
+            return userDao.findById(id).map(user -> user.map(this::mapToResponse));
+        });
+    }
+
+    @Override
+    public Uni<List<UserResponse>> getAllUsers() {
+        return userDao.findAll().map(users -> users.stream()
+                .map(this::mapToResponse)
+                .collect(Collectors.toList()));
+    }
+
+    @Override
+    public Uni<Void> deleteUser(Long id) {
+        return Uni.createFrom().deferred(() -> {
+            UserChecks.validateId(id);
+            return userDao.deleteById(id)
+                    .invoke(deleted -> {
+                        if (!deleted) {
+                            throw new NotFoundException("Пользователь с ID " + id + " не найден");
+                        }
+                    })
+                    .replaceWithVoid();
+        });
+    }
+
+    @Override
+    public Uni<Boolean> isEmailExists(String email) {
+        if (email == null || email.isBlank()) {
+            return Uni.createFrom().item(false);
+        }
+        return userDao.findByEmailIgnoreCase(email).map(Optional::isPresent);
+    }
+
+    @Override
+    public Uni<Long> countUsers() {
+        return userDao.countUsers();
+    }
+
+    // ---------- MAPPING ----------
+    private UserResponse mapToResponse(UserEntity entity) {
+        UserResponse response = new UserResponse();
+        response.setId(entity.getId());
+        response.setName(entity.getName());
+        response.setEmail(entity.getEmail());
+        response.setAge(entity.getAge());
+        response.setCreatedAt(entity.getCreatedAt());
+        return response;
+    }
+}
@@ -0,0 +1,90 @@
+package com.example.service;
+
+import com.example.repository.UserDaoHibernateImpl;
+import lombok.extern.slf4j.Slf4j;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Фоновая очистка мягко удалённых пользователей.
+ * <p>
+ * Поток удаляет строки порциями по {@code chunkSize} в порядке ID, каждая порция —
+ * отдельная короткая транзакция {@link UserDaoHibernateImpl#purgeDeleted(int)}, поэтому
+ * блокировки держатся недолго. Скорость ограничена бюджетом {@code rowsPerSecond}:
+ * после порции из n строк следующая начинается не раньше чем через n / rowsPerSecond секунд
+ * от начала предыдущей. Если удалять нечего, поток ждёт {@code idleMillis}.
+ */
+@Slf4j
+public class UserPurgeWorker implements AutoCloseable {
+
+    private final UserDaoHibernateImpl userDao;
+    private final int chunkSize;
+    private final double nanosPerRow;
+    private final long idleNanos;
+
+    private final LongAdder purgedRows = new LongAdder();
+    private volatile boolean closed;
+
+    private final Thread purger;
+
+    public UserPurgeWorker(UserDaoHibernateImpl userDao, int chunkSize, int rowsPerSecond, long idleMillis) {
+        if (chunkSize <= 0 || rowsPerSecond <= 0) {
+            throw new IllegalArgumentException("Размер порции и бюджет строк в секунду должны быть положительными");
+        }
+        this.userDao = userDao;
+        this.chunkSize = chunkSize;
+        this.nanosPerRow = TimeUnit.SECONDS.toNanos(1) / (double) rowsPerSecond;
+        this.idleNanos = TimeUnit.MILLISECONDS.toNanos(idleMillis);
+
+        this.purger = new Thread(this::purgeLoop, "user-purge");
+        this.purger.setDaemon(true);
+        this.purger.start();
+    }
+
+    public UserPurgeWorker(UserDaoHibernateImpl userDao) {
+        this(userDao, 1_000, 5_000, 10_000);
+    }
+
+    /**
+     * Возвращает число строк, удалённых с момента запуска.
+     */
+    public long getPurgedCount() {
+        return purgedRows.sum();
+    }
+
+    @Override
+    public void close() {
+        closed = true;
+        purger.interrupt();
+        try {
+            purger.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        log.info("Очистка удалённых пользователей остановлена, удалено строк: {}", getPurgedCount());
+    }
+
+    private void purgeLoop() {
+        long nextChunkAt = System.nanoTime();
+        while (!closed) {
+            try {
+                long delay = nextChunkAt - System.nanoTime();
+                if (delay > 0) {
+                    TimeUnit.NANOSECONDS.sleep(delay);
+                }
+                long chunkStart = System.nanoTime();
+                int purged = userDao.purgeDeleted(chunkSize);
+                if (purged > 0) {
+                    purgedRows.add(purged);
+                    log.debug("Удалено мягко удалённых пользователей: {}", purged);
+                    nextChunkAt = chunkStart + (long) (purged * nanosPerRow);
+                } else {
+                    nextChunkAt = System.nanoTime() + idleNanos;
+                }
+            } catch (InterruptedException e) {
+                return;
+            }
+        }
+    }
+}
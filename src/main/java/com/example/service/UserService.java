@@ -1,9 +1,14 @@
 package com.example.service;
 
+import com.example.dto.AgeBucket;
+import com.example.dto.AgeStats;
+import com.example.dto.SignupCount;
+import com.example.dto.SignupPeriod;
 import com.example.dto.UserCreateRequest;
 import com.example.dto.UserUpdateRequest;
 import com.example.dto.UserResponse;
 
+import java.time.LocalDate;
 import java.util.List;
 import java.util.Optional;
 
@@ -20,4 +25,12 @@ public interface UserService {
     void deleteUser(Long id);
 
     boolean isEmailExists(String email);
+
+    long countUsers();
+
+    AgeStats getAgeStats();
+
+    List<AgeBucket> getAgeDistribution(int bucketSize);
+
+    List<SignupCount> getSignupCounts(SignupPeriod period, LocalDate from, LocalDate to);
 }
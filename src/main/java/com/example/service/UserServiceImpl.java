@@ -1,14 +1,20 @@
 package com.example.service;
 
+import com.example.dto.AgeBucket;
+import com.example.dto.AgeStats;
+import com.example.dto.SignupCount;
+import com.example.dto.SignupPeriod;
 import com.example.dto.UserCreateRequest;
 import com.example.dto.UserUpdateRequest;
 import com.example.dto.UserResponse;
 import com.example.entity.UserEntity;
+import com.example.exception.InvalidDataException;
 import com.example.exception.NotFoundException;
 import com.example.repository.UserDao;
 import com.example.util.UserChecks;
 import lombok.extern.slf4j.Slf4j;
 
+import java.time.LocalDate;
 import java.util.List;
 import java.util.Optional;
 import java.util.stream.Collectors;
@@ -91,10 +97,36 @@ public class UserServiceImpl implements UserService {
             return false;
         }
 
-        Optional<UserEntity> userOpt = userDao.findByEmail(email);
+        Optional<UserEntity> userOpt = userDao.findByEmailIgnoreCase(email);
         return userOpt.isPresent();
     }
 
+    @Override
+    public long countUsers() {
+        return userDao.countUsers();
+    }
+
+    @Override
+    public AgeStats getAgeStats() {
+        return userDao.getAgeStats();
+    }
+
+    @Override
+    public List<AgeBucket> getAgeDistribution(int bucketSize) {
+        if (bucketSize <= 0) {
+            throw new InvalidDataException("Некорректная ширина интервала: " + bucketSize);
+        }
+        return userDao.getAgeDistribution(bucketSize);
+    }
+
+    @Override
+    public List<SignupCount> getSignupCounts(SignupPeriod period, LocalDate from, LocalDate to) {
+        if (period == null || from == null || to == null || !from.isBefore(to)) {
+            throw new InvalidDataException("Некорректный период: " + period + " с " + from + " по " + to);
+        }
+        return userDao.getSignupCounts(period, from, to);
+    }
+
     // ---------- MAPPING ----------
     private UserResponse mapToResponse(UserEntity entity) {
         UserResponse response = new UserResponse();
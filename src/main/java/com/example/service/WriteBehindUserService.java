@@ -0,0 +1,468 @@
+package com.example.service;
+
+import com.example.dto.AgeBucket;
+import com.example.dto.AgeStats;
+import com.example.dto.SignupCount;
+import com.example.dto.SignupPeriod;
+import com.example.dto.UserCreateRequest;
+import com.example.dto.UserResponse;
+import com.example.dto.UserUpdateRequest;
+import com.example.entity.UserEntity;
+import com.example.exception.DuplicateResourceException;
+import com.example.exception.NotFoundException;
+import com.example.exception.ServiceOverloadedException;
+import com.example.repository.UserDao;
+import com.example.util.EmailNormalizer;
+import com.example.util.UserChecks;
+import lombok.extern.slf4j.Slf4j;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.stream.Stream;
+
+/**
+ * Сервис пользователей с отложенной записью (write-behind) и групповым коммитом.
+ * <p>
+ * Создания и обновления после проверок попадают в ограниченный буфер; фоновый поток
+ * записывает его одной транзакцией {@link UserDao#writeBatch}, как только накопится
+ * {@code maxBatchSize} операций или пройдёт {@code flushIntervalMillis} с начала ожидания.
+ * Несколько обновлений одного пользователя, ожидающих записи, схлопываются в одно.
+ * Каждая операция получает future, который завершается после коммита её транзакции.
+ * <p>
+ * Если буфер заполнен, вызывающий поток ждёт до {@code enqueueTimeoutMillis},
+ * после чего получает {@link ServiceOverloadedException}.
+ * Если пакетная транзакция не зафиксирована, операции пакета повторяются по одной,
+ * чтобы ошибка одной записи не отменяла остальные. Если запись бросила исключение, оно передаётся
+ * в future операций пакета, а фоновый поток продолжает работу.
+ * <p>
+ * Синхронные {@link #createUser} и {@link #updateUser} ждут коммита, поэтому при
+ * множестве параллельных вызывающих их записи объединяются в общие транзакции.
+ * Чтения и удаления выполняются сразу через {@link UserServiceImpl}.
+ */
+@Slf4j
+public class WriteBehindUserService implements UserService, AutoCloseable {
+
+    private final UserDao userDao;
+    private final UserService delegate;
+    private final int capacity;
+    private final int maxBatchSize;
+    private final long flushIntervalNanos;
+    private final long enqueueTimeoutNanos;
+    private final EmailNormalizer emailNormalizer;
+
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition notEmpty = lock.newCondition();
+    private final Condition notFull = lock.newCondition();
+
+    private final List<PendingWrite> pendingCreates = new ArrayList<>();
+    private final Map<Long, PendingWrite> pendingUpdates = new LinkedHashMap<>();
+    /** Операции, взятые фоновым потоком и ещё не записанные. */
+    private List<PendingWrite> inFlight = List.of();
+    private boolean flushRequested;
+    private volatile boolean closed;
+
+    private final Thread flusher;
+
+    /**
+     * @param emailNormalizer должен совпадать с нормализатором DAO, иначе проверка буфера
+     *                        и проверка в базе по-разному решат, одинаковы ли два email
+     */
+    public WriteBehindUserService(UserDao userDao, int capacity, int maxBatchSize,
+                                  long flushIntervalMillis, long enqueueTimeoutMillis,
+                                  EmailNormalizer emailNormalizer) {
+        if (capacity <= 0 || maxBatchSize <= 0) {
+            throw new IllegalArgumentException("Ёмкость буфера и размер пакета должны быть положительными");
+        }
+        this.userDao = userDao;
+        this.delegate = new UserServiceImpl(userDao);
+        this.capacity = capacity;
+        this.maxBatchSize = maxBatchSize;
+        this.flushIntervalNanos = TimeUnit.MILLISECONDS.toNanos(flushIntervalMillis);
+        this.enqueueTimeoutNanos = TimeUnit.MILLISECONDS.toNanos(enqueueTimeoutMillis);
+        this.emailNormalizer = emailNormalizer;
+
+        this.flusher = new Thread(this::flushLoop, "user-write-behind");
+        this.flusher.setDaemon(true);
+        this.flusher.start();
+    }
+
+    public WriteBehindUserService(UserDao userDao, int capacity, int maxBatchSize,
+                                  long flushIntervalMillis, long enqueueTimeoutMillis) {
+        this(userDao, capacity, maxBatchSize, flushIntervalMillis, enqueueTimeoutMillis, EmailNormalizer.DEFAULT);
+    }
+
+    public WriteBehindUserService(UserDao userDao) {
+        this(userDao, 10_000, 500, 10, 1_000);
+    }
+
+    // ---------- ASYNC WRITES ----------
+
+    /**
+     * Проверяет запрос и ставит создание пользователя в буфер.
+     */
+    public CompletableFuture<Void> submitCreate(UserCreateRequest request) {
+        UserChecks.validateUserNotNull(request);
+        UserChecks.validateEmail(request.getEmail());
+        UserChecks.validateAge(request.getAge());
+        UserChecks.ensureEmailUniqueForCreate(request.getEmail(), userDao);
+
+        UserEntity user = new UserEntity();
+        user.setName(request.getName());
+        user.setEmail(request.getEmail());
+        user.setAge(request.getAge());
+
+        CompletableFuture<Void> future = new CompletableFuture<>();
+        lock.lock();
+        try {
+            ensureEmailNotPending(user.getEmail(), null);
+            awaitCapacity();
+            pendingCreates.add(new PendingWrite(user, future));
+            notEmpty.signal();
+        } finally {
+            lock.unlock();
+        }
+        return future;
+    }
+
+    /**
+     * Проверяет запрос и ставит обновление пользователя в буфер, объединяя его
+     * с уже ожидающим обновлением того же пользователя.
+     */
+    public CompletableFuture<Void> submitUpdate(UserUpdateRequest request) {
+        UserChecks.validateUserNotNull(request);
+        UserChecks.validateId(request.getId());
+        UserChecks.validateEmail(request.getEmail());
+        UserChecks.validateAge(request.getAge());
+
+        UserEntity existing = pendingUpdate(request.getId())
+                .or(() -> userDao.findById(request.getId()))
+                .orElseThrow(() -> new NotFoundException("Пользователь с ID " + request.getId() + " не найден"));
+
+        UserEntity temp = new UserEntity();
+        temp.setId(request.getId());
+        temp.setEmail(request.getEmail());
+        UserChecks.ensureEmailUniqueForUpdate(temp, userDao);
+
+        UserEntity user = existing.copy();
+        user.setName(request.getName());
+        user.setEmail(request.getEmail());
+        user.setAge(request.getAge());
+
+        CompletableFuture<Void> future = new CompletableFuture<>();
+        lock.lock();
+        try {
+            ensureEmailNotPending(user.getEmail(), user.getId());
+            PendingWrite pending = pendingUpdates.get(user.getId());
+            if (pending != null) {
+                pending.entity = user;
+                pending.futures.add(future);
+            } else {
+                awaitCapacity();
+                pendingUpdates.put(user.getId(), new PendingWrite(user, future));
+                notEmpty.signal();
+            }
+        } finally {
+            lock.unlock();
+        }
+        return future;
+    }
+
+    /**
+     * Запрашивает немедленную запись буфера.
+     *
+     * @return future, завершающийся после записи всех операций, ожидавших на момент вызова
+     */
+    public CompletableFuture<Void> flush() {
+        lock.lock();
+        try {
+            List<CompletableFuture<Void>> futures = new ArrayList<>();
+            inFlight.forEach(p -> futures.addAll(p.futures));
+            pendingCreates.forEach(p -> futures.addAll(p.futures));
+            pendingUpdates.values().forEach(p -> futures.addAll(p.futures));
+            if (pendingCount() > 0) {
+                flushRequested = true;
+                notEmpty.signal();
+            }
+            return CompletableFuture.allOf(futures.toArray(new CompletableFuture[0]));
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public int getPendingCount() {
+        lock.lock();
+        try {
+            return pendingCount();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    // ---------- UserService ----------
+
+    @Override
+    public void createUser(UserCreateRequest request) {
+        await(submitCreate(request));
+    }
+
+    @Override
+    public void updateUser(UserUpdateRequest request) {
+        await(submitUpdate(request));
+    }
+
+    @Override
+    public Optional<UserResponse> getUserById(Long id) {
+        return delegate.getUserById(id);
+    }
+
+    @Override
+    public List<UserResponse> getAllUsers() {
+        return delegate.getAllUsers();
+    }
+
+    /**
+     * Перед удалением буфер записывается, чтобы отложенное обновление не вернуло удалённого пользователя.
+     */
+    @Override
+    public void deleteUser(Long id) {
+        flush().handle((ignored, error) -> null).join();
+        delegate.deleteUser(id);
+    }
+
+    @Override
+    public boolean isEmailExists(String email) {
+        return delegate.isEmailExists(email);
+    }
+
+    @Override
+    public long countUsers() {
+        return delegate.countUsers();
+    }
+
+    @Override
+    public AgeStats getAgeStats() {
+        return delegate.getAgeStats();
+    }
+
+    @Override
+    public List<AgeBucket> getAgeDistribution(int bucketSize) {
+        return delegate.getAgeDistribution(bucketSize);
+    }
+
+    @Override
+    public List<SignupCount> getSignupCounts(SignupPeriod period, LocalDate from, LocalDate to) {
+        return delegate.getSignupCounts(period, from, to);
+    }
+
+    /**
+     * Записывает оставшиеся операции и останавливает фоновый поток.
+     */
+    @Override
+    public void close() {
+        lock.lock();
+        try {
+            closed = true;
+            notEmpty.signal();
+            notFull.signalAll();
+        } finally {
+            lock.unlock();
+        }
+        try {
+            flusher.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    // ---------- FLUSHING ----------
+
+    private void flushLoop() {
+        while (true) {
+            List<PendingWrite> creates;
+            List<PendingWrite> updates;
+            lock.lock();
+            try {
+                while (pendingCount() == 0 && !closed) {
+                    notEmpty.awaitUninterruptibly();
+                }
+                if (pendingCount() == 0) {
+                    return;
+                }
+                long deadline = System.nanoTime() + flushIntervalNanos;
+                while (pendingCount() < maxBatchSize && !flushRequested && !closed) {
+                    long remaining = deadline - System.nanoTime();
+                    if (remaining <= 0) {
+                        break;
+                    }
+                    notEmpty.awaitNanos(remaining);
+                }
+                flushRequested = false;
+
+                creates = drain(pendingCreates, maxBatchSize);
+                updates = drainUpdates(maxBatchSize - creates.size());
+                List<PendingWrite> taken = new ArrayList<>(creates);
+                taken.addAll(updates);
+                inFlight = taken;
+                notFull.signalAll();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } finally {
+                lock.unlock();
+            }
+            try {
+                commit(creates, updates);
+            } catch (RuntimeException e) {
+                // Поток записи должен пережить ошибку пакета: иначе буфер больше никогда не запишется
+                log.error("Ошибка при записи пакета из {} операций", creates.size() + updates.size(), e);
+                creates.forEach(p -> p.fail(e));
+                updates.forEach(p -> p.fail(e));
+            }
+
+            lock.lock();
+            try {
+                inFlight = List.of();
+            } finally {
+                lock.unlock();
+            }
+        }
+    }
+
+    private void commit(List<PendingWrite> creates, List<PendingWrite> updates) {
+        boolean committed = userDao.writeBatch(entities(creates), entities(updates));
+        if (committed) {
+            creates.forEach(PendingWrite::complete);
+            updates.forEach(PendingWrite::complete);
+            return;
+        }
+
+        log.warn("Пакет из {} операций не записан, повтор по одной", creates.size() + updates.size());
+        for (PendingWrite create : creates) {
+            // ID, выданный в откатанной транзакции, недействителен
+            create.entity.setId(null);
+            create.finish(userDao.writeBatch(List.of(create.entity), List.of()));
+        }
+        for (PendingWrite update : updates) {
+            update.finish(userDao.writeBatch(List.of(), List.of(update.entity)));
+        }
+    }
+
+    // ---------- UTILS ----------
+
+    private int pendingCount() {
+        return pendingCreates.size() + pendingUpdates.size();
+    }
+
+    private void awaitCapacity() {
+        long remaining = enqueueTimeoutNanos;
+        while (pendingCount() >= capacity && !closed) {
+            if (remaining <= 0) {
+                throw new ServiceOverloadedException("Буфер записи заполнен: " + capacity + " операций");
+            }
+            try {
+                remaining = notFull.awaitNanos(remaining);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new ServiceOverloadedException("Ожидание места в буфере записи прервано");
+            }
+        }
+        if (closed) {
+            throw new IllegalStateException("Сервис отложенной записи закрыт");
+        }
+    }
+
+    /**
+     * Проверяет и буфер, и пакет, который сейчас записывается: его строки ещё не видны
+     * проверке email в базе.
+     */
+    private void ensureEmailNotPending(String email, Long ownerId) {
+        String normalized = emailNormalizer.normalize(email);
+        boolean pending = Stream.of(pendingCreates.stream(), pendingUpdates.values().stream(), inFlight.stream())
+                .flatMap(writes -> writes)
+                .anyMatch(p -> emailNormalizer.normalize(p.entity.getEmail()).equals(normalized)
+                        && (ownerId == null || !ownerId.equals(p.entity.getId())));
+        if (pending) {
+            throw new DuplicateResourceException("Пользователь с email " + email + " уже ожидает записи");
+        }
+    }
+
+    private Optional<UserEntity> pendingUpdate(Long id) {
+        lock.lock();
+        try {
+            PendingWrite pending = pendingUpdates.get(id);
+            return pending != null ? Optional.of(pending.entity.copy()) : Optional.empty();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private static List<PendingWrite> drain(List<PendingWrite> source, int limit) {
+        int count = Math.min(limit, source.size());
+        List<PendingWrite> drained = new ArrayList<>(source.subList(0, count));
+        source.subList(0, count).clear();
+        return drained;
+    }
+
+    private List<PendingWrite> drainUpdates(int limit) {
+        List<PendingWrite> drained = new ArrayList<>();
+        var iterator = pendingUpdates.values().iterator();
+        while (iterator.hasNext() && drained.size() < limit) {
+            drained.add(iterator.next());
+            iterator.remove();
+        }
+        return drained;
+    }
+
+    private static List<UserEntity> entities(List<PendingWrite> writes) {
+        return writes.stream().map(w -> w.entity).toList();
+    }
+
+    private static void await(CompletableFuture<Void> future) {
+        try {
+            future.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw e;
+        }
+    }
+
+    /**
+     * Операция в буфере; для схлопнутых обновлений хранит future каждого вызова.
+     */
+    private static final class PendingWrite {
+        private UserEntity entity;
+        private final List<CompletableFuture<Void>> futures = new ArrayList<>();
+
+        private PendingWrite(UserEntity entity, CompletableFuture<Void> future) {
+            this.entity = entity;
+            this.futures.add(future);
+        }
+
+        private void complete() {
+            futures.forEach(f -> f.complete(null));
+        }
+
+        private void fail(Throwable error) {
+            futures.forEach(f -> f.completeExceptionally(error));
+        }
+
+        private void finish(boolean committed) {
+            if (committed) {
+                complete();
+            } else {
+                fail(new IllegalStateException("Не удалось записать пользователя " + entity.getEmail()));
+            }
+        }
+    }
+}
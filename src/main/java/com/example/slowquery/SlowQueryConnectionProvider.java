@@ -0,0 +1,151 @@
+package com.example.slowquery;
+
+import com.example.util.TimedConnectionProvider;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Провайдер соединений, замеряющий выполнение каждого {@link PreparedStatement} для {@link SlowQueryMonitor}.
+ * <p>
+ * Соединения и команды оборачиваются в прокси: запоминаются SQL и значения параметров, замеряются вызовы
+ * {@code execute*}. Для запросов замер заканчивается с получением первой порции строк, чтение остальных
+ * строк в него не входит. Пакеты замеряются целиком, параметры берутся из последней строки пакета.
+ * Устанавливается {@link SlowQueryMonitor#install}; без монитора работает как {@link TimedConnectionProvider}.
+ */
+public class SlowQueryConnectionProvider extends TimedConnectionProvider {
+
+    private static final Set<String> EXECUTE_METHODS = Set.of(
+            "execute", "executeQuery", "executeUpdate", "executeLargeUpdate", "executeBatch", "executeLargeBatch");
+
+    private SlowQueryMonitor monitor;
+
+    @Override
+    public void configure(Map<String, Object> configurationValues) {
+        super.configure(configurationValues);
+        monitor = (SlowQueryMonitor) configurationValues.get(SlowQueryMonitor.MONITOR_SETTING);
+        if (monitor != null) {
+            monitor.start(new SlowQueryMonitor.ConnectionSource() {
+                @Override
+                public Connection open() throws SQLException {
+                    return SlowQueryConnectionProvider.super.getConnection();
+                }
+
+                @Override
+                public void close(Connection connection) {
+                    try {
+                        SlowQueryConnectionProvider.super.closeConnection(connection);
+                    } catch (SQLException ignored) {
+                        // соединение для EXPLAIN уже не нужно
+                    }
+                }
+            });
+        }
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        Connection connection = super.getConnection();
+        if (monitor == null) {
+            return connection;
+        }
+        return (Connection) Proxy.newProxyInstance(Connection.class.getClassLoader(),
+                new Class<?>[]{Connection.class}, new ConnectionHandler(connection, monitor));
+    }
+
+    @Override
+    public void closeConnection(Connection connection) throws SQLException {
+        if (Proxy.isProxyClass(connection.getClass())
+                && Proxy.getInvocationHandler(connection) instanceof ConnectionHandler handler) {
+            connection = handler.delegate;
+        }
+        super.closeConnection(connection);
+    }
+
+    @Override
+    public void stop() {
+        if (monitor != null) {
+            monitor.stop();
+        }
+        super.stop();
+    }
+
+    private static Object invoke(Object target, Method method, Object[] args) throws Throwable {
+        try {
+            return method.invoke(target, args);
+        } catch (InvocationTargetException e) {
+            throw e.getCause();
+        }
+    }
+
+    private static final class ConnectionHandler implements InvocationHandler {
+
+        private final Connection delegate;
+        private final SlowQueryMonitor monitor;
+
+        ConnectionHandler(Connection delegate, SlowQueryMonitor monitor) {
+            this.delegate = delegate;
+            this.monitor = monitor;
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            Object result = SlowQueryConnectionProvider.invoke(delegate, method, args);
+            if (method.getName().equals("prepareStatement") && result instanceof PreparedStatement statement) {
+                return Proxy.newProxyInstance(PreparedStatement.class.getClassLoader(),
+                        new Class<?>[]{PreparedStatement.class},
+                        new StatementHandler(statement, (String) args[0], monitor));
+            }
+            return result;
+        }
+    }
+
+    private static final class StatementHandler implements InvocationHandler {
+
+        private final PreparedStatement delegate;
+        private final String sql;
+        private final SlowQueryMonitor monitor;
+        private final List<Object> parameters = new ArrayList<>();
+
+        StatementHandler(PreparedStatement delegate, String sql, SlowQueryMonitor monitor) {
+            this.delegate = delegate;
+            this.sql = sql;
+            this.monitor = monitor;
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            String name = method.getName();
+            if (EXECUTE_METHODS.contains(name) && (args == null || args.length == 0)) {
+                long start = System.nanoTime();
+                try {
+                    return SlowQueryConnectionProvider.invoke(delegate, method, args);
+                } finally {
+                    monitor.record(sql, System.nanoTime() - start, parameters);
+                }
+            }
+            if (name.startsWith("set") && args != null && args.length >= 2 && args[0] instanceof Integer index) {
+                bind(index, name.equals("setNull") ? null : args[1]);
+            } else if (name.equals("clearParameters")) {
+                parameters.clear();
+            }
+            return SlowQueryConnectionProvider.invoke(delegate, method, args);
+        }
+
+        private void bind(int index, Object value) {
+            while (parameters.size() < index) {
+                parameters.add(null);
+            }
+            parameters.set(index - 1, value);
+        }
+    }
+}
@@ -0,0 +1,320 @@
+package com.example.slowquery;
+
+import com.example.util.TimedConnectionProvider;
+import lombok.extern.slf4j.Slf4j;
+import org.hibernate.SessionFactory;
+import org.hibernate.cfg.AvailableSettings;
+import org.hibernate.cfg.Configuration;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.regex.Pattern;
+
+/**
+ * Учёт времени выполнения SQL по формам запросов с автоматическим снятием планов.
+ * <p>
+ * Время каждого выполнения записывает {@link SlowQueryConnectionProvider}. Выполнения дольше порога считаются
+ * медленными; для первого медленного выполнения каждой формы фоновый поток снимает план на отдельном
+ * соединении с теми же параметрами: для SELECT — {@code EXPLAIN (ANALYZE, BUFFERS)}, для изменяющих
+ * команд — {@code EXPLAIN} без выполнения. План снимается в транзакции, которая затем откатывается.
+ * Если очередь снятия планов заполнена, запрос будет снят при следующем медленном выполнении.
+ * <p>
+ * Включается свойством {@value #THRESHOLD_PROPERTY} (порог в миллисекундах); при заданном
+ * {@value #REPORT_FILE_PROPERTY} отчёт пишется в файл при закрытии фабрики сессий.
+ */
+@Slf4j
+public class SlowQueryMonitor {
+
+    public static final String THRESHOLD_PROPERTY = "com.example.slow_query.threshold_ms";
+    public static final String REPORT_FILE_PROPERTY = "com.example.slow_query.report_file";
+    public static final String MAX_SHAPES_PROPERTY = "com.example.slow_query.max_shapes";
+
+    /** Ключ, под которым монитор передаётся в настройках фабрики сессий. */
+    static final String MONITOR_SETTING = "com.example.slow_query.monitor";
+
+    private static final int DEFAULT_MAX_SHAPES = 10_000;
+    private static final int DEFAULT_REPORT_SIZE = 20;
+
+    private static final Pattern STRING_LITERAL = Pattern.compile("'(?:[^']|'')*'");
+    private static final Pattern NUMBER_LITERAL = Pattern.compile("\\b\\d+(?:\\.\\d+)?\\b");
+    private static final Pattern IN_LIST = Pattern.compile("\\(\\s*\\?(?:\\s*,\\s*\\?)+\\s*\\)");
+    private static final Pattern WHITESPACE = Pattern.compile("\\s+");
+
+    private final long thresholdNanos;
+    private final int maxShapes;
+    private final Path reportFile;
+    private final Map<String, ShapeStats> shapes = new ConcurrentHashMap<>();
+    private final Map<String, String> shapeBySql = new ConcurrentHashMap<>();
+    private final LongAdder droppedExecutions = new LongAdder();
+    private final ThreadPoolExecutor explainExecutor;
+    private volatile ConnectionSource connections;
+
+    public SlowQueryMonitor(long thresholdMillis, int maxShapes, Path reportFile) {
+        this.thresholdNanos = TimeUnit.MILLISECONDS.toNanos(thresholdMillis);
+        this.maxShapes = maxShapes;
+        this.reportFile = reportFile;
+        this.explainExecutor = new ThreadPoolExecutor(1, 1, 0, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(64), runnable -> {
+            Thread thread = new Thread(runnable, "slow-query-explain");
+            thread.setDaemon(true);
+            return thread;
+        }, new ThreadPoolExecutor.AbortPolicy());
+    }
+
+    /**
+     * Включает учёт медленных запросов в конфигурации, если задано свойство {@value #THRESHOLD_PROPERTY}:
+     * подменяет провайдер соединений на {@link SlowQueryConnectionProvider} и передаёт ему монитор.
+     * Если в конфигурации указан сторонний провайдер соединений, учёт не включается.
+     */
+    public static void install(Configuration configuration) {
+        String threshold = configuration.getProperty(THRESHOLD_PROPERTY);
+        if (threshold == null || threshold.isBlank()) {
+            return;
+        }
+        String provider = configuration.getProperty(AvailableSettings.CONNECTION_PROVIDER);
+        if (provider != null && !provider.isBlank()
+                && !provider.equals(TimedConnectionProvider.class.getName())) {
+            log.warn("Учёт медленных запросов не включён: задан сторонний провайдер соединений {}", provider);
+            return;
+        }
+        String maxShapes = configuration.getProperty(MAX_SHAPES_PROPERTY);
+        String reportFile = configuration.getProperty(REPORT_FILE_PROPERTY);
+        SlowQueryMonitor monitor = new SlowQueryMonitor(Long.parseLong(threshold.trim()),
+                maxShapes != null ? Integer.parseInt(maxShapes.trim()) : DEFAULT_MAX_SHAPES,
+                reportFile != null && !reportFile.isBlank() ? Path.of(reportFile.trim()) : null);
+        configuration.setProperty(AvailableSettings.CONNECTION_PROVIDER, SlowQueryConnectionProvider.class.getName());
+        configuration.getProperties().put(MONITOR_SETTING, monitor);
+        log.info("Учёт медленных запросов включён, порог {} мс", threshold.trim());
+    }
+
+    /**
+     * Возвращает монитор, установленный в фабрику сессий через {@link #install(Configuration)}.
+     */
+    public static Optional<SlowQueryMonitor> of(SessionFactory sessionFactory) {
+        Object monitor = sessionFactory.getProperties().get(MONITOR_SETTING);
+        return monitor instanceof SlowQueryMonitor slowQueryMonitor ? Optional.of(slowQueryMonitor) : Optional.empty();
+    }
+
+    /**
+     * Записывает выполнение команды. {@code parameters} копируются, только если выполнение медленное.
+     */
+    void record(String sql, long nanos, List<Object> parameters) {
+        String shape = shapeOf(sql);
+        ShapeStats stats = shapes.get(shape);
+        if (stats == null) {
+            if (shapes.size() >= maxShapes) {
+                droppedExecutions.increment();
+                return;
+            }
+            stats = shapes.computeIfAbsent(shape, s -> new ShapeStats());
+        }
+        stats.executions.increment();
+        stats.totalNanos.add(nanos);
+        stats.maxNanos.accumulateAndGet(nanos, Math::max);
+        if (nanos < thresholdNanos) {
+            return;
+        }
+        stats.slowExecutions.increment();
+        if (stats.sampleSql == null) {
+            stats.sampleSql = sql;
+        }
+        ConnectionSource source = connections;
+        if (source != null && stats.plan == null && stats.explainQueued.compareAndSet(false, true)) {
+            List<Object> snapshot = new ArrayList<>(parameters);
+            ShapeStats target = stats;
+            try {
+                explainExecutor.execute(() -> {
+                    try {
+                        target.plan = explain(source, sql, snapshot);
+                        target.sampleSql = sql;
+                    } finally {
+                        target.explainQueued.set(false);
+                    }
+                });
+            } catch (RejectedExecutionException e) {
+                stats.explainQueued.set(false);
+            }
+        }
+    }
+
+    /**
+     * Формы запросов с наибольшим суммарным временем выполнения.
+     */
+    public List<SlowQueryShape> topByTotalTime(int limit) {
+        return shapes.entrySet().stream()
+                .map(entry -> entry.getValue().snapshot(entry.getKey()))
+                .sorted(Comparator.comparingLong(SlowQueryShape::getTotalNanos).reversed())
+                .limit(limit)
+                .toList();
+    }
+
+    /**
+     * Пишет отчёт о {@code limit} формах с наибольшим суммарным временем. Файл заменяется атомарно.
+     */
+    public void writeReport(Path file, int limit) throws IOException {
+        List<SlowQueryShape> top = topByTotalTime(limit);
+        Path tmp = file.resolveSibling(file.getFileName() + ".tmp");
+        try (Writer out = Files.newBufferedWriter(tmp, StandardCharsets.UTF_8)) {
+            out.write(String.format(Locale.ROOT, "Запросы по суммарному времени: %d из %d форм, порог %.1f мс%n",
+                    top.size(), shapes.size(), thresholdNanos / 1e6));
+            if (droppedExecutions.sum() > 0) {
+                out.write("Не учтено выполнений сверх лимита форм: " + droppedExecutions.sum() + System.lineSeparator());
+            }
+            int rank = 1;
+            for (SlowQueryShape shape : top) {
+                out.write(String.format(Locale.ROOT,
+                        "%n#%d всего %.1f мс, выполнений %d (медленных %d), среднее %.3f мс, максимум %.1f мс%n",
+                        rank++, shape.getTotalNanos() / 1e6, shape.getExecutions(), shape.getSlowExecutions(),
+                        shape.getTotalNanos() / 1e6 / shape.getExecutions(), shape.getMaxNanos() / 1e6));
+                out.write("SQL: " + shape.getShape() + System.lineSeparator());
+                if (shape.getPlan() != null) {
+                    out.write("План:" + System.lineSeparator());
+                    for (String line : shape.getPlan().split("\n")) {
+                        out.write("  " + line + System.lineSeparator());
+                    }
+                }
+            }
+        }
+        Files.move(tmp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    public long getDroppedExecutions() {
+        return droppedExecutions.sum();
+    }
+
+    /**
+     * Вызывается провайдером соединений после запуска пула.
+     */
+    void start(ConnectionSource connections) {
+        this.connections = connections;
+    }
+
+    /**
+     * Вызывается провайдером соединений перед остановкой пула: дожидается снятия планов и пишет отчёт.
+     */
+    void stop() {
+        explainExecutor.shutdown();
+        try {
+            if (!explainExecutor.awaitTermination(10, TimeUnit.SECONDS)) {
+                explainExecutor.shutdownNow();
+            }
+        } catch (InterruptedException e) {
+            explainExecutor.shutdownNow();
+            Thread.currentThread().interrupt();
+        }
+        connections = null;
+        if (reportFile != null) {
+            try {
+                writeReport(reportFile, DEFAULT_REPORT_SIZE);
+                log.info("Отчёт о медленных запросах записан в {}", reportFile);
+            } catch (IOException e) {
+                log.error("Не удалось записать отчёт о медленных запросах в {}", reportFile, e);
+            }
+        }
+    }
+
+    /**
+     * Приводит SQL к форме: литералы и списки параметров IN заменяются на {@code ?}, пробелы схлопываются.
+     */
+    static String normalize(String sql) {
+        String shape = STRING_LITERAL.matcher(sql).replaceAll("?");
+        shape = NUMBER_LITERAL.matcher(shape).replaceAll("?");
+        shape = IN_LIST.matcher(shape).replaceAll("(?...)");
+        return WHITESPACE.matcher(shape).replaceAll(" ").trim();
+    }
+
+    private String shapeOf(String sql) {
+        String shape = shapeBySql.get(sql);
+        if (shape == null) {
+            shape = normalize(sql);
+            if (shapeBySql.size() < maxShapes * 4) {
+                shapeBySql.put(sql, shape);
+            }
+        }
+        return shape;
+    }
+
+    private static String explain(ConnectionSource source, String sql, List<Object> parameters) {
+        boolean analyze = isQuery(sql);
+        Connection connection = null;
+        try {
+            connection = source.open();
+            boolean autoCommit = connection.getAutoCommit();
+            connection.setAutoCommit(false);
+            try (PreparedStatement statement = connection.prepareStatement(
+                    (analyze ? "EXPLAIN (ANALYZE, BUFFERS) " : "EXPLAIN ") + sql)) {
+                for (int i = 0; i < parameters.size(); i++) {
+                    statement.setObject(i + 1, parameters.get(i));
+                }
+                StringBuilder plan = new StringBuilder();
+                try (ResultSet rows = statement.executeQuery()) {
+                    while (rows.next()) {
+                        plan.append(rows.getString(1)).append('\n');
+                    }
+                }
+                return plan.toString();
+            } finally {
+                connection.rollback();
+                connection.setAutoCommit(autoCommit);
+            }
+        } catch (SQLException e) {
+            log.warn("Не удалось снять план запроса: {}", sql, e);
+            return "План не снят: " + e.getMessage();
+        } finally {
+            if (connection != null) {
+                source.close(connection);
+            }
+        }
+    }
+
+    private static boolean isQuery(String sql) {
+        String head = sql.stripLeading().toLowerCase(Locale.ROOT);
+        return head.startsWith("select") || (head.startsWith("with") && !head.matches("(?s).*\\b(insert|update|delete)\\b.*"));
+    }
+
+    /**
+     * Источник отдельных соединений для снятия планов; их выполнения не учитываются.
+     */
+    interface ConnectionSource {
+        Connection open() throws SQLException;
+
+        void close(Connection connection);
+    }
+
+    private static final class ShapeStats {
+        private final LongAdder executions = new LongAdder();
+        private final LongAdder totalNanos = new LongAdder();
+        private final AtomicLong maxNanos = new AtomicLong();
+        private final LongAdder slowExecutions = new LongAdder();
+        private final AtomicBoolean explainQueued = new AtomicBoolean();
+        private volatile String sampleSql;
+        private volatile String plan;
+
+        SlowQueryShape snapshot(String shape) {
+            return new SlowQueryShape(shape, executions.sum(), totalNanos.sum(), maxNanos.get(),
+                    slowExecutions.sum(), sampleSql, plan);
+        }
+    }
+}
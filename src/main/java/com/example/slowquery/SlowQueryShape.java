@@ -0,0 +1,24 @@
+package com.example.slowquery;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.ToString;
+
+/**
+ * Накопленная статистика одной формы запроса — SQL с литералами и списками IN, заменёнными на {@code ?}.
+ */
+@Getter
+@AllArgsConstructor
+@ToString
+public class SlowQueryShape {
+    private final String shape;
+    private final long executions;
+    private final long totalNanos;
+    private final long maxNanos;
+    /** Сколько выполнений превысило порог. */
+    private final long slowExecutions;
+    /** Пример медленного выполнения: исходный SQL, по которому строился план. */
+    private final String sampleSql;
+    /** Вывод EXPLAIN для примера; null, пока план не снят. */
+    private final String plan;
+}
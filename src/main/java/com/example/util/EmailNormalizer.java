@@ -0,0 +1,39 @@
+package com.example.util;
+
+import java.util.Locale;
+
+/**
+ * Приводит email к виду, по которому проверяется уникальность и выполняется поиск
+ * без учёта регистра: обрезает пробелы и переводит в нижний регистр.
+ * <p>
+ * При {@code stripPlusTag} дополнительно отбрасывает тег plus-адресации в локальной части
+ * ({@code user+news@example.com} → {@code user@example.com}), и такие адреса считаются одним.
+ */
+public final class EmailNormalizer {
+
+    public static final EmailNormalizer DEFAULT = new EmailNormalizer(false);
+
+    private final boolean stripPlusTag;
+
+    public EmailNormalizer(boolean stripPlusTag) {
+        this.stripPlusTag = stripPlusTag;
+    }
+
+    /**
+     * Возвращает нормализованный email или null для null.
+     */
+    public String normalize(String email) {
+        if (email == null) {
+            return null;
+        }
+        String normalized = email.trim().toLowerCase(Locale.ROOT);
+        if (stripPlusTag) {
+            int at = normalized.lastIndexOf('@');
+            int plus = normalized.indexOf('+');
+            if (plus >= 0 && plus < at) {
+                normalized = normalized.substring(0, plus) + normalized.substring(at);
+            }
+        }
+        return normalized;
+    }
+}
@@ -1,11 +1,15 @@
 package com.example.util;
 
+import com.example.entity.UserAgeSummaryEntity;
 import com.example.entity.UserEntity;
-import lombok.Getter;
+import com.example.entity.UserSignupSummaryEntity;
+import com.example.entity.UserTombstoneEntity;
+import com.example.slowquery.SlowQueryMonitor;
 import lombok.extern.slf4j.Slf4j;
 import org.hibernate.SessionFactory;
 import org.hibernate.cfg.Configuration;
 
+import java.io.IOException;
 import java.io.InputStream;
 import java.util.Properties;
 
@@ -13,12 +17,28 @@ import java.util.Properties;
 public class HibernateSessionFactoryProvider {
 
     /**
-     * Единственный экземпляр фабрики сессий Hibernate.
+     * Возвращает единственный экземпляр фабрики сессий Hibernate, создавая его при первом обращении.
      */
-    @Getter
-    private static final SessionFactory sessionFactory;
+    public static SessionFactory getSessionFactory() {
+        return Holder.SESSION_FACTORY;
+    }
 
-    static {
+    /**
+     * Создаёт отдельную фабрику сессий из hibernate.properties, переопределяя часть свойств.
+     * Нужна инструментам (нагрузочный тест, бенчмарки), которым требуется другой пул соединений.
+     * Если задан порог {@value SlowQueryMonitor#THRESHOLD_PROPERTY}, включается учёт медленных запросов.
+     */
+    public static SessionFactory buildSessionFactory(Properties overrides) throws IOException {
+        Configuration configuration = buildConfiguration(overrides);
+        SlowQueryMonitor.install(configuration);
+        return configuration.buildSessionFactory();
+    }
+
+    /**
+     * Читает hibernate.properties, подставляет переменные окружения и {@code overrides}
+     * и регистрирует все сущности. Общая основа для блокирующей и реактивной фабрик.
+     */
+    public static Configuration buildConfiguration(Properties overrides) throws IOException {
         try (InputStream input = HibernateSessionFactoryProvider.class
                 .getClassLoader()
                 .getResourceAsStream("hibernate.properties")) {
@@ -32,15 +52,14 @@ public class HibernateSessionFactoryProvider {
 
             // Подставляем переменные окружения вида ${VAR} в свойства
             substituteEnvVariables(properties);
+            properties.putAll(overrides);
 
-            sessionFactory = new Configuration()
+            return new Configuration()
                     .setProperties(properties)
                     .addAnnotatedClass(UserEntity.class)
-                    .buildSessionFactory();
-
-            log.info("Hibernate SessionFactory успешно создан");
-        } catch (Exception e) {
-            throw new RuntimeException("Ошибка при создании SessionFactory", e);
+                    .addAnnotatedClass(UserAgeSummaryEntity.class)
+                    .addAnnotatedClass(UserSignupSummaryEntity.class)
+                    .addAnnotatedClass(UserTombstoneEntity.class);
         }
     }
 
@@ -78,4 +97,18 @@ public class HibernateSessionFactoryProvider {
             properties.setProperty(key.toString(), sb.toString());
         });
     }
+
+    private static final class Holder {
+
+        private static final SessionFactory SESSION_FACTORY;
+
+        static {
+            try {
+                SESSION_FACTORY = buildSessionFactory(new Properties());
+                log.info("Hibernate SessionFactory успешно создан");
+            } catch (Exception e) {
+                throw new RuntimeException("Ошибка при создании SessionFactory", e);
+            }
+        }
+    }
 }
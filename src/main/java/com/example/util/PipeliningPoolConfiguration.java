@@ -0,0 +1,37 @@
+package com.example.util;
+
+import io.vertx.pgclient.PgConnectOptions;
+import io.vertx.sqlclient.SqlConnectOptions;
+import org.hibernate.reactive.pool.impl.DefaultSqlClientPoolConfiguration;
+
+import java.net.URI;
+import java.util.Map;
+
+/**
+ * Настройка пула Vert.x для Hibernate Reactive: включает конвейерную отправку запросов PostgreSQL,
+ * при которой по одному соединению отправляется несколько запросов, не дожидаясь ответов.
+ * Глубина конвейера задаётся свойством {@value #PIPELINING_LIMIT}.
+ */
+public class PipeliningPoolConfiguration extends DefaultSqlClientPoolConfiguration {
+
+    public static final String PIPELINING_LIMIT = "hibernate.vertx.pipelining_limit";
+
+    public static final int DEFAULT_PIPELINING_LIMIT = 256;
+
+    private int pipeliningLimit = DEFAULT_PIPELINING_LIMIT;
+
+    @Override
+    public void configure(Map configuration) {
+        super.configure(configuration);
+        Object limit = configuration.get(PIPELINING_LIMIT);
+        if (limit != null) {
+            pipeliningLimit = Integer.parseInt(limit.toString());
+        }
+    }
+
+    @Override
+    public SqlConnectOptions connectOptions(URI uri) {
+        return new PgConnectOptions(super.connectOptions(uri))
+                .setPipeliningLimit(pipeliningLimit);
+    }
+}
@@ -0,0 +1,52 @@
+package com.example.util;
+
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+
+/**
+ * Счётчики кэша разобранных запросов Hibernate по статистике фабрики сессий.
+ * <p>
+ * Попадание — запрос по тексту HQL, уже разобранному ранее; промах — разбор и компиляция запроса заново.
+ * Именованные запросы компилируются один раз при создании фабрики и в промахи не попадают,
+ * поэтому растущее число промахов указывает на запросы, собираемые строкой во время работы.
+ * Требует {@code hibernate.generate_statistics=true}; без неё все счётчики равны нулю.
+ * В hibernate.properties статистика по умолчанию выключена и включается для отдельного окружения.
+ */
+public final class QueryPlanCacheMetrics {
+
+    private final Statistics statistics;
+
+    public QueryPlanCacheMetrics(SessionFactory sessionFactory) {
+        this.statistics = sessionFactory.getStatistics();
+    }
+
+    public boolean isEnabled() {
+        return statistics.isStatisticsEnabled();
+    }
+
+    public long getHitCount() {
+        return statistics.getQueryPlanCacheHitCount();
+    }
+
+    /**
+     * Число повторных разборов и компиляций запросов.
+     */
+    public long getMissCount() {
+        return statistics.getQueryPlanCacheMissCount();
+    }
+
+    /**
+     * Доля попаданий от 0 до 1; 0, если запросов ещё не было.
+     */
+    public double getHitRatio() {
+        long hits = getHitCount();
+        long total = hits + getMissCount();
+        return total == 0 ? 0.0 : (double) hits / total;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("QueryPlanCache{hits=%d, misses=%d, hitRatio=%.3f}",
+                getHitCount(), getMissCount(), getHitRatio());
+    }
+}
@@ -0,0 +1,99 @@
+package com.example.util;
+
+import lombok.extern.slf4j.Slf4j;
+import org.hibernate.boot.registry.StandardServiceRegistry;
+import org.hibernate.cfg.Configuration;
+import org.hibernate.reactive.mutiny.Mutiny;
+import org.hibernate.reactive.provider.ReactiveServiceRegistryBuilder;
+import org.hibernate.reactive.provider.Settings;
+
+import java.io.IOException;
+import java.util.Properties;
+import java.util.Set;
+import java.util.StringJoiner;
+
+/**
+ * Фабрика сессий Hibernate Reactive поверх Vert.x PostgreSQL client.
+ * Использует те же hibernate.properties и маппинг сущностей, что и {@link HibernateSessionFactoryProvider},
+ * но вместо пула JDBC-соединений — небольшой неблокирующий пул с конвейерной отправкой запросов.
+ */
+@Slf4j
+public class ReactiveSessionFactoryProvider {
+
+    /**
+     * Размер пула по умолчанию: соединения не удерживаются на время ожидания ответа,
+     * поэтому нескольких хватает для тысяч одновременных запросов.
+     */
+    public static final int DEFAULT_POOL_SIZE = 8;
+
+    private static final String URL_PROPERTY = "hibernate.connection.url";
+
+    /**
+     * Параметры URL, которые понимает клиент Vert.x. Остальные он передал бы серверу как параметры
+     * запуска сессии, а параметры JDBC-драйвера (currentSchema, prepareThreshold и т. п.) сервер отвергает.
+     */
+    private static final Set<String> REACTIVE_URL_PARAMETERS = Set.of("user", "password", "sslmode", "application_name");
+
+    /**
+     * Возвращает единственный экземпляр реактивной фабрики сессий, создавая его при первом обращении.
+     */
+    public static Mutiny.SessionFactory getSessionFactory() {
+        return Holder.SESSION_FACTORY;
+    }
+
+    /**
+     * Создаёт отдельную реактивную фабрику сессий из hibernate.properties, переопределяя часть свойств.
+     */
+    public static Mutiny.SessionFactory buildSessionFactory(Properties overrides) throws IOException {
+        Properties reactive = new Properties();
+        reactive.setProperty(Settings.POOL_SIZE, String.valueOf(DEFAULT_POOL_SIZE));
+        reactive.setProperty(Settings.SQL_CLIENT_POOL_CONFIG, PipeliningPoolConfiguration.class.getName());
+        reactive.putAll(overrides);
+
+        Configuration configuration = HibernateSessionFactoryProvider.buildConfiguration(reactive);
+        String url = configuration.getProperty(URL_PROPERTY);
+        if (url != null) {
+            configuration.setProperty(URL_PROPERTY, stripJdbcOnlyParameters(url));
+        }
+        StandardServiceRegistry registry = new ReactiveServiceRegistryBuilder()
+                .applySettings(configuration.getProperties())
+                .build();
+        return configuration.buildSessionFactory(registry).unwrap(Mutiny.SessionFactory.class);
+    }
+
+    /**
+     * Убирает из URL параметры, которые понимает только JDBC-драйвер.
+     */
+    public static String stripJdbcOnlyParameters(String url) {
+        int query = url.indexOf('?');
+        if (query < 0) {
+            return url;
+        }
+        StringJoiner kept = new StringJoiner("&");
+        for (String parameter : url.substring(query + 1).split("&")) {
+            int eq = parameter.indexOf('=');
+            String name = eq < 0 ? parameter : parameter.substring(0, eq);
+            if (REACTIVE_URL_PARAMETERS.contains(name)) {
+                kept.add(parameter);
+            } else if (!name.isEmpty()) {
+                log.debug("Параметр {} URL не передаётся реактивному клиенту", name);
+            }
+        }
+        String base = url.substring(0, query);
+        return kept.length() == 0 ? base : base + "?" + kept;
+    }
+
+    private static final class Holder {
+
+        private static final Mutiny.SessionFactory SESSION_FACTORY;
+
+        static {
+            try {
+                SESSION_FACTORY = buildSessionFactory(new Properties());
+                log.info("Hibernate Reactive SessionFactory успешно создан");
+            } catch (Exception e) {
+                throw new RuntimeException("Ошибка при создании реактивной SessionFactory", e);
+            }
+        }
+    }
+}
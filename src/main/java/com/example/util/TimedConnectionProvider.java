@@ -0,0 +1,36 @@
+package com.example.util;
+
+import org.HdrHistogram.Histogram;
+import org.HdrHistogram.Recorder;
+import org.hibernate.engine.jdbc.connections.internal.DriverManagerConnectionProviderImpl;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+
+/**
+ * Встроенный пул соединений Hibernate, замеряющий время получения соединения.
+ * Подключается свойством {@code hibernate.connection.provider_class}.
+ * Замеры общие для всех экземпляров провайдера в JVM.
+ */
+public class TimedConnectionProvider extends DriverManagerConnectionProviderImpl {
+
+    private static final Recorder ACQUISITION_RECORDER = new Recorder(3);
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        long start = System.nanoTime();
+        try {
+            return super.getConnection();
+        } finally {
+            ACQUISITION_RECORDER.recordValue(System.nanoTime() - start);
+        }
+    }
+
+    /**
+     * Возвращает гистограмму времени получения соединения (в наносекундах)
+     * с момента предыдущего вызова и начинает новый интервал.
+     */
+    public static Histogram takeAcquisitionHistogram() {
+        return ACQUISITION_RECORDER.getIntervalHistogram();
+    }
+}
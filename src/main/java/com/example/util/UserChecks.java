@@ -14,6 +14,8 @@ import java.util.regex.Pattern;
  */
 public final class UserChecks {
 
+    private static final Pattern EMAIL_PATTERN = Pattern.compile("^[\\w.-]+@[\\w.-]+\\.[a-zA-Z]{2,}$");
+
     private UserChecks() {
     }
 
@@ -34,14 +36,18 @@ public final class UserChecks {
             throw new InvalidDataException("Email не может быть null");
         }
 
-        String emailRegex = "^[\\w.-]+@[\\w.-]+\\.[a-zA-Z]{2,}$";
-        Pattern pattern = Pattern.compile(emailRegex);
-
-        if (!pattern.matcher(email).matches()) {
+        if (!isValidEmail(email)) {
             throw new InvalidDataException("Некорректный email: " + email);
         }
     }
 
+    /**
+     * Проверяет формат email без исключения; null считается некорректным.
+     */
+    public static boolean isValidEmail(String email) {
+        return email != null && EMAIL_PATTERN.matcher(email).matches();
+    }
+
     public static void validateAge(Integer age) {
         if (age != null && (age < 0 || age > 150)) {
             throw new InvalidDataException("Некорректный возраст: " + age);
@@ -49,10 +55,11 @@ public final class UserChecks {
     }
 
     /**
-     * Проверка при создании нового пользователя
+     * Проверка при создании нового пользователя.
+     * Email сравниваются без учёта регистра, см. {@link UserDao#findByEmailIgnoreCase}.
      */
     public static void ensureEmailUniqueForCreate(String email, UserDao userDao) {
-        userDao.findByEmail(email)
+        userDao.findByEmailIgnoreCase(email)
                 .ifPresent(u -> {
                     throw new DuplicateResourceException(
                             "Пользователь с email " + email + " уже существует");
@@ -60,10 +67,11 @@ public final class UserChecks {
     }
 
     /**
-     * Проверка при обновлении существующего пользователя
+     * Проверка при обновлении существующего пользователя.
+     * Email сравниваются без учёта регистра, см. {@link UserDao#findByEmailIgnoreCase}.
      */
     public static void ensureEmailUniqueForUpdate(UserEntity user, UserDao userDao) {
-        userDao.findByEmail(user.getEmail())
+        userDao.findByEmailIgnoreCase(user.getEmail())
                 .ifPresent(existing -> {
                     if (!existing.getId().equals(user.getId())) {
                         throw new DuplicateResourceException(
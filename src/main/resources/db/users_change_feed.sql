@@ -0,0 +1,21 @@
+-- Лента изменений пользователей: время последнего изменения в users и отметки об удалении.
+-- Схема ведётся вручную (hibernate.hbm2ddl.auto=none), поэтому столбец и таблица создаются этим скриптом.
+-- Индекс создаётся CONCURRENTLY, поэтому скрипт нельзя выполнять внутри транзакции (psql по умолчанию подходит).
+
+ALTER TABLE users ADD COLUMN IF NOT EXISTS updated_at TIMESTAMP(6);
+
+-- Существующие строки попадают в ленту с момента регистрации
+UPDATE users SET updated_at = created_at WHERE updated_at IS NULL;
+
+ALTER TABLE users ALTER COLUMN updated_at SET NOT NULL;
+
+-- Лента читает users по (updated_at, id) после позиции потребителя
+CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_users_updated_at ON users (updated_at, id);
+
+-- Отметки об удалении; очищаются UserDaoHibernateImpl#deleteTombstonesBefore
+CREATE TABLE IF NOT EXISTS user_tombstones (
+    user_id    BIGINT       PRIMARY KEY,
+    deleted_at TIMESTAMP(6) NOT NULL
+);
+
+CREATE INDEX IF NOT EXISTS idx_user_tombstones_deleted_at ON user_tombstones (deleted_at, user_id);
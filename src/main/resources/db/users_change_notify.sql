@@ -0,0 +1,18 @@
+-- Уведомления об изменении пользователей для локальных кэшей узлов (NearCacheUserDao).
+-- Триггер срабатывает на любую запись в users, включая сделанные в обход приложения,
+-- и публикует ID в канал user_changes; UserChangeListener вытесняет эти ID из кэша.
+-- Уведомление доставляется только после фиксации транзакции, откаченные изменения не публикуются,
+-- а одинаковые уведомления в одной транзакции PostgreSQL объединяет сам.
+
+CREATE OR REPLACE FUNCTION notify_user_change() RETURNS trigger AS $$
+BEGIN
+    PERFORM pg_notify('user_changes', COALESCE(NEW.id, OLD.id)::text);
+    RETURN NULL;
+END;
+$$ LANGUAGE plpgsql;
+
+-- На секционированной таблице триггер автоматически создаётся и на всех секциях
+DROP TRIGGER IF EXISTS trg_users_notify_change ON users;
+CREATE TRIGGER trg_users_notify_change
+    AFTER INSERT OR UPDATE OR DELETE ON users
+    FOR EACH ROW EXECUTE FUNCTION notify_user_change();
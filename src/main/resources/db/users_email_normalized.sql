@@ -0,0 +1,14 @@
+-- Нормализованный email для поиска и проверки уникальности без учёта регистра.
+-- Схема users ведётся вручную (hibernate.hbm2ddl.auto=none), поэтому столбец добавляется этим скриптом.
+--
+-- Перед запуском убедитесь, что нет адресов, различающихся только регистром или пробелами:
+--   SELECT lower(trim(email)), count(*) FROM users GROUP BY 1 HAVING count(*) > 1;
+-- Заполнение ниже соответствует EmailNormalizer.DEFAULT (без отбрасывания plus-тегов).
+
+ALTER TABLE users ADD COLUMN IF NOT EXISTS email_normalized VARCHAR(255);
+
+UPDATE users SET email_normalized = lower(trim(email)) WHERE email_normalized IS NULL;
+
+ALTER TABLE users ALTER COLUMN email_normalized SET NOT NULL;
+
+ALTER TABLE users ADD CONSTRAINT uk_users_email_normalized UNIQUE (email_normalized);
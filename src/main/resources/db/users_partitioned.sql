@@ -0,0 +1,100 @@
+-- Перевод таблицы users на помесячное секционирование по created_at.
+-- Выполняется одной транзакцией после users_change_feed.sql, users_email_normalized.sql и users_soft_delete.sql;
+-- на время переноса данных запись в users нужно остановить.
+--
+-- Следующие секции создаёт UserPartitionManager, холодные секции выносит UserArchiveMover.
+-- Имена секций: users_pYYYYMM, диапазон [первое число месяца, первое число следующего).
+
+BEGIN;
+
+ALTER TABLE users RENAME TO users_legacy;
+ALTER SEQUENCE IF EXISTS users_id_seq RENAME TO users_legacy_id_seq;
+
+-- Индексы (в том числе users_pkey и индексы из users_soft_delete.sql) при переименовании
+-- таблицы сохраняют имена; освобождаем их для новой таблицы.
+DO $$
+DECLARE
+    idx TEXT;
+BEGIN
+    FOR idx IN SELECT indexname FROM pg_indexes
+               WHERE schemaname = current_schema() AND tablename = 'users_legacy' LOOP
+        EXECUTE format('ALTER INDEX %I RENAME TO %I', idx, idx || '_legacy');
+    END LOOP;
+END $$;
+
+CREATE SEQUENCE users_id_seq;
+
+-- Первичный ключ секционированной таблицы обязан включать ключ секционирования.
+-- ID по-прежнему уникален: его выдаёт общая последовательность.
+CREATE TABLE users (
+    id               BIGINT       NOT NULL DEFAULT nextval('users_id_seq'),
+    name             VARCHAR(255) NOT NULL,
+    email            VARCHAR(255) NOT NULL,
+    email_normalized VARCHAR(255) NOT NULL,
+    age              INTEGER,
+    created_at       TIMESTAMP(0) NOT NULL,
+    updated_at       TIMESTAMP(6) NOT NULL,
+    deleted_at       TIMESTAMP(6),
+    PRIMARY KEY (id, created_at)
+) PARTITION BY RANGE (created_at);
+
+ALTER SEQUENCE users_id_seq OWNED BY users.id;
+
+-- Строки вне созданных секций; в норме пустая.
+CREATE TABLE users_default PARTITION OF users DEFAULT;
+
+-- Секции для существующих данных и на три месяца вперёд
+DO $$
+DECLARE
+    month DATE := date_trunc('month', COALESCE((SELECT min(created_at) FROM users_legacy), now()));
+BEGIN
+    WHILE month <= date_trunc('month', now()) + INTERVAL '3 months' LOOP
+        EXECUTE format('CREATE TABLE IF NOT EXISTS %I PARTITION OF users FOR VALUES FROM (%L) TO (%L)',
+                       'users_p' || to_char(month, 'YYYYMM'), month, month + INTERVAL '1 month');
+        month := month + INTERVAL '1 month';
+    END LOOP;
+END $$;
+
+CREATE INDEX idx_users_updated_at ON users (updated_at, id);
+CREATE INDEX idx_users_soft_deleted ON users (id) WHERE deleted_at IS NOT NULL;
+
+-- Уникальный индекс секционированной таблицы тоже должен включать created_at, поэтому
+-- глобальная уникальность email обеспечивается отдельной несекционированной таблицей,
+-- которую триггер держит в согласии с неудалёнными строками users.
+CREATE TABLE user_email_registry (
+    email_normalized VARCHAR(255) PRIMARY KEY,
+    user_id          BIGINT       NOT NULL
+);
+
+CREATE FUNCTION users_email_registry_sync() RETURNS trigger AS $$
+BEGIN
+    IF TG_OP = 'UPDATE'
+            AND OLD.email_normalized = NEW.email_normalized
+            AND (OLD.deleted_at IS NULL) = (NEW.deleted_at IS NULL) THEN
+        RETURN NULL;
+    END IF;
+    IF TG_OP IN ('UPDATE', 'DELETE') AND OLD.deleted_at IS NULL THEN
+        DELETE FROM user_email_registry WHERE email_normalized = OLD.email_normalized AND user_id = OLD.id;
+    END IF;
+    IF TG_OP IN ('INSERT', 'UPDATE') AND NEW.deleted_at IS NULL THEN
+        INSERT INTO user_email_registry (email_normalized, user_id) VALUES (NEW.email_normalized, NEW.id);
+    END IF;
+    RETURN NULL;
+END
+$$ LANGUAGE plpgsql;
+
+CREATE TRIGGER users_email_registry_sync
+    AFTER INSERT OR UPDATE OR DELETE ON users
+    FOR EACH ROW EXECUTE FUNCTION users_email_registry_sync();
+
+INSERT INTO users (id, name, email, email_normalized, age, created_at, updated_at, deleted_at)
+SELECT id, name, email, email_normalized, age, created_at, updated_at, deleted_at FROM users_legacy;
+
+SELECT setval('users_id_seq', COALESCE((SELECT max(id) FROM users), 0) + 1, false);
+
+-- Архив вынесенных секций (см. UserArchiveMover#archiveToTable)
+CREATE TABLE users_archive (LIKE users);
+
+COMMIT;
+
+-- После проверки: DROP TABLE users_legacy;
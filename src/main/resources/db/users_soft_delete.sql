@@ -0,0 +1,20 @@
+-- Мягкое удаление пользователей: столбец deleted_at и индексы под него.
+-- Индексы создаются CONCURRENTLY, чтобы не блокировать запись в большую таблицу,
+-- поэтому скрипт нельзя выполнять внутри транзакции (psql по умолчанию подходит).
+
+ALTER TABLE users ADD COLUMN IF NOT EXISTS deleted_at TIMESTAMP(6);
+
+-- Уникальность email только среди неудалённых строк: удалённый, но ещё не очищенный
+-- пользователь не мешает зарегистрироваться с тем же email.
+CREATE UNIQUE INDEX CONCURRENTLY IF NOT EXISTS uk_users_email_active
+    ON users (email) WHERE deleted_at IS NULL;
+CREATE UNIQUE INDEX CONCURRENTLY IF NOT EXISTS uk_users_email_normalized_active
+    ON users (email_normalized) WHERE deleted_at IS NULL;
+
+-- Прежние ограничения на всю таблицу; users_email_key — имя, которое PostgreSQL даёт UNIQUE на email.
+ALTER TABLE users DROP CONSTRAINT IF EXISTS uk_users_email_normalized;
+ALTER TABLE users DROP CONSTRAINT IF EXISTS users_email_key;
+
+-- Очистка выбирает удалённые строки по возрастанию ID; индекс содержит только их и остаётся маленьким.
+CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_users_soft_deleted
+    ON users (id) WHERE deleted_at IS NOT NULL;
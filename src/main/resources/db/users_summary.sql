@@ -0,0 +1,16 @@
+-- Сводные таблицы для агрегатов по пользователям (UserDaoHibernateImpl с summaryEnabled).
+-- Схема ведётся вручную (hibernate.hbm2ddl.auto=none), поэтому таблицы создаются этим скриптом.
+--
+-- Таблицы создаются пустыми. Перед включением сводок на непустой users их нужно заполнить
+-- вызовом UserDaoHibernateImpl#rebuildSummary при остановленной записи.
+
+CREATE TABLE IF NOT EXISTS user_age_summary (
+    -- Пользователи без возраста учитываются под UserAgeSummaryEntity.UNKNOWN_AGE (-1)
+    age        INTEGER PRIMARY KEY,
+    user_count BIGINT  NOT NULL
+);
+
+CREATE TABLE IF NOT EXISTS user_signup_summary (
+    signup_date DATE   PRIMARY KEY,
+    user_count  BIGINT NOT NULL
+);
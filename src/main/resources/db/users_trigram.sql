@@ -0,0 +1,11 @@
+-- GIN-индексы триграмм для поиска пользователей по фрагменту имени или email (PgTrigramUserSearch).
+-- Индексы построены по lower(...), поэтому запросы должны сравнивать именно lower(name) и lower(email).
+-- Индексы обслуживают и оператор схожести %, и LIKE '%фрагмент%'.
+-- Порог схожести оператора % задаётся параметром pg_trgm.similarity_threshold (по умолчанию 0.3).
+
+CREATE EXTENSION IF NOT EXISTS pg_trgm;
+
+-- CONCURRENTLY не блокирует запись, но не может выполняться внутри транзакции;
+-- для секционированной таблицы (users_partitioned.sql) уберите CONCURRENTLY или создайте индексы на секциях
+CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_users_name_trgm ON users USING gin (lower(name) gin_trgm_ops);
+CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_users_email_trgm ON users USING gin (lower(email) gin_trgm_ops);
@@ -0,0 +1,133 @@
+package benchmark;
+
+import com.example.entity.UserEntity;
+import com.example.repository.UserDaoHibernateImpl;
+import com.example.util.HibernateSessionFactoryProvider;
+import org.hibernate.Session;
+import org.hibernate.SessionFactory;
+import org.hibernate.Transaction;
+import org.hibernate.engine.spi.SelfDirtinessTracker;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Properties;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Стоимость загрузки и flush пакета управляемых UserEntity.
+ * <p>
+ * {@code load} — только загрузка пакета в persistence context, {@code loadAndFlush} — загрузка,
+ * изменение доли {@code dirtyRatio} сущностей и flush с коммитом. Разница между ними — цена flush.
+ * С профилировщиком GC {@code gc.alloc.rate.norm / batchSize} даёт память на управляемую сущность.
+ * <p>
+ * Нужен PostgreSQL из hibernate.properties (переменные DB_*). Для сравнения запустите {@link #main}
+ * после {@code mvn test-compile} и после {@code mvn test-compile -DnoEnhance}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class UpdateFlushBenchmark {
+
+    @Param({"1000", "10000"})
+    private int batchSize;
+
+    @Param({"0.1", "1.0"})
+    private double dirtyRatio;
+
+    private SessionFactory sessionFactory;
+    private long minId;
+    private long maxId;
+    private int round;
+
+    @Setup(Level.Trial)
+    public void setUp() throws Exception {
+        Properties overrides = new Properties();
+        overrides.setProperty("hibernate.show_sql", "false");
+        sessionFactory = HibernateSessionFactoryProvider.buildSessionFactory(overrides);
+        System.out.println("UserEntity enhanced: " + SelfDirtinessTracker.class.isAssignableFrom(UserEntity.class));
+
+        String prefix = "bench-" + System.nanoTime();
+        List<UserEntity> users = new ArrayList<>(batchSize);
+        for (int i = 0; i < batchSize; i++) {
+            users.add(new UserEntity(null, "Bench", prefix + "-" + i + "@example.com", 30, null));
+        }
+        if (!new UserDaoHibernateImpl(sessionFactory).writeBatch(users, List.of())) {
+            throw new IllegalStateException("Не удалось подготовить данные для бенчмарка");
+        }
+        minId = users.get(0).getId();
+        maxId = users.get(users.size() - 1).getId();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        try (Session session = sessionFactory.openSession()) {
+            Transaction transaction = session.beginTransaction();
+            session.createMutationQuery("DELETE FROM UserEntity u WHERE u.id BETWEEN :min AND :max")
+                    .setParameter("min", minId)
+                    .setParameter("max", maxId)
+                    .executeUpdate();
+            transaction.commit();
+        }
+        sessionFactory.close();
+    }
+
+    @Benchmark
+    public int load() {
+        try (Session session = sessionFactory.openSession()) {
+            Transaction transaction = session.beginTransaction();
+            int loaded = loadBatch(session).size();
+            transaction.commit();
+            return loaded;
+        }
+    }
+
+    @Benchmark
+    public int loadAndFlush() {
+        try (Session session = sessionFactory.openSession()) {
+            Transaction transaction = session.beginTransaction();
+            List<UserEntity> users = loadBatch(session);
+            int dirty = (int) (users.size() * dirtyRatio);
+            round++;
+            for (int i = 0; i < dirty; i++) {
+                users.get(i).setAge(1 + (round + i) % 100);
+            }
+            session.flush();
+            transaction.commit();
+            return dirty;
+        }
+    }
+
+    private List<UserEntity> loadBatch(Session session) {
+        return session.createQuery("FROM UserEntity u WHERE u.id BETWEEN :min AND :max", UserEntity.class)
+                .setParameter("min", minId)
+                .setParameter("max", maxId)
+                .getResultList();
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(UpdateFlushBenchmark.class.getSimpleName())
+                .addProfiler(GCProfiler.class)
+                .build()).run();
+    }
+}
@@ -0,0 +1,162 @@
+package benchmark;
+
+import com.example.codec.UserBinaryCodec;
+import com.example.dto.UserResponse;
+import io.vertx.core.json.JsonObject;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.io.Serializable;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Кодирование и декодирование одного {@link UserResponse}: {@link UserBinaryCodec} против
+ * Java-сериализации и JSON.
+ * <p>
+ * DTO не реализуют {@link Serializable}, поэтому для Java-сериализации используется запись с теми же полями.
+ * JSON строится {@link JsonObject} из Vert.x (Jackson core), который уже есть в зависимостях реактивного DAO.
+ * Размер каждого представления печатается при запуске; с профилировщиком GC
+ * {@code gc.alloc.rate.norm} показывает память на операцию. База данных не нужна.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class UserCodecBenchmark {
+
+    private UserResponse user;
+    private SerializableUser serializableUser;
+    private byte[] binary;
+    private ByteBuffer direct;
+    private byte[] serialized;
+    private byte[] json;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        user = new UserResponse();
+        user.setId(1_234_567L);
+        user.setName("Александра Петрова");
+        user.setEmail("alexandra.petrova@example.com");
+        user.setAge(34);
+        user.setCreatedAt(LocalDateTime.of(2024, 5, 1, 12, 30, 15));
+        serializableUser = SerializableUser.of(user);
+
+        binary = UserBinaryCodec.encode(user);
+        direct = ByteBuffer.allocateDirect(binary.length);
+        direct.put(binary).flip();
+        serialized = javaSerialize();
+        json = jsonEncode();
+        System.out.printf("binary: %d B, java serialization: %d B, json: %d B%n",
+                binary.length, serialized.length, json.length);
+    }
+
+    @Benchmark
+    public byte[] binaryEncode() {
+        return UserBinaryCodec.encode(user);
+    }
+
+    @Benchmark
+    public UserResponse binaryDecode() {
+        return UserBinaryCodec.decodeResponse(ByteBuffer.wrap(binary));
+    }
+
+    @Benchmark
+    public UserResponse binaryDecodeDirect() {
+        return UserBinaryCodec.decodeResponse(direct.duplicate());
+    }
+
+    @Benchmark
+    public byte[] javaSerialize() {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(256);
+        try (ObjectOutputStream out = new ObjectOutputStream(bytes)) {
+            out.writeObject(serializableUser);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return bytes.toByteArray();
+    }
+
+    @Benchmark
+    public UserResponse javaDeserialize() {
+        try (ObjectInputStream in = new ObjectInputStream(new ByteArrayInputStream(serialized))) {
+            return ((SerializableUser) in.readObject()).toResponse();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        } catch (ClassNotFoundException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    @Benchmark
+    public byte[] jsonEncode() {
+        return new JsonObject()
+                .put("id", user.getId())
+                .put("name", user.getName())
+                .put("email", user.getEmail())
+                .put("age", user.getAge())
+                .put("createdAt", user.getCreatedAt().toString())
+                .encode()
+                .getBytes(StandardCharsets.UTF_8);
+    }
+
+    @Benchmark
+    public UserResponse jsonDecode() {
+        JsonObject object = new JsonObject(new String(json, StandardCharsets.UTF_8));
+        UserResponse response = new UserResponse();
+        response.setId(object.getLong("id"));
+        response.setName(object.getString("name"));
+        response.setEmail(object.getString("email"));
+        response.setAge(object.getInteger("age"));
+        response.setCreatedAt(LocalDateTime.parse(object.getString("createdAt")));
+        return response;
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(UserCodecBenchmark.class.getSimpleName())
+                .addProfiler(GCProfiler.class)
+                .build()).run();
+    }
+
+    private record SerializableUser(Long id, String name, String email, Integer age, LocalDateTime createdAt)
+            implements Serializable {
+
+        static SerializableUser of(UserResponse user) {
+            return new SerializableUser(user.getId(), user.getName(), user.getEmail(), user.getAge(), user.getCreatedAt());
+        }
+
+        UserResponse toResponse() {
+            UserResponse user = new UserResponse();
+            user.setId(id);
+            user.setName(name);
+            user.setEmail(email);
+            user.setAge(age);
+            user.setCreatedAt(createdAt);
+            return user;
+        }
+    }
+}
@@ -0,0 +1,186 @@
+package contract;
+
+import com.example.dto.ChangeWatermark;
+import com.example.dto.IdRangeSplit;
+import com.example.dto.UserChange;
+import com.example.entity.UserEntity;
+import com.example.repository.UserDao;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Общие проверки контракта {@link UserDao}. Наследник создаёт реализацию
+ * и очищает хранилище перед каждым тестом.
+ */
+public abstract class UserDaoContractTest {
+
+    protected abstract UserDao userDao();
+
+    @Test
+    void saveUser_andGetUserById_success() {
+        UserEntity user = new UserEntity(null, "John", "john@example.com", 30, LocalDateTime.now());
+        userDao().save(user);
+
+        assertNotNull(user.getId());
+
+        UserEntity fetched = userDao().findById(user.getId())
+                .orElseThrow(() -> new AssertionError("User not found"));
+
+        assertEquals(user.getId(), fetched.getId());
+        assertEquals(user.getName(), fetched.getName());
+        assertEquals(user.getEmail(), fetched.getEmail());
+        assertEquals(user.getAge(), fetched.getAge());
+        assertEquals(user.getCreatedAt(), fetched.getCreatedAt());
+    }
+
+    @Test
+    void updateUser_success() {
+        UserEntity user = new UserEntity(null, "Alice", "alice@example.com", 25, LocalDateTime.now());
+        userDao().save(user);
+        LocalDateTime createDate= LocalDateTime.of(user.getCreatedAt().toLocalDate(),user.getCreatedAt().toLocalTime());
+
+        user.setName("Alice Updated");
+        user.setEmail("Alicalice@example.com");
+        user.setAge(20);
+
+        userDao().update(user);
+
+        UserEntity fetched = userDao().findById(user.getId())
+                .orElseThrow(() -> new AssertionError("User not found"));
+
+        assertEquals("Alice Updated", fetched.getName());
+        assertEquals("Alicalice@example.com", fetched.getEmail());
+        assertEquals(20, fetched.getAge());
+        assertEquals(createDate,fetched.getCreatedAt());
+    }
+
+    @Test
+    void deleteUser_success() {
+        UserEntity user = new UserEntity(null, "Bob", "bob@example.com", 40, LocalDateTime.now());
+        userDao().save(user);
+
+        userDao().deleteById(user.getId());
+
+        assertTrue(userDao().findById(user.getId()).isEmpty());
+    }
+
+    @Test
+    void getAllUsers_returnsAll() {
+        String email1 = "user1_" + UUID.randomUUID() + "@example.com";
+        String email2 = "user2_" + UUID.randomUUID() + "@example.com";
+
+        userDao().save(new UserEntity(null, "User1", email1, 20, LocalDateTime.now()));
+        userDao().save(new UserEntity(null, "User2", email2, 22, LocalDateTime.now()));
+
+        List<UserEntity> users = userDao().findAll();
+        assertEquals(2, users.size());
+    }
+
+    @Test
+    void findByEmail_success() {
+        String email = "test@example.com";
+        UserEntity user = new UserEntity(null, "Test", email, 28, LocalDateTime.now());
+        userDao().save(user);
+
+        UserEntity fetched = userDao().findByEmail(email)
+                .orElseThrow(() -> new AssertionError("User not found"));
+
+        assertEquals(user.getEmail(), fetched.getEmail());
+    }
+
+    @Test
+    void findByEmail_nonExisting() {
+        String email = "test@example.com";
+        UserEntity user = new UserEntity(null, "Test", email, 28, LocalDateTime.now());
+        userDao().save(user);
+
+        assertTrue(userDao().findByEmail("nonExisting").isEmpty());
+    }
+
+    @Test
+    void findByEmailIgnoreCase_matchesNormalizedEmail() {
+        UserEntity user = new UserEntity(null, "Test", "Mixed.Case@Example.com", 28, LocalDateTime.now());
+        userDao().save(user);
+
+        UserEntity fetched = userDao().findByEmailIgnoreCase("  mixed.case@EXAMPLE.com ")
+                .orElseThrow(() -> new AssertionError("User not found"));
+
+        assertEquals(user.getId(), fetched.getId());
+        assertEquals("mixed.case@example.com", fetched.getEmailNormalized());
+        assertTrue(userDao().findByEmail("mixed.case@example.com").isEmpty());
+    }
+
+    @Test
+    void findChangedSince_returnsUpsertsAndDeletesInOrder() {
+        UserEntity kept = new UserEntity(null, "Kept", "kept@example.com", 30, LocalDateTime.now());
+        UserEntity removed = new UserEntity(null, "Removed", "removed@example.com", 31, LocalDateTime.now());
+        userDao().save(kept);
+        userDao().save(removed);
+        userDao().deleteById(removed.getId());
+
+        List<UserChange> changes = userDao().findChangedSince(ChangeWatermark.INITIAL, 10);
+
+        assertEquals(2, changes.size());
+        assertEquals(UserChange.Type.UPSERT, changes.get(0).getType());
+        assertEquals(kept.getId(), changes.get(0).getUserId());
+        assertEquals(UserChange.Type.DELETE, changes.get(1).getType());
+        assertEquals(removed.getId(), changes.get(1).getUserId());
+
+        assertTrue(userDao().findChangedSince(changes.get(1).getWatermark(), 10).isEmpty());
+    }
+
+    @Test
+    void findChangedSince_pagesByWatermark() {
+        for (int i = 0; i < 5; i++) {
+            userDao().save(new UserEntity(null, "User" + i, "page" + i + "@example.com", 20 + i, LocalDateTime.now()));
+        }
+
+        List<UserChange> firstPage = userDao().findChangedSince(ChangeWatermark.INITIAL, 3);
+        List<UserChange> secondPage = userDao().findChangedSince(firstPage.get(2).getWatermark(), 3);
+
+        assertEquals(3, firstPage.size());
+        assertEquals(2, secondPage.size());
+        assertEquals(5, userDao().streamChangesSince(ChangeWatermark.INITIAL, 2).count());
+    }
+
+    @Test
+    void scanPartitioned_deliversEveryLiveUserOnce() {
+        List<UserEntity> users = new ArrayList<>();
+        for (int i = 0; i < 57; i++) {
+            users.add(new UserEntity(null, "Scan" + i, "scan" + i + "@example.com", 20 + i % 30, LocalDateTime.now()));
+        }
+        assertTrue(userDao().writeBatch(users, List.of()));
+        userDao().deleteById(users.get(3).getId());
+        List<Long> expected = users.stream().map(UserEntity::getId).filter(id -> !id.equals(users.get(3).getId())).toList();
+
+        for (IdRangeSplit split : IdRangeSplit.values()) {
+            List<Long> scanned = new ArrayList<>();
+            long rows = userDao().scanPartitioned(3, split, 5, batch -> {
+                assertTrue(batch.size() <= 5);
+                batch.forEach(user -> scanned.add(user.getId()));
+            });
+
+            assertEquals(expected.size(), rows);
+            assertEquals(expected, scanned.stream().sorted().toList());
+        }
+    }
+
+    @Test
+    void scanPartitioned_propagatesConsumerFailure() {
+        for (int i = 0; i < 20; i++) {
+            userDao().save(new UserEntity(null, "Scan" + i, "fail" + i + "@example.com", 30, LocalDateTime.now()));
+        }
+
+        IllegalStateException failure = assertThrows(IllegalStateException.class,
+                () -> userDao().scanPartitioned(2, IdRangeSplit.EQUAL_WIDTH, 3, batch -> {
+                    throw new IllegalStateException("consumer failed");
+                }));
+        assertEquals("consumer failed", failure.getMessage());
+    }
+}
@@ -0,0 +1,189 @@
+package integrationTest;
+
+import com.example.dto.UserCreateRequest;
+import com.example.dto.UserResponse;
+import com.example.dto.UserUpdateRequest;
+import com.example.entity.UserEntity;
+import com.example.exception.DuplicateResourceException;
+import com.example.exception.NotFoundException;
+import com.example.repository.ReactiveUserDaoHibernateImpl;
+import com.example.service.ReactiveUserServiceImpl;
+import com.example.util.ReactiveSessionFactoryProvider;
+import io.smallrye.mutiny.Uni;
+import org.hibernate.reactive.mutiny.Mutiny;
+import org.junit.jupiter.api.*;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.Properties;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@Testcontainers
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+class ReactiveUserDaoTest {
+
+    private static final Duration TIMEOUT = Duration.ofSeconds(30);
+
+    @Container
+    public static PostgreSQLContainer<?> postgreSQLContainer = new PostgreSQLContainer<>("postgres:15")
+            .withDatabaseName("testdb")
+            .withUsername("postgres")
+            .withPassword("admin");
+
+    private Mutiny.SessionFactory sessionFactory;
+    private ReactiveUserDaoHibernateImpl userDao;
+    private ReactiveUserServiceImpl userService;
+
+    @BeforeAll
+    void beforeAll() throws Exception {
+        Properties properties = new Properties();
+        // URL в том же виде, что и в hibernate.properties: параметры JDBC-драйвера отбрасывает провайдер
+        properties.setProperty("hibernate.connection.url", "jdbc:postgresql://" + postgreSQLContainer.getHost()
+                + ":" + postgreSQLContainer.getMappedPort(PostgreSQLContainer.POSTGRESQL_PORT)
+                + "/" + postgreSQLContainer.getDatabaseName() + "?currentSchema=public&prepareThreshold=1");
+        properties.setProperty("hibernate.connection.username", postgreSQLContainer.getUsername());
+        properties.setProperty("hibernate.connection.password", postgreSQLContainer.getPassword());
+        properties.setProperty("hibernate.connection.pool_size", "4");
+        properties.setProperty("hibernate.hbm2ddl.auto", "create");
+        properties.setProperty("hibernate.show_sql", "false");
+
+        sessionFactory = ReactiveSessionFactoryProvider.buildSessionFactory(properties);
+        userDao = new ReactiveUserDaoHibernateImpl(sessionFactory);
+        userService = new ReactiveUserServiceImpl(userDao);
+    }
+
+    @BeforeEach
+    void cleanDatabase() {
+        sessionFactory.withTransaction((session, tx) -> session
+                        .createNativeQuery("delete from users").executeUpdate()
+                        .chain(() -> session.createNativeQuery("delete from user_tombstones").executeUpdate()))
+                .await().atMost(TIMEOUT);
+    }
+
+    @AfterAll
+    void teardown() {
+        if (sessionFactory != null) sessionFactory.close();
+    }
+
+    @Test
+    void saveUser_andFindById_success() {
+        UserEntity user = new UserEntity(null, "John", "john@example.com", 30, LocalDateTime.now());
+        userDao.save(user).await().atMost(TIMEOUT);
+
+        assertNotNull(user.getId());
+
+        UserEntity fetched = userDao.findById(user.getId()).await().atMost(TIMEOUT)
+                .orElseThrow(() -> new AssertionError("User not found"));
+        assertEquals("John", fetched.getName());
+        assertEquals("john@example.com", fetched.getEmailNormalized());
+    }
+
+    @Test
+    void findByEmailIgnoreCase_matchesNormalizedEmail() {
+        userDao.save(new UserEntity(null, "Mixed", "Mixed.Case@Example.com", 40, null)).await().atMost(TIMEOUT);
+
+        assertTrue(userDao.findByEmailIgnoreCase("  mixed.case@EXAMPLE.com ").await().atMost(TIMEOUT).isPresent());
+        assertTrue(userDao.findByEmail("mixed.case@example.com").await().atMost(TIMEOUT).isEmpty());
+    }
+
+    @Test
+    void updateUser_changesFields() {
+        UserEntity user = new UserEntity(null, "Bob", "bob@example.com", 20, null);
+        userDao.save(user).await().atMost(TIMEOUT);
+
+        user.setName("Robert");
+        user.setAge(21);
+        userDao.update(user).await().atMost(TIMEOUT);
+
+        UserEntity fetched = userDao.findById(user.getId()).await().atMost(TIMEOUT).orElseThrow();
+        assertEquals("Robert", fetched.getName());
+        assertEquals(21, fetched.getAge());
+    }
+
+    @Test
+    void deleteById_hidesUserAndWritesTombstone() {
+        UserEntity user = new UserEntity(null, "Gone", "gone@example.com", 50, null);
+        userDao.save(user).await().atMost(TIMEOUT);
+
+        assertTrue(userDao.deleteById(user.getId()).await().atMost(TIMEOUT));
+        assertFalse(userDao.deleteById(user.getId()).await().atMost(TIMEOUT));
+        assertTrue(userDao.findById(user.getId()).await().atMost(TIMEOUT).isEmpty());
+
+        Long tombstones = sessionFactory.withSession(session -> session
+                        .createQuery("SELECT COUNT(t) FROM UserTombstoneEntity t", Long.class)
+                        .getSingleResult())
+                .await().atMost(TIMEOUT);
+        assertEquals(1L, tombstones);
+    }
+
+    @Test
+    void findAfterId_returnsPageOrderedById() {
+        for (int i = 0; i < 5; i++) {
+            userDao.save(new UserEntity(null, "User" + i, "user" + i + "@example.com", 20 + i, null))
+                    .await().atMost(TIMEOUT);
+        }
+
+        List<UserEntity> firstPage = userDao.findAfterId(null, 3).await().atMost(TIMEOUT);
+        List<UserEntity> secondPage = userDao.findAfterId(firstPage.get(2).getId(), 3).await().atMost(TIMEOUT);
+
+        assertEquals(3, firstPage.size());
+        assertEquals(2, secondPage.size());
+        assertTrue(secondPage.get(0).getId() > firstPage.get(2).getId());
+        assertEquals(5L, userDao.countUsers().await().atMost(TIMEOUT));
+    }
+
+    @Test
+    void concurrentReads_shareSmallPool() {
+        UserEntity user = new UserEntity(null, "Hot", "hot@example.com", 33, null);
+        userDao.save(user).await().atMost(TIMEOUT);
+
+        // Пул из 4 соединений обслуживает 500 одновременных запросов без блокировки потоков
+        List<Uni<Optional<UserEntity>>> reads = new ArrayList<>();
+        for (int i = 0; i < 500; i++) {
+            reads.add(userDao.findById(user.getId()));
+        }
+        List<Optional<UserEntity>> results = Uni.join().all(reads).andFailFast().await().atMost(TIMEOUT);
+
+        assertEquals(500, results.size());
+        assertTrue(results.stream().allMatch(Optional::isPresent));
+    }
+
+    @Test
+    void service_createUpdateDelete_flow() {
+        UserCreateRequest create = new UserCreateRequest();
+        create.setName("Alice");
+        create.setEmail("alice@example.com");
+        create.setAge(25);
+        userService.createUser(create).await().atMost(TIMEOUT);
+
+        UserCreateRequest duplicate = new UserCreateRequest();
+        duplicate.setName("Alice2");
+        duplicate.setEmail("ALICE@example.com");
+        duplicate.setAge(26);
+        assertThrows(DuplicateResourceException.class,
+                () -> userService.createUser(duplicate).await().atMost(TIMEOUT));
+
+        UserResponse created = userService.getAllUsers().await().atMost(TIMEOUT).get(0);
+
+        UserUpdateRequest update = new UserUpdateRequest();
+        update.setId(created.getId());
+        update.setName("Alicia");
+        update.setEmail("alicia@example.com");
+        update.setAge(26);
+        userService.updateUser(update).await().atMost(TIMEOUT);
+        assertEquals("Alicia",
+                userService.getUserById(created.getId()).await().atMost(TIMEOUT).orElseThrow().getName());
+
+        userService.deleteUser(created.getId()).await().atMost(TIMEOUT);
+        assertThrows(NotFoundException.class,
+                () -> userService.deleteUser(created.getId()).await().atMost(TIMEOUT));
+        assertFalse(userService.isEmailExists("alicia@example.com").await().atMost(TIMEOUT));
+    }
+}
@@ -0,0 +1,101 @@
+package integrationTest;
+
+import com.example.entity.UserEntity;
+import com.example.entity.UserTombstoneEntity;
+import com.example.repository.UserDaoHibernateImpl;
+import com.example.slowquery.SlowQueryMonitor;
+import com.example.slowquery.SlowQueryShape;
+import org.hibernate.SessionFactory;
+import org.hibernate.cfg.Configuration;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.junit.jupiter.api.io.TempDir;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@Testcontainers
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+class SlowQueryMonitorTest {
+
+    @Container
+    public static PostgreSQLContainer<?> postgreSQLContainer = new PostgreSQLContainer<>("postgres:15");
+
+    @TempDir
+    Path dir;
+
+    private SessionFactory sessionFactory;
+    private SlowQueryMonitor monitor;
+
+    @BeforeAll
+    void beforeAll() {
+        Configuration configuration = new Configuration();
+        configuration.setProperty("hibernate.connection.driver_class", "org.postgresql.Driver");
+        configuration.setProperty("hibernate.connection.url", postgreSQLContainer.getJdbcUrl());
+        configuration.setProperty("hibernate.connection.username", postgreSQLContainer.getUsername());
+        configuration.setProperty("hibernate.connection.password", postgreSQLContainer.getPassword());
+        configuration.setProperty("hibernate.dialect", "org.hibernate.dialect.PostgreSQLDialect");
+        configuration.setProperty("hibernate.hbm2ddl.auto", "update");
+        // Нулевой порог: медленным считается каждое выполнение
+        configuration.setProperty(SlowQueryMonitor.THRESHOLD_PROPERTY, "0");
+        configuration.addAnnotatedClass(UserEntity.class);
+        configuration.addAnnotatedClass(UserTombstoneEntity.class);
+        SlowQueryMonitor.install(configuration);
+
+        sessionFactory = configuration.buildSessionFactory();
+        monitor = SlowQueryMonitor.of(sessionFactory).orElseThrow();
+    }
+
+    @AfterAll
+    void teardown() {
+        if (sessionFactory != null) sessionFactory.close();
+    }
+
+    @Test
+    void slowQueries_areGroupedByShapeWithPlan() throws Exception {
+        UserDaoHibernateImpl userDao = new UserDaoHibernateImpl(sessionFactory);
+        userDao.save(new UserEntity(null, "Slow", "slow@example.com", 30, null));
+        for (int i = 0; i < 5; i++) {
+            userDao.findByEmail(i == 0 ? "slow@example.com" : "missing" + i + "@example.com");
+        }
+
+        SlowQueryShape lookup = awaitPlan("email=?");
+
+        assertThat(lookup.getExecutions()).isEqualTo(5);
+        assertThat(lookup.getSlowExecutions()).isEqualTo(5);
+        assertThat(lookup.getShape()).doesNotContain("slow@example.com");
+        assertThat(lookup.getPlan()).contains("Execution Time");
+        assertThat(userDao.findById(-1L)).isEmpty();
+
+        Path report = dir.resolve("slow-queries.txt");
+        monitor.writeReport(report, 10);
+        List<String> lines = Files.readAllLines(report);
+        assertThat(lines.get(0)).startsWith("Запросы по суммарному времени");
+        assertThat(lines).anyMatch(line -> line.startsWith("SQL: ") && line.contains("email=?"));
+        assertThat(lines).anyMatch(line -> line.contains("Execution Time"));
+    }
+
+    private SlowQueryShape awaitPlan(String fragment) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 10_000;
+        while (System.currentTimeMillis() < deadline) {
+            Optional<SlowQueryShape> shape = monitor.topByTotalTime(100).stream()
+                    .filter(s -> s.getShape().startsWith("select") && s.getShape().contains(fragment))
+                    .filter(s -> s.getPlan() != null)
+                    .findFirst();
+            if (shape.isPresent()) {
+                return shape.get();
+            }
+            Thread.sleep(20);
+        }
+        throw new AssertionError("План запроса не снят");
+    }
+}
@@ -1,7 +1,17 @@
 package integrationTest;
 
+import com.example.dto.ChangeWatermark;
+import com.example.dto.SignupCount;
+import com.example.dto.SignupPeriod;
+import com.example.entity.UserAgeSummaryEntity;
 import com.example.entity.UserEntity;
+import com.example.entity.UserSignupSummaryEntity;
+import com.example.entity.UserTombstoneEntity;
+import com.example.repository.UserDao;
 import com.example.repository.UserDaoHibernateImpl;
+import com.example.util.EmailNormalizer;
+import com.example.util.QueryPlanCacheMetrics;
+import contract.UserDaoContractTest;
 import org.hibernate.Session;
 import org.hibernate.SessionFactory;
 import org.hibernate.Transaction;
@@ -11,16 +21,16 @@ import org.testcontainers.containers.PostgreSQLContainer;
 import org.testcontainers.junit.jupiter.Container;
 import org.testcontainers.junit.jupiter.Testcontainers;
 
+import java.time.Duration;
+import java.time.LocalDate;
 import java.time.LocalDateTime;
-import java.time.temporal.ChronoUnit;
-import java.util.List;
-import java.util.UUID;
 
+import static org.assertj.core.api.Assertions.assertThat;
 import static org.junit.jupiter.api.Assertions.*;
 
 @Testcontainers
 @TestInstance(TestInstance.Lifecycle.PER_CLASS)
-class UserDaoImplTest {
+class UserDaoImplTest extends UserDaoContractTest {
 
     @Container
     public static PostgreSQLContainer<?> postgreSQLContainer = new PostgreSQLContainer<>("postgres:15")
@@ -43,104 +53,122 @@ class UserDaoImplTest {
         configuration.setProperty("hibernate.show_sql", "true");
         configuration.setProperty("hibernate.format_sql", "true");
         configuration.setProperty("hibernate.current_session_context_class", "thread");
+        configuration.setProperty("hibernate.query.startup_check", "true");
+        configuration.setProperty("hibernate.generate_statistics", "true");
+        configuration.setProperty("hibernate.session.events.log", "false");
         configuration.addAnnotatedClass(UserEntity.class);
+        configuration.addAnnotatedClass(UserAgeSummaryEntity.class);
+        configuration.addAnnotatedClass(UserSignupSummaryEntity.class);
+        configuration.addAnnotatedClass(UserTombstoneEntity.class);
 
         sessionFactory = configuration.buildSessionFactory();
-        userDao = new UserDaoHibernateImpl(sessionFactory);
+        // Без окна устоявшихся изменений, чтобы лента сразу отдавала только что записанное
+        userDao = new UserDaoHibernateImpl(sessionFactory, false, EmailNormalizer.DEFAULT, Duration.ZERO);
     }
 
     @BeforeEach
     void cleanDatabase() {
         try (Session session = sessionFactory.openSession()) {
             Transaction tx = session.beginTransaction();
-            session.createQuery("delete from UserEntity").executeUpdate();
+            // HQL-удаление учитывает @SQLRestriction и не трогает мягко удалённые строки
+            session.createNativeMutationQuery("delete from users").executeUpdate();
+            session.createQuery("delete from UserTombstoneEntity").executeUpdate();
+            session.createQuery("delete from UserAgeSummaryEntity").executeUpdate();
+            session.createQuery("delete from UserSignupSummaryEntity").executeUpdate();
             tx.commit();
         }
     }
 
+    @Override
+    protected UserDao userDao() {
+        return userDao;
+    }
+
     @AfterAll
     void teardown() {
         if (sessionFactory != null) sessionFactory.close();
     }
 
     @Test
-    void saveUser_andGetUserById_success() {
-        UserEntity user = new UserEntity(null, "John", "john@example.com", 30, LocalDateTime.now());
-        userDao.save(user);
-
-        assertNotNull(user.getId());
-
-        UserEntity fetched = userDao.findById(user.getId())
-                .orElseThrow(() -> new AssertionError("User not found"));
-
-        assertEquals(user.getId(), fetched.getId());
-        assertEquals(user.getName(), fetched.getName());
-        assertEquals(user.getEmail(), fetched.getEmail());
-        assertEquals(user.getAge(), fetched.getAge());
-        assertEquals(user.getCreatedAt(), fetched.getCreatedAt());
-    }
-
-    @Test
-    void updateUser_success() {
-        UserEntity user = new UserEntity(null, "Alice", "alice@example.com", 25, LocalDateTime.now());
-        userDao.save(user);
-        LocalDateTime createDate= LocalDateTime.of(user.getCreatedAt().toLocalDate(),user.getCreatedAt().toLocalTime());
-
-        user.setName("Alice Updated");
-        user.setEmail("Alicalice@example.com");
-        user.setAge(20);
-
-        userDao.update(user);
-
-        UserEntity fetched = userDao.findById(user.getId())
-                .orElseThrow(() -> new AssertionError("User not found"));
-
-        assertEquals("Alice Updated", fetched.getName());
-        assertEquals("Alicalice@example.com", fetched.getEmail());
-        assertEquals(20, fetched.getAge());
-        assertEquals(createDate,fetched.getCreatedAt());
-    }
-
-    @Test
-    void deleteUser_success() {
-        UserEntity user = new UserEntity(null, "Bob", "bob@example.com", 40, LocalDateTime.now());
+    void deleteById_softDeletesUntilPurged() {
+        UserEntity user = new UserEntity(null, "Soft", "soft@example.com", 33, LocalDateTime.now());
         userDao.save(user);
 
         userDao.deleteById(user.getId());
 
         assertTrue(userDao.findById(user.getId()).isEmpty());
+        assertEquals(0, userDao.countUsers());
+        assertEquals(1, userDao.purgeDeleted(100));
+        assertEquals(0, userDao.purgeDeleted(100));
     }
 
     @Test
-    void getAllUsers_returnsAll() {
-        String email1 = "user1_" + UUID.randomUUID() + "@example.com";
-        String email2 = "user2_" + UUID.randomUUID() + "@example.com";
-
-        userDao.save(new UserEntity(null, "User1", email1, 20, LocalDateTime.now()));
-        userDao.save(new UserEntity(null, "User2", email2, 22, LocalDateTime.now()));
+    void namedQueries_areNotRecompiledOnRepeatedCalls() {
+        userDao.save(new UserEntity(null, "Plan", "plan@example.com", 40, LocalDateTime.now()));
+        QueryPlanCacheMetrics metrics = new QueryPlanCacheMetrics(sessionFactory);
+        userDao.findByEmail("plan@example.com");
+        long misses = metrics.getMissCount();
+
+        for (int i = 0; i < 10; i++) {
+            assertTrue(userDao.findByEmail(i + "@example.com").isEmpty());
+        }
 
-        List<UserEntity> users = userDao.findAll();
-        assertEquals(2, users.size());
+        assertTrue(metrics.isEnabled());
+        assertEquals(misses, metrics.getMissCount());
     }
 
     @Test
-    void findByEmail_success() {
-        String email = "test@example.com";
-        UserEntity user = new UserEntity(null, "Test", email, 28, LocalDateTime.now());
-        userDao.save(user);
-
-        UserEntity fetched = userDao.findByEmail(email)
-                .orElseThrow(() -> new AssertionError("User not found"));
-
-        assertEquals(user.getEmail(), fetched.getEmail());
+    void findChangedSince_skipsChangesInsideSettleWindow() {
+        UserDaoHibernateImpl settling = new UserDaoHibernateImpl(
+                sessionFactory, false, EmailNormalizer.DEFAULT, Duration.ofHours(1));
+        UserEntity user = new UserEntity(null, "Fresh", "fresh@example.com", 21, LocalDateTime.now());
+        settling.save(user);
+        settling.deleteById(user.getId());
+
+        assertTrue(settling.findChangedSince(ChangeWatermark.INITIAL, 10).isEmpty());
+        assertEquals(2, userDao.findChangedSince(ChangeWatermark.INITIAL, 10).size());
     }
 
     @Test
-    void findByEmail_nonExisting() {
-        String email = "test@example.com";
-        UserEntity user = new UserEntity(null, "Test", email, 28, LocalDateTime.now());
-        userDao.save(user);
+    void summaryMode_matchesDirectAggregatesAfterWrites() {
+        UserDaoHibernateImpl summaryDao = new UserDaoHibernateImpl(sessionFactory, true);
+        UserEntity young = new UserEntity(null, "Young", "young@example.com", 19, null);
+        UserEntity middle = new UserEntity(null, "Middle", "middle@example.com", 35, null);
+        UserEntity old = new UserEntity(null, "Old", "old@example.com", 71, null);
+        UserEntity unknown = new UserEntity(null, "Unknown", "unknown@example.com", null, null);
+        summaryDao.save(young);
+        summaryDao.save(middle);
+        summaryDao.save(old);
+        summaryDao.save(unknown);
+
+        middle.setAge(42);
+        summaryDao.update(middle);
+        unknown.setAge(19);
+        summaryDao.update(unknown);
+        summaryDao.deleteById(old.getId());
+
+        assertSummaryMatchesDirect(summaryDao);
+
+        // Пересчёт с нуля даёт те же сводки, что и пошаговое обновление
+        summaryDao.rebuildSummary();
+        assertSummaryMatchesDirect(summaryDao);
+    }
 
-        assertTrue(userDao.findByEmail("nonExisting").isEmpty());
+    private void assertSummaryMatchesDirect(UserDaoHibernateImpl summaryDao) {
+        LocalDate from = LocalDate.now().minusDays(14);
+        LocalDate to = LocalDate.now().plusDays(1);
+
+        assertEquals(3, summaryDao.countUsers());
+        assertEquals(userDao.countUsers(), summaryDao.countUsers());
+        assertThat(summaryDao.getAgeStats()).usingRecursiveComparison().isEqualTo(userDao.getAgeStats());
+        assertThat(summaryDao.getAgeDistribution(10)).usingRecursiveComparison()
+                .isEqualTo(userDao.getAgeDistribution(10));
+        for (SignupPeriod period : SignupPeriod.values()) {
+            assertThat(summaryDao.getSignupCounts(period, from, to)).usingRecursiveComparison()
+                    .isEqualTo(userDao.getSignupCounts(period, from, to));
+        }
+        assertEquals(3, summaryDao.getSignupCounts(SignupPeriod.DAY, from, to).stream()
+                .mapToLong(SignupCount::getCount)
+                .sum());
     }
 }
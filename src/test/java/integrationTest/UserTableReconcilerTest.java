@@ -0,0 +1,116 @@
+package integrationTest;
+
+import com.example.entity.UserEntity;
+import com.example.entity.UserTombstoneEntity;
+import com.example.reconcile.ReconciliationReport;
+import com.example.reconcile.UserRowDiff;
+import com.example.reconcile.UserTableReconciler;
+import com.example.repository.UserDaoHibernateImpl;
+import org.hibernate.Session;
+import org.hibernate.SessionFactory;
+import org.hibernate.Transaction;
+import org.hibernate.cfg.Configuration;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@Testcontainers
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+class UserTableReconcilerTest {
+
+    private static final int USERS = 2_000;
+
+    @Container
+    public static PostgreSQLContainer<?> sourceContainer = new PostgreSQLContainer<>("postgres:15")
+            .withDatabaseName("source");
+
+    @Container
+    public static PostgreSQLContainer<?> targetContainer = new PostgreSQLContainer<>("postgres:15")
+            .withDatabaseName("target");
+
+    private SessionFactory source;
+    private SessionFactory target;
+    private UserTableReconciler reconciler;
+    private List<Long> ids;
+
+    @BeforeAll
+    void beforeAll() {
+        source = buildSessionFactory(sourceContainer);
+        target = buildSessionFactory(targetContainer);
+        reconciler = new UserTableReconciler(source, target, 4, 50);
+
+        List<UserEntity> users = new ArrayList<>(USERS);
+        for (int i = 0; i < USERS; i++) {
+            users.add(new UserEntity(null, "User " + i, "user" + i + "@example.com", 20 + i % 50, null));
+        }
+        assertThat(new UserDaoHibernateImpl(source).writeBatch(users, List.of())).isTrue();
+        ids = users.stream().map(UserEntity::getId).toList();
+    }
+
+    @AfterAll
+    void teardown() {
+        if (source != null) source.close();
+        if (target != null) target.close();
+    }
+
+    @Test
+    void reconcile_findsOnlyChangedRowsAndRepairsThem() {
+        ReconciliationReport initialCopy = reconciler.reconcileAndRepair(diff -> { }, 500);
+        assertThat(initialCopy.getMissingInTarget()).isEqualTo(USERS);
+        assertThat(initialCopy.getRepaired()).isEqualTo(USERS);
+        assertThat(reconciler.reconcile(diff -> { }).getDiffCount()).isZero();
+
+        long deleted = ids.get(10);
+        long changed = ids.get(1_500);
+        long extra = ids.get(ids.size() - 1) + 7;
+        executeOnTarget("DELETE FROM users WHERE id = " + deleted);
+        executeOnTarget("UPDATE users SET age = age + 1 WHERE id = " + changed);
+        executeOnTarget("INSERT INTO users (id, name, email, email_normalized, age, created_at, updated_at) "
+                + "SELECT " + extra + ", name, 'extra@example.com', 'extra@example.com', age, created_at, updated_at "
+                + "FROM users WHERE id = " + changed);
+
+        List<UserRowDiff> diffs = new ArrayList<>();
+        ReconciliationReport report = reconciler.reconcile(diffs::add);
+
+        assertThat(diffs).extracting(UserRowDiff::getId).containsExactly(deleted, changed, extra);
+        assertThat(diffs).extracting(UserRowDiff::getType).containsExactly(
+                UserRowDiff.Type.MISSING_IN_TARGET, UserRowDiff.Type.DIFFERENT, UserRowDiff.Type.MISSING_IN_SOURCE);
+        assertThat(diffs.get(1).getTarget().getAge()).isEqualTo(diffs.get(1).getSource().getAge() + 1);
+        assertThat(report.getRowsFetched()).isLessThan(USERS / 4);
+
+        ReconciliationReport repair = reconciler.reconcileAndRepair(diff -> { }, 2);
+        assertThat(repair.getRepaired()).isEqualTo(3);
+        assertThat(repair.getRepairFailed()).isZero();
+        assertThat(reconciler.reconcile(diff -> { }).getDiffCount()).isZero();
+    }
+
+    private void executeOnTarget(String sql) {
+        try (Session session = target.openSession()) {
+            Transaction tx = session.beginTransaction();
+            session.createNativeMutationQuery(sql).executeUpdate();
+            tx.commit();
+        }
+    }
+
+    private static SessionFactory buildSessionFactory(PostgreSQLContainer<?> container) {
+        Configuration configuration = new Configuration();
+        configuration.setProperty("hibernate.connection.driver_class", "org.postgresql.Driver");
+        configuration.setProperty("hibernate.connection.url", container.getJdbcUrl());
+        configuration.setProperty("hibernate.connection.username", container.getUsername());
+        configuration.setProperty("hibernate.connection.password", container.getPassword());
+        configuration.setProperty("hibernate.dialect", "org.hibernate.dialect.PostgreSQLDialect");
+        configuration.setProperty("hibernate.hbm2ddl.auto", "update");
+        configuration.addAnnotatedClass(UserEntity.class);
+        configuration.addAnnotatedClass(UserTombstoneEntity.class);
+        return configuration.buildSessionFactory();
+    }
+}
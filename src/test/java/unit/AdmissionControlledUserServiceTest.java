@@ -0,0 +1,167 @@
+package unit;
+
+import com.example.dto.UserCreateRequest;
+import com.example.exception.ServiceOverloadedException;
+import com.example.service.AdaptiveConcurrencyLimiter;
+import com.example.service.AdmissionControlledUserService;
+import com.example.service.UserService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.Mockito.any;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class AdmissionControlledUserServiceTest {
+
+    private UserService delegate;
+    private ExecutorService executor;
+
+    @BeforeEach
+    void setUp() {
+        delegate = mock(UserService.class);
+        executor = Executors.newCachedThreadPool();
+    }
+
+    @AfterEach
+    void tearDown() {
+        executor.shutdownNow();
+    }
+
+    @Test
+    void saturatedWrites_doNotBlockReads() throws Exception {
+        AdmissionControlledUserService service = new AdmissionControlledUserService(delegate,
+                new AdaptiveConcurrencyLimiter("reads", 2, 1, 2, 0),
+                new AdaptiveConcurrencyLimiter("writes", 1, 1, 1, 0));
+        CountDownLatch writing = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        doAnswer(invocation -> {
+            writing.countDown();
+            release.await(5, TimeUnit.SECONDS);
+            return null;
+        }).when(delegate).createUser(any(UserCreateRequest.class));
+        when(delegate.countUsers()).thenReturn(42L);
+
+        Future<?> slowWrite = executor.submit(() -> service.createUser(new UserCreateRequest()));
+        assertThat(writing.await(5, TimeUnit.SECONDS)).isTrue();
+
+        assertThatThrownBy(() -> service.createUser(new UserCreateRequest()))
+                .isInstanceOf(ServiceOverloadedException.class);
+        assertThat(service.countUsers()).isEqualTo(42L);
+
+        release.countDown();
+        slowWrite.get(5, TimeUnit.SECONDS);
+        assertThat(service.getWriteLimiter().getRejectedCount()).isEqualTo(1);
+        assertThat(service.getReadLimiter().getRejectedCount()).isZero();
+    }
+
+    @Test
+    void queuedCall_isAdmittedWhenPermitFreesBeforeDeadline() throws Exception {
+        AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter("test", 1, 1, 1, 5_000);
+        CountDownLatch holding = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+
+        Future<?> holder = executor.submit(() -> limiter.run(() -> {
+            holding.countDown();
+            awaitQuietly(release);
+        }));
+        assertThat(holding.await(5, TimeUnit.SECONDS)).isTrue();
+        Future<Integer> waiter = executor.submit(() -> limiter.execute(() -> 1));
+        awaitQueued(limiter);
+
+        release.countDown();
+
+        assertThat(waiter.get(5, TimeUnit.SECONDS)).isEqualTo(1);
+        holder.get(5, TimeUnit.SECONDS);
+        assertThat(limiter.getQueuedCount()).isEqualTo(1);
+        assertThat(limiter.getRejectedCount()).isZero();
+        assertThat(limiter.getInFlight()).isZero();
+    }
+
+    @Test
+    void queuedCall_isRejectedAfterDeadline() throws Exception {
+        AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter("test", 1, 1, 1, 20);
+        CountDownLatch holding = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        Future<?> holder = executor.submit(() -> limiter.run(() -> {
+            holding.countDown();
+            awaitQuietly(release);
+        }));
+        assertThat(holding.await(5, TimeUnit.SECONDS)).isTrue();
+
+        assertThatThrownBy(() -> limiter.execute(() -> 1)).isInstanceOf(ServiceOverloadedException.class);
+
+        release.countDown();
+        holder.get(5, TimeUnit.SECONDS);
+        assertThat(limiter.getQueueLength()).isZero();
+    }
+
+    @Test
+    void limit_shrinksWhenLatencyGrows() {
+        AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter("test", 40, 2, 100, 0);
+        for (int i = 0; i < 20; i++) {
+            limiter.run(() -> sleep(1));
+        }
+        int before = limiter.getLimit();
+
+        for (int i = 0; i < 20; i++) {
+            limiter.run(() -> sleep(15));
+        }
+
+        assertThat(limiter.getLimit()).isLessThan(before);
+    }
+
+    @Test
+    void limit_growsWhenUtilizedAndLatencyStable() throws Exception {
+        AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter("test", 2, 1, 100, 1_000);
+        int initial = limiter.getLimit();
+
+        Future<?>[] workers = new Future<?>[4];
+        for (int w = 0; w < workers.length; w++) {
+            workers[w] = executor.submit(() -> {
+                for (int i = 0; i < 25; i++) {
+                    limiter.run(() -> sleep(1));
+                }
+            });
+        }
+        for (Future<?> worker : workers) {
+            worker.get(10, TimeUnit.SECONDS);
+        }
+
+        assertThat(limiter.getLimit()).isGreaterThan(initial);
+    }
+
+    private static void awaitQueued(AdaptiveConcurrencyLimiter limiter) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (limiter.getQueueLength() == 0 && System.nanoTime() < deadline) {
+            Thread.sleep(1);
+        }
+        assertThat(limiter.getQueueLength()).isEqualTo(1);
+    }
+
+    private static void awaitQuietly(CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static void sleep(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,130 @@
+package unit;
+
+import com.example.dto.BulkValidationReport;
+import com.example.dto.RowViolation;
+import com.example.dto.UserCreateRequest;
+import com.example.repository.UserDao;
+import com.example.service.BulkUserValidator;
+import com.example.util.EmailNormalizer;
+import org.hibernate.validator.messageinterpolation.ParameterMessageInterpolator;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import javax.validation.Validation;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ForkJoinPool;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.tuple;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class BulkUserValidatorTest {
+
+    private UserDao userDao;
+    private ForkJoinPool pool;
+    private BulkUserValidator validator;
+
+    @BeforeEach
+    void setUp() {
+        userDao = mock(UserDao.class);
+        when(userDao.findExistingEmails(anyCollection())).thenReturn(Set.of());
+        pool = new ForkJoinPool(4);
+        validator = new BulkUserValidator(userDao,
+                Validation.byDefaultProvider()
+                        .configure()
+                        .messageInterpolator(new ParameterMessageInterpolator())
+                        .buildValidatorFactory()
+                        .getValidator(),
+                pool, 8, EmailNormalizer.DEFAULT);
+    }
+
+    @AfterEach
+    void tearDown() {
+        pool.shutdown();
+    }
+
+    @Test
+    void validate_shouldReportFieldViolationsPerRow() {
+        List<UserCreateRequest> requests = validBatch(100);
+        requests.get(3).setAge(0);
+        requests.get(40).setEmail("not-an-email");
+        requests.set(77, null);
+
+        BulkValidationReport report = validator.validate(requests);
+
+        assertThat(report.getTotalRows()).isEqualTo(100);
+        assertThat(report.getInvalidRowCount()).isEqualTo(3);
+        assertThat(report.getViolations())
+                .extracting(RowViolation::getRow, RowViolation::getField)
+                .containsExactly(
+                        tuple(3, "age"),
+                        tuple(40, "email"),
+                        tuple(77, "request"));
+    }
+
+    @Test
+    void validate_shouldFlagDuplicatesAfterFirstOccurrence() {
+        List<UserCreateRequest> requests = validBatch(50);
+        requests.get(10).setEmail("user5@example.com");
+        requests.get(45).setEmail("User5@Example.COM");
+
+        BulkValidationReport report = validator.validate(requests);
+
+        assertThat(report.getViolations())
+                .extracting(RowViolation::getRow)
+                .containsExactly(10, 45);
+        assertThat(report.getViolations())
+                .allSatisfy(v -> assertThat(v.getMessage()).contains("строку 5"));
+    }
+
+    @Test
+    void validate_shouldCheckExistingEmailsWithOneLookup() {
+        List<UserCreateRequest> requests = validBatch(200);
+        requests.get(0).setEmail("bad");
+        when(userDao.findExistingEmails(anyCollection())).thenReturn(Set.of("user7@example.com"));
+
+        BulkValidationReport report = validator.validate(requests);
+
+        verify(userDao, times(1)).findExistingEmails(anyCollection());
+        verify(userDao, never()).findByEmail(anyString());
+        assertThat(report.getViolations())
+                .extracting(RowViolation::getRow)
+                .containsExactly(0, 7);
+    }
+
+    @Test
+    void validate_shouldRejectRowsWhenExistenceCheckFails() {
+        List<UserCreateRequest> requests = validBatch(20);
+        requests.get(0).setEmail("bad");
+        when(userDao.findExistingEmails(anyCollection())).thenThrow(new IllegalStateException("БД недоступна"));
+
+        BulkValidationReport report = validator.validate(requests);
+
+        assertThat(report.isValid()).isFalse();
+        assertThat(report.getInvalidRowCount()).isEqualTo(20);
+        assertThat(report.getViolations())
+                .filteredOn(v -> v.getRow() > 0)
+                .allSatisfy(v -> assertThat(v.getMessage()).startsWith("Не удалось проверить"));
+    }
+
+    private static List<UserCreateRequest> validBatch(int size) {
+        List<UserCreateRequest> requests = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            UserCreateRequest request = new UserCreateRequest();
+            request.setName("User " + i);
+            request.setEmail("user" + i + "@example.com");
+            request.setAge(20 + i % 50);
+            requests.add(request);
+        }
+        return requests;
+    }
+}
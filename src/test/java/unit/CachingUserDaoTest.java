@@ -0,0 +1,126 @@
+package unit;
+
+import com.example.cache.QueryResultCache;
+import com.example.dto.ChangeWatermark;
+import com.example.entity.UserEntity;
+import com.example.repository.CachingUserDao;
+import com.example.repository.UserDao;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.any;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class CachingUserDaoTest {
+
+    private UserDao delegate;
+    private CachingUserDao cachingDao;
+
+    @BeforeEach
+    void setUp() {
+        delegate = mock(UserDao.class);
+        cachingDao = new CachingUserDao(delegate, new QueryResultCache(2, 60_000));
+    }
+
+    @Test
+    void findAll_secondCallServedFromCache() {
+        when(delegate.findAll()).thenReturn(List.of(user(1L, "a@example.com")));
+
+        cachingDao.findAll();
+        List<UserEntity> users = cachingDao.findAll();
+
+        assertThat(users).hasSize(1);
+        verify(delegate, times(1)).findAll();
+        assertThat(cachingDao.getCache().getHitCount()).isEqualTo(1);
+    }
+
+    @Test
+    void findAll_returnsCopies() {
+        when(delegate.findAll()).thenReturn(List.of(user(1L, "a@example.com")));
+
+        cachingDao.findAll().get(0).setName("Changed");
+
+        assertThat(cachingDao.findAll().get(0).getName()).isEqualTo("User");
+    }
+
+    @Test
+    void writes_invalidateCachedResults() {
+        when(delegate.findAll()).thenReturn(List.of());
+
+        cachingDao.findAll();
+        cachingDao.save(user(null, "new@example.com"));
+        cachingDao.findAll();
+        cachingDao.update(user(1L, "a@example.com"));
+        cachingDao.findAll();
+        cachingDao.deleteById(1L);
+        cachingDao.findAll();
+
+        verify(delegate, times(4)).findAll();
+    }
+
+    @Test
+    void readDuringWrite_isNotCached() {
+        when(delegate.findAll()).thenReturn(List.of());
+        doAnswer(invocation -> cachingDao.findAll()).when(delegate).save(any(UserEntity.class));
+
+        cachingDao.save(user(null, "new@example.com"));
+        cachingDao.findAll();
+
+        verify(delegate, times(2)).findAll();
+    }
+
+    @Test
+    void findByEmail_keyedByEmail() {
+        when(delegate.findByEmail("a@example.com")).thenReturn(Optional.of(user(1L, "a@example.com")));
+        when(delegate.findByEmail("b@example.com")).thenReturn(Optional.empty());
+
+        cachingDao.findByEmail("a@example.com");
+        cachingDao.findByEmail("b@example.com");
+        Optional<UserEntity> cached = cachingDao.findByEmail("a@example.com");
+
+        assertThat(cached).isPresent();
+        verify(delegate, times(1)).findByEmail("a@example.com");
+        verify(delegate, times(1)).findByEmail("b@example.com");
+    }
+
+    @Test
+    void cache_evictsLeastRecentlyUsedEntries() {
+        when(delegate.findByEmail(any())).thenReturn(Optional.empty());
+
+        cachingDao.findByEmail("a@example.com");
+        cachingDao.findByEmail("b@example.com");
+        cachingDao.findByEmail("c@example.com");
+        cachingDao.findByEmail("a@example.com");
+
+        assertThat(cachingDao.getCache().size()).isEqualTo(2);
+        verify(delegate, times(2)).findByEmail("a@example.com");
+    }
+
+    @Test
+    void findChangedSince_isNotCached() {
+        when(delegate.findChangedSince(ChangeWatermark.INITIAL, 10)).thenReturn(List.of());
+
+        cachingDao.findChangedSince(ChangeWatermark.INITIAL, 10);
+        cachingDao.findChangedSince(ChangeWatermark.INITIAL, 10);
+
+        verify(delegate, times(2)).findChangedSince(ChangeWatermark.INITIAL, 10);
+        assertThat(cachingDao.getCache().size()).isZero();
+    }
+
+    private static UserEntity user(Long id, String email) {
+        UserEntity user = new UserEntity();
+        user.setId(id);
+        user.setName("User");
+        user.setEmail(email);
+        user.setAge(30);
+        return user;
+    }
+}
@@ -0,0 +1,24 @@
+package unit;
+
+import com.example.util.EmailNormalizer;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class EmailNormalizerTest {
+
+    @Test
+    void normalize_shouldTrimAndLowercase() {
+        assertThat(EmailNormalizer.DEFAULT.normalize("  John.Doe+News@Example.COM "))
+                .isEqualTo("john.doe+news@example.com");
+        assertThat(EmailNormalizer.DEFAULT.normalize(null)).isNull();
+    }
+
+    @Test
+    void normalize_shouldStripPlusTagWhenEnabled() {
+        EmailNormalizer normalizer = new EmailNormalizer(true);
+
+        assertThat(normalizer.normalize("John.Doe+News@Example.com")).isEqualTo("john.doe@example.com");
+        assertThat(normalizer.normalize("plain@example.com")).isEqualTo("plain@example.com");
+    }
+}
@@ -0,0 +1,223 @@
+package unit;
+
+import com.example.entity.UserEntity;
+import com.example.repository.InMemoryUserDao;
+import com.example.repository.UserDao;
+import contract.UserDaoContractTest;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class InMemoryUserDaoTest extends UserDaoContractTest {
+
+    private static final int THREADS = 8;
+
+    private InMemoryUserDao userDao;
+
+    @BeforeEach
+    void setUp() {
+        userDao = new InMemoryUserDao();
+    }
+
+    @Override
+    protected UserDao userDao() {
+        return userDao;
+    }
+
+    @Test
+    void save_rejectsDuplicateNormalizedEmail() {
+        userDao.save(new UserEntity(null, "First", "dup@example.com", 20, null));
+        UserEntity second = new UserEntity(null, "Second", " DUP@example.com", 21, null);
+
+        userDao.save(second);
+
+        assertThat(second.getId()).isNull();
+        assertThat(userDao.countUsers()).isEqualTo(1);
+    }
+
+    @Test
+    void writeBatch_isAllOrNothing() {
+        UserEntity existing = new UserEntity(null, "Existing", "taken@example.com", 30, null);
+        userDao.save(existing);
+
+        boolean committed = userDao.writeBatch(
+                List.of(new UserEntity(null, "Fresh", "fresh@example.com", 20, null),
+                        new UserEntity(null, "Clash", "taken@example.com", 21, null)),
+                List.of());
+
+        assertThat(committed).isFalse();
+        assertThat(userDao.findByEmail("fresh@example.com")).isEmpty();
+        assertThat(userDao.countUsers()).isEqualTo(1);
+    }
+
+    @Test
+    void failedBatch_releasesClaimedEmails() {
+        userDao.save(new UserEntity(null, "Existing", "taken@example.com", 30, null));
+        userDao.writeBatch(
+                List.of(new UserEntity(null, "Fresh", "fresh@example.com", 20, null),
+                        new UserEntity(null, "Clash", "taken@example.com", 21, null)),
+                List.of());
+
+        UserEntity fresh = new UserEntity(null, "Fresh", "fresh@example.com", 20, null);
+        userDao.save(fresh);
+
+        assertThat(fresh.getId()).isNotNull();
+        assertThat(userDao.findExistingEmails(List.of("fresh@example.com"))).containsExactly("fresh@example.com");
+    }
+
+    @Test
+    void deletedEmail_canBeReused() {
+        UserEntity user = new UserEntity(null, "Gone", "reuse@example.com", 40, null);
+        userDao.save(user);
+        userDao.deleteById(user.getId());
+
+        UserEntity again = new UserEntity(null, "Again", "reuse@example.com", 41, null);
+        userDao.save(again);
+
+        assertThat(again.getId()).isNotNull().isNotEqualTo(user.getId());
+    }
+
+    @Test
+    void returnsCopies() {
+        UserEntity user = new UserEntity(null, "Original", "copy@example.com", 30, null);
+        userDao.save(user);
+
+        userDao.findById(user.getId()).orElseThrow().setName("Changed");
+        user.setName("Changed too");
+
+        assertThat(userDao.findById(user.getId()).orElseThrow().getName()).isEqualTo("Original");
+    }
+
+    @Test
+    void findAfterId_pagesInIdOrder() {
+        for (int i = 0; i < 5; i++) {
+            userDao.save(new UserEntity(null, "User" + i, "page" + i + "@example.com", 20 + i, null));
+        }
+
+        List<UserEntity> first = userDao.findAfterId(null, 3);
+        List<UserEntity> second = userDao.findAfterId(first.get(2).getId(), 3);
+
+        assertThat(first).hasSize(3);
+        assertThat(second).hasSize(2);
+        assertThat(second.get(0).getId()).isGreaterThan(first.get(2).getId());
+    }
+
+    @Test
+    void concurrentSavesOfSameEmail_onlyOneWins() throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        try {
+            CountDownLatch start = new CountDownLatch(1);
+            List<Future<UserEntity>> results = new ArrayList<>();
+            for (int i = 0; i < THREADS * 100; i++) {
+                int n = i;
+                results.add(executor.submit(() -> {
+                    start.await();
+                    // Каждый десятый пользователь претендует на общий email
+                    String email = n % 10 == 0 ? "shared@example.com" : "user" + n + "@example.com";
+                    UserEntity user = new UserEntity(null, "User" + n, email, 30, null);
+                    userDao.save(user);
+                    return user;
+                }));
+            }
+            start.countDown();
+
+            List<UserEntity> saved = new ArrayList<>();
+            for (Future<UserEntity> result : results) {
+                UserEntity user = result.get(10, TimeUnit.SECONDS);
+                if (user.getId() != null) {
+                    saved.add(user);
+                }
+            }
+
+            Set<Long> ids = saved.stream().map(UserEntity::getId).collect(Collectors.toSet());
+            assertThat(ids).hasSize(saved.size());
+            assertThat(saved).filteredOn(u -> u.getEmail().equals("shared@example.com")).hasSize(1);
+            assertThat(userDao.findAll()).hasSize(saved.size());
+            assertThat(userDao.countUsers()).isEqualTo(THREADS * 90 + 1);
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    void concurrentUpdatesToSameEmail_onlyOneWins() throws Exception {
+        List<UserEntity> users = new ArrayList<>();
+        for (int i = 0; i < THREADS; i++) {
+            UserEntity user = new UserEntity(null, "User" + i, "own" + i + "@example.com", 30, null);
+            userDao.save(user);
+            users.add(user);
+        }
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        try {
+            CountDownLatch start = new CountDownLatch(1);
+            List<Future<Boolean>> results = new ArrayList<>();
+            for (UserEntity user : users) {
+                results.add(executor.submit(() -> {
+                    start.await();
+                    UserEntity changed = user.copy();
+                    changed.setEmail("target@example.com");
+                    return userDao.writeBatch(List.of(), List.of(changed));
+                }));
+            }
+            start.countDown();
+
+            int won = 0;
+            for (Future<Boolean> result : results) {
+                won += result.get(10, TimeUnit.SECONDS) ? 1 : 0;
+            }
+
+            assertThat(won).isEqualTo(1);
+            UserEntity owner = userDao.findByEmail("target@example.com").orElseThrow();
+            assertThat(userDao.findAll()).filteredOn(u -> u.getEmail().equals("target@example.com"))
+                    .extracting(UserEntity::getId)
+                    .containsExactly(owner.getId());
+            // Старый email победителя освобождён, остальные пользователи сохранили свои
+            assertThat(userDao.findExistingEmails(users.stream().map(UserEntity::getEmail).toList()))
+                    .hasSize(THREADS - 1);
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    void findAll_neverSeesHalfOfBatch() throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        try {
+            List<Future<?>> writers = new ArrayList<>();
+            for (int t = 0; t < THREADS - 1; t++) {
+                int thread = t;
+                writers.add(executor.submit(() -> {
+                    for (int i = 0; i < 200; i++) {
+                        userDao.writeBatch(List.of(
+                                new UserEntity(null, "A", "a" + thread + "_" + i + "@example.com", 20, null),
+                                new UserEntity(null, "B", "b" + thread + "_" + i + "@example.com", 21, null)),
+                                List.of());
+                    }
+                }));
+            }
+
+            boolean writing = true;
+            while (writing) {
+                assertThat(userDao.findAll().size() % 2).isZero();
+                writing = writers.stream().anyMatch(writer -> !writer.isDone());
+            }
+            for (Future<?> writer : writers) {
+                writer.get(10, TimeUnit.SECONDS);
+            }
+            assertThat(userDao.countUsers()).isEqualTo((THREADS - 1) * 400L);
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+}
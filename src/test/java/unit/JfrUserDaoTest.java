@@ -0,0 +1,82 @@
+package unit;
+
+import com.example.entity.UserEntity;
+import com.example.repository.JfrUserDao;
+import com.example.repository.UserDao;
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+import org.junit.jupiter.api.Test;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.List;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.tuple;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class JfrUserDaoTest {
+
+    @Test
+    void calls_shouldBeRecordedAsDaoOperationEvents() throws Exception {
+        UserDao delegate = mock(UserDao.class);
+        UserEntity user = new UserEntity(7L, "Ann", "ann@example.com", 30, null);
+        when(delegate.findById(7L)).thenReturn(Optional.of(user));
+        when(delegate.findAll()).thenReturn(List.of(user, user.copy()));
+        JfrUserDao dao = new JfrUserDao(delegate);
+
+        Path file = Files.createTempFile("dao", ".jfr");
+        try (Recording recording = new Recording()) {
+            recording.enable("com.example.DaoOperation").withThreshold(Duration.ZERO);
+            recording.start();
+            assertThat(dao.findById(7L)).contains(user);
+            assertThat(dao.findAll()).hasSize(2);
+            recording.stop();
+            recording.dump(file);
+        }
+
+        List<RecordedEvent> events = RecordingFile.readAllEvents(file);
+        Files.delete(file);
+
+        assertThat(events)
+                .extracting(e -> e.getString("operation"), e -> e.getLong("entityId"), e -> e.getLong("rowCount"))
+                .containsExactly(
+                        tuple("findById", 7L, 1L),
+                        tuple("findAll", 0L, 2L));
+        verify(delegate).findById(7L);
+    }
+
+    @Test
+    void writes_shouldRecordRowsOnlyWhenOutcomeIsKnown() throws Exception {
+        UserDao delegate = mock(UserDao.class);
+        UserEntity user = new UserEntity(7L, "Ann", "ann@example.com", 30, null);
+        when(delegate.writeBatch(List.of(), List.of(user))).thenReturn(false);
+        JfrUserDao dao = new JfrUserDao(delegate);
+
+        Path file = Files.createTempFile("dao", ".jfr");
+        try (Recording recording = new Recording()) {
+            recording.enable("com.example.DaoOperation").withThreshold(Duration.ZERO);
+            recording.start();
+            dao.update(user);
+            dao.deleteById(7L);
+            dao.writeBatch(List.of(), List.of(user));
+            recording.stop();
+            recording.dump(file);
+        }
+
+        List<RecordedEvent> events = RecordingFile.readAllEvents(file);
+        Files.delete(file);
+
+        assertThat(events)
+                .extracting(e -> e.getString("operation"), e -> e.getLong("entityId"), e -> e.getLong("rowCount"))
+                .containsExactly(
+                        tuple("update", 7L, -1L),
+                        tuple("deleteById", 7L, -1L),
+                        tuple("writeBatch", 0L, 0L));
+    }
+}
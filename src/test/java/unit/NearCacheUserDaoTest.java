@@ -0,0 +1,138 @@
+package unit;
+
+import com.example.entity.UserEntity;
+import com.example.repository.NearCacheUserDao;
+import com.example.repository.UserDao;
+import com.example.util.EmailNormalizer;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class NearCacheUserDaoTest {
+
+    private static final LocalDateTime VERSION_1 = LocalDateTime.of(2024, 1, 1, 10, 0);
+    private static final LocalDateTime VERSION_2 = LocalDateTime.of(2024, 1, 1, 11, 0);
+
+    private UserDao delegate;
+    private NearCacheUserDao nearCache;
+
+    @BeforeEach
+    void setUp() {
+        delegate = mock(UserDao.class);
+        nearCache = new NearCacheUserDao(delegate, 2, 60_000, EmailNormalizer.DEFAULT);
+    }
+
+    @Test
+    void findById_secondCallServedLocally() {
+        when(delegate.findById(1L)).thenReturn(Optional.of(user(1L, "a@example.com", VERSION_1)));
+
+        nearCache.findById(1L);
+        UserEntity cached = nearCache.findById(1L).orElseThrow();
+
+        assertThat(cached.getEmail()).isEqualTo("a@example.com");
+        verify(delegate, times(1)).findById(1L);
+        assertThat(nearCache.getHitCount()).isEqualTo(1);
+    }
+
+    @Test
+    void findByEmailIgnoreCase_usesEmailIndex() {
+        when(delegate.findById(1L)).thenReturn(Optional.of(user(1L, "a@example.com", VERSION_1)));
+
+        nearCache.findById(1L);
+        Optional<UserEntity> found = nearCache.findByEmailIgnoreCase(" A@Example.com ");
+
+        assertThat(found).map(UserEntity::getId).contains(1L);
+        verify(delegate, never()).findByEmailIgnoreCase(" A@Example.com ");
+    }
+
+    @Test
+    void returnsCopies() {
+        when(delegate.findById(1L)).thenReturn(Optional.of(user(1L, "a@example.com", VERSION_1)));
+
+        nearCache.findById(1L).orElseThrow().setName("Changed");
+
+        assertThat(nearCache.findById(1L).orElseThrow().getName()).isEqualTo("User");
+    }
+
+    @Test
+    void evictAll_forcesReload() {
+        when(delegate.findById(1L)).thenReturn(Optional.of(user(1L, "a@example.com", VERSION_1)));
+
+        nearCache.findById(1L);
+        nearCache.evictAll(List.of(1L));
+        nearCache.findById(1L);
+
+        verify(delegate, times(2)).findById(1L);
+        assertThat(nearCache.findByEmailIgnoreCase("a@example.com")).isPresent();
+    }
+
+    @Test
+    void localWrites_evictChangedUsers() {
+        when(delegate.findById(1L)).thenReturn(Optional.of(user(1L, "a@example.com", VERSION_1)));
+
+        nearCache.findById(1L);
+        nearCache.update(user(1L, "b@example.com", VERSION_2));
+        nearCache.findById(1L);
+        nearCache.deleteById(1L);
+        nearCache.findById(1L);
+
+        verify(delegate, times(3)).findById(1L);
+    }
+
+    @Test
+    void staleEntry_isRevalidatedByVersion() {
+        nearCache = new NearCacheUserDao(delegate, 2, 0, EmailNormalizer.DEFAULT);
+        when(delegate.findById(1L))
+                .thenReturn(Optional.of(user(1L, "a@example.com", VERSION_1)))
+                .thenReturn(Optional.of(user(1L, "b@example.com", VERSION_2)));
+        when(delegate.findUpdatedAt(1L))
+                .thenReturn(Optional.of(VERSION_1))
+                .thenReturn(Optional.of(VERSION_2));
+
+        nearCache.findById(1L);
+        UserEntity unchanged = nearCache.findById(1L).orElseThrow();
+        UserEntity reloaded = nearCache.findById(1L).orElseThrow();
+
+        assertThat(unchanged.getEmail()).isEqualTo("a@example.com");
+        assertThat(reloaded.getEmail()).isEqualTo("b@example.com");
+        assertThat(nearCache.getRevalidationCount()).isEqualTo(2);
+        verify(delegate, times(2)).findById(1L);
+    }
+
+    @Test
+    void size_isBounded() {
+        for (long id = 1; id <= 3; id++) {
+            when(delegate.findById(id)).thenReturn(Optional.of(user(id, "u" + id + "@example.com", VERSION_1)));
+            nearCache.findById(id);
+        }
+
+        assertThat(nearCache.size()).isEqualTo(2);
+    }
+
+    @Test
+    void invalidateAll_clearsEverything() {
+        when(delegate.findById(1L)).thenReturn(Optional.of(user(1L, "a@example.com", VERSION_1)));
+        nearCache.findById(1L);
+
+        nearCache.invalidateAll();
+
+        assertThat(nearCache.size()).isZero();
+    }
+
+    private static UserEntity user(Long id, String email, LocalDateTime updatedAt) {
+        UserEntity user = new UserEntity(id, "User", email, 30, null);
+        user.setEmailNormalized(EmailNormalizer.DEFAULT.normalize(email));
+        user.setUpdatedAt(updatedAt);
+        return user;
+    }
+}
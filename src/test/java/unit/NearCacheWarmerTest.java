@@ -0,0 +1,217 @@
+package unit;
+
+import com.example.cache.NearCacheWarmer;
+import com.example.cache.UserCacheSnapshot;
+import com.example.cache.UserChangeListener;
+import com.example.entity.UserEntity;
+import com.example.repository.InMemoryUserDao;
+import com.example.repository.NearCacheUserDao;
+import com.example.repository.UserDao;
+import com.example.util.EmailNormalizer;
+import org.hibernate.Session;
+import org.hibernate.SessionFactory;
+import org.hibernate.jdbc.Work;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.postgresql.PGConnection;
+import org.postgresql.PGNotification;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class NearCacheWarmerTest {
+
+    @TempDir
+    Path dir;
+
+    private InMemoryUserDao source;
+    private Path snapshotFile;
+
+    @BeforeEach
+    void setUp() {
+        source = new InMemoryUserDao();
+        snapshotFile = dir.resolve("users.snapshot");
+    }
+
+    @Test
+    void snapshot_roundTripsAllFields() throws IOException {
+        UserEntity user = new UserEntity(7L, "Имя", "Mixed@Example.com", 42, LocalDateTime.of(2024, 5, 1, 12, 30, 15));
+        user.setEmailNormalized("mixed@example.com");
+        user.setUpdatedAt(LocalDateTime.of(2024, 5, 2, 8, 0, 0, 123_456_000));
+        UserEntity sparse = new UserEntity(8L, null, "x@example.com", null, null);
+        LocalDateTime takenAt = LocalDateTime.of(2024, 6, 1, 0, 0, 0, 1_000);
+
+        UserCacheSnapshot.write(snapshotFile, takenAt, List.of(user, sparse));
+        UserCacheSnapshot snapshot = UserCacheSnapshot.read(snapshotFile);
+
+        assertThat(snapshot.getTakenAt()).isEqualTo(takenAt);
+        assertThat(snapshot.getUsers()).hasSize(2);
+        UserEntity read = snapshot.getUsers().get(0);
+        assertThat(read.getId()).isEqualTo(7L);
+        assertThat(read.getName()).isEqualTo("Имя");
+        assertThat(read.getEmail()).isEqualTo("Mixed@Example.com");
+        assertThat(read.getEmailNormalized()).isEqualTo("mixed@example.com");
+        assertThat(read.getAge()).isEqualTo(42);
+        assertThat(read.getCreatedAt()).isEqualTo(user.getCreatedAt());
+        assertThat(read.getUpdatedAt()).isEqualTo(user.getUpdatedAt());
+        UserEntity readSparse = snapshot.getUsers().get(1);
+        assertThat(readSparse.getName()).isNull();
+        assertThat(readSparse.getAge()).isNull();
+        assertThat(readSparse.getCreatedAt()).isNull();
+        assertThat(readSparse.getUpdatedAt()).isNull();
+    }
+
+    @Test
+    void corruptedSnapshot_isRejected() throws IOException {
+        UserCacheSnapshot.write(snapshotFile, LocalDateTime.now(), List.of(new UserEntity(1L, "A", "a@example.com", 1, null)));
+        byte[] bytes = Files.readAllBytes(snapshotFile);
+        bytes[20] ^= 0x7F;
+        Files.write(snapshotFile, bytes);
+
+        assertThatThrownBy(() -> UserCacheSnapshot.read(snapshotFile)).isInstanceOf(IOException.class);
+    }
+
+    @Test
+    void load_restoresSavedCache() throws IOException {
+        UserEntity user = saved("warm@example.com");
+        NearCacheUserDao before = nearCache();
+        before.findById(user.getId());
+        new NearCacheWarmer(before, source, snapshotFile).save();
+
+        NearCacheUserDao after = nearCache();
+        int restored = new NearCacheWarmer(after, source, snapshotFile).load();
+        after.findById(user.getId());
+        after.findByEmailIgnoreCase("WARM@example.com");
+
+        assertThat(restored).isEqualTo(1);
+        assertThat(after.getHitCount()).isEqualTo(2);
+        assertThat(after.getMissCount()).isZero();
+    }
+
+    @Test
+    void load_skipsUsersChangedAfterSnapshot() throws IOException {
+        UserEntity changed = saved("changed@example.com");
+        UserEntity unchanged = saved("unchanged@example.com");
+        NearCacheUserDao before = nearCache();
+        before.findById(changed.getId());
+        before.findById(unchanged.getId());
+        new NearCacheWarmer(before, source, snapshotFile).save();
+
+        changed.setName("Renamed");
+        source.update(changed);
+
+        NearCacheUserDao after = nearCache();
+        int restored = new NearCacheWarmer(after, source, snapshotFile).load();
+
+        assertThat(restored).isEqualTo(1);
+        assertThat(after.findById(changed.getId()).orElseThrow().getName()).isEqualTo("Renamed");
+    }
+
+    @Test
+    void load_discardsSnapshotWithTooManyChanges() throws IOException {
+        UserEntity user = saved("old@example.com");
+        NearCacheUserDao before = nearCache();
+        before.findById(user.getId());
+        new NearCacheWarmer(before, source, snapshotFile).save();
+
+        saved("new1@example.com");
+        saved("new2@example.com");
+
+        NearCacheUserDao after = nearCache();
+        assertThat(new NearCacheWarmer(after, source, snapshotFile, 1).load()).isZero();
+        assertThat(after.size()).isZero();
+    }
+
+    @Test
+    void load_discardsSnapshotFromAnotherDatabase() throws IOException {
+        UserEntity user = saved("elsewhere@example.com");
+        NearCacheUserDao before = nearCache();
+        before.findById(user.getId());
+        new NearCacheWarmer(before, source, snapshotFile).save();
+
+        NearCacheUserDao after = new NearCacheUserDao(new InMemoryUserDao(), 100, 0, EmailNormalizer.DEFAULT);
+
+        assertThat(new NearCacheWarmer(after, new InMemoryUserDao(), snapshotFile).load()).isZero();
+    }
+
+    @Test
+    void loadAfterSubscribe_survivesListenerInvalidation() throws Exception {
+        UserEntity user = saved("listened@example.com");
+        NearCacheUserDao before = nearCache();
+        before.findById(user.getId());
+        new NearCacheWarmer(before, source, snapshotFile).save();
+
+        NearCacheUserDao after = nearCache();
+        try (UserChangeListener listener = new UserChangeListener(listeningSessionFactory(), after, 10)) {
+            int restored = new NearCacheWarmer(after, source, snapshotFile).load(listener, 5_000);
+            // Слушатель продолжает опрос; полная очистка была только при подписке
+            TimeUnit.MILLISECONDS.sleep(100);
+
+            assertThat(restored).isEqualTo(1);
+            assertThat(after.size()).isEqualTo(1);
+        }
+    }
+
+    @Test
+    void load_withoutSnapshot_isNoop() {
+        assertThat(new NearCacheWarmer(nearCache(), source, snapshotFile).load()).isZero();
+    }
+
+    @Test
+    void sourceWithSettleWindow_isRejected() {
+        UserDao settling = mock(UserDao.class);
+        when(settling.getChangeFeedSettleWindow()).thenReturn(Duration.ofSeconds(5));
+
+        assertThatThrownBy(() -> new NearCacheWarmer(nearCache(), settling, snapshotFile))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    private NearCacheUserDao nearCache() {
+        return new NearCacheUserDao(source, 100, 0, EmailNormalizer.DEFAULT);
+    }
+
+    /**
+     * Фабрика сессий, соединение которой подписывается на канал и не получает уведомлений.
+     */
+    private static SessionFactory listeningSessionFactory() throws SQLException {
+        PGConnection pgConnection = mock(PGConnection.class);
+        when(pgConnection.getNotifications(anyInt())).thenAnswer(inv -> {
+            TimeUnit.MILLISECONDS.sleep(inv.<Integer>getArgument(0));
+            return new PGNotification[0];
+        });
+        Connection connection = mock(Connection.class);
+        when(connection.createStatement()).thenReturn(mock(Statement.class));
+        when(connection.unwrap(PGConnection.class)).thenReturn(pgConnection);
+        Session session = mock(Session.class);
+        doAnswer(inv -> {
+            inv.<Work>getArgument(0).execute(connection);
+            return null;
+        }).when(session).doWork(any());
+        SessionFactory sessionFactory = mock(SessionFactory.class);
+        when(sessionFactory.openSession()).thenReturn(session);
+        return sessionFactory;
+    }
+
+    private UserEntity saved(String email) {
+        UserEntity user = new UserEntity(null, "User", email, 30, null);
+        source.save(user);
+        return user;
+    }
+}
@@ -0,0 +1,25 @@
+package unit;
+
+import com.example.util.ReactiveSessionFactoryProvider;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ReactiveSessionFactoryProviderTest {
+
+    @Test
+    void stripJdbcOnlyParameters_shouldDropDriverParameters() {
+        assertThat(ReactiveSessionFactoryProvider.stripJdbcOnlyParameters(
+                "jdbc:postgresql://db:5432/app?currentSchema=public"))
+                .isEqualTo("jdbc:postgresql://db:5432/app");
+        assertThat(ReactiveSessionFactoryProvider.stripJdbcOnlyParameters(
+                "jdbc:postgresql://db:5432/app?prepareThreshold=1&sslmode=require&currentSchema=public"))
+                .isEqualTo("jdbc:postgresql://db:5432/app?sslmode=require");
+    }
+
+    @Test
+    void stripJdbcOnlyParameters_shouldKeepUrlWithoutQuery() {
+        assertThat(ReactiveSessionFactoryProvider.stripJdbcOnlyParameters("jdbc:postgresql://db:5432/app"))
+                .isEqualTo("jdbc:postgresql://db:5432/app");
+    }
+}
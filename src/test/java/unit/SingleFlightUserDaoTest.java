@@ -0,0 +1,170 @@
+package unit;
+
+import com.example.entity.UserEntity;
+import com.example.repository.SingleFlightUserDao;
+import com.example.repository.UserDao;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class SingleFlightUserDaoTest {
+
+    private static final int THREADS = 8;
+
+    private UserDao delegate;
+    private SingleFlightUserDao singleFlightDao;
+    private ExecutorService executor;
+
+    @BeforeEach
+    void setUp() {
+        delegate = mock(UserDao.class);
+        singleFlightDao = new SingleFlightUserDao(delegate);
+        executor = Executors.newFixedThreadPool(THREADS);
+    }
+
+    @AfterEach
+    void tearDown() {
+        executor.shutdownNow();
+    }
+
+    @Test
+    void concurrentFindById_sharesOneDelegateCall() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+        when(delegate.findById(1L)).thenAnswer(invocation -> {
+            release.await(5, TimeUnit.SECONDS);
+            return Optional.of(user(1L, "a@example.com"));
+        });
+
+        List<Future<Optional<UserEntity>>> results = new ArrayList<>();
+        for (int i = 0; i < THREADS; i++) {
+            results.add(executor.submit(() -> singleFlightDao.findById(1L)));
+        }
+        awaitCollapsed(THREADS - 1);
+        release.countDown();
+
+        List<UserEntity> users = new ArrayList<>();
+        for (Future<Optional<UserEntity>> result : results) {
+            users.add(result.get(5, TimeUnit.SECONDS).orElseThrow());
+        }
+
+        verify(delegate, times(1)).findById(1L);
+        assertThat(singleFlightDao.getExecutedCount()).isEqualTo(1);
+        assertThat(singleFlightDao.getCollapsedCount()).isEqualTo(THREADS - 1);
+        assertThat(users).extracting(UserEntity::getEmail).containsOnly("a@example.com");
+        // Каждый поток получает собственный экземпляр
+        assertThat(users.stream().distinct().count()).isEqualTo(1);
+        assertThat(users.stream().map(System::identityHashCode).distinct().count()).isEqualTo(THREADS);
+    }
+
+    @Test
+    void leaderMutation_isNotSeenByJoiningFollowers() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+        UserEntity loaded = user(1L, "a@example.com");
+        when(delegate.findById(1L)).thenAnswer(invocation -> {
+            release.await(5, TimeUnit.SECONDS);
+            return Optional.of(loaded);
+        });
+
+        Future<Optional<UserEntity>> leader = executor.submit(() -> singleFlightDao.findById(1L));
+        awaitExecuted(1);
+        List<Future<Optional<UserEntity>>> followers = new ArrayList<>();
+        for (int i = 1; i < THREADS; i++) {
+            followers.add(executor.submit(() -> singleFlightDao.findById(1L)));
+        }
+        awaitCollapsed(THREADS - 1);
+        release.countDown();
+
+        // Лидер меняет свою сущность, как UserServiceImpl.updateUser, пока ожидающие ещё снимают копии
+        UserEntity own = leader.get(5, TimeUnit.SECONDS).orElseThrow();
+        own.setEmail("changed@example.com");
+        own.setName("Changed");
+
+        for (Future<Optional<UserEntity>> follower : followers) {
+            UserEntity user = follower.get(5, TimeUnit.SECONDS).orElseThrow();
+            assertThat(user).isNotSameAs(own);
+            assertThat(user.getEmail()).isEqualTo("a@example.com");
+            assertThat(user.getName()).isEqualTo("User");
+        }
+        assertThat(own).isNotSameAs(loaded);
+        assertThat(loaded.getEmail()).isEqualTo("a@example.com");
+    }
+
+    @Test
+    void resultIsNotCachedAfterCompletion() {
+        when(delegate.findByEmail("a@example.com")).thenReturn(Optional.of(user(1L, "a@example.com")));
+
+        singleFlightDao.findByEmail("a@example.com");
+        singleFlightDao.findByEmail("a@example.com");
+
+        verify(delegate, times(2)).findByEmail("a@example.com");
+        assertThat(singleFlightDao.getCollapsedCount()).isZero();
+        assertThat(singleFlightDao.getInFlightCount()).isZero();
+    }
+
+    @Test
+    void differentKeys_areNotCollapsed() {
+        when(delegate.findById(1L)).thenReturn(Optional.empty());
+        when(delegate.findByEmailIgnoreCase("1")).thenReturn(Optional.empty());
+
+        singleFlightDao.findById(1L);
+        singleFlightDao.findByEmailIgnoreCase("1");
+
+        verify(delegate).findById(1L);
+        verify(delegate).findByEmailIgnoreCase("1");
+        assertThat(singleFlightDao.getExecutedCount()).isEqualTo(2);
+    }
+
+    @Test
+    void failure_isPropagatedToWaitersAndNotRetained() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+        when(delegate.findById(2L)).thenAnswer(invocation -> {
+            release.await(5, TimeUnit.SECONDS);
+            throw new IllegalStateException("db down");
+        });
+
+        Future<Optional<UserEntity>> leader = executor.submit(() -> singleFlightDao.findById(2L));
+        Future<Optional<UserEntity>> follower = executor.submit(() -> singleFlightDao.findById(2L));
+        awaitCollapsed(1);
+        release.countDown();
+
+        assertThatThrownBy(() -> leader.get(5, TimeUnit.SECONDS)).hasCauseInstanceOf(IllegalStateException.class);
+        assertThatThrownBy(() -> follower.get(5, TimeUnit.SECONDS)).hasCauseInstanceOf(IllegalStateException.class);
+        assertThat(singleFlightDao.getInFlightCount()).isZero();
+    }
+
+    private void awaitExecuted(long expected) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (singleFlightDao.getExecutedCount() < expected && System.nanoTime() < deadline) {
+            Thread.sleep(1);
+        }
+        assertThat(singleFlightDao.getExecutedCount()).isEqualTo(expected);
+    }
+
+    private void awaitCollapsed(long expected) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (singleFlightDao.getCollapsedCount() < expected && System.nanoTime() < deadline) {
+            Thread.sleep(1);
+        }
+        assertThat(singleFlightDao.getCollapsedCount()).isEqualTo(expected);
+    }
+
+    private static UserEntity user(Long id, String email) {
+        return new UserEntity(id, "User", email, 30, null);
+    }
+}
@@ -0,0 +1,100 @@
+package unit;
+
+import com.example.partition.UserArchiveMover;
+import com.example.partition.UserPartitionManager;
+import org.hibernate.Session;
+import org.hibernate.SessionFactory;
+import org.hibernate.Transaction;
+import org.hibernate.jdbc.ReturningWork;
+import org.hibernate.query.MutationQuery;
+import org.hibernate.query.NativeQuery;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.postgresql.PGConnection;
+import org.postgresql.copy.CopyManager;
+
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class UserArchiveMoverTest {
+
+    private static final YearMonth MONTH = YearMonth.of(2025, 1);
+
+    @TempDir
+    Path dir;
+
+    private final List<String> statements = new ArrayList<>();
+    private CopyManager copyManager;
+    private UserArchiveMover mover;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        copyManager = mock(CopyManager.class);
+        PGConnection pgConnection = mock(PGConnection.class);
+        when(pgConnection.getCopyAPI()).thenReturn(copyManager);
+        Connection connection = mock(Connection.class);
+        when(connection.unwrap(PGConnection.class)).thenReturn(pgConnection);
+
+        @SuppressWarnings("unchecked")
+        NativeQuery<Long> count = mock(NativeQuery.class);
+        when(count.getSingleResult()).thenReturn(3L);
+
+        Session session = mock(Session.class);
+        when(session.beginTransaction()).thenReturn(mock(Transaction.class));
+        when(session.createNativeMutationQuery(anyString())).thenAnswer(invocation -> {
+            statements.add(invocation.getArgument(0));
+            return mock(MutationQuery.class);
+        });
+        when(session.createNativeQuery(anyString(), eq(Long.class))).thenReturn(count);
+        when(session.doReturningWork(any())).thenAnswer(
+                invocation -> invocation.<ReturningWork<?>>getArgument(0).execute(connection));
+
+        SessionFactory sessionFactory = mock(SessionFactory.class);
+        when(sessionFactory.openSession()).thenReturn(session);
+        mover = new UserArchiveMover(sessionFactory, mock(UserPartitionManager.class));
+    }
+
+    @Test
+    void archiveToFile_publishesFileAfterRowCountMatches() throws Exception {
+        copyOutRows(3);
+
+        assertThat(mover.archiveToFile(MONTH, dir)).isEqualTo(3);
+
+        assertThat(dir.resolve("users_p202501.csv.gz")).exists();
+        assertThat(dir.resolve("users_p202501.csv.gz.tmp")).doesNotExist();
+        assertThat(statements).last().asString().startsWith("DROP TABLE users_p202501");
+    }
+
+    @Test
+    void archiveToFile_rowCountMismatch_leavesNoFileAndReattaches() throws Exception {
+        copyOutRows(2);
+
+        assertThat(mover.archiveToFile(MONTH, dir)).isEqualTo(-1);
+
+        try (var files = Files.list(dir)) {
+            assertThat(files).isEmpty();
+        }
+        assertThat(statements).noneMatch(sql -> sql.startsWith("DROP TABLE"));
+        assertThat(statements).last().asString().startsWith("ALTER TABLE users ATTACH PARTITION users_p202501");
+    }
+
+    private void copyOutRows(long rows) throws Exception {
+        when(copyManager.copyOut(anyString(), any(OutputStream.class))).thenAnswer(invocation -> {
+            invocation.<OutputStream>getArgument(1).write("id,name\n".getBytes());
+            return rows;
+        });
+    }
+}
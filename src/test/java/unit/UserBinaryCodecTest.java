@@ -0,0 +1,141 @@
+package unit;
+
+import com.example.codec.UserBinaryCodec;
+import com.example.dto.UserResponse;
+import com.example.entity.UserEntity;
+import org.junit.jupiter.api.Test;
+
+import java.nio.BufferOverflowException;
+import java.nio.ByteBuffer;
+import java.time.LocalDateTime;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class UserBinaryCodecTest {
+
+    private static final LocalDateTime CREATED_AT = LocalDateTime.of(2024, 5, 1, 12, 30, 15);
+
+    @Test
+    void response_roundTripsAllFields() {
+        UserResponse user = response(7L, "Анна", "anna@example.com", 31);
+
+        UserResponse read = UserBinaryCodec.decodeResponse(ByteBuffer.wrap(UserBinaryCodec.encode(user)));
+
+        assertThat(read.getId()).isEqualTo(7L);
+        assertThat(read.getName()).isEqualTo("Анна");
+        assertThat(read.getEmail()).isEqualTo("anna@example.com");
+        assertThat(read.getAge()).isEqualTo(31);
+        assertThat(read.getCreatedAt()).isEqualTo(CREATED_AT);
+    }
+
+    @Test
+    void response_isCompact() {
+        byte[] encoded = UserBinaryCodec.encode(response(7L, "Anna", "anna@example.com", 31));
+
+        // заголовок 3 байта, ID и возраст по байту, строки с байтом длины, createdAt — 5 байт
+        assertThat(encoded).hasSize(3 + 1 + 5 + 17 + 1 + 5);
+    }
+
+    @Test
+    void entity_roundTripsAllFieldsAndNulls() {
+        UserEntity user = new UserEntity(123_456_789L, "Имя", "Mixed@Example.com", 42, CREATED_AT);
+        user.setEmailNormalized("mixed@example.com");
+        user.setUpdatedAt(LocalDateTime.of(2024, 5, 2, 8, 0, 0, 123_456_000));
+        user.setDeletedAt(LocalDateTime.of(2024, 5, 3, 9, 0, 0, 1_000));
+        UserEntity sparse = new UserEntity(null, null, "x@example.com", null, null);
+
+        ByteBuffer buffer = ByteBuffer.allocateDirect(256);
+        UserBinaryCodec.encode(user, buffer);
+        UserBinaryCodec.encode(sparse, buffer);
+        buffer.flip();
+        UserEntity read = UserBinaryCodec.decodeEntity(buffer);
+        UserEntity readSparse = UserBinaryCodec.decodeEntity(buffer);
+
+        assertThat(buffer.hasRemaining()).isFalse();
+        assertThat(read.getId()).isEqualTo(123_456_789L);
+        assertThat(read.getName()).isEqualTo("Имя");
+        assertThat(read.getEmail()).isEqualTo("Mixed@Example.com");
+        assertThat(read.getEmailNormalized()).isEqualTo("mixed@example.com");
+        assertThat(read.getAge()).isEqualTo(42);
+        assertThat(read.getCreatedAt()).isEqualTo(CREATED_AT);
+        assertThat(read.getUpdatedAt()).isEqualTo(user.getUpdatedAt());
+        assertThat(read.getDeletedAt()).isEqualTo(user.getDeletedAt());
+        assertThat(readSparse.getId()).isNull();
+        assertThat(readSparse.getName()).isNull();
+        assertThat(readSparse.getEmail()).isEqualTo("x@example.com");
+        assertThat(readSparse.getAge()).isNull();
+        assertThat(readSparse.getUpdatedAt()).isNull();
+    }
+
+    @Test
+    void entity_withAllFieldsWritesPresenceMaskAsTwoByteVarint() {
+        UserEntity user = new UserEntity(1L, "A", "a@b.c", 30, CREATED_AT);
+        user.setEmailNormalized("a@b.c");
+        user.setUpdatedAt(CREATED_AT);
+        user.setDeletedAt(CREATED_AT);
+
+        byte[] encoded = UserBinaryCodec.encode(user);
+
+        assertThat(encoded[2]).isEqualTo((byte) 0xFF);
+        assertThat(encoded[3]).isEqualTo((byte) 0x01);
+        assertThat(UserBinaryCodec.decodeEntity(ByteBuffer.wrap(encoded)).getDeletedAt()).isEqualTo(CREATED_AT);
+    }
+
+    @Test
+    void decode_readsVersionOneRecordWithByteMask() {
+        // версия 1, вид «сущность», маска одним байтом: ID и deletedAt
+        ByteBuffer v1 = ByteBuffer.wrap(new byte[]{1, 2, (byte) 0x81, 7, 0});
+
+        UserEntity read = UserBinaryCodec.decodeEntity(v1);
+
+        assertThat(read.getId()).isEqualTo(7L);
+        assertThat(read.getDeletedAt()).isEqualTo(LocalDateTime.of(1970, 1, 1, 0, 0));
+        assertThat(v1.hasRemaining()).isFalse();
+    }
+
+    @Test
+    void decode_rejectsNewerVersionAndWrongKindWithoutMovingPosition() {
+        byte[] encoded = UserBinaryCodec.encode(response(1L, "Anna", "anna@example.com", 31));
+        ByteBuffer wrongKind = ByteBuffer.wrap(encoded);
+
+        assertThatThrownBy(() -> UserBinaryCodec.decodeEntity(wrongKind)).isInstanceOf(IllegalArgumentException.class);
+        assertThat(wrongKind.position()).isZero();
+
+        encoded[0] = UserBinaryCodec.SCHEMA_VERSION + 1;
+        assertThatThrownBy(() -> UserBinaryCodec.decodeResponse(ByteBuffer.wrap(encoded)))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessageContaining("версия");
+    }
+
+    @Test
+    void decode_rejectsTruncatedRecord() {
+        byte[] encoded = UserBinaryCodec.encode(response(1L, "Anna", "anna@example.com", 31));
+        ByteBuffer truncated = ByteBuffer.wrap(encoded, 0, encoded.length - 2);
+
+        assertThatThrownBy(() -> UserBinaryCodec.decodeResponse(truncated)).isInstanceOf(IllegalArgumentException.class);
+        assertThat(truncated.position()).isZero();
+    }
+
+    @Test
+    void encode_rejectsSubSecondCreatedAtAndFullBuffer() {
+        UserResponse precise = response(1L, "Anna", "anna@example.com", 31);
+        precise.setCreatedAt(CREATED_AT.withNano(5_000));
+        ByteBuffer small = ByteBuffer.allocate(4);
+
+        assertThatThrownBy(() -> UserBinaryCodec.encode(precise)).isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> UserBinaryCodec.encode(response(1L, "Anna", "anna@example.com", 31), small))
+                .isInstanceOf(BufferOverflowException.class);
+        assertThat(small.position()).isZero();
+    }
+
+    private static UserResponse response(Long id, String name, String email, Integer age) {
+        UserResponse user = new UserResponse();
+        user.setId(id);
+        user.setName(name);
+        user.setEmail(email);
+        user.setAge(age);
+        user.setCreatedAt(CREATED_AT);
+        return user;
+    }
+}
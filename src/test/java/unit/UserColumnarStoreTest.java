@@ -0,0 +1,96 @@
+package unit;
+
+import com.example.analytics.UserColumnarSnapshot;
+import com.example.analytics.UserColumnarStore;
+import com.example.analytics.UserRowPredicate;
+import com.example.entity.UserEntity;
+import com.example.repository.UserDao;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.anyInt;
+import static org.mockito.Mockito.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class UserColumnarStoreTest {
+
+    private static final LocalDateTime OLD = LocalDateTime.now().minusDays(1).truncatedTo(ChronoUnit.SECONDS);
+    private static final LocalDateTime RECENT = LocalDateTime.now().truncatedTo(ChronoUnit.SECONDS);
+
+    private UserDao userDao;
+    private UserColumnarStore store;
+
+    @BeforeEach
+    void setUp() {
+        userDao = mock(UserDao.class);
+        store = new UserColumnarStore(userDao, 2, Duration.ofMinutes(1));
+    }
+
+    @Test
+    void refresh_loadsAllRowsInBatches() {
+        when(userDao.findAfterId(eq(0L), anyInt())).thenReturn(List.of(
+                user(1L, "Ann", "ann@example.com", 20, OLD),
+                user(2L, "Bob", "bob@example.com", null, OLD)));
+        when(userDao.findAfterId(eq(2L), anyInt())).thenReturn(List.of(
+                user(3L, "Ann", "ann2@example.com", 40, OLD)));
+
+        UserColumnarSnapshot snapshot = store.refresh();
+
+        assertThat(snapshot.size()).isEqualTo(3);
+        assertThat(snapshot.id(2)).isEqualTo(3L);
+        assertThat(snapshot.age(1)).isEqualTo(-1);
+        assertThat(snapshot.name(2)).isEqualTo("Ann");
+        assertThat(snapshot.nameCode(0)).isEqualTo(snapshot.nameCode(2));
+        assertThat(snapshot.email(2)).isEqualTo("ann2@example.com");
+        assertThat(snapshot.createdAt(0)).isEqualTo(OLD);
+    }
+
+    @Test
+    void refresh_rereadsRecentRowsWithoutDuplicates() {
+        when(userDao.findAfterId(eq(0L), anyInt())).thenReturn(List.of(
+                user(1L, "Ann", "ann@example.com", 20, OLD)));
+        store.refresh();
+
+        // Строка 2 закоммичена позже строки 3; строка 3 ещё не «устоялась»
+        when(userDao.findAfterId(eq(1L), anyInt())).thenReturn(List.of(
+                user(3L, "Carl", "carl@example.com", 30, RECENT)));
+        UserColumnarSnapshot first = store.refresh();
+
+        when(userDao.findAfterId(eq(1L), anyInt())).thenReturn(List.of(
+                user(2L, "Bob", "bob@example.com", 25, RECENT),
+                user(3L, "Carl", "carl@example.com", 30, RECENT)));
+        when(userDao.findAfterId(eq(3L), anyInt())).thenReturn(List.of());
+        UserColumnarSnapshot second = store.refresh();
+
+        assertThat(first.size()).isEqualTo(2);
+        assertThat(second.size()).isEqualTo(3);
+        assertThat(second.filterIds((s, row) -> true)).containsExactlyInAnyOrder(1L, 2L, 3L);
+    }
+
+    @Test
+    void scan_filtersByColumnsAndDictionaryCodes() {
+        when(userDao.findAfterId(eq(0L), anyInt())).thenReturn(List.of(
+                user(1L, "Ann", "ann@example.com", 20, OLD),
+                user(2L, "Bob", "bob@example.com", 35, OLD)));
+        when(userDao.findAfterId(eq(2L), anyInt())).thenReturn(List.of(
+                user(3L, "Ann", "ann2@example.com", 40, RECENT)));
+
+        UserColumnarSnapshot snapshot = store.refresh();
+        int annCode = snapshot.findNameCode("Ann");
+
+        assertThat(snapshot.count(UserRowPredicate.ageBetween(30, 50))).isEqualTo(2);
+        assertThat(snapshot.filterIds((s, row) -> s.nameCode(row) == annCode)).containsExactlyInAnyOrder(1L, 3L);
+        assertThat(snapshot.findEmailCode("nobody@example.com")).isEqualTo(-1);
+    }
+
+    private static UserEntity user(Long id, String name, String email, Integer age, LocalDateTime createdAt) {
+        return new UserEntity(id, name, email, age, createdAt);
+    }
+}
@@ -0,0 +1,92 @@
+package unit;
+
+import com.example.entity.UserAgeSummaryEntity;
+import com.example.entity.UserEntity;
+import com.example.entity.UserSignupSummaryEntity;
+import com.example.repository.UserDaoHibernateImpl;
+import org.hibernate.Session;
+import org.hibernate.SessionFactory;
+import org.hibernate.Transaction;
+import org.hibernate.query.MutationQuery;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.RETURNS_SELF;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * Порядок обновления сводных таблиц: от него зависит, могут ли параллельные пакеты заблокировать друг друга.
+ */
+class UserDaoSummaryOrderTest {
+
+    private final List<String> increments = new ArrayList<>();
+    private Session session;
+    private UserDaoHibernateImpl userDao;
+
+    @BeforeEach
+    void setUp() {
+        session = mock(Session.class);
+        when(session.beginTransaction()).thenReturn(mock(Transaction.class));
+        when(session.merge(any(UserEntity.class))).thenAnswer(invocation -> invocation.getArgument(0));
+        when(session.createNamedMutationQuery(anyString())).thenAnswer(invocation -> {
+            String name = invocation.getArgument(0);
+            MutationQuery query = mock(MutationQuery.class, RETURNS_SELF);
+            when(query.setParameter(anyString(), any())).thenAnswer(parameter -> {
+                if (!parameter.getArgument(0).equals("delta")) {
+                    increments.add(name + ":" + parameter.getArgument(1));
+                }
+                return query;
+            });
+            return query;
+        });
+
+        SessionFactory sessionFactory = mock(SessionFactory.class);
+        when(sessionFactory.openSession()).thenReturn(session);
+        userDao = new UserDaoHibernateImpl(sessionFactory, true);
+    }
+
+    @Test
+    void writeBatch_incrementsSummaryRowsInKeyOrder() {
+        LocalDateTime later = LocalDateTime.of(2025, 3, 2, 10, 0);
+        LocalDateTime earlier = LocalDateTime.of(2025, 3, 1, 10, 0);
+        UserEntity older = new UserEntity(1L, "A", "a@example.com", 60, later);
+        UserEntity younger = new UserEntity(2L, "B", "b@example.com", 20, earlier);
+        when(session.get(UserEntity.class, 1L)).thenReturn(new UserEntity(1L, "A", "a@example.com", 50, later));
+        when(session.get(UserEntity.class, 2L)).thenReturn(new UserEntity(2L, "B", "b@example.com", 30, earlier));
+
+        assertThat(userDao.writeBatch(List.of(), List.of(older, younger))).isTrue();
+
+        assertThat(increments).containsExactly(
+                UserAgeSummaryEntity.INCREMENT + ":20",
+                UserAgeSummaryEntity.INCREMENT + ":30",
+                UserAgeSummaryEntity.INCREMENT + ":50",
+                UserAgeSummaryEntity.INCREMENT + ":60");
+    }
+
+    @Test
+    void update_withoutAgeChange_leavesSummaryUntouched() {
+        LocalDateTime createdAt = LocalDateTime.of(2025, 3, 1, 10, 0);
+        when(session.get(UserEntity.class, 1L)).thenReturn(new UserEntity(1L, "Old", "a@example.com", 40, createdAt));
+
+        userDao.update(new UserEntity(1L, "New", "a@example.com", 40, createdAt));
+
+        assertThat(increments).isEmpty();
+    }
+
+    @Test
+    void save_incrementsAgeBeforeSignupDay() {
+        userDao.save(new UserEntity(null, "A", "a@example.com", 25, LocalDateTime.of(2025, 3, 1, 10, 0)));
+
+        assertThat(increments).containsExactly(
+                UserAgeSummaryEntity.INCREMENT + ":25",
+                UserSignupSummaryEntity.INCREMENT + ":2025-03-01");
+    }
+}
@@ -0,0 +1,28 @@
+package unit;
+
+import com.example.partition.UserPartitionManager;
+import org.junit.jupiter.api.Test;
+
+import java.time.YearMonth;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class UserPartitionManagerTest {
+
+    @Test
+    void partitionName_roundTripsThroughMonthOf() {
+        YearMonth month = YearMonth.of(2026, 3);
+
+        String name = UserPartitionManager.partitionName(month);
+
+        assertThat(name).isEqualTo("users_p202603");
+        assertThat(UserPartitionManager.monthOf(name)).contains(month);
+    }
+
+    @Test
+    void monthOf_ignoresOtherTables() {
+        assertThat(UserPartitionManager.monthOf("users_default")).isEmpty();
+        assertThat(UserPartitionManager.monthOf("users_p2026")).isEmpty();
+        assertThat(UserPartitionManager.monthOf(null)).isEmpty();
+    }
+}
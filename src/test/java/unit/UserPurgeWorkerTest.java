@@ -0,0 +1,53 @@
+package unit;
+
+import com.example.repository.UserDaoHibernateImpl;
+import com.example.service.UserPurgeWorker;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class UserPurgeWorkerTest {
+
+    @Test
+    void purge_shouldPaceChunksByRowBudget() {
+        UserDaoHibernateImpl userDao = mock(UserDaoHibernateImpl.class);
+        List<Long> calls = new CopyOnWriteArrayList<>();
+        when(userDao.purgeDeleted(anyInt())).thenAnswer(inv -> {
+            calls.add(System.nanoTime());
+            return calls.size() <= 3 ? 50 : 0;
+        });
+
+        // 50 строк при бюджете 500 строк/с — не чаще одной порции в 100 мс
+        long startedAt = System.nanoTime();
+        try (UserPurgeWorker worker = new UserPurgeWorker(userDao, 50, 500, 60_000)) {
+            verify(userDao, timeout(2_000).times(4)).purgeDeleted(50);
+            assertThat(worker.getPurgedCount()).isEqualTo(150);
+        }
+
+        // Темп отсчитывается от начала порции, а не от момента вызова, поэтому отдельные промежутки
+        // зависят от задержек потока; надёжно только общее время: три порции по 50 строк — не меньше 300 мс
+        assertThat(calls.get(3) - startedAt).isGreaterThanOrEqualTo(TimeUnit.MILLISECONDS.toNanos(290));
+    }
+
+    @Test
+    void purge_shouldIdleWhenNothingToDelete() throws InterruptedException {
+        UserDaoHibernateImpl userDao = mock(UserDaoHibernateImpl.class);
+        when(userDao.purgeDeleted(anyInt())).thenReturn(0);
+
+        try (UserPurgeWorker worker = new UserPurgeWorker(userDao, 100, 1_000, 60_000)) {
+            verify(userDao, timeout(1_000)).purgeDeleted(100);
+            TimeUnit.MILLISECONDS.sleep(200);
+            verify(userDao, timeout(100).times(1)).purgeDeleted(100);
+            assertThat(worker.getPurgedCount()).isZero();
+        }
+    }
+}
@@ -1,9 +1,12 @@
 package unit;
 
+import com.example.dto.AgeBucket;
+import com.example.dto.SignupPeriod;
 import com.example.dto.UserCreateRequest;
 import com.example.dto.UserResponse;
 import com.example.dto.UserUpdateRequest;
 import com.example.entity.UserEntity;
+import com.example.exception.InvalidDataException;
 import com.example.exception.NotFoundException;
 import com.example.repository.UserDao;
 import com.example.service.UserServiceImpl;
@@ -11,6 +14,7 @@ import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.mockito.ArgumentCaptor;
 
+import java.time.LocalDate;
 import java.util.Arrays;
 import java.util.List;
 import java.util.Optional;
@@ -182,7 +186,7 @@ class UserServiceImplTest {
         UserEntity entity = new UserEntity();
         entity.setEmail("exist@example.com");
 
-        when(userDao.findByEmail("exist@example.com")).thenReturn(Optional.of(entity));
+        when(userDao.findByEmailIgnoreCase("exist@example.com")).thenReturn(Optional.of(entity));
 
         boolean result = userService.isEmailExists("exist@example.com");
 
@@ -191,7 +195,7 @@ class UserServiceImplTest {
 
     @Test
     void isEmailExists_shouldReturnFalseIfNotFound() {
-        when(userDao.findByEmail("notfound@example.com")).thenReturn(Optional.empty());
+        when(userDao.findByEmailIgnoreCase("notfound@example.com")).thenReturn(Optional.empty());
 
         boolean result = userService.isEmailExists("notfound@example.com");
 
@@ -213,4 +217,34 @@ class UserServiceImplTest {
         assertThat(result2).isFalse();
     }
 
+    // ================= AGGREGATES =================
+    @Test
+    void countUsers_shouldDelegateToDao() {
+        when(userDao.countUsers()).thenReturn(42L);
+
+        assertThat(userService.countUsers()).isEqualTo(42L);
+    }
+
+    @Test
+    void getAgeDistribution_shouldReturnBucketsFromDao() {
+        when(userDao.getAgeDistribution(10)).thenReturn(List.of(new AgeBucket(20, 29, 3)));
+
+        List<AgeBucket> buckets = userService.getAgeDistribution(10);
+
+        assertThat(buckets).hasSize(1);
+        assertThat(buckets.get(0).getCount()).isEqualTo(3);
+    }
+
+    @Test
+    void getAgeDistribution_invalidBucketSize_shouldThrow() {
+        assertThrows(InvalidDataException.class, () -> userService.getAgeDistribution(0));
+    }
+
+    @Test
+    void getSignupCounts_invalidRange_shouldThrow() {
+        LocalDate today = LocalDate.now();
+
+        assertThrows(InvalidDataException.class,
+                () -> userService.getSignupCounts(SignupPeriod.DAY, today, today));
+    }
 }
@@ -0,0 +1,187 @@
+package unit;
+
+import com.example.dto.UserSearchHit;
+import com.example.entity.UserEntity;
+import com.example.repository.InMemoryUserDao;
+import com.example.search.SearchIndexingUserDao;
+import com.example.search.UserTrigramIndex;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.within;
+
+class UserTrigramIndexTest {
+
+    private InMemoryUserDao source;
+    private UserTrigramIndex index;
+    private SearchIndexingUserDao dao;
+
+    @BeforeEach
+    void setUp() {
+        source = new InMemoryUserDao();
+        index = new UserTrigramIndex();
+        dao = new SearchIndexingUserDao(source, index);
+    }
+
+    @Test
+    void search_ranksExactSubstringAboveFuzzyMatch() {
+        UserEntity exact = user("Александра Петрова", "sasha@example.com");
+        UserEntity fuzzy = user("Александр Петров", "alex@example.com");
+        dao.save(exact);
+        dao.save(fuzzy);
+
+        List<UserSearchHit> hits = index.search("ПЕТРОВА", 10);
+
+        assertThat(hits).extracting(UserSearchHit::getUserId).containsExactly(exact.getId(), fuzzy.getId());
+        assertThat(hits.get(0).getScore()).isGreaterThan(1.0);
+        assertThat(hits.get(1).getScore()).isLessThan(1.0);
+    }
+
+    @Test
+    void search_findsByEmailFragmentAndToleratesTypo() {
+        UserEntity user = user("Иван", "ivan.sidorov@example.com");
+        dao.save(user);
+        dao.save(user("Мария", "maria@example.com"));
+
+        assertThat(index.search("sidorov@", 10)).extracting(UserSearchHit::getUserId).containsExactly(user.getId());
+        assertThat(index.search("sidorv", 10)).extracting(UserSearchHit::getUserId).containsExactly(user.getId());
+    }
+
+    @Test
+    void search_shortQueryMatchesSubstring() {
+        UserEntity user = user("Ян", "yan@example.com");
+        dao.save(user);
+
+        assertThat(index.search("ян", 10)).extracting(UserSearchHit::getUserId).containsExactly(user.getId());
+    }
+
+    @Test
+    void search_respectsLimit() {
+        for (int i = 0; i < 5; i++) {
+            dao.save(user("Пользователь " + i, "user" + i + "@example.com"));
+        }
+
+        assertThat(index.search("пользователь", 3)).hasSize(3);
+    }
+
+    @Test
+    void writes_areReflectedInIndex() {
+        UserEntity user = user("Ольга", "olga@example.com");
+        dao.save(user);
+        user.setName("Светлана");
+        dao.update(user);
+
+        assertThat(index.search("ольга", 10)).extracting(UserSearchHit::getName).doesNotContain("Ольга");
+        assertThat(index.search("светлана", 10)).extracting(UserSearchHit::getUserId).containsExactly(user.getId());
+
+        dao.deleteById(user.getId());
+
+        assertThat(index.search("светлана", 10)).isEmpty();
+        assertThat(index.size()).isZero();
+    }
+
+    @Test
+    void search_countsCommonTrigramsOfCandidatesWithoutScanningThem() {
+        for (int i = 0; i < 200; i++) {
+            dao.save(user("Пользователь " + i, "user" + i + "@example.com"));
+        }
+        UserEntity target = user("Ирина", "irina@example.com");
+        dao.save(target);
+
+        List<UserSearchHit> hits = index.search("irina@example.com", 3);
+
+        assertThat(hits).hasSize(3);
+        assertThat(hits.get(0).getUserId()).isEqualTo(target.getId());
+        assertThat(hits.get(0).getScore()).isEqualTo(2.0);
+        // 10 из 15 триграмм запроса приходятся на общий домен
+        assertThat(hits.get(1).getScore()).isCloseTo(10.0 / 15, within(1e-9));
+        assertThat(hits.get(2).getScore()).isCloseTo(10.0 / 15, within(1e-9));
+    }
+
+    @Test
+    void rebuild_streamsAllUsersFromDao() {
+        for (int i = 0; i < 25; i++) {
+            source.save(user("Сотрудник " + i, "staff" + i + "@example.com"));
+        }
+
+        int indexed = index.rebuild(source, 10);
+
+        assertThat(indexed).isEqualTo(25);
+        List<UserSearchHit> hits = index.search("staff17@", 10);
+        assertThat(hits.get(0).getEmail()).isEqualTo("staff17@example.com");
+        assertThat(hits.get(0).getScore()).isGreaterThan(hits.get(1).getScore());
+        assertThat(index.postingBytes()).isPositive();
+    }
+
+    @Test
+    void rebuild_keepsWritesMadeDuringScan() {
+        UserEntity renamed = user("Борис", "boris@example.com");
+        UserEntity removed = user("Глеб", "gleb@example.com");
+        source.save(renamed);
+        source.save(removed);
+        UserEntity added = user("Денис", "denis@example.com");
+        InMemoryUserDao scanning = new InMemoryUserDao() {
+            @Override
+            public List<UserEntity> findAfterId(Long afterId, int limit) {
+                List<UserEntity> page = source.findAfterId(afterId, limit);
+                if (afterId == 0L) {
+                    // Записи, зафиксированные после того, как страница прочитана
+                    renamed.setName("Вадим");
+                    dao.update(renamed);
+                    dao.deleteById(removed.getId());
+                    dao.save(added);
+                }
+                return page;
+            }
+        };
+
+        int indexed = index.rebuild(scanning, 10);
+
+        assertThat(indexed).isEqualTo(2);
+        assertThat(index.search("вадим", 10)).extracting(UserSearchHit::getUserId).containsExactly(renamed.getId());
+        assertThat(index.search("борис", 10)).isEmpty();
+        assertThat(index.search("глеб", 10)).isEmpty();
+        assertThat(index.search("денис", 10)).extracting(UserSearchHit::getUserId).containsExactly(added.getId());
+    }
+
+    @Test
+    void failedWrites_areNotIndexed() {
+        InMemoryUserDao failing = new InMemoryUserDao() {
+            @Override
+            public boolean writeBatch(List<UserEntity> toSave, List<UserEntity> toUpdate) {
+                return false;
+            }
+        };
+        SearchIndexingUserDao failingDao = new SearchIndexingUserDao(failing, index);
+
+        UserEntity user = new UserEntity(1L, "Фантом", "phantom@example.com", 30, null);
+        failingDao.save(user);
+        failingDao.update(user);
+
+        assertThat(index.size()).isZero();
+    }
+
+    @Test
+    void failedDelete_keepsUserInIndex() {
+        InMemoryUserDao failing = new InMemoryUserDao() {
+            @Override
+            public void deleteById(Long id) {
+                // Ошибка удаления логируется и не доходит до вызывающего
+            }
+        };
+        SearchIndexingUserDao failingDao = new SearchIndexingUserDao(failing, index);
+        UserEntity user = user("Тимур", "timur@example.com");
+        failingDao.save(user);
+
+        failingDao.deleteById(user.getId());
+
+        assertThat(index.search("тимур", 10)).extracting(UserSearchHit::getUserId).containsExactly(user.getId());
+    }
+
+    private static UserEntity user(String name, String email) {
+        return new UserEntity(null, name, email, 30, null);
+    }
+}
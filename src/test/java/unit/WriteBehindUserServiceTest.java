@@ -0,0 +1,183 @@
+package unit;
+
+import com.example.dto.UserCreateRequest;
+import com.example.dto.UserUpdateRequest;
+import com.example.entity.UserEntity;
+import com.example.exception.DuplicateResourceException;
+import com.example.exception.ServiceOverloadedException;
+import com.example.repository.UserDao;
+import com.example.service.WriteBehindUserService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.atLeastOnce;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class WriteBehindUserServiceTest {
+
+    private UserDao userDao;
+    private WriteBehindUserService service;
+
+    @BeforeEach
+    void setUp() {
+        userDao = mock(UserDao.class);
+        when(userDao.writeBatch(anyList(), anyList())).thenReturn(true);
+    }
+
+    @AfterEach
+    void tearDown() {
+        if (service != null) {
+            service.close();
+        }
+    }
+
+    @Test
+    void creates_areCommittedInOneBatch() {
+        service = new WriteBehindUserService(userDao, 100, 3, 10_000, 100);
+
+        CompletableFuture<Void> f1 = service.submitCreate(createRequest("a@example.com"));
+        CompletableFuture<Void> f2 = service.submitCreate(createRequest("b@example.com"));
+        CompletableFuture<Void> f3 = service.submitCreate(createRequest("c@example.com"));
+        CompletableFuture.allOf(f1, f2, f3).orTimeout(5, TimeUnit.SECONDS).join();
+
+        @SuppressWarnings("unchecked")
+        ArgumentCaptor<List<UserEntity>> creates = ArgumentCaptor.forClass(List.class);
+        verify(userDao, times(1)).writeBatch(creates.capture(), anyList());
+        assertThat(creates.getValue()).extracting(UserEntity::getEmail)
+                .containsExactly("a@example.com", "b@example.com", "c@example.com");
+    }
+
+    @Test
+    void updatesOfSameUser_areCoalesced() {
+        service = new WriteBehindUserService(userDao, 100, 100, 10_000, 100);
+        when(userDao.findById(1L)).thenReturn(Optional.of(new UserEntity(1L, "Old", "old@example.com", 20, null)));
+
+        CompletableFuture<Void> first = service.submitUpdate(updateRequest(1L, "First", 21));
+        CompletableFuture<Void> second = service.submitUpdate(updateRequest(1L, "Second", 22));
+        assertThat(service.getPendingCount()).isEqualTo(1);
+
+        service.flush().orTimeout(5, TimeUnit.SECONDS).join();
+
+        @SuppressWarnings("unchecked")
+        ArgumentCaptor<List<UserEntity>> updates = ArgumentCaptor.forClass(List.class);
+        verify(userDao).writeBatch(anyList(), updates.capture());
+        assertThat(updates.getValue()).hasSize(1);
+        assertThat(updates.getValue().get(0).getName()).isEqualTo("Second");
+        assertThat(first).isCompleted();
+        assertThat(second).isCompleted();
+    }
+
+    @Test
+    void failedBatch_isRetriedPerOperation() {
+        service = new WriteBehindUserService(userDao, 100, 2, 10_000, 100);
+        when(userDao.writeBatch(anyList(), anyList())).thenAnswer(invocation -> {
+            List<UserEntity> creates = invocation.getArgument(0);
+            return creates.size() == 1 && !creates.get(0).getEmail().equals("bad@example.com");
+        });
+
+        CompletableFuture<Void> good = service.submitCreate(createRequest("good@example.com"));
+        CompletableFuture<Void> bad = service.submitCreate(createRequest("bad@example.com"));
+
+        assertThat(good.orTimeout(5, TimeUnit.SECONDS)).succeedsWithin(5, TimeUnit.SECONDS);
+        assertThatThrownBy(() -> bad.orTimeout(5, TimeUnit.SECONDS).join())
+                .hasCauseInstanceOf(IllegalStateException.class);
+        verify(userDao, times(3)).writeBatch(anyList(), anyList());
+    }
+
+    @Test
+    void pendingEmail_isRejectedAsDuplicate() {
+        service = new WriteBehindUserService(userDao, 100, 100, 10_000, 100);
+
+        service.submitCreate(createRequest("dup@example.com"));
+
+        assertThatThrownBy(() -> service.submitCreate(createRequest("dup@example.com")))
+                .isInstanceOf(DuplicateResourceException.class);
+    }
+
+    @Test
+    void inFlightEmail_isRejectedAsDuplicate() throws InterruptedException {
+        CountDownLatch writing = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        when(userDao.writeBatch(anyList(), anyList())).thenAnswer(invocation -> {
+            writing.countDown();
+            release.await(5, TimeUnit.SECONDS);
+            return true;
+        });
+        service = new WriteBehindUserService(userDao, 100, 1, 0, 100);
+
+        service.submitCreate(createRequest("dup@example.com"));
+        assertThat(writing.await(5, TimeUnit.SECONDS)).isTrue();
+
+        assertThatThrownBy(() -> service.submitCreate(createRequest("dup@example.com")))
+                .isInstanceOf(DuplicateResourceException.class);
+        release.countDown();
+    }
+
+    @Test
+    void batchException_failsItsFuturesAndKeepsFlushing() {
+        when(userDao.writeBatch(anyList(), anyList()))
+                .thenThrow(new IllegalStateException("connection lost"))
+                .thenReturn(true);
+        service = new WriteBehindUserService(userDao, 100, 1, 0, 100);
+
+        CompletableFuture<Void> failed = service.submitCreate(createRequest("a@example.com"));
+        assertThatThrownBy(() -> failed.orTimeout(5, TimeUnit.SECONDS).join())
+                .hasCauseInstanceOf(IllegalStateException.class)
+                .hasRootCauseMessage("connection lost");
+
+        CompletableFuture<Void> next = service.submitCreate(createRequest("b@example.com"));
+        assertThat(next.orTimeout(5, TimeUnit.SECONDS)).succeedsWithin(5, TimeUnit.SECONDS);
+        assertThat(service.flush()).succeedsWithin(5, TimeUnit.SECONDS);
+    }
+
+    @Test
+    void fullBuffer_rejectsAfterTimeout() throws InterruptedException {
+        CountDownLatch release = new CountDownLatch(1);
+        when(userDao.writeBatch(anyList(), anyList())).thenAnswer(invocation -> {
+            release.await(5, TimeUnit.SECONDS);
+            return true;
+        });
+        service = new WriteBehindUserService(userDao, 1, 1, 0, 50);
+
+        service.submitCreate(createRequest("a@example.com"));
+        // Первая операция может быть уже взята фоновым потоком — вторая займёт буфер
+        Thread.sleep(100);
+        service.submitCreate(createRequest("b@example.com"));
+
+        assertThatThrownBy(() -> service.submitCreate(createRequest("c@example.com")))
+                .isInstanceOf(ServiceOverloadedException.class);
+        release.countDown();
+        verify(userDao, atLeastOnce()).writeBatch(anyList(), anyList());
+    }
+
+    private static UserCreateRequest createRequest(String email) {
+        UserCreateRequest request = new UserCreateRequest();
+        request.setName("User");
+        request.setEmail(email);
+        request.setAge(30);
+        return request;
+    }
+
+    private static UserUpdateRequest updateRequest(Long id, String name, int age) {
+        UserUpdateRequest request = new UserUpdateRequest();
+        request.setId(id);
+        request.setName(name);
+        request.setEmail("user" + id + "@example.com");
+        request.setAge(age);
+        return request;
+    }
+}